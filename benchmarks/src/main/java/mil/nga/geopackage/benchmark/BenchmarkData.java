@@ -0,0 +1,182 @@
+package mil.nga.geopackage.benchmark;
+
+import java.util.Random;
+
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.sf.LineString;
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+
+/**
+ * Synthetic benchmark data generators. Generators use a fixed seed so that
+ * benchmark runs are reproducible.
+ *
+ * @author osbornb
+ */
+public class BenchmarkData {
+
+	/**
+	 * Random seed
+	 */
+	public static final long SEED = 1234567890L;
+
+	/**
+	 * Create a random number generator with the fixed seed
+	 *
+	 * @return random
+	 */
+	public static Random random() {
+		return new Random(SEED);
+	}
+
+	/**
+	 * Create a line string random walk of WGS84 coordinates, similar to a road
+	 * or track
+	 *
+	 * @param random
+	 *            random
+	 * @param points
+	 *            number of points
+	 * @return line string
+	 */
+	public static LineString createLineString(Random random, int points) {
+		LineString lineString = new LineString();
+		double x = -180.0 + random.nextDouble() * 360.0;
+		double y = -80.0 + random.nextDouble() * 160.0;
+		for (int i = 0; i < points; i++) {
+			x = clamp(x + (random.nextDouble() - 0.5) * 0.001, -180.0, 180.0);
+			y = clamp(y + (random.nextDouble() - 0.5) * 0.001, -85.0, 85.0);
+			lineString.addPoint(new Point(x, y));
+		}
+		return lineString;
+	}
+
+	/**
+	 * Create a polygon approximating a circle with a jagged edge, similar to
+	 * a parcel or boundary
+	 *
+	 * @param random
+	 *            random
+	 * @param points
+	 *            number of ring points
+	 * @return polygon
+	 */
+	public static Polygon createPolygon(Random random, int points) {
+		double centerX = -170.0 + random.nextDouble() * 340.0;
+		double centerY = -75.0 + random.nextDouble() * 150.0;
+		double radius = 0.01 + random.nextDouble() * 0.5;
+		LineString ring = new LineString();
+		int sides = Math.max(3, points - 1);
+		for (int i = 0; i < sides; i++) {
+			double angle = 2 * Math.PI * i / sides;
+			double distance = radius * (0.9 + random.nextDouble() * 0.2);
+			ring.addPoint(new Point(centerX + Math.cos(angle) * distance,
+					centerY + Math.sin(angle) * distance));
+		}
+		ring.addPoint(ring.getPoints().get(0));
+		Polygon polygon = new Polygon();
+		polygon.addRing(ring);
+		return polygon;
+	}
+
+	/**
+	 * Create a multi polygon of similarly sized polygons
+	 *
+	 * @param random
+	 *            random
+	 * @param polygons
+	 *            number of polygons
+	 * @param points
+	 *            number of ring points per polygon
+	 * @return multi polygon
+	 */
+	public static MultiPolygon createMultiPolygon(Random random, int polygons,
+			int points) {
+		MultiPolygon multiPolygon = new MultiPolygon();
+		for (int i = 0; i < polygons; i++) {
+			multiPolygon.addPolygon(createPolygon(random, points));
+		}
+		return multiPolygon;
+	}
+
+	/**
+	 * Create a random WGS84 bounding box within web mercator latitude limits
+	 *
+	 * @param random
+	 *            random
+	 * @param maxSize
+	 *            maximum width and height in degrees
+	 * @return bounding box
+	 */
+	public static BoundingBox createBoundingBox(Random random, double maxSize) {
+		double width = random.nextDouble() * maxSize;
+		double height = random.nextDouble() * maxSize;
+		double minX = -180.0 + random.nextDouble() * (360.0 - width);
+		double minY = -85.0 + random.nextDouble() * (170.0 - height);
+		return new BoundingBox(minX, minY, minX + width, minY + height);
+	}
+
+	/**
+	 * Create a grid of coverage data values, similar to an elevation tile
+	 *
+	 * @param random
+	 *            random
+	 * @param size
+	 *            grid width and height
+	 * @return values as [y][x]
+	 */
+	public static Double[][] createCoverageValues(Random random, int size) {
+		Double[][] values = new Double[size][size];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				values[y][x] = 1000.0 * Math.sin(x / 10.0) * Math.cos(y / 10.0)
+						+ random.nextDouble() * 10.0;
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Create hex colors in full, shorthand, and alpha forms
+	 *
+	 * @param random
+	 *            random
+	 * @param count
+	 *            number of colors
+	 * @return hex colors
+	 */
+	public static String[] createHexColors(Random random, int count) {
+		String[] colors = new String[count];
+		for (int i = 0; i < count; i++) {
+			switch (i % 3) {
+			case 0:
+				colors[i] = String.format("#%06X",
+						random.nextInt(0x1000000));
+				break;
+			case 1:
+				colors[i] = String.format("#%03X", random.nextInt(0x1000));
+				break;
+			default:
+				colors[i] = String.format("#%08X", random.nextInt());
+			}
+		}
+		return colors;
+	}
+
+	/**
+	 * Clamp a value to a range
+	 *
+	 * @param value
+	 *            value
+	 * @param min
+	 *            min value
+	 * @param max
+	 *            max value
+	 * @return clamped value
+	 */
+	private static double clamp(double value, double min, double max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+}
@@ -0,0 +1,132 @@
+package mil.nga.geopackage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mil.nga.geopackage.style.Color;
+import mil.nga.geopackage.style.ColorUtils;
+
+/**
+ * Color parsing and conversion benchmarks over batches of hex colors
+ *
+ * @author osbornb
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorUtilsBenchmark {
+
+	/**
+	 * Batch size
+	 */
+	private static final int COUNT = 1000;
+
+	/**
+	 * Hex colors
+	 */
+	private String[] hexColors;
+
+	/**
+	 * Parsed colors
+	 */
+	private Color[] colors;
+
+	/**
+	 * Set up the colors
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		hexColors = BenchmarkData.createHexColors(BenchmarkData.random(),
+				COUNT);
+		colors = new Color[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			colors[i] = new Color(hexColors[i]);
+		}
+	}
+
+	/**
+	 * Parse hex colors
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void parseColor(Blackhole blackhole) {
+		for (String hexColor : hexColors) {
+			blackhole.consume(new Color(hexColor));
+		}
+	}
+
+	/**
+	 * Parse hex color channels
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void toRGB(Blackhole blackhole) {
+		for (String hexColor : hexColors) {
+			String hex = ColorUtils.expandShorthandHex(hexColor);
+			blackhole.consume(ColorUtils.toRGB(ColorUtils.getRed(hex)));
+			blackhole.consume(ColorUtils.toRGB(ColorUtils.getGreen(hex)));
+			blackhole.consume(ColorUtils.toRGB(ColorUtils.getBlue(hex)));
+		}
+	}
+
+	/**
+	 * Format colors as hex
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void toHex(Blackhole blackhole) {
+		for (Color color : colors) {
+			blackhole.consume(color.getColorHexWithAlpha());
+		}
+	}
+
+	/**
+	 * Convert colors to HSL
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void toHSL(Blackhole blackhole) {
+		for (Color color : colors) {
+			blackhole.consume(ColorUtils.toHSL(color.getRed(),
+					color.getGreen(), color.getBlue()));
+		}
+	}
+
+	/**
+	 * Shorthand and expand hex colors
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void shorthandHex(Blackhole blackhole) {
+		for (String hexColor : hexColors) {
+			blackhole.consume(ColorUtils
+					.expandShorthandHex(ColorUtils.shorthandHex(hexColor)));
+		}
+	}
+
+}
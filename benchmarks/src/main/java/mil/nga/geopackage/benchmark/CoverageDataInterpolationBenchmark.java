@@ -0,0 +1,289 @@
+package mil.nga.geopackage.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mil.nga.geopackage.GeoPackageCore;
+import mil.nga.geopackage.extension.coverage.CoverageDataCore;
+import mil.nga.geopackage.extension.coverage.CoverageDataImage;
+import mil.nga.geopackage.extension.coverage.CoverageDataRequest;
+import mil.nga.geopackage.extension.coverage.CoverageDataResults;
+import mil.nga.geopackage.extension.coverage.GriddedCoverage;
+import mil.nga.geopackage.extension.coverage.GriddedCoverageDao;
+import mil.nga.geopackage.extension.coverage.GriddedTile;
+import mil.nga.geopackage.extension.coverage.GriddedTileDao;
+import mil.nga.geopackage.srs.SpatialReferenceSystem;
+import mil.nga.geopackage.tiles.matrixset.TileMatrixSet;
+import mil.nga.sf.proj.ProjectionConstants;
+
+/**
+ * Coverage data bilinear and bicubic interpolation benchmarks over windows of
+ * a synthetic elevation grid
+ *
+ * @author osbornb
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoverageDataInterpolationBenchmark {
+
+	/**
+	 * Coverage data grid width and height
+	 */
+	private static final int GRID_SIZE = 256;
+
+	/**
+	 * Number of interpolated values per invocation
+	 */
+	private static final int COUNT = 1000;
+
+	/**
+	 * Coverage data, only used for interpolation
+	 */
+	private InterpolationCoverageData coverageData;
+
+	/**
+	 * Bilinear 2 x 2 value windows
+	 */
+	private Double[][][] bilinearValues;
+
+	/**
+	 * Bicubic 4 x 4 value windows
+	 */
+	private Double[][][] bicubicValues;
+
+	/**
+	 * X offsets within the windows
+	 */
+	private float[] offsetsX;
+
+	/**
+	 * Y offsets within the windows
+	 */
+	private float[] offsetsY;
+
+	/**
+	 * Set up the coverage data and value windows
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+
+		coverageData = new InterpolationCoverageData();
+
+		Random random = BenchmarkData.random();
+		Double[][] grid = BenchmarkData.createCoverageValues(random,
+				GRID_SIZE);
+
+		bilinearValues = new Double[COUNT][][];
+		bicubicValues = new Double[COUNT][][];
+		offsetsX = new float[COUNT];
+		offsetsY = new float[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			int x = random.nextInt(GRID_SIZE - 4);
+			int y = random.nextInt(GRID_SIZE - 4);
+			bilinearValues[i] = window(grid, x, y, 2);
+			bicubicValues[i] = window(grid, x, y, 4);
+			offsetsX[i] = random.nextFloat();
+			offsetsY[i] = random.nextFloat();
+		}
+	}
+
+	/**
+	 * Bilinear interpolation of values
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void bilinear(Blackhole blackhole) {
+		for (int i = 0; i < COUNT; i++) {
+			blackhole.consume(coverageData.bilinear(offsetsX[i], offsetsY[i],
+					bilinearValues[i]));
+		}
+	}
+
+	/**
+	 * Bicubic interpolation of values
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void bicubic(Blackhole blackhole) {
+		for (int i = 0; i < COUNT; i++) {
+			blackhole.consume(coverageData.bicubic(bicubicValues[i],
+					offsetsX[i], offsetsY[i]));
+		}
+	}
+
+	/**
+	 * Copy a square window of grid values
+	 *
+	 * @param grid
+	 *            grid values
+	 * @param x
+	 *            window min x
+	 * @param y
+	 *            window min y
+	 * @param size
+	 *            window size
+	 * @return window values
+	 */
+	private static Double[][] window(Double[][] grid, int x, int y,
+			int size) {
+		Double[][] window = new Double[size][size];
+		for (int row = 0; row < size; row++) {
+			System.arraycopy(grid[y + row], x, window[row], 0, size);
+		}
+		return window;
+	}
+
+	/**
+	 * Coverage data exposing the protected interpolation methods. The
+	 * GeoPackage is a proxy without a database and the gridded coverage and
+	 * gridded tile DAOs are never created, as interpolation does not read
+	 * GeoPackage state.
+	 */
+	static class InterpolationCoverageData
+			extends CoverageDataCore<CoverageDataImage> {
+
+		/**
+		 * Constructor
+		 */
+		InterpolationCoverageData() {
+			super(geoPackage(), tileMatrixSet());
+		}
+
+		/**
+		 * Create a GeoPackage proxy returning null from all methods
+		 *
+		 * @return GeoPackage
+		 */
+		private static GeoPackageCore geoPackage() {
+			return (GeoPackageCore) Proxy.newProxyInstance(
+					GeoPackageCore.class.getClassLoader(),
+					new Class<?>[] { GeoPackageCore.class },
+					(proxy, method, args) -> null);
+		}
+
+		/**
+		 * Create a WGS84 world tile matrix set
+		 *
+		 * @return tile matrix set
+		 */
+		private static TileMatrixSet tileMatrixSet() {
+			SpatialReferenceSystem srs = new SpatialReferenceSystem();
+			srs.setOrganization(ProjectionConstants.AUTHORITY_EPSG);
+			srs.setOrganizationCoordsysId(
+					ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+			TileMatrixSet tileMatrixSet = new TileMatrixSet();
+			tileMatrixSet.setSrs(srs);
+			tileMatrixSet.setMinX(-180.0);
+			tileMatrixSet.setMinY(-90.0);
+			tileMatrixSet.setMaxX(180.0);
+			tileMatrixSet.setMaxY(90.0);
+			return tileMatrixSet;
+		}
+
+		/**
+		 * Bilinear interpolation of a 2 x 2 value window
+		 *
+		 * @param offsetX
+		 *            x offset
+		 * @param offsetY
+		 *            y offset
+		 * @param values
+		 *            values
+		 * @return interpolated value
+		 */
+		Double bilinear(float offsetX, float offsetY, Double[][] values) {
+			return getBilinearInterpolationValue(offsetX, offsetY, 0.0f, 1.0f,
+					0.0f, 1.0f, values);
+		}
+
+		/**
+		 * Bicubic interpolation of a 4 x 4 value window
+		 *
+		 * @param values
+		 *            values
+		 * @param offsetX
+		 *            x offset
+		 * @param offsetY
+		 *            y offset
+		 * @return interpolated value
+		 */
+		Double bicubic(Double[][] values, float offsetX, float offsetY) {
+			return getBicubicInterpolationValue(values, offsetX, offsetY);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public GriddedCoverageDao getGriddedCoverageDao() {
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public GriddedTileDao getGriddedTileDao() {
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public GriddedCoverage queryGriddedCoverage() {
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Double getValue(GriddedTile griddedTile,
+				CoverageDataImage image, int x, int y) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public CoverageDataResults getValues(CoverageDataRequest request,
+				Integer width, Integer height) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public CoverageDataResults getValuesUnbounded(
+				CoverageDataRequest request) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -0,0 +1,215 @@
+package mil.nga.geopackage.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mil.nga.geopackage.geom.CompactGeometry;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.geom.GeoPackageGeometryEncoder;
+import mil.nga.geopackage.geom.GeometryEnvelopeReader;
+import mil.nga.geopackage.geom.PackedGeometry;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * GeoPackage geometry data encode, decode, and envelope benchmarks
+ *
+ * @author osbornb
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryDataBenchmark {
+
+	/**
+	 * Number of geometry points
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int points;
+
+	/**
+	 * Geometry type
+	 */
+	@Param({ "LINESTRING", "POLYGON" })
+	public String type;
+
+	/**
+	 * Geometry
+	 */
+	private Geometry geometry;
+
+	/**
+	 * Geometry data
+	 */
+	private GeoPackageGeometryData geometryData;
+
+	/**
+	 * GeoPackage geometry bytes with an envelope
+	 */
+	private byte[] bytes;
+
+	/**
+	 * GeoPackage geometry bytes without an envelope
+	 */
+	private byte[] bytesNoEnvelope;
+
+	/**
+	 * Compact GeoPackage geometry bytes
+	 */
+	private byte[] compactBytes;
+
+	/**
+	 * Reusable encoder
+	 */
+	private GeoPackageGeometryEncoder encoder;
+
+	/**
+	 * Reusable envelope values
+	 */
+	private double[] envelope;
+
+	/**
+	 * Set up the geometry and encoded bytes
+	 *
+	 * @throws IOException
+	 *             upon failure
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		Random random = BenchmarkData.random();
+		if (type.equals("POLYGON")) {
+			geometry = BenchmarkData.createPolygon(random, points);
+		} else {
+			geometry = BenchmarkData.createLineString(random, points);
+		}
+		geometryData = GeoPackageGeometryData.createAndBuildEnvelope(4326,
+				geometry);
+		bytes = geometryData.toBytes();
+		bytesNoEnvelope = GeoPackageGeometryData.bytes(4326, geometry);
+		compactBytes = CompactGeometry.toCompact(bytes);
+		encoder = new GeoPackageGeometryEncoder();
+		envelope = new double[8];
+	}
+
+	/**
+	 * Encode a geometry, building the envelope
+	 *
+	 * @return bytes
+	 * @throws IOException
+	 *             upon failure
+	 */
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return GeoPackageGeometryData.bytesAndBuildEnvelope(4326, geometry);
+	}
+
+	/**
+	 * Encode geometry data with the static encoder
+	 *
+	 * @return bytes
+	 */
+	@Benchmark
+	public byte[] encodeStatic() {
+		return GeoPackageGeometryEncoder.toBytes(geometryData);
+	}
+
+	/**
+	 * Encode geometry data with a reusable encoder
+	 *
+	 * @return encoded size
+	 */
+	@Benchmark
+	public int encodeReused() {
+		return encoder.encode(geometryData).remaining();
+	}
+
+	/**
+	 * Decode geometry bytes to a geometry
+	 *
+	 * @return geometry
+	 */
+	@Benchmark
+	public Geometry decode() {
+		return GeoPackageGeometryData.create(bytes).getGeometry();
+	}
+
+	/**
+	 * Decode the header of geometry bytes without reading the geometry
+	 *
+	 * @return envelope
+	 */
+	@Benchmark
+	public GeometryEnvelope decodeLazyEnvelope() {
+		return GeoPackageGeometryData.createLazy(bytes).getEnvelope();
+	}
+
+	/**
+	 * Build the envelope of geometry bytes without a header envelope
+	 *
+	 * @return envelope
+	 */
+	@Benchmark
+	public GeometryEnvelope buildEnvelope() {
+		return GeoPackageGeometryData.create(bytesNoEnvelope)
+				.buildEnvelope();
+	}
+
+	/**
+	 * Read the envelope of geometry bytes without a header envelope into
+	 * reused values
+	 *
+	 * @return true if read
+	 */
+	@Benchmark
+	public boolean readEnvelope() {
+		return GeometryEnvelopeReader.readEnvelope(bytesNoEnvelope, envelope);
+	}
+
+	/**
+	 * Read geometry bytes into packed coordinates
+	 *
+	 * @return packed geometry
+	 */
+	@Benchmark
+	public PackedGeometry readPacked() {
+		return PackedGeometry.read(bytes);
+	}
+
+	/**
+	 * Convert geometry bytes to compact geometry bytes
+	 *
+	 * @return compact bytes
+	 */
+	@Benchmark
+	public byte[] toCompact() {
+		return CompactGeometry.toCompact(bytes);
+	}
+
+	/**
+	 * Read compact geometry bytes into packed coordinates
+	 *
+	 * @return packed geometry
+	 */
+	@Benchmark
+	public PackedGeometry readCompact() {
+		return CompactGeometry.readPacked(compactBytes);
+	}
+
+}
@@ -0,0 +1,359 @@
+package mil.nga.geopackage.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.Result;
+import mil.nga.geopackage.db.ResultUtils;
+import mil.nga.geopackage.db.ResultValueDecoder;
+
+/**
+ * Result value read benchmarks over an in memory result, isolating the
+ * column type and data type conversions from the database driver
+ *
+ * @author osbornb
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultUtilsBenchmark {
+
+	/**
+	 * Number of result rows
+	 */
+	@Param({ "1000" })
+	public int rows;
+
+	/**
+	 * Column data types, matching the column values of the in memory result
+	 */
+	private static final GeoPackageDataType[] DATA_TYPES = new GeoPackageDataType[] {
+			GeoPackageDataType.INTEGER, GeoPackageDataType.BOOLEAN,
+			GeoPackageDataType.DOUBLE, GeoPackageDataType.FLOAT,
+			GeoPackageDataType.TEXT, GeoPackageDataType.DATETIME,
+			GeoPackageDataType.BLOB, GeoPackageDataType.TEXT };
+
+	/**
+	 * In memory result
+	 */
+	private MemoryResult result;
+
+	/**
+	 * Set up the in memory result
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = BenchmarkData.random();
+		Object[][] values = new Object[rows][];
+		for (int i = 0; i < rows; i++) {
+			byte[] blob = new byte[64];
+			random.nextBytes(blob);
+			values[i] = new Object[] { (long) i, random.nextInt(2),
+					random.nextDouble(), random.nextFloat(),
+					"name " + random.nextInt(),
+					String.format("2020-%02d-%02dT%02d:%02d:%02d.%03dZ",
+							1 + random.nextInt(12), 1 + random.nextInt(28),
+							random.nextInt(24), random.nextInt(60),
+							random.nextInt(60), random.nextInt(1000)),
+					blob, null };
+		}
+		result = new MemoryResult(values);
+	}
+
+	/**
+	 * Read all result values with data types
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getValues(Blackhole blackhole) {
+		result.moveToPosition(-1);
+		while (result.moveToNext()) {
+			for (int i = 0; i < DATA_TYPES.length; i++) {
+				blackhole.consume(
+						ResultUtils.getValue(result, i, DATA_TYPES[i]));
+			}
+		}
+	}
+
+	/**
+	 * Read all result values with decoders compiled from the data types and
+	 * the first row
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getDecodedValues(Blackhole blackhole) {
+		result.moveToPosition(-1);
+		ResultValueDecoder[] decoders = null;
+		while (result.moveToNext()) {
+			if (decoders == null) {
+				decoders = ResultUtils.getDecoders(result, DATA_TYPES);
+			}
+			for (int i = 0; i < decoders.length; i++) {
+				blackhole.consume(
+						decoders[i].decode(result, i, result.getType(i)));
+			}
+		}
+	}
+
+	/**
+	 * Read all result values without data types
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getValuesUntyped(Blackhole blackhole) {
+		result.moveToPosition(-1);
+		while (result.moveToNext()) {
+			for (int i = 0; i < DATA_TYPES.length; i++) {
+				blackhole.consume(ResultUtils.getValue(result, i));
+			}
+		}
+	}
+
+	/**
+	 * Read all date time result values
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getDateValues(Blackhole blackhole) {
+		result.moveToPosition(-1);
+		while (result.moveToNext()) {
+			blackhole.consume(ResultUtils.getValue(result, 5,
+					GeoPackageDataType.DATETIME));
+		}
+	}
+
+	/**
+	 * In memory result of row values
+	 */
+	private static class MemoryResult implements Result {
+
+		/**
+		 * Row values
+		 */
+		private final Object[][] values;
+
+		/**
+		 * Current position
+		 */
+		private int position = -1;
+
+		/**
+		 * Last read value was null
+		 */
+		private boolean wasNull = false;
+
+		/**
+		 * Constructor
+		 *
+		 * @param values
+		 *            row values
+		 */
+		MemoryResult(Object[][] values) {
+			this.values = values;
+		}
+
+		/**
+		 * Get the current row value, tracking nulls
+		 *
+		 * @param columnIndex
+		 *            column index
+		 * @return value
+		 */
+		private Object value(int columnIndex) {
+			Object value = values[position][columnIndex];
+			wasNull = value == null;
+			return value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Object getValue(int index) {
+			return ResultUtils.getValue(this, index);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Object getValue(int index, GeoPackageDataType dataType) {
+			return ResultUtils.getValue(this, index, dataType);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean moveToNext() {
+			return ++position < values.length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getPosition() {
+			return position;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean moveToFirst() {
+			return moveToPosition(0);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean moveToPosition(int position) {
+			this.position = position;
+			return position >= 0 && position < values.length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getColumnCount() {
+			return DATA_TYPES.length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getType(int columnIndex) {
+			Object value = values[position][columnIndex];
+			int type;
+			if (value == null) {
+				type = ResultUtils.FIELD_TYPE_NULL;
+			} else if (value instanceof Long || value instanceof Integer) {
+				type = ResultUtils.FIELD_TYPE_INTEGER;
+			} else if (value instanceof Double || value instanceof Float) {
+				type = ResultUtils.FIELD_TYPE_FLOAT;
+			} else if (value instanceof byte[]) {
+				type = ResultUtils.FIELD_TYPE_BLOB;
+			} else {
+				type = ResultUtils.FIELD_TYPE_STRING;
+			}
+			return type;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getColumnIndex(String columnName) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String getString(int columnIndex) {
+			Object value = value(columnIndex);
+			return value != null ? value.toString() : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getLong(int columnIndex) {
+			Object value = value(columnIndex);
+			return value != null ? ((Number) value).longValue() : 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int getInt(int columnIndex) {
+			Object value = value(columnIndex);
+			return value != null ? ((Number) value).intValue() : 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public short getShort(int columnIndex) {
+			Object value = value(columnIndex);
+			return value != null ? ((Number) value).shortValue() : 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public double getDouble(int columnIndex) {
+			Object value = value(columnIndex);
+			return value != null ? ((Number) value).doubleValue() : 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public float getFloat(int columnIndex) {
+			Object value = value(columnIndex);
+			return value != null ? ((Number) value).floatValue() : 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public byte[] getBlob(int columnIndex) {
+			return (byte[]) value(columnIndex);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean wasNull() {
+			return wasNull;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
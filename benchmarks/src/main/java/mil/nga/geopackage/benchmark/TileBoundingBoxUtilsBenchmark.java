@@ -0,0 +1,180 @@
+package mil.nga.geopackage.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
+import mil.nga.geopackage.tiles.TileGrid;
+
+/**
+ * Tile bounding box math benchmarks over batches of random bounding boxes
+ * and tiles
+ *
+ * @author osbornb
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileBoundingBoxUtilsBenchmark {
+
+	/**
+	 * Batch size
+	 */
+	private static final int COUNT = 1000;
+
+	/**
+	 * WGS84 bounding boxes
+	 */
+	private BoundingBox[] boundingBoxes;
+
+	/**
+	 * Web mercator bounding boxes
+	 */
+	private BoundingBox[] webMercatorBoundingBoxes;
+
+	/**
+	 * Tile x, y, and zoom values
+	 */
+	private int[][] tiles;
+
+	/**
+	 * Total bounding box of a tile matrix set
+	 */
+	private BoundingBox totalBoundingBox;
+
+	/**
+	 * Set up the bounding boxes and tiles
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = BenchmarkData.random();
+		boundingBoxes = new BoundingBox[COUNT];
+		webMercatorBoundingBoxes = new BoundingBox[COUNT];
+		tiles = new int[COUNT][];
+		for (int i = 0; i < COUNT; i++) {
+			boundingBoxes[i] = BenchmarkData.createBoundingBox(random, 10.0);
+			webMercatorBoundingBoxes[i] = TileBoundingBoxUtils
+					.toWebMercator(boundingBoxes[i]);
+			int zoom = random.nextInt(20);
+			int tilesPerSide = TileBoundingBoxUtils.tilesPerSide(zoom);
+			tiles[i] = new int[] { random.nextInt(tilesPerSide),
+					random.nextInt(tilesPerSide), zoom };
+		}
+		totalBoundingBox = new BoundingBox(-180.0, -90.0, 180.0, 90.0);
+	}
+
+	/**
+	 * Get web mercator tile bounding boxes
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getWebMercatorBoundingBox(Blackhole blackhole) {
+		for (int[] tile : tiles) {
+			blackhole.consume(TileBoundingBoxUtils
+					.getWebMercatorBoundingBox(tile[0], tile[1], tile[2]));
+		}
+	}
+
+	/**
+	 * Get web mercator tile grids
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getTileGrid(Blackhole blackhole) {
+		for (int i = 0; i < COUNT; i++) {
+			blackhole.consume(TileBoundingBoxUtils
+					.getTileGrid(webMercatorBoundingBoxes[i], tiles[i][2]));
+		}
+	}
+
+	/**
+	 * Get tile matrix tile grids
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getTileGridMatrix(Blackhole blackhole) {
+		for (BoundingBox boundingBox : boundingBoxes) {
+			blackhole.consume(TileBoundingBoxUtils.getTileGrid(
+					totalBoundingBox, 1024, 512, boundingBox));
+		}
+	}
+
+	/**
+	 * Get WGS84 tile grids
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getTileGridWGS84(Blackhole blackhole) {
+		for (int i = 0; i < COUNT; i++) {
+			blackhole.consume(TileBoundingBoxUtils
+					.getTileGridWGS84(boundingBoxes[i], tiles[i][2]));
+		}
+	}
+
+	/**
+	 * Get WGS84 tile grid bounding boxes
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getWGS84BoundingBox(Blackhole blackhole) {
+		for (int[] tile : tiles) {
+			blackhole.consume(TileBoundingBoxUtils.getWGS84BoundingBox(
+					new TileGrid(tile[0], tile[1], tile[0], tile[1]),
+					tile[2]));
+		}
+	}
+
+	/**
+	 * Get web mercator zoom levels
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void getZoomLevel(Blackhole blackhole) {
+		for (BoundingBox boundingBox : webMercatorBoundingBoxes) {
+			blackhole.consume(TileBoundingBoxUtils.getZoomLevel(boundingBox));
+		}
+	}
+
+	/**
+	 * Convert WGS84 bounding boxes to web mercator
+	 *
+	 * @param blackhole
+	 *            blackhole
+	 */
+	@Benchmark
+	public void toWebMercator(Blackhole blackhole) {
+		for (BoundingBox boundingBox : boundingBoxes) {
+			blackhole.consume(TileBoundingBoxUtils.toWebMercator(boundingBox));
+		}
+	}
+
+}
@@ -0,0 +1,403 @@
+package mil.nga.geopackage.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Aggregate query builder computing multiple aggregate functions over table
+ * columns in a single scan, optionally grouped by columns
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class AggregateQuery {
+
+	/**
+	 * Aggregate functions
+	 */
+	public enum Function {
+
+		/**
+		 * Count of rows or non null column values
+		 */
+		COUNT("COUNT", false),
+
+		/**
+		 * Count of distinct non null column values
+		 */
+		COUNT_DISTINCT("COUNT", true),
+
+		/**
+		 * Min column value
+		 */
+		MIN("MIN", false),
+
+		/**
+		 * Max column value
+		 */
+		MAX("MAX", false),
+
+		/**
+		 * Sum of column values
+		 */
+		SUM("SUM", false),
+
+		/**
+		 * Average of column values
+		 */
+		AVG("AVG", false);
+
+		/**
+		 * SQL function name
+		 */
+		private final String sqlFunction;
+
+		/**
+		 * Distinct column values flag
+		 */
+		private final boolean distinct;
+
+		/**
+		 * Constructor
+		 *
+		 * @param sqlFunction
+		 *            SQL function name
+		 * @param distinct
+		 *            distinct column values flag
+		 */
+		private Function(String sqlFunction, boolean distinct) {
+			this.sqlFunction = sqlFunction;
+			this.distinct = distinct;
+		}
+
+		/**
+		 * Get the SQL function name
+		 *
+		 * @return SQL function name
+		 */
+		public String getSqlFunction() {
+			return sqlFunction;
+		}
+
+		/**
+		 * Is the function over distinct column values
+		 *
+		 * @return true if distinct
+		 */
+		public boolean isDistinct() {
+			return distinct;
+		}
+
+	}
+
+	/**
+	 * Connection
+	 */
+	private final GeoPackageCoreConnection connection;
+
+	/**
+	 * Table name
+	 */
+	private final String table;
+
+	/**
+	 * Aggregate functions
+	 */
+	private final List<Function> functions = new ArrayList<>();
+
+	/**
+	 * Aggregate columns, null entries for all rows
+	 */
+	private final List<String> columns = new ArrayList<>();
+
+	/**
+	 * Aggregate labels
+	 */
+	private final List<String> labels = new ArrayList<>();
+
+	/**
+	 * Group by columns
+	 */
+	private final List<String> groupBy = new ArrayList<>();
+
+	/**
+	 * Where clause
+	 */
+	private String where;
+
+	/**
+	 * Where arguments
+	 */
+	private String[] whereArgs;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table name
+	 */
+	public AggregateQuery(GeoPackageCoreConnection connection, String table) {
+		this.connection = connection;
+		this.table = table;
+	}
+
+	/**
+	 * Get the table name
+	 *
+	 * @return table name
+	 */
+	public String getTable() {
+		return table;
+	}
+
+	/**
+	 * Add a count of all rows, labeled "count"
+	 *
+	 * @return aggregate query
+	 */
+	public AggregateQuery count() {
+		return aggregate(Function.COUNT, null);
+	}
+
+	/**
+	 * Add a count of non null column values, labeled "count_column"
+	 *
+	 * @param column
+	 *            column name
+	 * @return aggregate query
+	 */
+	public AggregateQuery count(String column) {
+		return aggregate(Function.COUNT, column);
+	}
+
+	/**
+	 * Add a count of distinct non null column values, labeled
+	 * "count_distinct_column"
+	 *
+	 * @param column
+	 *            column name
+	 * @return aggregate query
+	 */
+	public AggregateQuery countDistinct(String column) {
+		return aggregate(Function.COUNT_DISTINCT, column);
+	}
+
+	/**
+	 * Add a min of column values, labeled "min_column"
+	 *
+	 * @param column
+	 *            column name
+	 * @return aggregate query
+	 */
+	public AggregateQuery min(String column) {
+		return aggregate(Function.MIN, column);
+	}
+
+	/**
+	 * Add a max of column values, labeled "max_column"
+	 *
+	 * @param column
+	 *            column name
+	 * @return aggregate query
+	 */
+	public AggregateQuery max(String column) {
+		return aggregate(Function.MAX, column);
+	}
+
+	/**
+	 * Add a sum of column values, labeled "sum_column"
+	 *
+	 * @param column
+	 *            column name
+	 * @return aggregate query
+	 */
+	public AggregateQuery sum(String column) {
+		return aggregate(Function.SUM, column);
+	}
+
+	/**
+	 * Add an average of column values, labeled "avg_column"
+	 *
+	 * @param column
+	 *            column name
+	 * @return aggregate query
+	 */
+	public AggregateQuery avg(String column) {
+		return aggregate(Function.AVG, column);
+	}
+
+	/**
+	 * Add an aggregate function, labeled by the lower case function name and
+	 * column
+	 *
+	 * @param function
+	 *            aggregate function
+	 * @param column
+	 *            column name, null for all rows
+	 * @return aggregate query
+	 */
+	public AggregateQuery aggregate(Function function, String column) {
+		String label = function.name().toLowerCase(Locale.US);
+		if (column != null) {
+			label += "_" + column;
+		}
+		return aggregate(function, column, label);
+	}
+
+	/**
+	 * Add an aggregate function
+	 *
+	 * @param function
+	 *            aggregate function
+	 * @param column
+	 *            column name, null for all rows
+	 * @param label
+	 *            unique aggregate label
+	 * @return aggregate query
+	 */
+	public AggregateQuery aggregate(Function function, String column,
+			String label) {
+		if (column == null && function != Function.COUNT) {
+			throw new GeoPackageException(
+					"Aggregate function requires a column. Function: "
+							+ function + ", Table: " + table);
+		}
+		if (labels.contains(label)) {
+			throw new GeoPackageException("Duplicate aggregate label: "
+					+ label + ", Table: " + table);
+		}
+		functions.add(function);
+		columns.add(column);
+		labels.add(label);
+		return this;
+	}
+
+	/**
+	 * Set the where clause, only reading the table when the connection result
+	 * cache is enabled
+	 *
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return aggregate query
+	 */
+	public AggregateQuery where(String where, String[] whereArgs) {
+		this.where = where;
+		this.whereArgs = whereArgs;
+		return this;
+	}
+
+	/**
+	 * Add group by columns, with groups ordered by the columns
+	 *
+	 * @param columns
+	 *            group by column names
+	 * @return aggregate query
+	 */
+	public AggregateQuery groupBy(String... columns) {
+		Collections.addAll(groupBy, columns);
+		return this;
+	}
+
+	/**
+	 * Get the aggregate labels
+	 *
+	 * @return labels
+	 */
+	public List<String> getLabels() {
+		return Collections.unmodifiableList(labels);
+	}
+
+	/**
+	 * Get the group by columns
+	 *
+	 * @return group by column names
+	 */
+	public List<String> getGroupBy() {
+		return Collections.unmodifiableList(groupBy);
+	}
+
+	/**
+	 * Build the aggregate SQL, selecting the group by columns followed by
+	 * the aggregates
+	 *
+	 * @return SQL
+	 */
+	public String buildSql() {
+
+		if (functions.isEmpty()) {
+			throw new GeoPackageException(
+					"No aggregate functions. Table: " + table);
+		}
+
+		String groupColumns = String.join(", ", quoteWrap(groupBy));
+
+		StringBuilder sql = new StringBuilder("SELECT ");
+		sql.append(groupColumns);
+		for (int i = 0; i < functions.size(); i++) {
+			if (i > 0 || !groupBy.isEmpty()) {
+				sql.append(", ");
+			}
+			Function function = functions.get(i);
+			String column = columns.get(i);
+			sql.append(function.getSqlFunction()).append("(");
+			if (column != null) {
+				if (function.isDistinct()) {
+					sql.append("DISTINCT ");
+				}
+				sql.append(CoreSQLUtils.quoteWrap(column));
+			} else {
+				sql.append("*");
+			}
+			sql.append(")");
+		}
+		sql.append(" FROM ").append(CoreSQLUtils.quoteWrap(table));
+		if (where != null) {
+			sql.append(" WHERE ").append(where);
+		}
+		if (!groupBy.isEmpty()) {
+			sql.append(" GROUP BY ").append(groupColumns);
+			sql.append(" ORDER BY ").append(groupColumns);
+		}
+
+		return sql.toString();
+	}
+
+	/**
+	 * Execute the aggregate query in a single scan
+	 *
+	 * @return aggregate results with a single group when not grouped
+	 */
+	public AggregateResults execute() {
+		String sql = buildSql();
+		long start = connection.metricsStart();
+		List<List<Object>> results = connection.cachedResult(table, sql,
+				whereArgs, () -> connection.queryResults(sql, whereArgs));
+		connection.recordQuery(start, table, sql);
+		connection.recordRows(table, sql, results.size(), 0);
+		return new AggregateResults(groupBy, labels, results);
+	}
+
+	/**
+	 * Quote wrap the column names
+	 *
+	 * @param columns
+	 *            column names
+	 * @return quoted column names
+	 */
+	private static List<String> quoteWrap(List<String> columns) {
+		List<String> quoted = new ArrayList<>(columns.size());
+		for (String column : columns) {
+			quoted.add(CoreSQLUtils.quoteWrap(column));
+		}
+		return quoted;
+	}
+
+}
@@ -0,0 +1,352 @@
+package mil.nga.geopackage.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Aggregate query results by group, with aggregate values stored in
+ * primitive arrays per aggregate. Results of an ungrouped query have a single
+ * group.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class AggregateResults {
+
+	/**
+	 * Group by columns
+	 */
+	private final List<String> groupBy;
+
+	/**
+	 * Aggregate labels
+	 */
+	private final List<String> labels;
+
+	/**
+	 * Group values by group and group by column
+	 */
+	private final Object[][] groups;
+
+	/**
+	 * Integer values by aggregate and group
+	 */
+	private final long[][] longs;
+
+	/**
+	 * Floating point values by aggregate and group
+	 */
+	private final double[][] doubles;
+
+	/**
+	 * Non numeric values by aggregate and group, null entries when numeric
+	 */
+	private final Object[][] values;
+
+	/**
+	 * Null value flags by aggregate and group
+	 */
+	private final boolean[][] nulls;
+
+	/**
+	 * Floating point value flags by aggregate and group
+	 */
+	private final boolean[][] floatingPoints;
+
+	/**
+	 * Constructor
+	 *
+	 * @param groupBy
+	 *            group by columns
+	 * @param labels
+	 *            aggregate labels
+	 * @param results
+	 *            result rows of group by column values followed by aggregate
+	 *            values
+	 */
+	public AggregateResults(List<String> groupBy, List<String> labels,
+			List<List<Object>> results) {
+
+		this.groupBy = Collections.unmodifiableList(new ArrayList<>(groupBy));
+		this.labels = Collections.unmodifiableList(new ArrayList<>(labels));
+
+		int groupCount = results.size();
+		int groupColumns = groupBy.size();
+		int aggregates = labels.size();
+
+		groups = new Object[groupCount][groupColumns];
+		longs = new long[aggregates][groupCount];
+		doubles = new double[aggregates][groupCount];
+		values = new Object[aggregates][];
+		nulls = new boolean[aggregates][groupCount];
+		floatingPoints = new boolean[aggregates][groupCount];
+
+		for (int group = 0; group < groupCount; group++) {
+			List<Object> row = results.get(group);
+			for (int column = 0; column < groupColumns; column++) {
+				groups[group][column] = row.get(column);
+			}
+			for (int aggregate = 0; aggregate < aggregates; aggregate++) {
+				Object value = row.get(groupColumns + aggregate);
+				if (value == null) {
+					nulls[aggregate][group] = true;
+				} else if (value instanceof Number) {
+					Number number = (Number) value;
+					if (value instanceof Double || value instanceof Float) {
+						doubles[aggregate][group] = number.doubleValue();
+						longs[aggregate][group] = number.longValue();
+						floatingPoints[aggregate][group] = true;
+					} else {
+						longs[aggregate][group] = number.longValue();
+						doubles[aggregate][group] = number.longValue();
+					}
+				} else {
+					if (values[aggregate] == null) {
+						values[aggregate] = new Object[groupCount];
+					}
+					values[aggregate][group] = value;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the group by columns
+	 *
+	 * @return group by column names
+	 */
+	public List<String> getGroupBy() {
+		return groupBy;
+	}
+
+	/**
+	 * Get the aggregate labels
+	 *
+	 * @return labels
+	 */
+	public List<String> getLabels() {
+		return labels;
+	}
+
+	/**
+	 * Get the number of groups
+	 *
+	 * @return group count
+	 */
+	public int getGroupCount() {
+		return groups.length;
+	}
+
+	/**
+	 * Get the number of aggregates
+	 *
+	 * @return aggregate count
+	 */
+	public int getAggregateCount() {
+		return labels.size();
+	}
+
+	/**
+	 * Get the aggregate index of the label
+	 *
+	 * @param label
+	 *            aggregate label
+	 * @return aggregate index
+	 */
+	public int getAggregateIndex(String label) {
+		int index = labels.indexOf(label);
+		if (index < 0) {
+			throw new GeoPackageException(
+					"No aggregate with label: " + label + ", Labels: "
+							+ labels);
+		}
+		return index;
+	}
+
+	/**
+	 * Get the group by column value of the group
+	 *
+	 * @param group
+	 *            group index
+	 * @param column
+	 *            group by column index
+	 * @return group value
+	 */
+	public Object getGroupValue(int group, int column) {
+		return groups[group][column];
+	}
+
+	/**
+	 * Get the group by column value of the group
+	 *
+	 * @param group
+	 *            group index
+	 * @param column
+	 *            group by column name
+	 * @return group value
+	 */
+	public Object getGroupValue(int group, String column) {
+		int index = groupBy.indexOf(column);
+		if (index < 0) {
+			throw new GeoPackageException("Not a group by column: " + column
+					+ ", Group By: " + groupBy);
+		}
+		return getGroupValue(group, index);
+	}
+
+	/**
+	 * Determine if the aggregate value of the group is null, such as the min
+	 * of no values
+	 *
+	 * @param group
+	 *            group index
+	 * @param aggregate
+	 *            aggregate index
+	 * @return true if null
+	 */
+	public boolean isNull(int group, int aggregate) {
+		return nulls[aggregate][group];
+	}
+
+	/**
+	 * Get the aggregate value of the group as a long, 0 when null or non
+	 * numeric
+	 *
+	 * @param group
+	 *            group index
+	 * @param aggregate
+	 *            aggregate index
+	 * @return long value
+	 */
+	public long getLong(int group, int aggregate) {
+		return longs[aggregate][group];
+	}
+
+	/**
+	 * Get the aggregate value of the group as a long, 0 when null or non
+	 * numeric
+	 *
+	 * @param group
+	 *            group index
+	 * @param label
+	 *            aggregate label
+	 * @return long value
+	 */
+	public long getLong(int group, String label) {
+		return getLong(group, getAggregateIndex(label));
+	}
+
+	/**
+	 * Get the aggregate value of the group as a double, 0 when null or non
+	 * numeric
+	 *
+	 * @param group
+	 *            group index
+	 * @param aggregate
+	 *            aggregate index
+	 * @return double value
+	 */
+	public double getDouble(int group, int aggregate) {
+		return doubles[aggregate][group];
+	}
+
+	/**
+	 * Get the aggregate value of the group as a double, 0 when null or non
+	 * numeric
+	 *
+	 * @param group
+	 *            group index
+	 * @param label
+	 *            aggregate label
+	 * @return double value
+	 */
+	public double getDouble(int group, String label) {
+		return getDouble(group, getAggregateIndex(label));
+	}
+
+	/**
+	 * Get the aggregate value of the group, such as a text min or max
+	 *
+	 * @param group
+	 *            group index
+	 * @param aggregate
+	 *            aggregate index
+	 * @return value, a Long or Double when numeric, or null
+	 */
+	public Object getValue(int group, int aggregate) {
+		Object value = null;
+		if (!nulls[aggregate][group]) {
+			if (values[aggregate] != null
+					&& values[aggregate][group] != null) {
+				value = values[aggregate][group];
+			} else if (floatingPoints[aggregate][group]) {
+				value = doubles[aggregate][group];
+			} else {
+				value = longs[aggregate][group];
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Get the aggregate value of the group, such as a text min or max
+	 *
+	 * @param group
+	 *            group index
+	 * @param label
+	 *            aggregate label
+	 * @return value, a Long or Double when numeric, or null
+	 */
+	public Object getValue(int group, String label) {
+		return getValue(group, getAggregateIndex(label));
+	}
+
+	/**
+	 * Get the integer values of the aggregate across all groups
+	 *
+	 * @param aggregate
+	 *            aggregate index
+	 * @return long values by group
+	 */
+	public long[] getLongs(int aggregate) {
+		return longs[aggregate].clone();
+	}
+
+	/**
+	 * Get the floating point values of the aggregate across all groups
+	 *
+	 * @param aggregate
+	 *            aggregate index
+	 * @return double values by group
+	 */
+	public double[] getDoubles(int aggregate) {
+		return doubles[aggregate].clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder string = new StringBuilder();
+		for (int group = 0; group < getGroupCount(); group++) {
+			for (int column = 0; column < groupBy.size(); column++) {
+				string.append(groupBy.get(column)).append("=")
+						.append(groups[group][column]).append(", ");
+			}
+			for (int aggregate = 0; aggregate < labels.size(); aggregate++) {
+				if (aggregate > 0) {
+					string.append(", ");
+				}
+				string.append(labels.get(aggregate)).append("=")
+						.append(getValue(group, aggregate));
+			}
+			string.append("\n");
+		}
+		return string.toString();
+	}
+
+}
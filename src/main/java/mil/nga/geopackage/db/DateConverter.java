@@ -10,7 +10,10 @@ import java.util.TimeZone;
 import mil.nga.geopackage.GeoPackageException;
 
 /**
- * Date converter between database date formats and date objects
+ * Date converter between database date formats and date objects. The
+ * GeoPackage DATE and DATETIME converters are shared immutable instances,
+ * parsing and formatting the standard formats without date format objects and
+ * falling back to lenient date format parsing for non standard values.
  * 
  * @author osbornb
  * @since 1.3.0
@@ -72,6 +75,48 @@ public class DateConverter {
 	 */
 	public static final String FUNCTION_STRFTIME = "strftime";
 
+	/**
+	 * Milliseconds per day
+	 */
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	/**
+	 * Epoch milliseconds of the first supported fast path date, 1600-01-01
+	 */
+	private static final long MIN_FAST_MILLIS = -11676096000000L;
+
+	/**
+	 * Epoch milliseconds after the last supported fast path date, 10000-01-01
+	 */
+	private static final long MAX_FAST_MILLIS = 253402300800000L;
+
+	/**
+	 * No fast path format
+	 */
+	private static final int FAST_NONE = 0;
+
+	/**
+	 * Fast path date format
+	 */
+	private static final int FAST_DATE = 1;
+
+	/**
+	 * Fast path date time format
+	 */
+	private static final int FAST_DATETIME = 2;
+
+	/**
+	 * Shared date converter
+	 */
+	private static final DateConverter DATE_CONVERTER = new DateConverter(
+			FAST_DATE, DATE_FORMAT, DATE_FORMAT2);
+
+	/**
+	 * Shared date time converter
+	 */
+	private static final DateConverter DATETIME_CONVERTER = new DateConverter(
+			FAST_DATETIME, DATETIME_FORMAT, DATETIME_FORMAT2);
+
 	/**
 	 * Get a date converter for the data type
 	 * 
@@ -98,21 +143,21 @@ public class DateConverter {
 	}
 
 	/**
-	 * Get a date converter
+	 * Get the shared date converter
 	 * 
 	 * @return date converter
 	 */
 	public static DateConverter dateConverter() {
-		return new DateConverter(DATE_FORMAT, DATE_FORMAT2);
+		return DATE_CONVERTER;
 	}
 
 	/**
-	 * Get a date time converter
+	 * Get the shared date time converter
 	 * 
 	 * @return date converter
 	 */
 	public static DateConverter dateTimeConverter() {
-		return new DateConverter(DATETIME_FORMAT, DATETIME_FORMAT2);
+		return DATETIME_CONVERTER;
 	}
 
 	/**
@@ -123,10 +168,15 @@ public class DateConverter {
 	 * @return date converter
 	 */
 	public static DateConverter dateConverter(String... formats) {
-		return new DateConverter(formats);
+		return new DateConverter(FAST_NONE, formats);
 
 	}
 
+	/**
+	 * Fast path format
+	 */
+	private final int fast;
+
 	/**
 	 * Simple date formatters
 	 */
@@ -135,10 +185,13 @@ public class DateConverter {
 	/**
 	 * Constructor
 	 * 
-	 * @param format
-	 *            date format
+	 * @param fast
+	 *            fast path format
+	 * @param formats
+	 *            date formats
 	 */
-	private DateConverter(String... formats) {
+	private DateConverter(int fast, String... formats) {
+		this.fast = fast;
 		for (String format : formats) {
 			SimpleDateFormat sdf = new SimpleDateFormat(format);
 			sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -156,9 +209,28 @@ public class DateConverter {
 	public String stringValue(Date date) {
 		String value = null;
 		if (date != null) {
+			value = stringValue(date.getTime());
+		}
+		return value;
+	}
+
+	/**
+	 * Get the formatted string date value of the epoch milliseconds
+	 * 
+	 * @param epochMillis
+	 *            epoch milliseconds
+	 * @return formatted string date
+	 * @since 4.0.1
+	 */
+	public String stringValue(long epochMillis) {
+		String value = null;
+		if (fast != FAST_NONE && epochMillis >= MIN_FAST_MILLIS
+				&& epochMillis < MAX_FAST_MILLIS) {
+			value = format(epochMillis);
+		} else {
 			SimpleDateFormat sdf = formatters.get(0);
 			synchronized (sdf) {
-				value = sdf.format(date);
+				value = sdf.format(new Date(epochMillis));
 			}
 		}
 		return value;
@@ -174,13 +246,35 @@ public class DateConverter {
 	public Date dateValue(String date) {
 		Date value = null;
 		if (date != null) {
+			value = new Date(epochMillis(date));
+		}
+		return value;
+	}
+
+	/**
+	 * Get the epoch milliseconds of the formatted string date
+	 * 
+	 * @param date
+	 *            formatted string date
+	 * @return epoch milliseconds
+	 * @since 4.0.1
+	 */
+	public long epochMillis(String date) {
+
+		if (date == null) {
+			throw new GeoPackageException("Failed to parse null date string");
+		}
+
+		long value = fast != FAST_NONE ? parse(date) : Long.MIN_VALUE;
+		if (value == Long.MIN_VALUE) {
 
 			// Try each simple date formatter in order
+			Date parsed = null;
 			ParseException exception = null;
 			for (SimpleDateFormat sdf : formatters) {
 				try {
 					synchronized (sdf) {
-						value = sdf.parse(date);
+						parsed = sdf.parse(date);
 					}
 					break;
 				} catch (ParseException e) {
@@ -192,15 +286,216 @@ public class DateConverter {
 
 			// If no value could be parsed throw the first expected parse
 			// format exception
-			if (value == null) {
+			if (parsed == null) {
 				throw new GeoPackageException(
 						"Failed to parse date string: " + date, exception);
 			}
 
+			value = parsed.getTime();
+		}
+
+		return value;
+	}
+
+	/**
+	 * Parse the standard format string date, returning {@link Long#MIN_VALUE}
+	 * when not in a standard format for lenient date format parsing
+	 * 
+	 * @param date
+	 *            formatted string date
+	 * @return epoch milliseconds or {@link Long#MIN_VALUE}
+	 */
+	private long parse(String date) {
+
+		long value = Long.MIN_VALUE;
+
+		int length = date.length();
+		if (length >= 10) {
+
+			char separator = date.charAt(4);
+			int year = digits(date, 0, 4);
+			int month = digits(date, 5, 2);
+			int day = digits(date, 8, 2);
+
+			if (year >= 1600 && month >= 1 && month <= 12 && day >= 1
+					&& day <= daysInMonth(year, month)
+					&& date.charAt(7) == separator) {
+
+				long millis = daysFromCivil(year, month, day)
+						* MILLIS_PER_DAY;
+
+				if (fast == FAST_DATE) {
+					if (length == 10 && (separator == '-' || separator == '/')) {
+						value = millis;
+					}
+				} else if (separator == '-' && (length == 20 || length == 24)
+						&& date.charAt(10) == 'T' && date.charAt(13) == ':'
+						&& date.charAt(16) == ':'
+						&& date.charAt(length - 1) == 'Z') {
+
+					int hour = digits(date, 11, 2);
+					int minute = digits(date, 14, 2);
+					int second = digits(date, 17, 2);
+					int milli = 0;
+					if (length == 24) {
+						milli = date.charAt(19) == '.' ? digits(date, 20, 3)
+								: -1;
+					}
+
+					if (hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59
+							&& second >= 0 && second <= 59 && milli >= 0) {
+						value = millis + hour * 3600000L + minute * 60000L
+								+ second * 1000L + milli;
+					}
+				}
+			}
 		}
+
 		return value;
 	}
 
+	/**
+	 * Format the epoch milliseconds in the standard format
+	 * 
+	 * @param epochMillis
+	 *            epoch milliseconds
+	 * @return formatted string date
+	 */
+	private String format(long epochMillis) {
+
+		long days = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+		int millisOfDay = (int) (epochMillis - days * MILLIS_PER_DAY);
+
+		// Civil date from days, proleptic Gregorian
+		long z = days + 719468;
+		long era = Math.floorDiv(z, 146097);
+		int dayOfEra = (int) (z - era * 146097);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+				- dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra
+				- (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int monthPosition = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * monthPosition + 2) / 5 + 1;
+		int month = monthPosition < 10 ? monthPosition + 3
+				: monthPosition - 9;
+		int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+		char[] chars = new char[fast == FAST_DATE ? 10 : 24];
+		write(chars, 0, year, 4);
+		chars[4] = '-';
+		write(chars, 5, month, 2);
+		chars[7] = '-';
+		write(chars, 8, day, 2);
+		if (fast == FAST_DATETIME) {
+			chars[10] = 'T';
+			write(chars, 11, millisOfDay / 3600000, 2);
+			chars[13] = ':';
+			write(chars, 14, (millisOfDay / 60000) % 60, 2);
+			chars[16] = ':';
+			write(chars, 17, (millisOfDay / 1000) % 60, 2);
+			chars[19] = '.';
+			write(chars, 20, millisOfDay % 1000, 3);
+			chars[23] = 'Z';
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * Parse the fixed width decimal digits
+	 * 
+	 * @param value
+	 *            string value
+	 * @param offset
+	 *            digits offset
+	 * @param count
+	 *            digit count
+	 * @return parsed value, -1 when not all digits
+	 */
+	private static int digits(String value, int offset, int count) {
+		int number = 0;
+		for (int i = offset; i < offset + count; i++) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				number = -1;
+				break;
+			}
+			number = number * 10 + digit;
+		}
+		return number;
+	}
+
+	/**
+	 * Write the zero padded fixed width decimal digits
+	 * 
+	 * @param chars
+	 *            characters
+	 * @param offset
+	 *            digits offset
+	 * @param number
+	 *            non negative number
+	 * @param count
+	 *            digit count
+	 */
+	private static void write(char[] chars, int offset, int number,
+			int count) {
+		for (int i = offset + count - 1; i >= offset; i--) {
+			chars[i] = (char) ('0' + number % 10);
+			number /= 10;
+		}
+	}
+
+	/**
+	 * Get the number of days in the month of the proleptic Gregorian year
+	 * 
+	 * @param year
+	 *            year
+	 * @param month
+	 *            month, 1 through 12
+	 * @return days in month
+	 */
+	private static int daysInMonth(int year, int month) {
+		int days;
+		switch (month) {
+		case 2:
+			days = (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))
+					? 29
+					: 28;
+			break;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			days = 30;
+			break;
+		default:
+			days = 31;
+		}
+		return days;
+	}
+
+	/**
+	 * Get the epoch day of the proleptic Gregorian date
+	 * 
+	 * @param year
+	 *            non negative year
+	 * @param month
+	 *            month, 1 through 12
+	 * @param day
+	 *            day of month
+	 * @return epoch day
+	 */
+	private static long daysFromCivil(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = y / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5
+				+ day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+				+ dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
 	/**
 	 * Determine if the date/time string value is a SQLite function
 	 * 
@@ -4,6 +4,10 @@ import java.io.Closeable;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,11 +33,67 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 	private static final Logger logger = Logger
 			.getLogger(GeoPackageCoreConnection.class.getName());
 
+	/**
+	 * Number of rowid ranges sampled by approximate counts
+	 * 
+	 * @since 4.0.1
+	 */
+	public static final int APPROXIMATE_SAMPLES = 8;
+
+	/**
+	 * Rowid range size sampled by approximate counts
+	 * 
+	 * @since 4.0.1
+	 */
+	public static final int APPROXIMATE_SAMPLE_SIZE = 1000;
+
 	/**
 	 * Connection source
 	 */
 	protected final ConnectionSource connectionSource;
 
+	/**
+	 * Query metrics listener, null when metrics are disabled
+	 */
+	private volatile QueryMetricsListener metricsListener;
+
+	/**
+	 * Slow query log, null when disabled
+	 */
+	private volatile SlowQueryLog slowQueryLog;
+
+	/**
+	 * Reader executor of asynchronous queries, null to use the
+	 * {@link ReaderExecutors#getDefault()} executor
+	 */
+	private volatile Executor readerExecutor;
+
+	/**
+	 * Reader connection supplier of asynchronous queries, null when not set
+	 */
+	private volatile Supplier<? extends GeoPackageCoreConnection> readerConnections;
+
+	/**
+	 * Query result cache, null when disabled
+	 */
+	private volatile QueryResultCache resultCache;
+
+	/**
+	 * Statement cache of idle leased statements
+	 */
+	private volatile StatementCache statementCache = new StatementCache();
+
+	/**
+	 * Supports pragma table valued functions for reading the change counters
+	 * in a single statement
+	 */
+	private volatile boolean pragmaFunctions = true;
+
+	/**
+	 * Supports the json_each table valued function, null until checked
+	 */
+	private volatile Boolean jsonEach;
+
 	/**
 	 * Constructor
 	 *
@@ -53,6 +113,12 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 	 */
 	protected GeoPackageCoreConnection(GeoPackageCoreConnection connection) {
 		this(connection.connectionSource);
+		this.metricsListener = connection.metricsListener;
+		this.slowQueryLog = connection.slowQueryLog;
+		this.readerExecutor = connection.readerExecutor;
+		this.readerConnections = connection.readerConnections;
+		this.resultCache = connection.resultCache;
+		this.statementCache = connection.statementCache;
 	}
 
 	/**
@@ -64,6 +130,394 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 		return connectionSource;
 	}
 
+	/**
+	 * Get the query metrics listener
+	 * 
+	 * @return metrics listener, null when disabled
+	 * @since 4.0.1
+	 */
+	public QueryMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * Set the query metrics listener notified of user table queries, rows
+	 * read, writes, and transactions. Measurements are skipped entirely when
+	 * no listener is set.
+	 * 
+	 * @param metricsListener
+	 *            metrics listener, such as {@link QueryMetrics}, or null to
+	 *            disable
+	 * @since 4.0.1
+	 */
+	public void setMetricsListener(QueryMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Determine if query metrics are enabled
+	 * 
+	 * @return true if a metrics listener is set
+	 * @since 4.0.1
+	 */
+	public boolean isMetricsEnabled() {
+		return metricsListener != null;
+	}
+
+	/**
+	 * Get the slow query log
+	 * 
+	 * @return slow query log, null when disabled
+	 * @since 4.0.1
+	 */
+	public SlowQueryLog getSlowQueryLog() {
+		return slowQueryLog;
+	}
+
+	/**
+	 * Set the slow query log capturing user table queries and writes
+	 * exceeding its threshold
+	 * 
+	 * @param slowQueryLog
+	 *            slow query log, or null to disable
+	 * @since 4.0.1
+	 */
+	public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+		this.slowQueryLog = slowQueryLog;
+	}
+
+	/**
+	 * Enable a slow query log with the threshold
+	 * 
+	 * @param thresholdMillis
+	 *            statements taking at least the threshold milliseconds are
+	 *            captured
+	 * @return slow query log
+	 * @since 4.0.1
+	 */
+	public SlowQueryLog enableSlowQueryLog(long thresholdMillis) {
+		SlowQueryLog log = new SlowQueryLog(thresholdMillis);
+		this.slowQueryLog = log;
+		return log;
+	}
+
+	/**
+	 * Disable the slow query log
+	 * 
+	 * @since 4.0.1
+	 */
+	public void disableSlowQueryLog() {
+		this.slowQueryLog = null;
+	}
+
+	/**
+	 * Get the reader executor of asynchronous queries
+	 * 
+	 * @return reader executor
+	 * @since 4.0.1
+	 */
+	public Executor getReaderExecutor() {
+		Executor executor = readerExecutor;
+		if (executor == null) {
+			executor = ReaderExecutors.getDefault();
+		}
+		return executor;
+	}
+
+	/**
+	 * Set the reader executor of asynchronous queries, such as one from
+	 * {@link ReaderExecutors}. The executor is not shut down by the
+	 * connection.
+	 * 
+	 * @param readerExecutor
+	 *            reader executor, or null to use the shared default
+	 * @since 4.0.1
+	 */
+	public void setReaderExecutor(Executor readerExecutor) {
+		this.readerExecutor = readerExecutor;
+	}
+
+	/**
+	 * Get the reader connection supplier of asynchronous queries
+	 * 
+	 * @return reader connection supplier, null when not set
+	 * @since 4.0.1
+	 */
+	public Supplier<? extends GeoPackageCoreConnection> getReaderConnections() {
+		return readerConnections;
+	}
+
+	/**
+	 * Set the reader connection supplier of asynchronous queries, required
+	 * by the asynchronous reads. The supplier is called by each read on the
+	 * reader thread and must return a connection to the same database that
+	 * is not used concurrently by other threads, such as a connection
+	 * confined to the reader thread. This connection is never read from the
+	 * reader threads. Supplied connections are not closed by the reads.
+	 * 
+	 * @param readerConnections
+	 *            reader connection supplier, or null to disable asynchronous
+	 *            reads
+	 * @since 4.0.1
+	 */
+	public void setReaderConnections(
+			Supplier<? extends GeoPackageCoreConnection> readerConnections) {
+		this.readerConnections = readerConnections;
+	}
+
+	/**
+	 * Run the read of a reader connection on the reader executor, see
+	 * {@link #setReaderConnections(Supplier)}
+	 * 
+	 * @param <T>
+	 *            result type
+	 * @param read
+	 *            read operation of a reader connection
+	 * @return future result
+	 * @since 4.0.1
+	 */
+	public <T> CompletableFuture<T> supplyAsync(
+			Function<? super GeoPackageCoreConnection, T> read) {
+		Supplier<? extends GeoPackageCoreConnection> connections = readerConnections;
+		if (connections == null) {
+			throw new GeoPackageException(
+					"Asynchronous reads require reader connections, see setReaderConnections");
+		}
+		return CompletableFuture.supplyAsync(
+				() -> read.apply(connections.get()), getReaderExecutor());
+	}
+
+	/**
+	 * Get the query result cache
+	 * 
+	 * @return result cache, null when disabled
+	 * @since 4.0.1
+	 */
+	public QueryResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Set the query result cache of the table scoped DAO counts, mins, maxes,
+	 * and aggregate queries, and of explicit
+	 * {@link #cachedResult(String, String, String[], Supplier)} reads. General
+	 * queries such as schema and pragma reads are never cached.
+	 * DAO where clauses must only read the DAO table when enabled.
+	 * 
+	 * @param resultCache
+	 *            result cache, or null to disable
+	 * @since 4.0.1
+	 */
+	public void setResultCache(QueryResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * Enable a query result cache
+	 * 
+	 * @param maxSize
+	 *            max number of cached results
+	 * @return result cache
+	 * @since 4.0.1
+	 */
+	public QueryResultCache enableResultCache(int maxSize) {
+		QueryResultCache cache = new QueryResultCache(maxSize);
+		this.resultCache = cache;
+		return cache;
+	}
+
+	/**
+	 * Disable the query result cache
+	 * 
+	 * @since 4.0.1
+	 */
+	public void disableResultCache() {
+		this.resultCache = null;
+	}
+
+	/**
+	 * Invalidate the cached query results of the table after a write. Writes
+	 * to tables with triggers, looked up once per table and schema version,
+	 * invalidate all results.
+	 * 
+	 * @param table
+	 *            table name
+	 * @param rows
+	 *            number of rows directly changed
+	 * @since 4.0.1
+	 */
+	public void invalidateResults(String table, long rows) {
+		QueryResultCache cache = resultCache;
+		if (cache != null) {
+			if (cache.hasTriggers(table, (name) -> SQLiteMaster.count(this,
+					SQLiteMasterType.TRIGGER, name) > 0)) {
+				// Triggers may write other tables, such as RTree indexes.
+				// Rows changed by triggers are not counted, so validate the
+				// emptied cache against the current change counters.
+				cache.invalidateAll(rows);
+				validateResultCache(cache, true);
+			} else {
+				cache.invalidate(table, rows);
+			}
+		}
+	}
+
+	/**
+	 * Track rows changed by this connection that do not change cached query
+	 * results, such as temporary table writes, so that the result cache is
+	 * not cleared by them
+	 * 
+	 * @param rows
+	 *            number of rows changed
+	 * @since 4.0.1
+	 */
+	public void trackChanges(long rows) {
+		QueryResultCache cache = resultCache;
+		if (cache != null) {
+			cache.track(rows);
+		}
+	}
+
+	/**
+	 * Determine if the connection supports the json_each table valued
+	 * function, for binding value arrays as a single JSON argument
+	 * 
+	 * @return true if supported
+	 * @since 4.0.1
+	 */
+	public boolean supportsJsonEach() {
+		Boolean supported = jsonEach;
+		if (supported == null) {
+			try {
+				querySingleResult("SELECT COUNT(*) FROM json_each('[]')",
+						null, 0, null);
+				supported = true;
+			} catch (Exception e) {
+				supported = false;
+			}
+			jsonEach = supported;
+		}
+		return supported;
+	}
+
+	/**
+	 * Get the start time of a measurement
+	 * 
+	 * @return start nanoseconds, 0 when metrics and the slow query log are
+	 *         disabled
+	 * @since 4.0.1
+	 */
+	public long metricsStart() {
+		return metricsListener != null || slowQueryLog != null
+				? System.nanoTime()
+				: 0;
+	}
+
+	/**
+	 * Record a query measurement
+	 * 
+	 * @param start
+	 *            start nanoseconds from {@link #metricsStart()}
+	 * @param table
+	 *            table name
+	 * @param sql
+	 *            query SQL, with literal values replaced in the recorded
+	 *            shape
+	 * @since 4.0.1
+	 */
+	public void recordQuery(long start, String table, String sql) {
+		if (start != 0) {
+			long nanos = System.nanoTime() - start;
+			QueryMetricsListener listener = metricsListener;
+			if (listener != null) {
+				listener.onQuery(table, QueryMetrics.shape(sql), nanos);
+			}
+			recordSlow(table, sql, nanos);
+		}
+	}
+
+	/**
+	 * Record the rows read from a query
+	 * 
+	 * @param table
+	 *            table name
+	 * @param sql
+	 *            query SQL, with literal values replaced in the recorded
+	 *            shape
+	 * @param rows
+	 *            number of rows read
+	 * @param blobBytes
+	 *            number of blob bytes read
+	 * @since 4.0.1
+	 */
+	public void recordRows(String table, String sql, long rows,
+			long blobBytes) {
+		QueryMetricsListener listener = metricsListener;
+		if (listener != null) {
+			listener.onRows(table, QueryMetrics.shape(sql), rows, blobBytes);
+		}
+	}
+
+	/**
+	 * Record a write measurement
+	 * 
+	 * @param start
+	 *            start nanoseconds from {@link #metricsStart()}
+	 * @param table
+	 *            table name
+	 * @param sql
+	 *            write SQL or operation, with literal values replaced in the
+	 *            recorded shape
+	 * @param rows
+	 *            number of rows written
+	 * @since 4.0.1
+	 */
+	public void recordWrite(long start, String table, String sql,
+			long rows) {
+		if (start != 0) {
+			long nanos = System.nanoTime() - start;
+			QueryMetricsListener listener = metricsListener;
+			if (listener != null) {
+				listener.onWrite(table, QueryMetrics.shape(sql), nanos, rows);
+			}
+			recordSlow(table, sql, nanos);
+		}
+	}
+
+	/**
+	 * Record the statement in the slow query log when it meets the threshold
+	 * 
+	 * @param table
+	 *            table name
+	 * @param sql
+	 *            statement SQL or operation
+	 * @param nanos
+	 *            duration nanoseconds
+	 */
+	private void recordSlow(String table, String sql, long nanos) {
+		SlowQueryLog log = slowQueryLog;
+		if (log != null && log.isSlow(nanos)) {
+			log.record(this, table, QueryMetrics.shape(sql), nanos);
+		}
+	}
+
+	/**
+	 * Record a transaction measurement. Connection implementations call from
+	 * their transaction end with the transaction begin time.
+	 * 
+	 * @param start
+	 *            start nanoseconds from {@link #metricsStart()}
+	 * @param successful
+	 *            true if committed, false if rolled back
+	 * @since 4.0.1
+	 */
+	public void recordTransaction(long start, boolean successful) {
+		QueryMetricsListener listener = metricsListener;
+		if (listener != null && start != 0) {
+			listener.onTransaction(System.nanoTime() - start, successful);
+		}
+	}
+
 	/**
 	 * Execute the sql
 	 * 
@@ -72,6 +526,142 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 	 */
 	public abstract void execSQL(String sql);
 
+	/**
+	 * Execute the sql with the arguments bound to a statement leased with
+	 * {@link #leaseStatement(String)}
+	 * 
+	 * @param sql
+	 *            sql statement with ? bind parameters
+	 * @param args
+	 *            arguments
+	 * @since 4.0.1
+	 */
+	public void execSQL(String sql, Object[] args) {
+		executeUpdate(sql, args);
+	}
+
+	/**
+	 * Execute the write sql with the arguments bound to a statement leased
+	 * with {@link #leaseStatement(String)}
+	 * 
+	 * @param sql
+	 *            sql statement with ? bind parameters
+	 * @param args
+	 *            arguments
+	 * @return number of rows directly changed by the statement
+	 * @since 4.0.1
+	 */
+	public int executeUpdate(String sql, Object[] args) {
+		try (GeoPackageStatement statement = leaseStatement(sql)) {
+			statement.bind(args);
+			return statement.execute();
+		}
+	}
+
+	/**
+	 * Execute the insert sql with the arguments bound to a statement leased
+	 * with {@link #leaseStatement(String)}
+	 * 
+	 * @param sql
+	 *            insert sql statement with ? bind parameters
+	 * @param args
+	 *            arguments
+	 * @return inserted row id
+	 * @since 4.0.1
+	 */
+	public long executeInsert(String sql, Object[] args) {
+		try (GeoPackageStatement statement = leaseStatement(sql)) {
+			statement.bind(args);
+			return statement.executeInsert();
+		}
+	}
+
+	/**
+	 * Query the first column of the first row with the arguments bound to a
+	 * statement leased with {@link #leaseStatement(String)}. Without
+	 * {@link #hasCompiledStatements()}, the arguments are bound as SQL
+	 * literals, prefer {@link #querySingleResult(String, String[])} for
+	 * string arguments.
+	 * 
+	 * @param sql
+	 *            sql statement with ? bind parameters
+	 * @param args
+	 *            arguments
+	 * @return value, null when no rows
+	 * @since 4.0.1
+	 */
+	public Object queryStatementResult(String sql, Object[] args) {
+		try (GeoPackageStatement statement = leaseStatement(sql)) {
+			statement.bind(args);
+			return statement.querySingleResult();
+		}
+	}
+
+	/**
+	 * Determine if {@link #prepareStatement(String)} compiles native
+	 * statements. Connection implementations overriding
+	 * {@link #prepareStatement(String)} with compiled statements return true,
+	 * enabling statement leases from the {@link #getStatementCache()} and
+	 * statement backed DAO queries. Otherwise queries keep the bound argument
+	 * query methods and only writes with arguments use the default literal
+	 * statement.
+	 * 
+	 * @return true if statements are compiled
+	 * @since 4.0.1
+	 */
+	public boolean hasCompiledStatements() {
+		return false;
+	}
+
+	/**
+	 * Prepare a new statement of the sql. Connection implementations override
+	 * to compile a native statement executed with the bound arguments, along
+	 * with {@link #hasCompiledStatements()}. The default statement writes the
+	 * bound arguments into the sql as literals and executes it with
+	 * {@link #execSQL(String)}, reading changed row counts and inserted row
+	 * ids with the changes() and last_insert_rowid() functions.
+	 * 
+	 * @param sql
+	 *            sql statement with ? bind parameters
+	 * @return statement
+	 * @since 4.0.1
+	 */
+	public GeoPackageStatement prepareStatement(String sql) {
+		return new LiteralStatement(this, sql);
+	}
+
+	/**
+	 * Lease the idle statement of the sql from the statement cache, or
+	 * prepare a new statement with {@link #prepareStatement(String)}. Closing
+	 * the statement ends the lease and returns it to the cache. Without
+	 * {@link #hasCompiledStatements()}, a new uncached statement is prepared.
+	 * 
+	 * @param sql
+	 *            sql statement with ? bind parameters
+	 * @return leased statement
+	 * @since 4.0.1
+	 */
+	public GeoPackageStatement leaseStatement(String sql) {
+		GeoPackageStatement statement;
+		if (hasCompiledStatements()) {
+			statement = statementCache.lease(sql, this::prepareStatement);
+		} else {
+			statement = prepareStatement(sql);
+		}
+		return statement;
+	}
+
+	/**
+	 * Get the statement cache of idle leased statements, for hit and miss
+	 * statistics
+	 * 
+	 * @return statement cache
+	 * @since 4.0.1
+	 */
+	public StatementCache getStatementCache() {
+		return statementCache;
+	}
+
 	/**
 	 * Begin a transaction
 	 * 
@@ -233,6 +823,30 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 		return count(table, null, null);
 	}
 
+	/**
+	 * Get an approximate count of the table rows for uses only needing the
+	 * magnitude. Uses the sqlite_stat1 row estimate when the table has been
+	 * analyzed, otherwise counts sampled rowid ranges spread across the table
+	 * and scales by the rowid span. Small tables and tables without rowids are
+	 * counted exactly.
+	 * 
+	 * @param table
+	 *            table name
+	 * @return approximate count
+	 * @since 4.0.1
+	 */
+	public long countApproximate(String table) {
+		Long count = statCount(table);
+		if (count == null) {
+			try {
+				count = sampleCount(table);
+			} catch (Exception e) {
+				count = (long) count(table);
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * Get a count of results
 	 * 
@@ -482,6 +1096,82 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 	 */
 	public <T> T aggregateFunction(String function, String table,
 			boolean distinct, String column, String where, String[] args) {
+		String sql = buildAggregateFunctionSQL(function, table, distinct,
+				column, where);
+		@SuppressWarnings("unchecked")
+		T value = (T) queryAggregateFunction(sql, args);
+		return value;
+	}
+
+	/**
+	 * Execute an aggregate function of the table, using the result cache when
+	 * enabled. The where clause must only read the table.
+	 * 
+	 * @param <T>
+	 *            return type
+	 * @param function
+	 *            aggregate function
+	 * @param table
+	 *            table name
+	 * @param distinct
+	 *            distinct column flag
+	 * @param column
+	 *            column name
+	 * @param where
+	 *            where clause
+	 * @param args
+	 *            arguments
+	 * @return value or null
+	 * @since 4.0.1
+	 */
+	public <T> T cachedAggregateFunction(String function, String table,
+			boolean distinct, String column, String where, String[] args) {
+		String sql = buildAggregateFunctionSQL(function, table, distinct,
+				column, where);
+		Object value = cachedResult(table, sql, args,
+				() -> queryAggregateFunction(sql, args));
+		@SuppressWarnings("unchecked")
+		T typedValue = (T) value;
+		return typedValue;
+	}
+
+	/**
+	 * Query the aggregate function SQL through a leased compiled statement,
+	 * or with the bound arguments when statements are not compiled
+	 * 
+	 * @param sql
+	 *            aggregate function SQL
+	 * @param args
+	 *            arguments
+	 * @return value or null
+	 */
+	private Object queryAggregateFunction(String sql, String[] args) {
+		Object value;
+		if (hasCompiledStatements()) {
+			value = queryStatementResult(sql, args);
+		} else {
+			value = querySingleResult(sql, args);
+		}
+		return value;
+	}
+
+	/**
+	 * Build the aggregate function SQL
+	 * 
+	 * @param function
+	 *            aggregate function
+	 * @param table
+	 *            table name
+	 * @param distinct
+	 *            distinct column flag
+	 * @param column
+	 *            column name
+	 * @param where
+	 *            where clause
+	 * @return sql
+	 */
+	private String buildAggregateFunctionSQL(String function, String table,
+			boolean distinct, String column, String where) {
 
 		StringBuilder query = new StringBuilder();
 		query.append("SELECT ");
@@ -500,14 +1190,196 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 		if (where != null) {
 			query.append(" WHERE ").append(where);
 		}
-		String sql = query.toString();
 
-		Object value = querySingleResult(sql, args);
+		return query.toString();
+	}
 
-		@SuppressWarnings("unchecked")
-		T typedValue = (T) value;
+	/**
+	 * Create an aggregate query computing multiple aggregate functions over
+	 * the table in a single scan
+	 * 
+	 * @param table
+	 *            table name
+	 * @return aggregate query
+	 * @since 4.0.1
+	 */
+	public AggregateQuery aggregate(String table) {
+		return new AggregateQuery(this, table);
+	}
 
-		return typedValue;
+	/**
+	 * Get the table row estimate from sqlite_stat1
+	 * 
+	 * @param table
+	 *            table name
+	 * @return row estimate, null when not analyzed
+	 */
+	private Long statCount(String table) {
+		Long count = null;
+		if (tableExists("sqlite_stat1")) {
+			List<Object> stats = querySingleColumnResults(
+					"SELECT stat FROM sqlite_stat1 WHERE tbl = ?",
+					new String[] { table });
+			for (Object stat : stats) {
+				if (stat != null) {
+					String value = stat.toString().trim();
+					int space = value.indexOf(' ');
+					if (space > 0) {
+						value = value.substring(0, space);
+					}
+					try {
+						long rows = Long.parseLong(value);
+						count = count != null ? Math.max(count, rows) : rows;
+					} catch (NumberFormatException e) {
+						// Not a row estimate
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Estimate the table rows by counting sampled rowid ranges
+	 * 
+	 * @param table
+	 *            table name
+	 * @return row estimate
+	 */
+	private long sampleCount(String table) {
+
+		String quotedTable = CoreSQLUtils.quoteWrap(table);
+		List<Object> range = querySingleRowResults(
+				"SELECT MIN(rowid), MAX(rowid) FROM " + quotedTable, null);
+
+		long count = 0;
+		if (range != null && range.get(0) != null) {
+			long min = ((Number) range.get(0)).longValue();
+			long max = ((Number) range.get(1)).longValue();
+			long span = max - min + 1;
+			if (span <= (long) APPROXIMATE_SAMPLES * APPROXIMATE_SAMPLE_SIZE) {
+				count = count(table);
+			} else {
+				long sampled = 0;
+				for (int i = 0; i < APPROXIMATE_SAMPLES; i++) {
+					long start = min + (span - APPROXIMATE_SAMPLE_SIZE) * i
+							/ (APPROXIMATE_SAMPLES - 1);
+					Object rows = querySingleResult(
+							"SELECT COUNT(*) FROM " + quotedTable
+									+ " WHERE rowid >= ? AND rowid < ?",
+							new String[] { String.valueOf(start), String
+									.valueOf(start + APPROXIMATE_SAMPLE_SIZE) });
+					sampled += ((Number) rows).longValue();
+				}
+				count = Math.round((double) sampled * span
+						/ ((long) APPROXIMATE_SAMPLES * APPROXIMATE_SAMPLE_SIZE));
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Get the cached result of a deterministic read query of only the table,
+	 * or query when the result cache is disabled. Cached results are
+	 * invalidated by DAO writes to the table, and by writes not made through
+	 * DAOs and schema changes detected within the
+	 * {@link QueryResultCache#getValidationInterval()}.
+	 * 
+	 * @param <T>
+	 *            result type
+	 * @param table
+	 *            queried table name
+	 * @param sql
+	 *            sql statement, the cache key with the arguments
+	 * @param args
+	 *            arguments
+	 * @param query
+	 *            query of the result
+	 * @return result, lists are shared and unmodifiable when cached
+	 * @since 4.0.1
+	 */
+	public <T> T cachedResult(String table, String sql, String[] args,
+			Supplier<T> query) {
+		T result;
+		QueryResultCache cache = resultCache;
+		if (cache != null) {
+			validateResultCache(cache, false);
+			result = cache.get(table, sql, args, query);
+		} else {
+			result = query.get();
+		}
+		return result;
+	}
+
+	/**
+	 * Validate the result cache against the data version, schema version, and
+	 * total changes change counters when due for validation
+	 * 
+	 * @param cache
+	 *            result cache
+	 * @param force
+	 *            true to validate before the validation interval elapses
+	 */
+	private void validateResultCache(QueryResultCache cache, boolean force) {
+		if (force || cache.isValidationDue()) {
+			long[] counters = changeCounters();
+			cache.validate(counters[0], counters[1], counters[2]);
+		}
+	}
+
+	/**
+	 * Read PRAGMA data_version, changed when other connections commit writes
+	 * 
+	 * @return data version
+	 * @since 4.0.1
+	 */
+	public long dataVersion() {
+		return ((Number) querySingleResult("PRAGMA data_version", null, 0,
+				null)).longValue();
+	}
+
+	/**
+	 * Read the connection change counters: PRAGMA data_version, changed by
+	 * other connections, PRAGMA schema_version, changed by schema changes,
+	 * and total_changes(), rows directly changed by this connection
+	 * 
+	 * @return data version, schema version, and total changes
+	 * @since 4.0.1
+	 */
+	public long[] changeCounters() {
+
+		List<Object> counters = null;
+		if (pragmaFunctions) {
+			try {
+				List<List<Object>> results = queryResults(
+						"SELECT (SELECT data_version FROM pragma_data_version), "
+								+ "(SELECT schema_version FROM pragma_schema_version), "
+								+ "total_changes()",
+						null, null, 1);
+				if (!results.isEmpty()) {
+					counters = results.get(0);
+				}
+			} catch (Exception e) {
+				pragmaFunctions = false;
+			}
+		}
+
+		long[] values = new long[3];
+		if (counters != null) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = ((Number) counters.get(i)).longValue();
+			}
+		} else {
+			values[0] = ((Number) querySingleResult("PRAGMA data_version",
+					null, 0, null)).longValue();
+			values[1] = ((Number) querySingleResult("PRAGMA schema_version",
+					null, 0, null)).longValue();
+			values[2] = ((Number) querySingleResult("SELECT total_changes()",
+					null, 0, null)).longValue();
+		}
+
+		return values;
 	}
 
 	/**
@@ -515,6 +1387,7 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 	 */
 	@Override
 	public void close() {
+		statementCache.close();
 		GeoPackageDaoManager.unregisterDaos(connectionSource);
 		connectionSource.closeQuietly();
 	}
@@ -1210,6 +2083,76 @@ public abstract class GeoPackageCoreConnection implements Closeable {
 		return result;
 	}
 
+	/**
+	 * Query for values with a reader connection on the reader executor
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param args
+	 *            arguments
+	 * @return future results
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<List<List<Object>>> queryResultsAsync(String sql,
+			String[] args) {
+		return queryResultsAsync(sql, args, null, null);
+	}
+
+	/**
+	 * Query for values up to the limit with a reader connection on the
+	 * reader executor
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param args
+	 *            arguments
+	 * @param dataTypes
+	 *            column data types
+	 * @param limit
+	 *            result row limit
+	 * @return future results
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<List<List<Object>>> queryResultsAsync(String sql,
+			String[] args, GeoPackageDataType[] dataTypes, Integer limit) {
+		return supplyAsync(
+				(reader) -> reader.queryResults(sql, args, dataTypes, limit));
+	}
+
+	/**
+	 * Query the SQL for a single result object with a reader
+	 * connection on the reader executor
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param args
+	 *            arguments
+	 * @return future result, null if no result
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<Object> querySingleResultAsync(String sql,
+			String[] args) {
+		return supplyAsync((reader) -> reader.querySingleResult(sql, args));
+	}
+
+	/**
+	 * Get a count of results with a reader connection on the
+	 * reader executor
+	 * 
+	 * @param table
+	 *            table name
+	 * @param where
+	 *            where clause
+	 * @param args
+	 *            arguments
+	 * @return future count
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<Integer> countAsync(String table, String where,
+			String[] args) {
+		return supplyAsync((reader) -> reader.count(table, where, args));
+	}
+
 	/**
 	 * Set the GeoPackage application id
 	 */
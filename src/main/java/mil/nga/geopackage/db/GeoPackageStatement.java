@@ -0,0 +1,176 @@
+package mil.nga.geopackage.db;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * SQL statement with ? bind parameters, prepared by
+ * {@link GeoPackageCoreConnection#prepareStatement(String)} and leased from
+ * the connection {@link StatementCache} with
+ * {@link GeoPackageCoreConnection#leaseStatement(String)}. Closing a leased
+ * statement returns it to the cache for reuse by the next lease of the same
+ * SQL. A statement is used by a single lease holder at a time.
+ *
+ * Connection implementations extend to execute a compiled native statement,
+ * binding the arguments to it on execution.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public abstract class GeoPackageStatement implements Closeable {
+
+	/**
+	 * No bound arguments
+	 */
+	private static final Object[] NO_ARGS = new Object[0];
+
+	/**
+	 * SQL statement
+	 */
+	private final String sql;
+
+	/**
+	 * Bound arguments by zero based index
+	 */
+	private Object[] args = NO_ARGS;
+
+	/**
+	 * Statement cache the statement is leased from, null when not leased
+	 */
+	private StatementCache cache;
+
+	/**
+	 * Constructor
+	 *
+	 * @param sql
+	 *            SQL statement
+	 */
+	protected GeoPackageStatement(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * Get the SQL statement
+	 *
+	 * @return SQL
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Bind the argument value to the one based parameter index. Supported
+	 * values are null, numbers, booleans, strings, and byte arrays.
+	 *
+	 * @param index
+	 *            one based parameter index
+	 * @param value
+	 *            argument value
+	 * @return this statement
+	 */
+	public GeoPackageStatement bind(int index, Object value) {
+		if (index < 1) {
+			throw new GeoPackageException(
+					"Bind parameter index must be at least 1. Index: " + index
+							+ ", SQL: " + sql);
+		}
+		if (index > args.length) {
+			args = Arrays.copyOf(args, Math.max(index, args.length * 2));
+		}
+		args[index - 1] = value;
+		return this;
+	}
+
+	/**
+	 * Clear the bound arguments and bind the argument values in parameter
+	 * order
+	 *
+	 * @param values
+	 *            argument values, may be null
+	 * @return this statement
+	 */
+	public GeoPackageStatement bind(Object[] values) {
+		clearBindings();
+		if (values != null) {
+			for (int i = 0; i < values.length; i++) {
+				bind(i + 1, values[i]);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Clear the bound arguments
+	 */
+	public void clearBindings() {
+		Arrays.fill(args, null);
+	}
+
+	/**
+	 * Get the bound argument of the one based parameter index
+	 *
+	 * @param index
+	 *            one based parameter index
+	 * @return argument value, null when not bound
+	 */
+	public Object getArg(int index) {
+		return index >= 1 && index <= args.length ? args[index - 1] : null;
+	}
+
+	/**
+	 * Execute the statement as a write
+	 *
+	 * @return number of rows directly changed by the statement
+	 */
+	public abstract int execute();
+
+	/**
+	 * Execute the statement as an insert
+	 *
+	 * @return inserted row id
+	 */
+	public abstract long executeInsert();
+
+	/**
+	 * Execute the statement as a query of the first column of the first row
+	 *
+	 * @return value, null when no rows
+	 */
+	public abstract Object querySingleResult();
+
+	/**
+	 * Close the statement, returning a leased statement to the statement
+	 * cache
+	 */
+	@Override
+	public void close() {
+		StatementCache leasedFrom = cache;
+		if (leasedFrom != null) {
+			cache = null;
+			clearBindings();
+			leasedFrom.release(this);
+		} else {
+			closeStatement();
+		}
+	}
+
+	/**
+	 * Close the underlying statement, such as a compiled native statement,
+	 * when discarded by the statement cache or closed when not leased
+	 */
+	protected void closeStatement() {
+	}
+
+	/**
+	 * Set the statement cache the statement is leased from
+	 *
+	 * @param cache
+	 *            statement cache
+	 */
+	void setCache(StatementCache cache) {
+		this.cache = cache;
+	}
+
+}
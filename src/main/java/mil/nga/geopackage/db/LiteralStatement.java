@@ -0,0 +1,186 @@
+package mil.nga.geopackage.db;
+
+import java.math.BigDecimal;
+
+/**
+ * Default connection statement for connections without compiled statements,
+ * executing the SQL with the bound arguments written as SQL literals through
+ * {@link GeoPackageCoreConnection#execSQL(String)}. Changed row counts and
+ * inserted row ids are read with the changes() and last_insert_rowid()
+ * functions on the same connection.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+class LiteralStatement extends GeoPackageStatement {
+
+	/**
+	 * Hex digits
+	 */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF"
+			.toCharArray();
+
+	/**
+	 * Connection
+	 */
+	private final GeoPackageCoreConnection connection;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            SQL statement
+	 */
+	LiteralStatement(GeoPackageCoreConnection connection, String sql) {
+		super(sql);
+		this.connection = connection;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int execute() {
+		connection.execSQL(toLiteralSQL());
+		return ((Number) connection.querySingleResult("SELECT changes()",
+				null)).intValue();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long executeInsert() {
+		connection.execSQL(toLiteralSQL());
+		return ((Number) connection
+				.querySingleResult("SELECT last_insert_rowid()", null))
+						.longValue();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object querySingleResult() {
+		return connection.querySingleResult(toLiteralSQL(), null);
+	}
+
+	/**
+	 * Write the SQL with each ? and ?NNN bind parameter outside of string
+	 * literals, quoted identifiers, and comments replaced by the bound
+	 * argument literal
+	 *
+	 * @return literal SQL
+	 */
+	String toLiteralSQL() {
+
+		String sql = getSql();
+		int length = sql.length();
+		StringBuilder literal = new StringBuilder(length + 16);
+
+		int maxIndex = 0;
+		int i = 0;
+		while (i < length) {
+			char character = sql.charAt(i);
+			int end = i + 1;
+			switch (character) {
+			case '\'':
+			case '"':
+			case '`':
+				end = sql.indexOf(character, end);
+				while (end != -1 && end + 1 < length
+						&& sql.charAt(end + 1) == character) {
+					end = sql.indexOf(character, end + 2);
+				}
+				end = end == -1 ? length : end + 1;
+				literal.append(sql, i, end);
+				break;
+			case '[':
+				end = sql.indexOf(']', end);
+				end = end == -1 ? length : end + 1;
+				literal.append(sql, i, end);
+				break;
+			case '-':
+				if (end < length && sql.charAt(end) == '-') {
+					end = sql.indexOf('\n', end);
+					end = end == -1 ? length : end;
+				}
+				literal.append(sql, i, end);
+				break;
+			case '/':
+				if (end < length && sql.charAt(end) == '*') {
+					end = sql.indexOf("*/", end + 1);
+					end = end == -1 ? length : end + 2;
+				}
+				literal.append(sql, i, end);
+				break;
+			case '?':
+				while (end < length && Character.isDigit(sql.charAt(end))) {
+					end++;
+				}
+				int index = end > i + 1
+						? Integer.parseInt(sql.substring(i + 1, end))
+						: maxIndex + 1;
+				maxIndex = Math.max(maxIndex, index);
+				appendLiteral(literal, getArg(index));
+				break;
+			default:
+				literal.append(character);
+			}
+			i = end;
+		}
+
+		return literal.toString();
+	}
+
+	/**
+	 * Append the value as a SQL literal
+	 *
+	 * @param literal
+	 *            literal SQL
+	 * @param value
+	 *            value
+	 */
+	static void appendLiteral(StringBuilder literal, Object value) {
+		if (value == null) {
+			literal.append("NULL");
+		} else if (value instanceof Boolean) {
+			literal.append(((Boolean) value) ? '1' : '0');
+		} else if (value instanceof Double || value instanceof Float) {
+			double number = ((Number) value).doubleValue();
+			if (Double.isNaN(number)) {
+				literal.append("NULL");
+			} else if (Double.isInfinite(number)) {
+				literal.append(number > 0 ? "9e999" : "-9e999");
+			} else {
+				literal.append(number);
+			}
+		} else if (value instanceof BigDecimal) {
+			literal.append(((BigDecimal) value).toPlainString());
+		} else if (value instanceof Number) {
+			literal.append(value);
+		} else if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			literal.append("X'");
+			for (byte b : bytes) {
+				literal.append(HEX_DIGITS[(b >> 4) & 0x0F]);
+				literal.append(HEX_DIGITS[b & 0x0F]);
+			}
+			literal.append('\'');
+		} else {
+			String text = value.toString();
+			literal.append('\'');
+			for (int i = 0; i < text.length(); i++) {
+				char character = text.charAt(i);
+				if (character == '\'') {
+					literal.append('\'');
+				}
+				literal.append(character);
+			}
+			literal.append('\'');
+		}
+	}
+
+}
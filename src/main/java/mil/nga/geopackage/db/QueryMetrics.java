@@ -0,0 +1,549 @@
+package mil.nga.geopackage.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Query metrics recorder aggregating per table and query shape latency
+ * histograms, rows and blob bytes read, write latencies, and transaction
+ * durations
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class QueryMetrics implements QueryMetricsListener {
+
+	/**
+	 * Number of latency histogram buckets. Bucket 0 counts durations under 1
+	 * microsecond and bucket i counts durations from 2^(i-1) up to 2^i
+	 * microseconds, with the last bucket counting all longer durations.
+	 */
+	public static final int HISTOGRAM_BUCKETS = 32;
+
+	/**
+	 * Repeated parameter list pattern
+	 */
+	private static final Pattern PARAMETER_LIST = Pattern
+			.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+	/**
+	 * Latency, row, and blob byte statistics
+	 */
+	public static class Statistics {
+
+		/**
+		 * Number of timed executions
+		 */
+		private long count;
+
+		/**
+		 * Total nanoseconds
+		 */
+		private long totalNanos;
+
+		/**
+		 * Min nanoseconds
+		 */
+		private long minNanos = Long.MAX_VALUE;
+
+		/**
+		 * Max nanoseconds
+		 */
+		private long maxNanos;
+
+		/**
+		 * Latency histogram
+		 */
+		private final long[] histogram = new long[HISTOGRAM_BUCKETS];
+
+		/**
+		 * Number of rows
+		 */
+		private long rows;
+
+		/**
+		 * Number of blob bytes
+		 */
+		private long blobBytes;
+
+		/**
+		 * Constructor
+		 */
+		public Statistics() {
+
+		}
+
+		/**
+		 * Copy Constructor
+		 *
+		 * @param statistics
+		 *            statistics to copy
+		 */
+		public Statistics(Statistics statistics) {
+			synchronized (statistics) {
+				count = statistics.count;
+				totalNanos = statistics.totalNanos;
+				minNanos = statistics.minNanos;
+				maxNanos = statistics.maxNanos;
+				System.arraycopy(statistics.histogram, 0, histogram, 0,
+						HISTOGRAM_BUCKETS);
+				rows = statistics.rows;
+				blobBytes = statistics.blobBytes;
+			}
+		}
+
+		/**
+		 * Record a duration
+		 *
+		 * @param nanos
+		 *            duration in nanoseconds
+		 */
+		public synchronized void recordDuration(long nanos) {
+			count++;
+			totalNanos += nanos;
+			minNanos = Math.min(minNanos, nanos);
+			maxNanos = Math.max(maxNanos, nanos);
+			histogram[bucket(nanos)]++;
+		}
+
+		/**
+		 * Record rows and blob bytes
+		 *
+		 * @param rows
+		 *            number of rows
+		 * @param blobBytes
+		 *            number of blob bytes
+		 */
+		public synchronized void recordRows(long rows, long blobBytes) {
+			this.rows += rows;
+			this.blobBytes += blobBytes;
+		}
+
+		/**
+		 * Get the number of timed executions
+		 *
+		 * @return count
+		 */
+		public synchronized long getCount() {
+			return count;
+		}
+
+		/**
+		 * Get the total nanoseconds
+		 *
+		 * @return total nanoseconds
+		 */
+		public synchronized long getTotalNanos() {
+			return totalNanos;
+		}
+
+		/**
+		 * Get the min nanoseconds
+		 *
+		 * @return min nanoseconds, 0 when no executions
+		 */
+		public synchronized long getMinNanos() {
+			return count > 0 ? minNanos : 0;
+		}
+
+		/**
+		 * Get the max nanoseconds
+		 *
+		 * @return max nanoseconds
+		 */
+		public synchronized long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * Get the mean nanoseconds
+		 *
+		 * @return mean nanoseconds
+		 */
+		public synchronized double getMeanNanos() {
+			return count > 0 ? (double) totalNanos / count : 0.0;
+		}
+
+		/**
+		 * Get the latency histogram bucket counts
+		 *
+		 * @return histogram, see {@link QueryMetrics#HISTOGRAM_BUCKETS}
+		 */
+		public synchronized long[] getHistogram() {
+			return Arrays.copyOf(histogram, HISTOGRAM_BUCKETS);
+		}
+
+		/**
+		 * Get the approximate latency percentile as the upper bound of the
+		 * histogram bucket containing it, limited by the max
+		 *
+		 * @param percentile
+		 *            percentile between 0.0 and 1.0
+		 * @return percentile nanoseconds
+		 */
+		public synchronized long getPercentileNanos(double percentile) {
+			long nanos = 0;
+			if (count > 0) {
+				long rank = (long) Math.ceil(percentile * count);
+				long seen = 0;
+				for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+					seen += histogram[i];
+					if (seen >= rank) {
+						nanos = Math.min((1L << i) * 1000, maxNanos);
+						break;
+					}
+				}
+			}
+			return nanos;
+		}
+
+		/**
+		 * Get the number of rows
+		 *
+		 * @return rows
+		 */
+		public synchronized long getRows() {
+			return rows;
+		}
+
+		/**
+		 * Get the number of blob bytes
+		 *
+		 * @return blob bytes
+		 */
+		public synchronized long getBlobBytes() {
+			return blobBytes;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized String toString() {
+			return "count: " + count + ", total ms: " + totalNanos / 1000000.0
+					+ ", mean ms: " + getMeanNanos() / 1000000.0
+					+ ", p95 ms: " + getPercentileNanos(0.95) / 1000000.0
+					+ ", max ms: " + maxNanos / 1000000.0 + ", rows: " + rows
+					+ ", blob bytes: " + blobBytes;
+		}
+
+		/**
+		 * Get the histogram bucket of the duration
+		 *
+		 * @param nanos
+		 *            duration in nanoseconds
+		 * @return bucket
+		 */
+		private static int bucket(long nanos) {
+			long micros = nanos / 1000;
+			int bucket = micros > 0 ? 64 - Long.numberOfLeadingZeros(micros)
+					: 0;
+			return Math.min(bucket, HISTOGRAM_BUCKETS - 1);
+		}
+
+	}
+
+	/**
+	 * Query statistics by table and query shape
+	 */
+	private final ConcurrentMap<String, ConcurrentMap<String, Statistics>> queries = new ConcurrentHashMap<>();
+
+	/**
+	 * Write statistics by table and write shape
+	 */
+	private final ConcurrentMap<String, ConcurrentMap<String, Statistics>> writes = new ConcurrentHashMap<>();
+
+	/**
+	 * Committed transaction statistics
+	 */
+	private volatile Statistics commits = new Statistics();
+
+	/**
+	 * Rolled back transaction statistics
+	 */
+	private volatile Statistics rollbacks = new Statistics();
+
+	/**
+	 * Constructor
+	 */
+	public QueryMetrics() {
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onQuery(String table, String shape, long nanos) {
+		statistics(queries, table, shape).recordDuration(nanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onRows(String table, String shape, long rows,
+			long blobBytes) {
+		statistics(queries, table, shape).recordRows(rows, blobBytes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onWrite(String table, String shape, long nanos, long rows) {
+		Statistics statistics = statistics(writes, table, shape);
+		statistics.recordDuration(nanos);
+		statistics.recordRows(rows, 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onTransaction(long nanos, boolean successful) {
+		(successful ? commits : rollbacks).recordDuration(nanos);
+	}
+
+	/**
+	 * Get the table names with recorded queries or writes
+	 *
+	 * @return table names
+	 */
+	public Set<String> getTables() {
+		Set<String> tables = new TreeSet<>(queries.keySet());
+		tables.addAll(writes.keySet());
+		return tables;
+	}
+
+	/**
+	 * Get a copy of the query statistics of the table by query shape
+	 *
+	 * @param table
+	 *            table name
+	 * @return query statistics
+	 */
+	public Map<String, Statistics> getQueryStatistics(String table) {
+		return copy(queries.get(table));
+	}
+
+	/**
+	 * Get a copy of the query statistics of the table query shape
+	 *
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            query shape
+	 * @return query statistics or null
+	 */
+	public Statistics getQueryStatistics(String table, String shape) {
+		return getQueryStatistics(table).get(shape);
+	}
+
+	/**
+	 * Get a copy of the write statistics of the table by write shape
+	 *
+	 * @param table
+	 *            table name
+	 * @return write statistics
+	 */
+	public Map<String, Statistics> getWriteStatistics(String table) {
+		return copy(writes.get(table));
+	}
+
+	/**
+	 * Get a copy of the committed transaction statistics
+	 *
+	 * @return transaction statistics
+	 */
+	public Statistics getCommitStatistics() {
+		return new Statistics(commits);
+	}
+
+	/**
+	 * Get a copy of the rolled back transaction statistics
+	 *
+	 * @return transaction statistics
+	 */
+	public Statistics getRollbackStatistics() {
+		return new Statistics(rollbacks);
+	}
+
+	/**
+	 * Reset all statistics
+	 */
+	public void reset() {
+		queries.clear();
+		writes.clear();
+		commits = new Statistics();
+		rollbacks = new Statistics();
+	}
+
+	/**
+	 * Get a summary of the statistics, with each table's query and write
+	 * shapes ordered by total time
+	 *
+	 * @return summary
+	 */
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		for (String table : getTables()) {
+			summary.append("Table: ").append(table).append("\n");
+			appendSummary(summary, "Query", getQueryStatistics(table));
+			appendSummary(summary, "Write", getWriteStatistics(table));
+		}
+		summary.append("Commits: ").append(getCommitStatistics())
+				.append("\n");
+		summary.append("Rollbacks: ").append(getRollbackStatistics())
+				.append("\n");
+		return summary.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return getSummary();
+	}
+
+	/**
+	 * Get the shape of the SQL statement by collapsing whitespace and
+	 * replacing string and numeric literals and parameter lists with
+	 * parameters
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @return statement shape
+	 */
+	public static String shape(String sql) {
+
+		StringBuilder shape = new StringBuilder(sql.length());
+		boolean whitespace = false;
+		char quote = 0;
+		int length = sql.length();
+		for (int i = 0; i < length; i++) {
+			char c = sql.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+				if (quote != '\'' && c != '\'') {
+					shape.append(c);
+				}
+			} else if (Character.isWhitespace(c)) {
+				whitespace = true;
+			} else {
+				if (whitespace && shape.length() > 0) {
+					shape.append(' ');
+				}
+				whitespace = false;
+				if (c == '\'') {
+					quote = c;
+					// Escaped quotes continue the previous literal
+					if (i == 0 || sql.charAt(i - 1) != '\'') {
+						shape.append('?');
+					}
+				} else if (c == '"' || c == '`' || c == '[') {
+					quote = c == '[' ? ']' : c;
+					shape.append(c);
+				} else if (Character.isDigit(c) && (shape.length() == 0
+						|| !isIdentifierPart(shape.charAt(shape.length() - 1)))) {
+					while (i + 1 < length && (isIdentifierPart(sql.charAt(i + 1))
+							|| sql.charAt(i + 1) == '.')) {
+						i++;
+					}
+					shape.append('?');
+				} else {
+					shape.append(c);
+				}
+			}
+		}
+
+		return PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+	}
+
+	/**
+	 * Determine if the character can be part of an identifier or number
+	 *
+	 * @param c
+	 *            character
+	 * @return true if identifier part
+	 */
+	private static boolean isIdentifierPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+	}
+
+	/**
+	 * Get or create the statistics of the table and shape
+	 *
+	 * @param statistics
+	 *            statistics by table and shape
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            shape
+	 * @return statistics
+	 */
+	private static Statistics statistics(
+			ConcurrentMap<String, ConcurrentMap<String, Statistics>> statistics,
+			String table, String shape) {
+		return statistics
+				.computeIfAbsent(String.valueOf(table),
+						(key) -> new ConcurrentHashMap<>())
+				.computeIfAbsent(shape, (key) -> new Statistics());
+	}
+
+	/**
+	 * Copy the statistics by shape
+	 *
+	 * @param statistics
+	 *            statistics by shape, may be null
+	 * @return statistics copy
+	 */
+	private static Map<String, Statistics> copy(
+			Map<String, Statistics> statistics) {
+		Map<String, Statistics> copy = new HashMap<>();
+		if (statistics != null) {
+			for (Map.Entry<String, Statistics> entry : statistics
+					.entrySet()) {
+				copy.put(entry.getKey(), new Statistics(entry.getValue()));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Append the statistics ordered by total time
+	 *
+	 * @param summary
+	 *            summary
+	 * @param label
+	 *            statistics label
+	 * @param statistics
+	 *            statistics by shape
+	 */
+	private static void appendSummary(StringBuilder summary, String label,
+			Map<String, Statistics> statistics) {
+		List<Map.Entry<String, Statistics>> entries = new ArrayList<>(
+				statistics.entrySet());
+		Collections.sort(entries, (entry1, entry2) -> Long.compare(
+				entry2.getValue().getTotalNanos(),
+				entry1.getValue().getTotalNanos()));
+		for (Map.Entry<String, Statistics> entry : entries) {
+			summary.append("\t").append(label).append(": ")
+					.append(entry.getKey()).append("\n\t\t")
+					.append(entry.getValue()).append("\n");
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package mil.nga.geopackage.db;
+
+/**
+ * Query metrics listener notified of user table query, row read, write, and
+ * transaction measurements for bridging to a metrics system. All methods
+ * default to no-ops. Listeners are called from the querying threads and must
+ * be thread safe.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public interface QueryMetricsListener {
+
+	/**
+	 * Query executed. Results returned to the caller are measured when
+	 * created, which on lazily executed cursors excludes running the query to
+	 * the first row. DAO row reads, iterators, spliterators, and async queries
+	 * measure through the first row step, or through reading all rows when
+	 * the rows are read in full.
+	 *
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            query shape, the statement with literal values replaced
+	 * @param nanos
+	 *            query duration in nanoseconds
+	 */
+	public default void onQuery(String table, String shape, long nanos) {
+	}
+
+	/**
+	 * Query result rows read
+	 *
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            query shape, the statement with literal values replaced
+	 * @param rows
+	 *            number of rows read
+	 * @param blobBytes
+	 *            number of blob bytes read
+	 */
+	public default void onRows(String table, String shape, long rows,
+			long blobBytes) {
+	}
+
+	/**
+	 * Rows written by an insert, update, upsert, or delete
+	 *
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            write shape, the operation or statement with literal values
+	 *            replaced
+	 * @param nanos
+	 *            write duration in nanoseconds
+	 * @param rows
+	 *            number of rows written
+	 */
+	public default void onWrite(String table, String shape, long nanos,
+			long rows) {
+	}
+
+	/**
+	 * Transaction ended
+	 *
+	 * @param nanos
+	 *            transaction duration in nanoseconds
+	 * @param successful
+	 *            true if committed, false if rolled back
+	 */
+	public default void onTransaction(long nanos, boolean successful) {
+	}
+
+}
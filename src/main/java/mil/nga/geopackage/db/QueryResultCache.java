@@ -0,0 +1,482 @@
+package mil.nga.geopackage.db;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Size bounded LRU cache of table scoped read query results keyed by SQL and
+ * arguments. Entries are invalidated by table when DAOs write, entirely when
+ * DAOs write tables with triggers, and entirely when the connection change
+ * counters show changes not accounted for by tracked table writes: PRAGMA
+ * data_version for other connections, PRAGMA schema_version for schema
+ * changes, and total_changes() for rows changed by this connection. The
+ * change counters are validated at most once per validation interval, so
+ * untracked changes are detected within the interval. Table trigger lookups
+ * are cached until the schema version changes. Cached query result lists
+ * are shared and unmodifiable.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class QueryResultCache {
+
+	/**
+	 * Default max number of cached results
+	 */
+	public static final int DEFAULT_MAX_SIZE = 256;
+
+	/**
+	 * Default change counter validation interval in milliseconds
+	 */
+	public static final long DEFAULT_VALIDATION_INTERVAL = 1000;
+
+	/**
+	 * Cache key of SQL and arguments
+	 */
+	private static class Key {
+
+		/**
+		 * SQL
+		 */
+		private final String sql;
+
+		/**
+		 * Arguments
+		 */
+		private final String[] args;
+
+		/**
+		 * Hash code
+		 */
+		private final int hash;
+
+		/**
+		 * Constructor
+		 *
+		 * @param sql
+		 *            SQL
+		 * @param args
+		 *            arguments
+		 */
+		private Key(String sql, String[] args) {
+			this.sql = sql;
+			this.args = args != null ? args.clone() : null;
+			this.hash = 31 * sql.hashCode() + Arrays.hashCode(args);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			boolean equal = this == obj;
+			if (!equal && obj instanceof Key) {
+				Key other = (Key) obj;
+				equal = hash == other.hash && sql.equals(other.sql)
+						&& Arrays.equals(args, other.args);
+			}
+			return equal;
+		}
+
+	}
+
+	/**
+	 * Cached result
+	 */
+	private static class CachedResult {
+
+		/**
+		 * Table name, null when unknown
+		 */
+		private final String table;
+
+		/**
+		 * Result value
+		 */
+		private final Object value;
+
+		/**
+		 * Constructor
+		 *
+		 * @param table
+		 *            table name
+		 * @param value
+		 *            result value
+		 */
+		private CachedResult(String table, Object value) {
+			this.table = table;
+			this.value = value;
+		}
+
+	}
+
+	/**
+	 * Max number of cached results
+	 */
+	private final int maxSize;
+
+	/**
+	 * Access ordered cached results
+	 */
+	private final Map<Key, CachedResult> entries;
+
+	/**
+	 * Generation incremented on each invalidation, preventing results loaded
+	 * across an invalidation from being cached
+	 */
+	private long generation;
+
+	/**
+	 * Change counter validation interval in milliseconds
+	 */
+	private volatile long validationInterval = DEFAULT_VALIDATION_INTERVAL;
+
+	/**
+	 * Nano time of the last validation
+	 */
+	private long validated;
+
+	/**
+	 * Table trigger presence by table name, cleared on schema changes
+	 */
+	private final Map<String, Boolean> triggers = new HashMap<>();
+
+	/**
+	 * Last validated data version, -1 before the first validation
+	 */
+	private long dataVersion = -1;
+
+	/**
+	 * Last validated schema version
+	 */
+	private long schemaVersion;
+
+	/**
+	 * Last validated total changes
+	 */
+	private long totalChanges;
+
+	/**
+	 * Rows changed by tracked table writes since the last validation
+	 */
+	private long trackedChanges;
+
+	/**
+	 * Cache hits
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Cache misses
+	 */
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructor
+	 */
+	public QueryResultCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            max number of cached results
+	 */
+	public QueryResultCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new GeoPackageException(
+					"Result cache max size must be at least 1, max size: "
+							+ maxSize);
+		}
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f,
+				true) {
+
+			/**
+			 * Serial version id
+			 */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Key, CachedResult> eldest) {
+				return size() > QueryResultCache.this.maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Get the max number of cached results
+	 *
+	 * @return max size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Get the change counter validation interval
+	 *
+	 * @return validation interval in milliseconds
+	 */
+	public long getValidationInterval() {
+		return validationInterval;
+	}
+
+	/**
+	 * Set the change counter validation interval, the max time before
+	 * changes not made by tracked DAO writes are detected
+	 *
+	 * @param validationInterval
+	 *            validation interval in milliseconds, 0 to validate on every
+	 *            cached read
+	 */
+	public void setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+	}
+
+	/**
+	 * Determine if the change counters are due for validation
+	 *
+	 * @return true if never validated or the validation interval has elapsed
+	 */
+	public synchronized boolean isValidationDue() {
+		return dataVersion == -1 || System.nanoTime()
+				- validated >= TimeUnit.MILLISECONDS.toNanos(validationInterval);
+	}
+
+	/**
+	 * Determine if the table has triggers, looking up and caching the
+	 * presence until the schema version changes
+	 *
+	 * @param table
+	 *            table name
+	 * @param lookup
+	 *            trigger presence lookup of the table
+	 * @return true if the table has triggers
+	 */
+	public boolean hasTriggers(String table, Predicate<String> lookup) {
+		Boolean hasTriggers;
+		synchronized (this) {
+			hasTriggers = triggers.get(table);
+		}
+		if (hasTriggers == null) {
+			hasTriggers = lookup.test(table);
+			synchronized (this) {
+				triggers.put(table, hasTriggers);
+			}
+		}
+		return hasTriggers;
+	}
+
+	/**
+	 * Get the cached result or query and cache it
+	 *
+	 * @param <T>
+	 *            result type
+	 * @param table
+	 *            queried table name, null when unknown
+	 * @param sql
+	 *            SQL
+	 * @param args
+	 *            arguments
+	 * @param query
+	 *            query of the result when not cached
+	 * @return result
+	 */
+	public <T> T get(String table, String sql, String[] args,
+			Supplier<T> query) {
+
+		Key key = new Key(sql, args);
+		long loadGeneration;
+		synchronized (this) {
+			CachedResult entry = entries.get(key);
+			if (entry != null) {
+				hits.increment();
+				@SuppressWarnings("unchecked")
+				T value = (T) entry.value;
+				return value;
+			}
+			loadGeneration = generation;
+		}
+		misses.increment();
+
+		T value = query.get();
+		if (value instanceof List) {
+			@SuppressWarnings("unchecked")
+			T unmodifiable = (T) Collections.unmodifiableList((List<?>) value);
+			value = unmodifiable;
+		}
+
+		synchronized (this) {
+			if (loadGeneration == generation) {
+				entries.put(key, new CachedResult(table, value));
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Invalidate cached results of the table and of unknown tables after a
+	 * tracked table write
+	 *
+	 * @param table
+	 *            written table name
+	 * @param rows
+	 *            number of rows changed
+	 */
+	public synchronized void invalidate(String table, long rows) {
+		generation++;
+		trackedChanges += rows;
+		Iterator<CachedResult> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			CachedResult entry = iterator.next();
+			if (entry.table == null || entry.table.equals(table)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Track rows changed by this connection that do not change cached
+	 * results, such as temporary table writes
+	 *
+	 * @param rows
+	 *            number of rows changed
+	 */
+	public synchronized void track(long rows) {
+		trackedChanges += rows;
+	}
+
+	/**
+	 * Invalidate all cached results after a tracked write to a table that may
+	 * change other tables, such as a table with triggers
+	 *
+	 * @param rows
+	 *            number of rows changed
+	 */
+	public synchronized void invalidateAll(long rows) {
+		trackedChanges += rows;
+		clearEntries();
+	}
+
+	/**
+	 * Validate the cache against the connection change counters, clearing
+	 * all results when changes were made that tracked table writes do not
+	 * account for
+	 *
+	 * @param dataVersion
+	 *            PRAGMA data_version, changed by other connections
+	 * @param schemaVersion
+	 *            PRAGMA schema_version, changed by schema changes
+	 * @param totalChanges
+	 *            total_changes(), rows changed by this connection
+	 */
+	public synchronized void validate(long dataVersion, long schemaVersion,
+			long totalChanges) {
+		if (this.dataVersion != -1 && (dataVersion != this.dataVersion
+				|| schemaVersion != this.schemaVersion
+				|| totalChanges - this.totalChanges != trackedChanges)) {
+			clearEntries();
+		}
+		if (schemaVersion != this.schemaVersion) {
+			triggers.clear();
+		}
+		validated = System.nanoTime();
+		this.dataVersion = dataVersion;
+		this.schemaVersion = schemaVersion;
+		this.totalChanges = totalChanges;
+		trackedChanges = 0;
+	}
+
+	/**
+	 * Clear all cached results
+	 */
+	public synchronized void clear() {
+		clearEntries();
+		triggers.clear();
+		dataVersion = -1;
+		trackedChanges = 0;
+	}
+
+	/**
+	 * Get the number of cached results
+	 *
+	 * @return size
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get the number of cache hits
+	 *
+	 * @return hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of cache misses
+	 *
+	 * @return misses
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Get the cache hit rate
+	 *
+	 * @return hit rate between 0.0 and 1.0
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total > 0 ? (double) hitCount / total : 0.0;
+	}
+
+	/**
+	 * Reset the hit and miss statistics
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Clear the cached results and advance the generation
+	 */
+	private void clearEntries() {
+		generation++;
+		entries.clear();
+	}
+
+}
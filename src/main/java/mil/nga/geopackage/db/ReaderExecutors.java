@@ -0,0 +1,151 @@
+package mil.nga.geopackage.db;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Reader executors running asynchronous queries off of the calling threads.
+ * Uses a virtual thread per task executor when the runtime supports virtual
+ * threads, otherwise a bounded pool of daemon platform threads. Asynchronous
+ * reads run on reader connections supplied by
+ * {@link GeoPackageCoreConnection#setReaderConnections(java.util.function.Supplier)},
+ * never on the calling connection, so reads on separate reader connections
+ * run in parallel.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class ReaderExecutors {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger logger = Logger
+			.getLogger(ReaderExecutors.class.getName());
+
+	/**
+	 * Default number of bounded platform reader threads
+	 */
+	public static final int DEFAULT_THREADS = Math.max(2,
+			Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Default max number of queued reads of a bounded executor
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+	/**
+	 * Reader thread name prefix
+	 */
+	private static final String THREAD_NAME = "geopackage-reader-";
+
+	/**
+	 * Shared default reader executor
+	 */
+	private static ExecutorService defaultExecutor;
+
+	/**
+	 * Get the shared default reader executor, created on first use
+	 *
+	 * @return reader executor
+	 */
+	public static synchronized ExecutorService getDefault() {
+		if (defaultExecutor == null) {
+			defaultExecutor = create();
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Create a reader executor, a virtual thread per task executor when
+	 * supported, otherwise bounded to {@link #DEFAULT_THREADS}
+	 *
+	 * @return reader executor
+	 */
+	public static ExecutorService create() {
+		ExecutorService executor = createVirtual();
+		if (executor == null) {
+			executor = createBounded(DEFAULT_THREADS);
+		}
+		return executor;
+	}
+
+	/**
+	 * Create a virtual thread per task executor
+	 *
+	 * @return reader executor, null when virtual threads are not supported
+	 */
+	public static ExecutorService createVirtual() {
+		ExecutorService executor = null;
+		try {
+			Method method = Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor");
+			executor = (ExecutorService) method.invoke(null);
+		} catch (NoSuchMethodException e) {
+			// Virtual threads not supported by the runtime
+		} catch (Exception e) {
+			logger.log(Level.WARNING,
+					"Failed to create a virtual thread executor", e);
+		}
+		return executor;
+	}
+
+	/**
+	 * Create a bounded reader executor of daemon platform threads, queueing
+	 * up to {@link #DEFAULT_QUEUE_SIZE} reads
+	 *
+	 * @param threads
+	 *            max number of reader threads
+	 * @return reader executor
+	 */
+	public static ExecutorService createBounded(int threads) {
+		return createBounded(threads, DEFAULT_QUEUE_SIZE);
+	}
+
+	/**
+	 * Create a bounded reader executor of daemon platform threads. Idle
+	 * threads time out so an unused executor holds no threads. When all
+	 * threads are busy and the queue is full, reads run on the calling
+	 * thread, applying back pressure instead of queueing without bound.
+	 *
+	 * @param threads
+	 *            max number of reader threads
+	 * @param queueSize
+	 *            max number of queued reads
+	 * @return reader executor
+	 */
+	public static ExecutorService createBounded(int threads, int queueSize) {
+		if (threads < 1) {
+			throw new GeoPackageException(
+					"Reader threads must be at least 1, threads: " + threads);
+		}
+		if (queueSize < 1) {
+			throw new GeoPackageException(
+					"Reader queue size must be at least 1, queue size: "
+							+ queueSize);
+		}
+		AtomicInteger count = new AtomicInteger();
+		ThreadFactory threadFactory = (runnable) -> {
+			Thread thread = new Thread(runnable,
+					THREAD_NAME + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+				60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+				threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+}
@@ -137,21 +137,12 @@ public class ResultUtils {
 			break;
 
 		case FIELD_TYPE_STRING:
-			String stringValue = result.getString(index);
-
 			if (dataType != null && (dataType == GeoPackageDataType.DATE
 					|| dataType == GeoPackageDataType.DATETIME)) {
-				DateConverter converter = DateConverter.converter(dataType);
-				try {
-					value = converter.dateValue(stringValue);
-				} catch (Exception e) {
-					logger.log(Level.WARNING, "Invalid " + dataType
-							+ " format: " + stringValue + ", String value used",
-							e);
-					value = stringValue;
-				}
+				value = getDateValue(result, index, dataType,
+						DateConverter.converter(dataType));
 			} else {
-				value = stringValue;
+				value = result.getString(index);
 			}
 			break;
 
@@ -260,6 +251,243 @@ public class ResultUtils {
 		return value;
 	}
 
+	/**
+	 * Dynamic decoder for values of any field type
+	 *
+	 * @param dataType
+	 *            data type
+	 * @return decoder
+	 * @since 4.0.1
+	 */
+	public static ResultValueDecoder getDecoder(
+			final GeoPackageDataType dataType) {
+		return (result, index, type) -> getValue(result, index, type,
+				dataType);
+	}
+
+	/**
+	 * Get a decoder specialized for values of the field type and data type.
+	 * Values of a different field type fall back to the dynamic decoder.
+	 *
+	 * @param type
+	 *            expected field type: {@link #FIELD_TYPE_INTEGER},
+	 *            {@link #FIELD_TYPE_FLOAT}, {@link #FIELD_TYPE_STRING},
+	 *            {@link #FIELD_TYPE_BLOB}, or {@link #FIELD_TYPE_NULL}
+	 * @param dataType
+	 *            data type
+	 * @return decoder
+	 * @since 4.0.1
+	 */
+	public static ResultValueDecoder getDecoder(int type,
+			final GeoPackageDataType dataType) {
+
+		ResultValueDecoder decoder = null;
+
+		switch (type) {
+
+		case FIELD_TYPE_INTEGER:
+			GeoPackageDataType integerType = dataType != null ? dataType
+					: GeoPackageDataType.INTEGER;
+			switch (integerType) {
+			case BOOLEAN:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, result.getShort(index) == 0
+								? Boolean.FALSE
+								: Boolean.TRUE)
+						: getValue(result, index, valueType, dataType);
+				break;
+			case TINYINT:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, (byte) result.getShort(index))
+						: getValue(result, index, valueType, dataType);
+				break;
+			case SMALLINT:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, result.getShort(index))
+						: getValue(result, index, valueType, dataType);
+				break;
+			case MEDIUMINT:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, result.getInt(index))
+						: getValue(result, index, valueType, dataType);
+				break;
+			case INT:
+			case INTEGER:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, result.getLong(index))
+						: getValue(result, index, valueType, dataType);
+				break;
+			default:
+			}
+			break;
+
+		case FIELD_TYPE_FLOAT:
+			GeoPackageDataType floatType = dataType != null ? dataType
+					: GeoPackageDataType.DOUBLE;
+			switch (floatType) {
+			case FLOAT:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, result.getFloat(index))
+						: getValue(result, index, valueType, dataType);
+				break;
+			case DOUBLE:
+			case REAL:
+			case INTEGER:
+			case INT:
+				decoder = (result, index, valueType) -> valueType == type
+						? nullable(result, result.getDouble(index))
+						: getValue(result, index, valueType, dataType);
+				break;
+			default:
+			}
+			break;
+
+		case FIELD_TYPE_STRING:
+			if (dataType == GeoPackageDataType.DATE
+					|| dataType == GeoPackageDataType.DATETIME) {
+				final DateConverter converter = DateConverter
+						.converter(dataType);
+				decoder = (result, index, valueType) -> valueType == type
+						? getDateValue(result, index, dataType, converter)
+						: getValue(result, index, valueType, dataType);
+			} else {
+				decoder = (result, index, valueType) -> valueType == type
+						? result.getString(index)
+						: getValue(result, index, valueType, dataType);
+			}
+			break;
+
+		case FIELD_TYPE_BLOB:
+			decoder = (result, index, valueType) -> valueType == type
+					? result.getBlob(index)
+					: getValue(result, index, valueType, dataType);
+			break;
+
+		default:
+		}
+
+		if (decoder == null) {
+			decoder = getDecoder(dataType);
+		}
+
+		return decoder;
+	}
+
+	/**
+	 * Get the primitive value read from the result, or null when the read
+	 * value was null. Drivers may report a null cell as the declared column
+	 * field type.
+	 *
+	 * @param result
+	 *            result
+	 * @param value
+	 *            read value
+	 * @return value or null
+	 */
+	private static Object nullable(Result result, Object value) {
+		return result.wasNull() ? null : value;
+	}
+
+	/**
+	 * Get a decoder reading formatted string dates of the date data type as
+	 * {@link Long} epoch milliseconds. Invalid formats are read as the String
+	 * value and values of other field types fall back to the dynamic decoder.
+	 *
+	 * @param dataType
+	 *            date data type
+	 * @return decoder
+	 * @since 4.0.1
+	 */
+	public static ResultValueDecoder getEpochMillisDecoder(
+			final GeoPackageDataType dataType) {
+		final DateConverter converter = DateConverter.converter(dataType);
+		return (result, index, type) -> type == FIELD_TYPE_STRING
+				? getEpochMillisValue(result, index, dataType, converter)
+				: getValue(result, index, type, dataType);
+	}
+
+	/**
+	 * Get decoders for the result columns, specialized for the field types of
+	 * the current row and the column data types
+	 *
+	 * @param result
+	 *            result positioned at a row
+	 * @param dataTypes
+	 *            column data types, null or containing null values for
+	 *            unknown types
+	 * @return decoders
+	 * @since 4.0.1
+	 */
+	public static ResultValueDecoder[] getDecoders(Result result,
+			GeoPackageDataType[] dataTypes) {
+		ResultValueDecoder[] decoders = new ResultValueDecoder[result
+				.getColumnCount()];
+		for (int i = 0; i < decoders.length; i++) {
+			GeoPackageDataType dataType = dataTypes != null
+					&& i < dataTypes.length ? dataTypes[i] : null;
+			decoders[i] = getDecoder(result.getType(i), dataType);
+		}
+		return decoders;
+	}
+
+	/**
+	 * Get the date value from the String value of the result column, using
+	 * the String value when not a valid date format
+	 *
+	 * @param result
+	 *            result
+	 * @param index
+	 *            index
+	 * @param dataType
+	 *            date data type
+	 * @param converter
+	 *            date converter
+	 * @return date or String value
+	 */
+	private static Object getDateValue(Result result, int index,
+			GeoPackageDataType dataType, DateConverter converter) {
+		Object value;
+		String stringValue = result.getString(index);
+		try {
+			value = converter.dateValue(stringValue);
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Invalid " + dataType + " format: "
+					+ stringValue + ", String value used", e);
+			value = stringValue;
+		}
+		return value;
+	}
+
+	/**
+	 * Get the epoch milliseconds value from the String value of the result
+	 * column, using the String value when not a valid date format
+	 *
+	 * @param result
+	 *            result
+	 * @param index
+	 *            index
+	 * @param dataType
+	 *            date data type
+	 * @param converter
+	 *            date converter
+	 * @return epoch milliseconds or String value
+	 */
+	private static Object getEpochMillisValue(Result result, int index,
+			GeoPackageDataType dataType, DateConverter converter) {
+		Object value = null;
+		String stringValue = result.getString(index);
+		if (stringValue != null) {
+			try {
+				value = converter.epochMillis(stringValue);
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Invalid " + dataType + " format: "
+						+ stringValue + ", String value used", e);
+				value = stringValue;
+			}
+		}
+		return value;
+	}
+
 	/**
 	 * Get the converted value from the value and data type
 	 * 
@@ -391,12 +619,14 @@ public class ResultUtils {
 
 		List<List<Object>> results = new ArrayList<>();
 		try {
-			int columns = result.getColumnCount();
+			ResultValueDecoder[] decoders = null;
 			while (result.moveToNext()) {
-				List<Object> row = new ArrayList<>();
-				for (int i = 0; i < columns; i++) {
-					row.add(result.getValue(i,
-							dataTypes != null ? dataTypes[i] : null));
+				if (decoders == null) {
+					decoders = getDecoders(result, dataTypes);
+				}
+				List<Object> row = new ArrayList<>(decoders.length);
+				for (int i = 0; i < decoders.length; i++) {
+					row.add(decoders[i].decode(result, i, result.getType(i)));
 				}
 				results.add(row);
 				if (limit != null && results.size() >= limit) {
@@ -0,0 +1,31 @@
+package mil.nga.geopackage.db;
+
+/**
+ * Result value decoder for a single column, precompiled for the column's
+ * expected field type and data type
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+@FunctionalInterface
+public interface ResultValueDecoder {
+
+	/**
+	 * Decode the value from the result of the provided column
+	 *
+	 * @param result
+	 *            result
+	 * @param index
+	 *            index
+	 * @param type
+	 *            field type of the current value:
+	 *            {@link ResultUtils#FIELD_TYPE_INTEGER},
+	 *            {@link ResultUtils#FIELD_TYPE_FLOAT},
+	 *            {@link ResultUtils#FIELD_TYPE_STRING},
+	 *            {@link ResultUtils#FIELD_TYPE_BLOB}, or
+	 *            {@link ResultUtils#FIELD_TYPE_NULL}
+	 * @return value
+	 */
+	public Object decode(Result result, int index, int type);
+
+}
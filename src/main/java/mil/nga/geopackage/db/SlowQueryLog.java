@@ -0,0 +1,423 @@
+package mil.nga.geopackage.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Slow query log capturing user table statements exceeding a threshold. The
+ * first slow execution of each statement shape runs EXPLAIN QUERY PLAN,
+ * flagging full table scans of large tables and suggesting an index on the
+ * filtered columns.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class SlowQueryLog {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger logger = Logger
+			.getLogger(SlowQueryLog.class.getName());
+
+	/**
+	 * Default min number of table rows for a full table scan to be flagged
+	 */
+	public static final long DEFAULT_MIN_TABLE_ROWS = 1000;
+
+	/**
+	 * Full table scan plan detail pattern, "SCAN TABLE name" in older SQLite
+	 * versions and "SCAN name" in newer
+	 */
+	private static final Pattern FULL_SCAN = Pattern
+			.compile("^SCAN (?:TABLE )?(\\S+)");
+
+	/**
+	 * Where clause pattern, ending at group by, order by, or limit
+	 */
+	private static final Pattern WHERE = Pattern.compile(
+			"\\bWHERE\\b(.*?)(?:\\bGROUP BY\\b|\\bORDER BY\\b|\\bLIMIT\\b|$)",
+			Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * Column comparison pattern of a where clause
+	 */
+	private static final Pattern COMPARISON = Pattern.compile(
+			"(\"(?:[^\"]|\"\")+\"|[A-Za-z_][A-Za-z0-9_]*)\\s*(==|=|<>|!=|<=|>=|<|>|\\bIN\\b|\\bIS\\b|\\bLIKE\\b|\\bBETWEEN\\b)",
+			Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * Keywords that are not column names
+	 */
+	private static final Set<String> KEYWORDS = new LinkedHashSet<>(
+			Arrays.asList("AND", "OR", "NOT", "NULL", "WHERE"));
+
+	/**
+	 * Threshold nanoseconds
+	 */
+	private final long thresholdNanos;
+
+	/**
+	 * Min number of table rows for a full table scan to be flagged
+	 */
+	private volatile long minTableRows = DEFAULT_MIN_TABLE_ROWS;
+
+	/**
+	 * Reports by table and statement shape
+	 */
+	private final ConcurrentMap<String, SlowQueryReport> reports = new ConcurrentHashMap<>();
+
+	/**
+	 * Table row counts
+	 */
+	private final ConcurrentMap<String, Long> tableRows = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param thresholdMillis
+	 *            statements taking at least the threshold milliseconds are
+	 *            captured
+	 */
+	public SlowQueryLog(long thresholdMillis) {
+		this.thresholdNanos = thresholdMillis * 1000000L;
+	}
+
+	/**
+	 * Get the threshold milliseconds
+	 *
+	 * @return threshold milliseconds
+	 */
+	public long getThresholdMillis() {
+		return thresholdNanos / 1000000L;
+	}
+
+	/**
+	 * Get the min number of table rows for a full table scan to be flagged
+	 *
+	 * @return min table rows
+	 */
+	public long getMinTableRows() {
+		return minTableRows;
+	}
+
+	/**
+	 * Set the min number of table rows for a full table scan to be flagged
+	 *
+	 * @param minTableRows
+	 *            min table rows
+	 */
+	public void setMinTableRows(long minTableRows) {
+		this.minTableRows = minTableRows;
+	}
+
+	/**
+	 * Get the reports ordered by total slow execution time
+	 *
+	 * @return reports
+	 */
+	public List<SlowQueryReport> getReports() {
+		List<SlowQueryReport> sorted = new ArrayList<>(reports.values());
+		Collections.sort(sorted, (report1, report2) -> Long
+				.compare(report2.getTotalNanos(), report1.getTotalNanos()));
+		return sorted;
+	}
+
+	/**
+	 * Get the reports with full scans of large tables ordered by total slow
+	 * execution time
+	 *
+	 * @return full scan reports
+	 */
+	public List<SlowQueryReport> getFullScanReports() {
+		List<SlowQueryReport> fullScans = new ArrayList<>();
+		for (SlowQueryReport report : getReports()) {
+			if (report.isFullScan()) {
+				fullScans.add(report);
+			}
+		}
+		return fullScans;
+	}
+
+	/**
+	 * Get the unique suggested indexes of all reports
+	 *
+	 * @return suggested CREATE INDEX statements
+	 */
+	public Set<String> getSuggestedIndexes() {
+		Set<String> indexes = new LinkedHashSet<>();
+		for (SlowQueryReport report : getReports()) {
+			indexes.addAll(report.getSuggestedIndexes());
+		}
+		return indexes;
+	}
+
+	/**
+	 * Get a summary of the reports ordered by total slow execution time
+	 *
+	 * @return summary
+	 */
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		summary.append("Slow queries (>= ").append(getThresholdMillis())
+				.append(" ms): ").append(reports.size()).append("\n");
+		for (SlowQueryReport report : getReports()) {
+			summary.append(report).append("\n");
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Clear all reports and cached table row counts
+	 */
+	public void clear() {
+		reports.clear();
+		tableRows.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return getSummary();
+	}
+
+	/**
+	 * Determine if the duration meets the threshold
+	 *
+	 * @param nanos
+	 *            duration nanoseconds
+	 * @return true if slow
+	 */
+	public boolean isSlow(long nanos) {
+		return nanos >= thresholdNanos;
+	}
+
+	/**
+	 * Record a slow statement, explaining the statement shape on its first
+	 * slow execution
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            statement shape
+	 * @param nanos
+	 *            duration nanoseconds
+	 */
+	void record(GeoPackageCoreConnection connection, String table,
+			String shape, long nanos) {
+		String key = table + "\n" + shape;
+		SlowQueryReport report = reports.get(key);
+		if (report == null) {
+			SlowQueryReport created = explain(connection, table, shape);
+			report = reports.putIfAbsent(key, created);
+			if (report == null) {
+				report = created;
+				logger.log(Level.WARNING, "Slow query: " + created);
+			}
+		}
+		report.record(nanos);
+	}
+
+	/**
+	 * Explain the statement shape
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            statement shape
+	 * @return report
+	 */
+	private SlowQueryReport explain(GeoPackageCoreConnection connection,
+			String table, String shape) {
+
+		List<String> plan = new ArrayList<>();
+		List<String> fullScanTables = new ArrayList<>();
+		List<String> suggestedIndexes = new ArrayList<>();
+
+		String upper = shape.trim().toUpperCase(Locale.US);
+		if (upper.startsWith("SELECT") || upper.startsWith("WITH")
+				|| upper.startsWith("DELETE") || upper.startsWith("UPDATE")) {
+			try {
+				List<List<Object>> results = connection.queryResults(
+						"EXPLAIN QUERY PLAN " + explainable(shape), null);
+				for (List<Object> row : results) {
+					Object detail = row.get(row.size() - 1);
+					if (detail != null) {
+						plan.add(detail.toString());
+					}
+				}
+			} catch (Exception e) {
+				logger.log(Level.WARNING,
+						"Failed to explain query plan: " + shape, e);
+			}
+		}
+
+		for (String detail : plan) {
+			Matcher matcher = FULL_SCAN.matcher(detail);
+			if (matcher.find() && !detail.contains(" USING ")
+					&& !detail.contains("VIRTUAL TABLE")) {
+				String scanTable = matcher.group(1);
+				if (!fullScanTables.contains(scanTable)
+						&& isLarge(connection, scanTable)) {
+					fullScanTables.add(scanTable);
+				}
+			}
+		}
+
+		if (fullScanTables.contains(table)) {
+			String index = suggestIndex(table, shape);
+			if (index != null) {
+				suggestedIndexes.add(index);
+			}
+		}
+
+		return new SlowQueryReport(table, shape, plan, fullScanTables,
+				suggestedIndexes);
+	}
+
+	/**
+	 * Determine if the table has at least the min table rows
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table name
+	 * @return true if large
+	 */
+	private boolean isLarge(GeoPackageCoreConnection connection,
+			String table) {
+		Long rows = tableRows.get(table);
+		if (rows == null) {
+			rows = 0L;
+			try {
+				if (connection.tableExists(table)) {
+					rows = (long) connection.count(table);
+				}
+			} catch (Exception e) {
+				logger.log(Level.WARNING,
+						"Failed to count table rows: " + table, e);
+			}
+			tableRows.put(table, rows);
+		}
+		return rows >= minTableRows;
+	}
+
+	/**
+	 * Get the explainable statement, replacing unbound parameters with null
+	 * values
+	 *
+	 * @param shape
+	 *            statement shape
+	 * @return explainable SQL
+	 */
+	static String explainable(String shape) {
+		StringBuilder sql = new StringBuilder(shape.length());
+		char quote = 0;
+		for (int i = 0; i < shape.length(); i++) {
+			char c = shape.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+				sql.append(c);
+			} else if (c == '\'' || c == '"' || c == '`') {
+				quote = c;
+				sql.append(c);
+			} else if (c == '[') {
+				quote = ']';
+				sql.append(c);
+			} else if (c == '?') {
+				if (shape.startsWith("?...", i)) {
+					i += 3;
+				}
+				sql.append("NULL");
+			} else {
+				sql.append(c);
+			}
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * Suggest an index on the where clause columns of the statement shape,
+	 * equality columns first followed by the first range column
+	 *
+	 * @param table
+	 *            table name
+	 * @param shape
+	 *            statement shape
+	 * @return CREATE INDEX statement or null
+	 */
+	static String suggestIndex(String table, String shape) {
+
+		String index = null;
+
+		Matcher whereMatcher = WHERE.matcher(shape);
+		if (whereMatcher.find()) {
+
+			Set<String> equality = new LinkedHashSet<>();
+			String range = null;
+
+			Matcher matcher = COMPARISON.matcher(whereMatcher.group(1));
+			while (matcher.find()) {
+				String column = matcher.group(1);
+				if (column.startsWith("\"")) {
+					column = column.substring(1, column.length() - 1)
+							.replace("\"\"", "\"");
+				} else if (KEYWORDS
+						.contains(column.toUpperCase(Locale.US))) {
+					continue;
+				}
+				String operator = matcher.group(2).toUpperCase(Locale.US);
+				if (operator.equals("=") || operator.equals("==")
+						|| operator.equals("IN") || operator.equals("IS")) {
+					equality.add(column);
+				} else if (range == null) {
+					range = column;
+				}
+			}
+
+			List<String> columns = new ArrayList<>(equality);
+			if (range != null && !columns.contains(range)) {
+				columns.add(range);
+			}
+
+			if (!columns.isEmpty()) {
+				StringBuilder name = new StringBuilder("idx_").append(table);
+				StringBuilder quoted = new StringBuilder();
+				for (String column : columns) {
+					name.append("_").append(column);
+					if (quoted.length() > 0) {
+						quoted.append(", ");
+					}
+					quoted.append(CoreSQLUtils.quoteWrap(column));
+				}
+				index = "CREATE INDEX IF NOT EXISTS "
+						+ CoreSQLUtils.quoteWrap(
+								name.toString().replaceAll("\\W", "_"))
+						+ " ON " + CoreSQLUtils.quoteWrap(table) + " ("
+						+ quoted + ")";
+			}
+		}
+
+		return index;
+	}
+
+}
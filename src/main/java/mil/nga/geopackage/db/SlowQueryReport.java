@@ -0,0 +1,191 @@
+package mil.nga.geopackage.db;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Slow query report of a statement shape exceeding the {@link SlowQueryLog}
+ * threshold, with the query plan, full table scans, and suggested indexes
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class SlowQueryReport {
+
+	/**
+	 * Table name
+	 */
+	private final String table;
+
+	/**
+	 * Statement shape
+	 */
+	private final String sql;
+
+	/**
+	 * Query plan details
+	 */
+	private final List<String> plan;
+
+	/**
+	 * Large tables read with a full table scan
+	 */
+	private final List<String> fullScanTables;
+
+	/**
+	 * Suggested index statements
+	 */
+	private final List<String> suggestedIndexes;
+
+	/**
+	 * Number of slow executions
+	 */
+	private long count;
+
+	/**
+	 * Total slow execution nanoseconds
+	 */
+	private long totalNanos;
+
+	/**
+	 * Max execution nanoseconds
+	 */
+	private long maxNanos;
+
+	/**
+	 * Constructor
+	 *
+	 * @param table
+	 *            table name
+	 * @param sql
+	 *            statement shape
+	 * @param plan
+	 *            query plan details
+	 * @param fullScanTables
+	 *            large tables read with a full table scan
+	 * @param suggestedIndexes
+	 *            suggested index statements
+	 */
+	public SlowQueryReport(String table, String sql, List<String> plan,
+			List<String> fullScanTables, List<String> suggestedIndexes) {
+		this.table = table;
+		this.sql = sql;
+		this.plan = Collections.unmodifiableList(plan);
+		this.fullScanTables = Collections.unmodifiableList(fullScanTables);
+		this.suggestedIndexes = Collections
+				.unmodifiableList(suggestedIndexes);
+	}
+
+	/**
+	 * Get the table name
+	 *
+	 * @return table name
+	 */
+	public String getTable() {
+		return table;
+	}
+
+	/**
+	 * Get the statement shape, with literal values replaced by parameters
+	 *
+	 * @return SQL
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Get the EXPLAIN QUERY PLAN details
+	 *
+	 * @return plan details, empty when the statement could not be explained
+	 */
+	public List<String> getPlan() {
+		return plan;
+	}
+
+	/**
+	 * Determine if the plan includes a full scan of a large table
+	 *
+	 * @return true if a full table scan
+	 */
+	public boolean isFullScan() {
+		return !fullScanTables.isEmpty();
+	}
+
+	/**
+	 * Get the large tables read with a full table scan
+	 *
+	 * @return table names
+	 */
+	public List<String> getFullScanTables() {
+		return fullScanTables;
+	}
+
+	/**
+	 * Get the suggested CREATE INDEX statements
+	 *
+	 * @return suggested indexes
+	 */
+	public List<String> getSuggestedIndexes() {
+		return suggestedIndexes;
+	}
+
+	/**
+	 * Get the number of slow executions
+	 *
+	 * @return count
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the total slow execution nanoseconds
+	 *
+	 * @return total nanoseconds
+	 */
+	public synchronized long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Get the max execution nanoseconds
+	 *
+	 * @return max nanoseconds
+	 */
+	public synchronized long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Record a slow execution
+	 *
+	 * @param nanos
+	 *            execution nanoseconds
+	 */
+	synchronized void record(long nanos) {
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append("Table: ").append(table).append(", count: ")
+				.append(count).append(", total ms: ")
+				.append(totalNanos / 1000000.0).append(", max ms: ")
+				.append(maxNanos / 1000000.0).append("\n\tSQL: ").append(sql);
+		for (String detail : plan) {
+			report.append("\n\tPlan: ").append(detail);
+		}
+		for (String index : suggestedIndexes) {
+			report.append("\n\tSuggested: ").append(index);
+		}
+		return report.toString();
+	}
+
+}
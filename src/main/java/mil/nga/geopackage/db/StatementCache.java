@@ -0,0 +1,232 @@
+package mil.nga.geopackage.db;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Size bounded LRU cache of a connection's idle prepared statements keyed by
+ * SQL. A lease removes the idle statement of the SQL, or prepares a new one,
+ * so a statement is never shared by concurrent lease holders. Closing the
+ * leased statement returns it as the idle statement of the SQL, or closes it
+ * when another statement of the SQL was returned first. Evicted idle
+ * statements are closed.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class StatementCache {
+
+	/**
+	 * Default max number of idle statements
+	 */
+	public static final int DEFAULT_MAX_SIZE = 32;
+
+	/**
+	 * Max number of idle statements
+	 */
+	private final int maxSize;
+
+	/**
+	 * Access ordered idle statements
+	 */
+	private final Map<String, GeoPackageStatement> statements;
+
+	/**
+	 * Closed flag, released statements are closed instead of cached
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Cache hits
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Cache misses
+	 */
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Evicted idle statements
+	 */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructor
+	 */
+	public StatementCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            max number of idle statements
+	 */
+	public StatementCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new GeoPackageException(
+					"Statement cache max size must be at least 1, max size: "
+							+ maxSize);
+		}
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<String, GeoPackageStatement>(16,
+				0.75f, true) {
+
+			/**
+			 * Serial version id
+			 */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, GeoPackageStatement> eldest) {
+				boolean remove = size() > StatementCache.this.maxSize;
+				if (remove) {
+					evictions.increment();
+					eldest.getValue().closeStatement();
+				}
+				return remove;
+			}
+
+		};
+	}
+
+	/**
+	 * Get the max number of idle statements
+	 *
+	 * @return max size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Lease the idle statement of the SQL, or prepare a new statement. The
+	 * lease ends when the statement is closed.
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @param prepare
+	 *            statement preparer when no idle statement
+	 * @return leased statement
+	 */
+	public GeoPackageStatement lease(String sql,
+			Function<String, GeoPackageStatement> prepare) {
+		GeoPackageStatement statement;
+		synchronized (this) {
+			statement = statements.remove(sql);
+		}
+		if (statement != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			statement = prepare.apply(sql);
+		}
+		statement.setCache(this);
+		return statement;
+	}
+
+	/**
+	 * Return a leased statement as the idle statement of its SQL
+	 *
+	 * @param statement
+	 *            closed leased statement
+	 */
+	void release(GeoPackageStatement statement) {
+		boolean cached = false;
+		synchronized (this) {
+			if (!closed && !statements.containsKey(statement.getSql())) {
+				statements.put(statement.getSql(), statement);
+				cached = true;
+			}
+		}
+		if (!cached) {
+			statement.closeStatement();
+		}
+	}
+
+	/**
+	 * Close the idle statements
+	 */
+	public synchronized void clear() {
+		for (GeoPackageStatement statement : statements.values()) {
+			statement.closeStatement();
+		}
+		statements.clear();
+	}
+
+	/**
+	 * Close the idle statements and close statements released afterwards,
+	 * called when the connection closes
+	 */
+	public synchronized void close() {
+		closed = true;
+		clear();
+	}
+
+	/**
+	 * Get the number of idle statements
+	 *
+	 * @return size
+	 */
+	public synchronized int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Get the number of leases of an idle statement
+	 *
+	 * @return hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of leases preparing a new statement
+	 *
+	 * @return misses
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Get the number of idle statements evicted and closed
+	 *
+	 * @return evictions
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Get the cache hit rate
+	 *
+	 * @return hit rate between 0.0 and 1.0
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total > 0 ? (double) hitCount / total : 0.0;
+	}
+
+	/**
+	 * Reset the hit, miss, and eviction statistics
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+}
@@ -15,8 +15,10 @@ import mil.nga.geopackage.extension.ExtensionManagement;
 import mil.nga.geopackage.extension.ExtensionManager;
 import mil.nga.geopackage.extension.Extensions;
 import mil.nga.geopackage.extension.ExtensionsDao;
+import mil.nga.geopackage.extension.nga.compact.CompactGeometryExtension;
 import mil.nga.geopackage.extension.nga.contents.ContentsId;
 import mil.nga.geopackage.extension.nga.contents.ContentsIdExtension;
+import mil.nga.geopackage.extension.nga.count.RowCountExtension;
 import mil.nga.geopackage.extension.nga.index.FeatureTableCoreIndex;
 import mil.nga.geopackage.extension.nga.index.GeometryIndex;
 import mil.nga.geopackage.extension.nga.index.GeometryIndexDao;
@@ -89,6 +91,8 @@ public class NGAExtensions extends ExtensionManagement {
 		deleteProperties(table);
 		deleteFeatureStyle(table);
 		deleteContentsId(table);
+		deleteCompactGeometry(table);
+		deleteRowCount(table);
 
 		// Delete future extensions for the table here
 	}
@@ -105,6 +109,8 @@ public class NGAExtensions extends ExtensionManagement {
 		deletePropertiesExtension();
 		deleteFeatureStyleExtension();
 		deleteContentsIdExtension();
+		deleteCompactGeometryExtension();
+		deleteRowCountExtension();
 
 		// Delete future extension tables here
 	}
@@ -120,6 +126,8 @@ public class NGAExtensions extends ExtensionManagement {
 		copyTileScaling(table, newTable);
 		copyFeatureTileLink(table, newTable);
 		copyGeometryIndex(table, newTable);
+		copyCompactGeometry(table, newTable);
+		copyRowCount(table, newTable);
 
 		// Copy future extensions for the table here
 	}
@@ -716,4 +724,133 @@ public class NGAExtensions extends ExtensionManagement {
 
 	}
 
+	/**
+	 * Delete the Compact Geometry extension for the table, rewriting the
+	 * compact geometries as standard geometries
+	 * 
+	 * @param table
+	 *            table name
+	 * @since 4.0.1
+	 */
+	public void deleteCompactGeometry(String table) {
+
+		CompactGeometryExtension compactGeometryExtension = new CompactGeometryExtension(
+				geoPackage);
+		if (compactGeometryExtension.has(table)) {
+			compactGeometryExtension.removeExtension(table);
+		}
+
+	}
+
+	/**
+	 * Delete the Compact Geometry extension, rewriting the compact geometries
+	 * as standard geometries
+	 * 
+	 * @since 4.0.1
+	 */
+	public void deleteCompactGeometryExtension() {
+
+		CompactGeometryExtension compactGeometryExtension = new CompactGeometryExtension(
+				geoPackage);
+		if (compactGeometryExtension.has()) {
+			compactGeometryExtension.removeExtension();
+		}
+
+	}
+
+	/**
+	 * Copy the Compact Geometry extensions for the table
+	 * 
+	 * @param table
+	 *            table name
+	 * @param newTable
+	 *            new table name
+	 * @since 4.0.1
+	 */
+	public void copyCompactGeometry(String table, String newTable) {
+
+		try {
+
+			CompactGeometryExtension compactGeometryExtension = new CompactGeometryExtension(
+					geoPackage);
+
+			if (compactGeometryExtension.has(table)) {
+
+				for (Extensions extension : compactGeometryExtension
+						.getExtensions(table)) {
+					compactGeometryExtension.getOrCreate(newTable,
+							extension.getColumnName());
+				}
+			}
+
+		} catch (Exception e) {
+			logger.log(Level.WARNING,
+					"Failed to create Compact Geometry for table: " + newTable
+							+ ", copied from table: " + table,
+					e);
+		}
+
+	}
+
+	/**
+	 * Delete the Row Count extension for the table
+	 * 
+	 * @param table
+	 *            table name
+	 * @since 4.0.1
+	 */
+	public void deleteRowCount(String table) {
+
+		RowCountExtension rowCountExtension = new RowCountExtension(
+				geoPackage);
+		if (rowCountExtension.has(table)) {
+			rowCountExtension.removeExtension(table);
+		}
+
+	}
+
+	/**
+	 * Delete the Row Count extension
+	 * 
+	 * @since 4.0.1
+	 */
+	public void deleteRowCountExtension() {
+
+		RowCountExtension rowCountExtension = new RowCountExtension(
+				geoPackage);
+		if (rowCountExtension.has()) {
+			rowCountExtension.removeExtension();
+		}
+
+	}
+
+	/**
+	 * Copy the Row Count extension for the table
+	 * 
+	 * @param table
+	 *            table name
+	 * @param newTable
+	 *            new table name
+	 * @since 4.0.1
+	 */
+	public void copyRowCount(String table, String newTable) {
+
+		try {
+
+			RowCountExtension rowCountExtension = new RowCountExtension(
+					geoPackage);
+
+			if (rowCountExtension.has(table)) {
+				rowCountExtension.create(newTable);
+			}
+
+		} catch (Exception e) {
+			logger.log(Level.WARNING,
+					"Failed to create Row Count for table: " + newTable
+							+ ", copied from table: " + table,
+					e);
+		}
+
+	}
+
 }
@@ -0,0 +1,422 @@
+package mil.nga.geopackage.extension.nga.compact;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import mil.nga.geopackage.GeoPackageConstants;
+import mil.nga.geopackage.GeoPackageCore;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.GeoPackageCoreConnection;
+import mil.nga.geopackage.extension.BaseExtension;
+import mil.nga.geopackage.extension.ExtensionScopeType;
+import mil.nga.geopackage.extension.Extensions;
+import mil.nga.geopackage.extension.ExtensionsDao;
+import mil.nga.geopackage.extension.nga.NGAExtensions;
+import mil.nga.geopackage.geom.CompactGeometry;
+import mil.nga.geopackage.property.GeoPackageProperties;
+import mil.nga.geopackage.property.PropertyConstants;
+
+/**
+ * This extension stores feature geometries of a table column as compact
+ * geometries, Tiny Well-Known Binary (TWKB) delta encoded coordinates within
+ * an extended GeoPackage geometry. Compact geometries are read transparently
+ * by the GeoPackage geometry data and written back as compact geometries of
+ * the read precisions.
+ *
+ * Compacting is lossy, coordinates are rounded to the configured decimal
+ * digit precisions, see {@link CompactGeometry}. Removing the extension
+ * rewrites the compact geometries of the table column as standard GeoPackage
+ * geometries of the rounded coordinates.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class CompactGeometryExtension extends BaseExtension {
+
+	/**
+	 * Extension author
+	 */
+	public static final String EXTENSION_AUTHOR = NGAExtensions.EXTENSION_AUTHOR;
+
+	/**
+	 * Extension name without the author
+	 */
+	public static final String EXTENSION_NAME_NO_AUTHOR = "compact_geometry";
+
+	/**
+	 * Extension, with author and name
+	 */
+	public static final String EXTENSION_NAME = Extensions
+			.buildExtensionName(EXTENSION_AUTHOR, EXTENSION_NAME_NO_AUTHOR);
+
+	/**
+	 * Extension definition URL
+	 */
+	public static final String EXTENSION_DEFINITION = GeoPackageProperties
+			.getProperty(PropertyConstants.EXTENSIONS,
+					EXTENSION_NAME_NO_AUTHOR);
+
+	/**
+	 * Number of compact geometry rows read per query when rewriting them as
+	 * standard geometries
+	 */
+	private static final int STANDARD_CHUNK = 1000;
+
+	/**
+	 * X and Y decimal digit precision
+	 */
+	private int precision = CompactGeometry.DEFAULT_PRECISION;
+
+	/**
+	 * Z decimal digit precision
+	 */
+	private int zPrecision = CompactGeometry.DEFAULT_Z_PRECISION;
+
+	/**
+	 * M decimal digit precision
+	 */
+	private int mPrecision = CompactGeometry.DEFAULT_M_PRECISION;
+
+	/**
+	 * Constructor
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 */
+	public CompactGeometryExtension(GeoPackageCore geoPackage) {
+		super(geoPackage);
+	}
+
+	/**
+	 * Get the x and y decimal digit precision
+	 *
+	 * @return precision
+	 */
+	public int getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Set the x and y decimal digit precision, between
+	 * {@link CompactGeometry#MIN_PRECISION} and
+	 * {@link CompactGeometry#MAX_PRECISION}
+	 *
+	 * @param precision
+	 *            precision
+	 */
+	public void setPrecision(int precision) {
+		CompactGeometry.validatePrecision(precision,
+				CompactGeometry.MIN_PRECISION);
+		this.precision = precision;
+	}
+
+	/**
+	 * Get the z decimal digit precision
+	 *
+	 * @return z precision
+	 */
+	public int getZPrecision() {
+		return zPrecision;
+	}
+
+	/**
+	 * Set the z decimal digit precision, between 0 and
+	 * {@link CompactGeometry#MAX_PRECISION}
+	 *
+	 * @param zPrecision
+	 *            z precision
+	 */
+	public void setZPrecision(int zPrecision) {
+		CompactGeometry.validatePrecision(zPrecision, 0);
+		this.zPrecision = zPrecision;
+	}
+
+	/**
+	 * Get the m decimal digit precision
+	 *
+	 * @return m precision
+	 */
+	public int getMPrecision() {
+		return mPrecision;
+	}
+
+	/**
+	 * Set the m decimal digit precision, between 0 and
+	 * {@link CompactGeometry#MAX_PRECISION}
+	 *
+	 * @param mPrecision
+	 *            m precision
+	 */
+	public void setMPrecision(int mPrecision) {
+		CompactGeometry.validatePrecision(mPrecision, 0);
+		this.mPrecision = mPrecision;
+	}
+
+	/**
+	 * Get or create the extension for the table geometry column
+	 *
+	 * @param tableName
+	 *            table name
+	 * @param columnName
+	 *            geometry column name
+	 * @return extension
+	 */
+	public Extensions getOrCreate(String tableName, String columnName) {
+		return getOrCreate(EXTENSION_NAME, tableName, columnName,
+				EXTENSION_DEFINITION, ExtensionScopeType.READ_WRITE);
+	}
+
+	/**
+	 * Determine if the GeoPackage has the extension for the table geometry
+	 * column
+	 *
+	 * @param tableName
+	 *            table name
+	 * @param columnName
+	 *            geometry column name
+	 * @return true if has extension
+	 */
+	public boolean has(String tableName, String columnName) {
+		return has(EXTENSION_NAME, tableName, columnName);
+	}
+
+	/**
+	 * Determine if the GeoPackage has the extension for the table
+	 *
+	 * @param tableName
+	 *            table name
+	 * @return true if has extension
+	 */
+	public boolean has(String tableName) {
+		return has(EXTENSION_NAME, tableName);
+	}
+
+	/**
+	 * Determine if the GeoPackage has the extension
+	 *
+	 * @return true if has extension
+	 */
+	public boolean has() {
+		return has(EXTENSION_NAME);
+	}
+
+	/**
+	 * Get the extensions for the table
+	 *
+	 * @param tableName
+	 *            table name
+	 * @return extensions
+	 */
+	public List<Extensions> getExtensions(String tableName) {
+		return getExtensions(EXTENSION_NAME, tableName);
+	}
+
+	/**
+	 * Convert standard GeoPackage geometry bytes to compact geometry bytes
+	 * using the configured precisions
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return compact GeoPackage geometry bytes, or the provided bytes when
+	 *         the geometry can not be compacted
+	 */
+	public byte[] toCompact(byte[] bytes) {
+		return CompactGeometry.toCompact(bytes, precision, zPrecision,
+				mPrecision);
+	}
+
+	/**
+	 * Convert compact GeoPackage geometry bytes to standard GeoPackage
+	 * geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return standard GeoPackage geometry bytes, or the provided bytes when
+	 *         not compact
+	 */
+	public byte[] toStandard(byte[] bytes) {
+		return CompactGeometry.toStandard(bytes);
+	}
+
+	/**
+	 * Rewrite the compact geometries of the table geometry column as standard
+	 * GeoPackage geometries of the rounded coordinates
+	 *
+	 * @param tableName
+	 *            table name
+	 * @param columnName
+	 *            geometry column name
+	 * @return number of rewritten geometries
+	 */
+	public int toStandard(String tableName, String columnName) {
+		return toStandard(geoPackage.getDatabase(), tableName, columnName);
+	}
+
+	/**
+	 * Rewrite the compact geometries of the table geometry column as standard
+	 * GeoPackage geometries within a transaction, reading the candidate
+	 * GeoPackage geometry rows containing the
+	 * {@link CompactGeometry#EXTENSION_CODE} in rowid ordered chunks
+	 *
+	 * @param db
+	 *            connection
+	 * @param tableName
+	 *            table name
+	 * @param columnName
+	 *            geometry column name
+	 * @return number of rewritten geometries
+	 */
+	static int toStandard(GeoPackageCoreConnection db, String tableName,
+			String columnName) {
+
+		int count = 0;
+
+		if (db.tableExists(tableName)
+				&& db.columnExists(tableName, columnName)) {
+
+			String quotedTable = CoreSQLUtils.quoteWrap(tableName);
+			String quotedColumn = CoreSQLUtils.quoteWrap(columnName);
+			String query = "SELECT rowid, " + quotedColumn + " FROM "
+					+ quotedTable + " WHERE rowid > CAST(? AS INTEGER) AND substr("
+					+ quotedColumn + ", 1, 2) = CAST('"
+					+ GeoPackageConstants.GEOMETRY_MAGIC_NUMBER
+					+ "' AS BLOB) AND instr(" + quotedColumn + ", CAST('"
+					+ CompactGeometry.EXTENSION_CODE
+					+ "' AS BLOB)) > 0 ORDER BY rowid LIMIT " + STANDARD_CHUNK;
+			String update = "UPDATE " + quotedTable + " SET " + quotedColumn
+					+ " = ? WHERE rowid = ?";
+
+			boolean transaction = !db.inTransaction();
+			if (transaction) {
+				db.beginTransaction();
+			}
+			try {
+				long rowid = Long.MIN_VALUE;
+				List<List<Object>> rows;
+				do {
+					rows = db.queryResults(query,
+							new String[] { String.valueOf(rowid) },
+							STANDARD_CHUNK);
+					for (List<Object> row : rows) {
+						rowid = ((Number) row.get(0)).longValue();
+						Object value = row.get(1);
+						if (value instanceof byte[]) {
+							byte[] bytes = (byte[]) value;
+							byte[] standard = CompactGeometry.toStandard(bytes);
+							if (standard != bytes) {
+								count += db.executeUpdate(update,
+										new Object[] { standard, rowid });
+							}
+						}
+					}
+				} while (rows.size() == STANDARD_CHUNK);
+			} catch (RuntimeException e) {
+				if (transaction) {
+					db.failTransaction();
+					transaction = false;
+				}
+				throw new GeoPackageException(
+						"Failed to rewrite compact geometries as standard. Table: "
+								+ tableName + ", Column: " + columnName,
+						e);
+			} finally {
+				if (transaction) {
+					db.endTransaction();
+				}
+			}
+
+			if (count > 0) {
+				db.invalidateResults(tableName, count);
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Remove the extension for the table geometry column, first rewriting
+	 * the compact geometries as standard geometries
+	 *
+	 * @param tableName
+	 *            table name
+	 * @param columnName
+	 *            geometry column name
+	 */
+	public void removeExtension(String tableName, String columnName) {
+		ExtensionsDao extensionsDao = getExtensionsDao();
+		try {
+			if (extensionsDao.isTableExists()) {
+				toStandard(tableName, columnName);
+				extensionsDao.deleteByExtension(EXTENSION_NAME, tableName,
+						columnName);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to delete Compact Geometry extension. GeoPackage: "
+							+ geoPackage.getName() + ", Table: " + tableName
+							+ ", Column: " + columnName,
+					e);
+		}
+	}
+
+	/**
+	 * Remove the extension for the table, first rewriting the compact
+	 * geometries as standard geometries
+	 *
+	 * @param tableName
+	 *            table name
+	 */
+	public void removeExtension(String tableName) {
+		ExtensionsDao extensionsDao = getExtensionsDao();
+		try {
+			if (extensionsDao.isTableExists()) {
+				toStandard(extensionsDao.queryByExtension(EXTENSION_NAME,
+						tableName));
+				extensionsDao.deleteByExtension(EXTENSION_NAME, tableName);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to delete Compact Geometry extension. GeoPackage: "
+							+ geoPackage.getName() + ", Table: " + tableName,
+					e);
+		}
+	}
+
+	/**
+	 * Remove the extension, first rewriting the compact geometries as
+	 * standard geometries
+	 */
+	public void removeExtension() {
+		ExtensionsDao extensionsDao = getExtensionsDao();
+		try {
+			if (extensionsDao.isTableExists()) {
+				toStandard(extensionsDao.queryByExtension(EXTENSION_NAME));
+				extensionsDao.deleteByExtension(EXTENSION_NAME);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to delete Compact Geometry extension. GeoPackage: "
+							+ geoPackage.getName(),
+					e);
+		}
+	}
+
+	/**
+	 * Rewrite the compact geometries of the extension table geometry columns
+	 * as standard geometries
+	 *
+	 * @param extensions
+	 *            extensions
+	 */
+	private void toStandard(List<Extensions> extensions) {
+		for (Extensions extension : extensions) {
+			if (extension.getTableName() != null
+					&& extension.getColumnName() != null) {
+				toStandard(extension.getTableName(),
+						extension.getColumnName());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,317 @@
+package mil.nga.geopackage.extension.nga.count;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import mil.nga.geopackage.GeoPackageCore;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.GeoPackageCoreConnection;
+import mil.nga.geopackage.extension.BaseExtension;
+import mil.nga.geopackage.extension.ExtensionScopeType;
+import mil.nga.geopackage.extension.Extensions;
+import mil.nga.geopackage.extension.ExtensionsDao;
+import mil.nga.geopackage.extension.nga.NGAExtensions;
+
+/**
+ * This extension maintains user table row counts in a row count table,
+ * updated by insert and delete triggers on each extended table. Counts are
+ * read with a single primary key lookup instead of a full table COUNT(*).
+ *
+ * Rows deleted by REPLACE conflict resolution, such as INSERT OR REPLACE of
+ * an existing row, only fire the delete trigger when PRAGMA
+ * recursive_triggers is enabled on the writing connection. Without it the
+ * insert trigger over counts each replaced row. Enable recursive triggers
+ * before REPLACE writes, use upserts (ON CONFLICT DO UPDATE), or recount
+ * with {@link #create(String)} after REPLACE writes.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class RowCountExtension extends BaseExtension {
+
+	/**
+	 * Extension author
+	 */
+	public static final String EXTENSION_AUTHOR = NGAExtensions.EXTENSION_AUTHOR;
+
+	/**
+	 * Extension name without the author
+	 */
+	public static final String EXTENSION_NAME_NO_AUTHOR = "row_count";
+
+	/**
+	 * Extension, with author and name
+	 */
+	public static final String EXTENSION_NAME = Extensions
+			.buildExtensionName(EXTENSION_AUTHOR, EXTENSION_NAME_NO_AUTHOR);
+
+	/**
+	 * Extension definition
+	 */
+	public static final String EXTENSION_DEFINITION = "Table row counts maintained by insert and delete triggers in the nga_row_count table";
+
+	/**
+	 * Row count table name
+	 */
+	public static final String TABLE_NAME = "nga_row_count";
+
+	/**
+	 * Table name column
+	 */
+	public static final String COLUMN_TABLE_NAME = "table_name";
+
+	/**
+	 * Row count column
+	 */
+	public static final String COLUMN_ROW_COUNT = "row_count";
+
+	/**
+	 * Insert trigger name prefix
+	 */
+	public static final String TRIGGER_INSERT_PREFIX = "nga_row_count_insert_";
+
+	/**
+	 * Delete trigger name prefix
+	 */
+	public static final String TRIGGER_DELETE_PREFIX = "nga_row_count_delete_";
+
+	/**
+	 * Connection
+	 */
+	private final GeoPackageCoreConnection connection;
+
+	/**
+	 * Constructor
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 */
+	public RowCountExtension(GeoPackageCore geoPackage) {
+		super(geoPackage);
+		connection = geoPackage.getDatabase();
+	}
+
+	/**
+	 * Determine if the GeoPackage has the extension
+	 *
+	 * @return true if has extension
+	 */
+	public boolean has() {
+		return has(EXTENSION_NAME) && connection.tableExists(TABLE_NAME);
+	}
+
+	/**
+	 * Determine if the table has the extension
+	 *
+	 * @param table
+	 *            table name
+	 * @return true if has extension
+	 */
+	public boolean has(String table) {
+		return has(EXTENSION_NAME, table, null)
+				&& connection.tableExists(TABLE_NAME);
+	}
+
+	/**
+	 * Create the extension for the table, counting the current rows and
+	 * creating the insert and delete triggers in a single transaction. When
+	 * the table already has the extension, the rows are recounted.
+	 *
+	 * @param table
+	 *            table name
+	 * @return extension
+	 */
+	public Extensions create(String table) {
+
+		verifyWritable();
+
+		boolean transaction = !connection.inTransaction();
+		if (transaction) {
+			connection.beginTransaction();
+		}
+		boolean successful = false;
+		Extensions extension;
+		try {
+			extension = getOrCreate(EXTENSION_NAME, table, null,
+					EXTENSION_DEFINITION, ExtensionScopeType.WRITE_ONLY);
+			createCount(connection, table);
+			successful = true;
+		} catch (RuntimeException e) {
+			throw new GeoPackageException(
+					"Failed to create Row Count extension. GeoPackage: "
+							+ geoPackage.getName() + ", Table: " + table,
+					e);
+		} finally {
+			if (transaction) {
+				connection.endTransaction(successful);
+			}
+		}
+
+		return extension;
+	}
+
+	/**
+	 * Create the row count table when needed, count the current table rows,
+	 * and create the insert and delete triggers maintaining the count
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table name
+	 */
+	static void createCount(GeoPackageCoreConnection connection,
+			String table) {
+
+		String quotedTable = CoreSQLUtils.quoteWrap(table);
+		String where = " WHERE " + CoreSQLUtils.quoteWrap(COLUMN_TABLE_NAME)
+				+ " = " + literal(table);
+
+		connection.execSQL("CREATE TABLE IF NOT EXISTS "
+				+ CoreSQLUtils.quoteWrap(TABLE_NAME) + " ("
+				+ CoreSQLUtils.quoteWrap(COLUMN_TABLE_NAME)
+				+ " TEXT NOT NULL PRIMARY KEY, "
+				+ CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT)
+				+ " INTEGER NOT NULL)");
+		connection.execSQL("INSERT OR REPLACE INTO "
+				+ CoreSQLUtils.quoteWrap(TABLE_NAME) + " ("
+				+ CoreSQLUtils.quoteWrap(COLUMN_TABLE_NAME) + ", "
+				+ CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT) + ") SELECT "
+				+ literal(table) + ", COUNT(*) FROM " + quotedTable);
+		connection.execSQL("CREATE TRIGGER IF NOT EXISTS "
+				+ CoreSQLUtils.quoteWrap(TRIGGER_INSERT_PREFIX + table)
+				+ " AFTER INSERT ON " + quotedTable + " BEGIN UPDATE "
+				+ CoreSQLUtils.quoteWrap(TABLE_NAME) + " SET "
+				+ CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT) + " = "
+				+ CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT) + " + 1" + where
+				+ "; END");
+		connection.execSQL("CREATE TRIGGER IF NOT EXISTS "
+				+ CoreSQLUtils.quoteWrap(TRIGGER_DELETE_PREFIX + table)
+				+ " AFTER DELETE ON " + quotedTable + " BEGIN UPDATE "
+				+ CoreSQLUtils.quoteWrap(TABLE_NAME) + " SET "
+				+ CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT) + " = "
+				+ CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT) + " - 1" + where
+				+ "; END");
+	}
+
+	/**
+	 * Get the maintained row count of the table
+	 *
+	 * @param table
+	 *            table name
+	 * @return row count, null when not maintained
+	 */
+	public Long getCount(String table) {
+		return getCount(connection, table);
+	}
+
+	/**
+	 * Get the maintained row count of the table
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table name
+	 * @return row count, null when not maintained
+	 */
+	public static Long getCount(GeoPackageCoreConnection connection,
+			String table) {
+		Long count = null;
+		if (connection.tableExists(TABLE_NAME)) {
+			Object value = connection.querySingleResult(
+					"SELECT " + CoreSQLUtils.quoteWrap(COLUMN_ROW_COUNT)
+							+ " FROM " + CoreSQLUtils.quoteWrap(TABLE_NAME)
+							+ " WHERE "
+							+ CoreSQLUtils.quoteWrap(COLUMN_TABLE_NAME)
+							+ " = ?",
+					new String[] { table });
+			if (value != null) {
+				count = ((Number) value).longValue();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Delete the extension for the table, dropping its triggers and row count
+	 *
+	 * @param table
+	 *            table name
+	 */
+	public void removeExtension(String table) {
+
+		ExtensionsDao extensionsDao = getExtensionsDao();
+
+		try {
+			dropTriggers(table);
+			if (connection.tableExists(TABLE_NAME)) {
+				connection.delete(TABLE_NAME,
+						CoreSQLUtils.quoteWrap(COLUMN_TABLE_NAME) + " = ?",
+						new String[] { table });
+			}
+			if (extensionsDao.isTableExists()) {
+				extensionsDao.deleteByExtension(EXTENSION_NAME, table);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to delete Row Count extension. GeoPackage: "
+							+ geoPackage.getName() + ", Table: " + table,
+					e);
+		}
+	}
+
+	/**
+	 * Delete the extension for all tables, dropping the triggers and the row
+	 * count table
+	 */
+	public void removeExtension() {
+
+		ExtensionsDao extensionsDao = getExtensionsDao();
+
+		try {
+			if (extensionsDao.isTableExists()) {
+				List<Extensions> extensions = extensionsDao
+						.queryByExtension(EXTENSION_NAME);
+				for (Extensions extension : extensions) {
+					if (extension.getTableName() != null) {
+						dropTriggers(extension.getTableName());
+					}
+				}
+				extensionsDao.deleteByExtension(EXTENSION_NAME);
+			}
+			if (connection.tableExists(TABLE_NAME)) {
+				geoPackage.dropTable(TABLE_NAME);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to delete Row Count extension and table. GeoPackage: "
+							+ geoPackage.getName(),
+					e);
+		}
+	}
+
+	/**
+	 * Drop the insert and delete triggers of the table
+	 *
+	 * @param table
+	 *            table name
+	 */
+	private void dropTriggers(String table) {
+		connection.execSQL("DROP TRIGGER IF EXISTS "
+				+ CoreSQLUtils.quoteWrap(TRIGGER_INSERT_PREFIX + table));
+		connection.execSQL("DROP TRIGGER IF EXISTS "
+				+ CoreSQLUtils.quoteWrap(TRIGGER_DELETE_PREFIX + table));
+	}
+
+	/**
+	 * Get the table name as a SQL string literal
+	 *
+	 * @param table
+	 *            table name
+	 * @return string literal
+	 */
+	private static String literal(String table) {
+		return "'" + table.replace("'", "''") + "'";
+	}
+
+}
@@ -25,6 +25,7 @@ import mil.nga.geopackage.extension.ExtensionScopeType;
 import mil.nga.geopackage.extension.Extensions;
 import mil.nga.geopackage.extension.nga.NGAExtensions;
 import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.geom.GeometryEnvelopeReader;
 import mil.nga.geopackage.io.GeoPackageProgress;
 import mil.nga.geopackage.property.GeoPackageProperties;
 import mil.nga.geopackage.property.PropertyConstants;
@@ -296,6 +297,53 @@ public abstract class FeatureTableCoreIndex extends BaseExtension {
 		return indexed;
 	}
 
+	/**
+	 * Index the geometry id and GeoPackage geometry bytes, reading the
+	 * envelope directly from the bytes without creating the geometry
+	 * 
+	 * @param tableIndex
+	 *            table index
+	 * @param geomId
+	 *            geometry id
+	 * @param geometryBytes
+	 *            GeoPackage geometry bytes
+	 * @param envelope
+	 *            reusable envelope values of at least
+	 *            {@link GeometryEnvelopeReader#ENVELOPE_LENGTH}, shared across
+	 *            the indexed rows
+	 * 
+	 * @return true if indexed
+	 * @since 4.0.1
+	 */
+	protected boolean index(TableIndex tableIndex, long geomId,
+			byte[] geometryBytes, double[] envelope) {
+
+		boolean indexed = false;
+
+		if (geometryBytes != null) {
+
+			// Read the envelope values
+			if (GeometryEnvelopeReader.readEnvelope(geometryBytes, envelope)) {
+
+				// Create the new index row
+				GeometryIndex geometryIndex = geometryIndexDao
+						.populate(tableIndex, geomId, envelope);
+				try {
+					geometryIndexDao.createOrUpdate(geometryIndex);
+					indexed = true;
+				} catch (SQLException e) {
+					throw new GeoPackageException(
+							"Failed to create or update Geometry Index. GeoPackage: "
+									+ geoPackage.getName() + ", Table Name: "
+									+ tableName + ", Geom Id: " + geomId,
+							e);
+				}
+			}
+		}
+
+		return indexed;
+	}
+
 	/**
 	 * Update the last indexed time
 	 */
@@ -16,6 +16,7 @@ import mil.nga.geopackage.GeoPackageCore;
 import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.db.GeoPackageCoreConnection;
 import mil.nga.geopackage.db.GeoPackageDao;
+import mil.nga.geopackage.geom.GeometryEnvelopeReader;
 import mil.nga.sf.GeometryEnvelope;
 
 /**
@@ -266,6 +267,39 @@ public class GeometryIndexDao
 		return geometryIndex;
 	}
 
+	/**
+	 * Populate a new geometry index from envelope values
+	 * 
+	 * @param tableIndex
+	 *            table index
+	 * @param geomId
+	 *            geometry id
+	 * @param envelope
+	 *            envelope values as read by {@link GeometryEnvelopeReader}
+	 * @return geometry index
+	 * @since 4.0.1
+	 */
+	public GeometryIndex populate(TableIndex tableIndex, long geomId,
+			double[] envelope) {
+
+		GeometryIndex geometryIndex = new GeometryIndex();
+		geometryIndex.setTableIndex(tableIndex);
+		geometryIndex.setGeomId(geomId);
+		geometryIndex.setMinX(envelope[GeometryEnvelopeReader.MIN_X]);
+		geometryIndex.setMaxX(envelope[GeometryEnvelopeReader.MAX_X]);
+		geometryIndex.setMinY(envelope[GeometryEnvelopeReader.MIN_Y]);
+		geometryIndex.setMaxY(envelope[GeometryEnvelopeReader.MAX_Y]);
+		if (!Double.isNaN(envelope[GeometryEnvelopeReader.MIN_Z])) {
+			geometryIndex.setMinZ(envelope[GeometryEnvelopeReader.MIN_Z]);
+			geometryIndex.setMaxZ(envelope[GeometryEnvelopeReader.MAX_Z]);
+		}
+		if (!Double.isNaN(envelope[GeometryEnvelopeReader.MIN_M])) {
+			geometryIndex.setMinM(envelope[GeometryEnvelopeReader.MIN_M]);
+			geometryIndex.setMaxM(envelope[GeometryEnvelopeReader.MAX_M]);
+		}
+		return geometryIndex;
+	}
+
 	/**
 	 * Delete all geometry indices
 	 * 
@@ -15,6 +15,7 @@ import mil.nga.geopackage.extension.ExtensionScopeType;
 import mil.nga.geopackage.extension.Extensions;
 import mil.nga.geopackage.features.user.FeatureTable;
 import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.geom.GeometryEnvelopeReader;
 import mil.nga.geopackage.property.GeoPackageProperties;
 import mil.nga.geopackage.property.PropertyConstants;
 import mil.nga.geopackage.user.custom.UserCustomColumn;
@@ -1115,6 +1116,49 @@ public abstract class RTreeIndexCoreExtension extends BaseExtension {
 		return envelope;
 	}
 
+	/**
+	 * Read a single envelope value from GeoPackage geometry bytes without
+	 * creating the geometry data, for use by the ST_MinX, ST_MaxX, ST_MinY,
+	 * and ST_MaxY function implementations
+	 * 
+	 * @param data
+	 *            GeoPackage geometry bytes
+	 * @param index
+	 *            envelope value index, such as
+	 *            {@link GeometryEnvelopeReader#MIN_X}
+	 * @param envelope
+	 *            reusable envelope values of at least
+	 *            {@link GeometryEnvelopeReader#ENVELOPE_LENGTH}, used when the
+	 *            envelope is scanned from the Well-Known Binary coordinates
+	 * @return envelope value or null if no data or empty
+	 * @since 4.0.1
+	 */
+	protected Double getEnvelopeValue(byte[] data, int index,
+			double[] envelope) {
+		Double value = null;
+		if (data != null) {
+			double envelopeValue = GeometryEnvelopeReader
+					.readEnvelopeValue(data, index, envelope);
+			if (!Double.isNaN(envelopeValue)) {
+				value = envelopeValue;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Determine if GeoPackage geometry bytes are empty without creating the
+	 * geometry data, for use by the ST_IsEmpty function implementation
+	 * 
+	 * @param data
+	 *            GeoPackage geometry bytes
+	 * @return true if no data or empty
+	 * @since 4.0.1
+	 */
+	protected boolean isEmpty(byte[] data) {
+		return data == null || GeometryEnvelopeReader.isEmpty(data);
+	}
+
 	/**
 	 * Get the RTree Table name for the feature table and geometry column
 	 * 
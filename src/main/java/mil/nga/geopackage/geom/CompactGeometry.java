@@ -0,0 +1,1030 @@
+package mil.nga.geopackage.geom;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.sf.GeometryType;
+
+/**
+ * Compact geometry encoding, storing point, line string, polygon, and multi
+ * geometries as Tiny Well-Known Binary (TWKB) within an extended GeoPackage
+ * geometry. Coordinates are rounded to a configurable number of decimal
+ * digits and written as zig-zag variable length integer deltas.
+ *
+ * The compact GeoPackage geometry has the extended flag set, always contains
+ * an envelope computed from the rounded coordinates, and is followed by the
+ * {@link #EXTENSION_CODE} and the TWKB geometry.
+ *
+ * The encoding is lossy: coordinates are stored at the configured precision,
+ * by default {@link #DEFAULT_PRECISION} x and y digits (about 1 cm in
+ * degrees) and {@link #DEFAULT_Z_PRECISION} z and m digits, and converting
+ * back to a standard geometry does not restore the dropped digits.
+ *
+ * https://github.com/TWKB/Specification/blob/master/twkb.md
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class CompactGeometry {
+
+	/**
+	 * Extended GeoPackage geometry extension code
+	 */
+	public static final String EXTENSION_CODE = "TWKB";
+
+	/**
+	 * Default x and y decimal digit precision
+	 */
+	public static final int DEFAULT_PRECISION = 7;
+
+	/**
+	 * Default z decimal digit precision
+	 */
+	public static final int DEFAULT_Z_PRECISION = 3;
+
+	/**
+	 * Default m decimal digit precision
+	 */
+	public static final int DEFAULT_M_PRECISION = 3;
+
+	/**
+	 * Minimum x and y precision
+	 */
+	public static final int MIN_PRECISION = -7;
+
+	/**
+	 * Maximum x, y, z, and m precision
+	 */
+	public static final int MAX_PRECISION = 7;
+
+	/**
+	 * Metadata bounding box flag
+	 */
+	private static final int BBOX_FLAG = 1;
+
+	/**
+	 * Metadata size flag
+	 */
+	private static final int SIZE_FLAG = 2;
+
+	/**
+	 * Metadata id list flag
+	 */
+	private static final int ID_LIST_FLAG = 4;
+
+	/**
+	 * Metadata extended dimensions flag
+	 */
+	private static final int EXTENDED_DIMENSIONS_FLAG = 8;
+
+	/**
+	 * Metadata empty geometry flag
+	 */
+	private static final int EMPTY_FLAG = 16;
+
+	/**
+	 * Determine if the GeoPackage geometry bytes are a compact geometry
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return true if compact
+	 */
+	public static boolean isCompact(byte[] bytes) {
+		byte flags = GeometryEnvelopeReader.validateHeader(bytes, null, 0);
+		return isCompact(bytes, null,
+				GeometryEnvelopeReader.getWkbGeometryIndex(flags), flags);
+	}
+
+	/**
+	 * Convert standard GeoPackage geometry bytes to a compact geometry using
+	 * the default precisions
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return compact GeoPackage geometry bytes, or the provided bytes when
+	 *         the geometry can not be compacted
+	 */
+	public static byte[] toCompact(byte[] bytes) {
+		return toCompact(bytes, DEFAULT_PRECISION, DEFAULT_Z_PRECISION,
+				DEFAULT_M_PRECISION);
+	}
+
+	/**
+	 * Convert standard GeoPackage geometry bytes to a compact geometry. Empty,
+	 * already compact, non finite, and geometry types other than point, line
+	 * string, polygon, and their multi geometries can not be compacted.
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param precision
+	 *            x and y decimal digit precision
+	 * @param zPrecision
+	 *            z decimal digit precision
+	 * @param mPrecision
+	 *            m decimal digit precision
+	 * @return compact GeoPackage geometry bytes, or the provided bytes when
+	 *         the geometry can not be compacted
+	 */
+	public static byte[] toCompact(byte[] bytes, int precision,
+			int zPrecision, int mPrecision) {
+
+		byte[] compact = bytes;
+
+		byte flags = GeometryEnvelopeReader.validateHeader(bytes, null, 0);
+		int wkbGeometryIndex = GeometryEnvelopeReader
+				.getWkbGeometryIndex(flags);
+
+		if (!GeometryEnvelopeReader.isEmptyFlag(flags)
+				&& !isCompact(bytes, null, wkbGeometryIndex, flags)
+				&& PackedGeometry.isSupported(bytes, wkbGeometryIndex)) {
+			PackedGeometry packed = PackedGeometry.readWkb(bytes,
+					wkbGeometryIndex);
+			if (canCompact(packed)) {
+				compact = toBytes(GeometryEnvelopeReader.readSrsId(bytes),
+						packed, getByteOrder(flags), precision, zPrecision,
+						mPrecision);
+			}
+		}
+
+		return compact;
+	}
+
+	/**
+	 * Convert compact GeoPackage geometry bytes to standard GeoPackage
+	 * geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return standard GeoPackage geometry bytes, or the provided bytes when
+	 *         not compact
+	 */
+	public static byte[] toStandard(byte[] bytes) {
+
+		byte[] standard = bytes;
+
+		byte flags = GeometryEnvelopeReader.validateHeader(bytes, null, 0);
+		int wkbGeometryIndex = GeometryEnvelopeReader
+				.getWkbGeometryIndex(flags);
+
+		if (isCompact(bytes, null, wkbGeometryIndex, flags)) {
+			PackedGeometry packed = read(bytes, null, wkbGeometryIndex);
+			standard = GeoPackageGeometryEncoder.toBytes(
+					GeometryEnvelopeReader.readSrsId(bytes), packed,
+					getByteOrder(flags),
+					GeometryEnvelopeReader.getEnvelopeIndicator(flags) > 0);
+		}
+
+		return standard;
+	}
+
+	/**
+	 * Determine if the packed geometry can be written as a compact geometry
+	 *
+	 * @param packed
+	 *            packed geometry
+	 * @return true if all coordinates are finite and the geometry has points
+	 */
+	public static boolean canCompact(PackedGeometry packed) {
+		boolean compact = packed.numPoints() > 0;
+		for (double value : packed.getCoordinates()) {
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				compact = false;
+				break;
+			}
+		}
+		return compact;
+	}
+
+	/**
+	 * Write the packed geometry as compact GeoPackage geometry bytes
+	 *
+	 * @param srsId
+	 *            SRS id
+	 * @param packed
+	 *            packed geometry
+	 * @param byteOrder
+	 *            GeoPackage header byte order
+	 * @param precision
+	 *            x and y decimal digit precision
+	 * @param zPrecision
+	 *            z decimal digit precision
+	 * @param mPrecision
+	 *            m decimal digit precision
+	 * @return compact GeoPackage geometry bytes
+	 */
+	public static byte[] toBytes(int srsId, PackedGeometry packed,
+			ByteOrder byteOrder, int precision, int zPrecision,
+			int mPrecision) {
+
+		validatePrecision(precision, MIN_PRECISION);
+		validatePrecision(zPrecision, 0);
+		validatePrecision(mPrecision, 0);
+		if (!canCompact(packed)) {
+			throw new GeoPackageException(
+					"Geometry with no points or non finite coordinates can not be written as a compact geometry");
+		}
+
+		boolean hasZ = packed.hasZ();
+		boolean hasM = packed.hasM();
+		int dimension = packed.getDimension();
+		int[] precisions = precisions(dimension, hasZ, hasM, precision,
+				zPrecision, mPrecision);
+
+		// Round the coordinates to the precision
+		double[] coordinates = packed.getCoordinates();
+		long[] values = new long[coordinates.length];
+		double[] rounded = new double[coordinates.length];
+		for (int i = 0; i < coordinates.length; i++) {
+			int valuePrecision = precisions[i % dimension];
+			values[i] = quantize(coordinates[i], valuePrecision);
+			rounded[i] = dequantize(values[i], valuePrecision);
+		}
+		PackedGeometry roundedPacked = new PackedGeometry(
+				packed.getGeometryType(), hasZ, hasM, rounded,
+				packed.getRingOffsets(), packed.getPartOffsets());
+		double[] envelope = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+		roundedPacked.readEnvelope(envelope);
+
+		int headerSize = GeoPackageGeometryEncoder.headerSize(envelope,
+				roundedPacked);
+		int maxSize = headerSize + EXTENSION_CODE.length() + 3
+				+ (packed.numParts() + packed.numRings() + 1) * 5
+				+ values.length * 10;
+		byte[] bytes = new byte[maxSize];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		GeoPackageGeometryEncoder.writeHeader(buffer, srsId, envelope,
+				roundedPacked, byteOrder, true);
+		for (int i = 0; i < EXTENSION_CODE.length(); i++) {
+			buffer.put((byte) EXTENSION_CODE.charAt(i));
+		}
+
+		Writer writer = new Writer(bytes, buffer.position(), values,
+				dimension);
+
+		// Write the type and precision header and metadata
+		writer.writeByte((zigZag(precision) << 4)
+				| getTypeCode(packed.getGeometryType()));
+		if (hasZ || hasM) {
+			writer.writeByte(EXTENDED_DIMENSIONS_FLAG);
+			writer.writeByte((hasZ ? 1 : 0) | (hasM ? 2 : 0)
+					| (zPrecision << 2) | (mPrecision << 5));
+		} else {
+			writer.writeByte(0);
+		}
+
+		int[] ringOffsets = packed.getRingOffsets();
+		int[] partOffsets = packed.getPartOffsets();
+		int parts = packed.numParts();
+
+		switch (packed.getGeometryType()) {
+		case POINT:
+			writer.writePoints(0, 1);
+			break;
+		case LINESTRING:
+			writer.writeRing(ringOffsets, 0);
+			break;
+		case POLYGON:
+			writer.writeRings(ringOffsets, 0, packed.numRings());
+			break;
+		case MULTIPOINT:
+			writer.writeVarInt(parts);
+			for (int part = 0; part < parts; part++) {
+				int point = ringOffsets[partOffsets[part]];
+				writer.writePoints(point, point + 1);
+			}
+			break;
+		case MULTILINESTRING:
+			writer.writeVarInt(parts);
+			for (int part = 0; part < parts; part++) {
+				writer.writeRing(ringOffsets, partOffsets[part]);
+			}
+			break;
+		case MULTIPOLYGON:
+			writer.writeVarInt(parts);
+			for (int part = 0; part < parts; part++) {
+				writer.writeRings(ringOffsets, partOffsets[part],
+						partOffsets[part + 1]);
+			}
+			break;
+		default:
+			throw new GeoPackageException(
+					"Geometry Type not supported as a compact geometry: "
+							+ packed.getGeometryType());
+		}
+
+		return Arrays.copyOf(bytes, writer.index);
+	}
+
+	/**
+	 * Read a compact geometry as a packed geometry
+	 *
+	 * @param bytes
+	 *            compact GeoPackage geometry bytes
+	 * @return packed geometry or null if empty
+	 */
+	public static PackedGeometry readPacked(byte[] bytes) {
+		PackedGeometry packed = null;
+		byte flags = GeometryEnvelopeReader.validateHeader(bytes, null, 0);
+		if (!GeometryEnvelopeReader.isEmptyFlag(flags)) {
+			int wkbGeometryIndex = GeometryEnvelopeReader
+					.getWkbGeometryIndex(flags);
+			if (!isCompact(bytes, null, wkbGeometryIndex, flags)) {
+				throw new GeoPackageException(
+						"GeoPackage geometry is not a compact geometry");
+			}
+			packed = read(bytes, null, wkbGeometryIndex);
+		}
+		return packed;
+	}
+
+	/**
+	 * Read the x and y, z, and m decimal digit precisions of a compact
+	 * geometry
+	 *
+	 * @param bytes
+	 *            compact GeoPackage geometry bytes
+	 * @param index
+	 *            index of the extension code
+	 * @return x and y, z, and m precisions
+	 */
+	static int[] readPrecisions(byte[] bytes, int index) {
+		Reader reader = new Reader(bytes, null,
+				index + EXTENSION_CODE.length());
+		int precision = unZigZag(reader.readByte() >> 4);
+		int zPrecision = DEFAULT_Z_PRECISION;
+		int mPrecision = DEFAULT_M_PRECISION;
+		if ((reader.readByte() & EXTENDED_DIMENSIONS_FLAG) != 0) {
+			int extended = reader.readByte();
+			zPrecision = (extended >> 2) & 7;
+			mPrecision = (extended >> 5) & 7;
+		}
+		return new int[] { precision, zPrecision, mPrecision };
+	}
+
+	/**
+	 * Determine if the GeoPackage geometry flags mark an extended geometry and
+	 * the geometry bytes at the index start with the compact geometry
+	 * extension code
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            index following the GeoPackage header
+	 * @param flags
+	 *            GeoPackage geometry flags byte
+	 * @return true if compact
+	 */
+	static boolean isCompact(byte[] array, ByteBuffer buffer, int index,
+			byte flags) {
+		int length = array != null ? array.length : buffer.limit();
+		boolean compact = GeometryEnvelopeReader.isExtendedFlag(flags)
+				&& index + EXTENSION_CODE.length() < length;
+		for (int i = 0; compact && i < EXTENSION_CODE.length(); i++) {
+			compact = GeometryEnvelopeReader.readByte(array, buffer,
+					index + i) == EXTENSION_CODE.charAt(i);
+		}
+		return compact;
+	}
+
+	/**
+	 * Read a compact geometry as a packed geometry
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            index of the extension code
+	 * @return packed geometry
+	 */
+	static PackedGeometry read(byte[] array, ByteBuffer buffer, int index) {
+
+		Reader reader = new Reader(array, buffer,
+				index + EXTENSION_CODE.length());
+
+		int header = reader.readByte();
+		int typeCode = header & 0x0F;
+		int precision = unZigZag(header >> 4);
+
+		int metadata = reader.readByte();
+		boolean hasZ = false;
+		boolean hasM = false;
+		int zPrecision = 0;
+		int mPrecision = 0;
+		if ((metadata & EXTENDED_DIMENSIONS_FLAG) != 0) {
+			int extended = reader.readByte();
+			hasZ = (extended & 1) != 0;
+			hasM = (extended & 2) != 0;
+			zPrecision = (extended >> 2) & 7;
+			mPrecision = (extended >> 5) & 7;
+		}
+		if ((metadata & EMPTY_FLAG) != 0) {
+			throw new GeoPackageException(
+					"Empty compact geometries are not supported");
+		}
+		if ((metadata & SIZE_FLAG) != 0) {
+			reader.readVarInt();
+		}
+
+		int dimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+		if ((metadata & BBOX_FLAG) != 0) {
+			for (int i = 0; i < dimension * 2; i++) {
+				reader.readVarInt();
+			}
+		}
+
+		GeometryType geometryType = getGeometryType(typeCode);
+		boolean idList = (metadata & ID_LIST_FLAG) != 0;
+		reader.setPrecisions(precisions(dimension, hasZ, hasM, precision,
+				zPrecision, mPrecision));
+
+		switch (geometryType) {
+		case POINT:
+			reader.startPart();
+			reader.startRing();
+			reader.readPoints(1);
+			break;
+		case LINESTRING:
+			reader.startPart();
+			reader.readRing();
+			break;
+		case POLYGON:
+			reader.startPart();
+			reader.readRings();
+			break;
+		case MULTIPOINT:
+			int points = reader.readCount(idList);
+			for (int i = 0; i < points; i++) {
+				reader.startPart();
+				reader.startRing();
+				reader.readPoints(1);
+			}
+			break;
+		case MULTILINESTRING:
+			int lineStrings = reader.readCount(idList);
+			for (int i = 0; i < lineStrings; i++) {
+				reader.startPart();
+				reader.readRing();
+			}
+			break;
+		case MULTIPOLYGON:
+			int polygons = reader.readCount(idList);
+			for (int i = 0; i < polygons; i++) {
+				reader.startPart();
+				reader.readRings();
+			}
+			break;
+		default:
+			throw new GeoPackageException(
+					"Geometry Type not supported as a compact geometry: "
+							+ geometryType);
+		}
+
+		return reader.toPacked(geometryType, hasZ, hasM);
+	}
+
+	/**
+	 * Get the byte order from the flags
+	 *
+	 * @param flags
+	 *            flags byte
+	 * @return byte order
+	 */
+	private static ByteOrder getByteOrder(byte flags) {
+		return GeometryEnvelopeReader.isBigEndian(flags) ? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN;
+	}
+
+	/**
+	 * Validate a precision value is between the minimum and
+	 * {@link #MAX_PRECISION}
+	 *
+	 * @param precision
+	 *            precision
+	 * @param min
+	 *            minimum precision, {@link #MIN_PRECISION} for x and y and 0
+	 *            for z and m
+	 */
+	public static void validatePrecision(int precision, int min) {
+		if (precision < min || precision > MAX_PRECISION) {
+			throw new GeoPackageException(
+					"Compact geometry precision must be between " + min
+							+ " and " + MAX_PRECISION + ", Precision: "
+							+ precision);
+		}
+	}
+
+	/**
+	 * Build the precision per coordinate value of a point
+	 *
+	 * @param dimension
+	 *            coordinate values per point
+	 * @param hasZ
+	 *            has z coordinates
+	 * @param hasM
+	 *            has m coordinates
+	 * @param precision
+	 *            x and y precision
+	 * @param zPrecision
+	 *            z precision
+	 * @param mPrecision
+	 *            m precision
+	 * @return precisions
+	 */
+	private static int[] precisions(int dimension, boolean hasZ, boolean hasM,
+			int precision, int zPrecision, int mPrecision) {
+		int[] precisions = new int[dimension];
+		precisions[0] = precision;
+		precisions[1] = precision;
+		if (hasZ) {
+			precisions[2] = zPrecision;
+		}
+		if (hasM) {
+			precisions[dimension - 1] = mPrecision;
+		}
+		return precisions;
+	}
+
+	/**
+	 * Round a coordinate to a precision scaled integer
+	 *
+	 * @param value
+	 *            coordinate value
+	 * @param precision
+	 *            decimal digit precision
+	 * @return scaled integer
+	 */
+	private static long quantize(double value, int precision) {
+		long quantized;
+		if (precision >= 0) {
+			quantized = Math.round(value * Math.pow(10, precision));
+		} else {
+			quantized = Math.round(value / Math.pow(10, -precision));
+		}
+		return quantized;
+	}
+
+	/**
+	 * Convert a precision scaled integer to a coordinate
+	 *
+	 * @param value
+	 *            scaled integer
+	 * @param precision
+	 *            decimal digit precision
+	 * @return coordinate value
+	 */
+	private static double dequantize(long value, int precision) {
+		double dequantized;
+		if (precision >= 0) {
+			dequantized = value / Math.pow(10, precision);
+		} else {
+			dequantized = value * Math.pow(10, -precision);
+		}
+		return dequantized;
+	}
+
+	/**
+	 * Zig-zag encode a value
+	 *
+	 * @param value
+	 *            value
+	 * @return encoded value
+	 */
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * Zig-zag decode a value
+	 *
+	 * @param value
+	 *            encoded value
+	 * @return value
+	 */
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Get the TWKB type code
+	 *
+	 * @param geometryType
+	 *            geometry type
+	 * @return type code
+	 */
+	private static int getTypeCode(GeometryType geometryType) {
+		int code;
+		switch (geometryType) {
+		case POINT:
+			code = 1;
+			break;
+		case LINESTRING:
+			code = 2;
+			break;
+		case POLYGON:
+			code = 3;
+			break;
+		case MULTIPOINT:
+			code = 4;
+			break;
+		case MULTILINESTRING:
+			code = 5;
+			break;
+		case MULTIPOLYGON:
+			code = 6;
+			break;
+		default:
+			throw new GeoPackageException(
+					"Geometry Type not supported as a compact geometry: "
+							+ geometryType);
+		}
+		return code;
+	}
+
+	/**
+	 * Get the geometry type from the TWKB type code
+	 *
+	 * @param code
+	 *            type code
+	 * @return geometry type
+	 */
+	private static GeometryType getGeometryType(int code) {
+		GeometryType geometryType;
+		switch (code) {
+		case 1:
+			geometryType = GeometryType.POINT;
+			break;
+		case 2:
+			geometryType = GeometryType.LINESTRING;
+			break;
+		case 3:
+			geometryType = GeometryType.POLYGON;
+			break;
+		case 4:
+			geometryType = GeometryType.MULTIPOINT;
+			break;
+		case 5:
+			geometryType = GeometryType.MULTILINESTRING;
+			break;
+		case 6:
+			geometryType = GeometryType.MULTIPOLYGON;
+			break;
+		default:
+			throw new GeoPackageException(
+					"Unsupported compact geometry type code: " + code);
+		}
+		return geometryType;
+	}
+
+	/**
+	 * TWKB writer of delta encoded coordinates
+	 */
+	private static class Writer {
+
+		/**
+		 * Bytes
+		 */
+		final byte[] bytes;
+
+		/**
+		 * Next byte index
+		 */
+		int index;
+
+		/**
+		 * Precision scaled coordinate values
+		 */
+		final long[] values;
+
+		/**
+		 * Coordinate values per point
+		 */
+		final int dimension;
+
+		/**
+		 * Previous point values
+		 */
+		final long[] previous;
+
+		/**
+		 * Constructor
+		 *
+		 * @param bytes
+		 *            bytes
+		 * @param index
+		 *            start index
+		 * @param values
+		 *            precision scaled coordinate values
+		 * @param dimension
+		 *            coordinate values per point
+		 */
+		Writer(byte[] bytes, int index, long[] values, int dimension) {
+			this.bytes = bytes;
+			this.index = index;
+			this.values = values;
+			this.dimension = dimension;
+			this.previous = new long[dimension];
+		}
+
+		/**
+		 * Write a byte
+		 *
+		 * @param value
+		 *            byte value
+		 */
+		void writeByte(int value) {
+			bytes[index++] = (byte) value;
+		}
+
+		/**
+		 * Write an unsigned variable length integer
+		 *
+		 * @param value
+		 *            value
+		 */
+		void writeVarInt(long value) {
+			while ((value & ~0x7FL) != 0) {
+				bytes[index++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[index++] = (byte) value;
+		}
+
+		/**
+		 * Write the rings with ring counts
+		 *
+		 * @param ringOffsets
+		 *            ring offsets
+		 * @param start
+		 *            start ring, inclusive
+		 * @param end
+		 *            end ring, exclusive
+		 */
+		void writeRings(int[] ringOffsets, int start, int end) {
+			writeVarInt(end - start);
+			for (int ring = start; ring < end; ring++) {
+				writeRing(ringOffsets, ring);
+			}
+		}
+
+		/**
+		 * Write a ring point count and points
+		 *
+		 * @param ringOffsets
+		 *            ring offsets
+		 * @param ring
+		 *            ring index
+		 */
+		void writeRing(int[] ringOffsets, int ring) {
+			int start = ringOffsets[ring];
+			int end = ringOffsets[ring + 1];
+			writeVarInt(end - start);
+			writePoints(start, end);
+		}
+
+		/**
+		 * Write points as zig-zag deltas from the previous point
+		 *
+		 * @param start
+		 *            start point, inclusive
+		 * @param end
+		 *            end point, exclusive
+		 */
+		void writePoints(int start, int end) {
+			for (int point = start; point < end; point++) {
+				int offset = point * dimension;
+				for (int i = 0; i < dimension; i++) {
+					long value = values[offset + i];
+					long delta = value - previous[i];
+					writeVarInt((delta << 1) ^ (delta >> 63));
+					previous[i] = value;
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * TWKB reader of delta encoded coordinates into growable packed arrays
+	 */
+	private static class Reader {
+
+		/**
+		 * Byte array or null
+		 */
+		final byte[] array;
+
+		/**
+		 * Byte buffer when array is null
+		 */
+		final ByteBuffer buffer;
+
+		/**
+		 * Next byte index
+		 */
+		int index;
+
+		/**
+		 * Precision per point coordinate value
+		 */
+		int[] precisions;
+
+		/**
+		 * Previous point values
+		 */
+		long[] previous;
+
+		/**
+		 * Coordinates
+		 */
+		double[] coordinates = new double[64];
+
+		/**
+		 * Coordinate values read
+		 */
+		int values;
+
+		/**
+		 * Ring offsets
+		 */
+		int[] ringOffsets = new int[8];
+
+		/**
+		 * Rings read
+		 */
+		int rings;
+
+		/**
+		 * Part offsets
+		 */
+		int[] partOffsets = new int[8];
+
+		/**
+		 * Parts read
+		 */
+		int parts;
+
+		/**
+		 * Constructor
+		 *
+		 * @param array
+		 *            byte array or null
+		 * @param buffer
+		 *            byte buffer when array is null
+		 * @param index
+		 *            start index
+		 */
+		Reader(byte[] array, ByteBuffer buffer, int index) {
+			this.array = array;
+			this.buffer = buffer;
+			this.index = index;
+		}
+
+		/**
+		 * Set the precisions per point coordinate value
+		 *
+		 * @param precisions
+		 *            precisions
+		 */
+		void setPrecisions(int[] precisions) {
+			this.precisions = precisions;
+			this.previous = new long[precisions.length];
+		}
+
+		/**
+		 * Read an unsigned byte
+		 *
+		 * @return byte value
+		 */
+		int readByte() {
+			return GeometryEnvelopeReader.readByte(array, buffer, index++)
+					& 0xFF;
+		}
+
+		/**
+		 * Read an unsigned variable length integer
+		 *
+		 * @return value
+		 */
+		long readVarInt() {
+			long value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		/**
+		 * Read a multi geometry count, skipping an id list when present
+		 *
+		 * @param idList
+		 *            true if an id list follows the count
+		 * @return count
+		 */
+		int readCount(boolean idList) {
+			int count = (int) readVarInt();
+			if (idList) {
+				for (int i = 0; i < count; i++) {
+					readVarInt();
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Start a new part
+		 */
+		void startPart() {
+			if (parts + 1 >= partOffsets.length) {
+				partOffsets = Arrays.copyOf(partOffsets,
+						partOffsets.length * 2);
+			}
+			partOffsets[parts++] = rings;
+		}
+
+		/**
+		 * Start a new ring
+		 */
+		void startRing() {
+			if (rings + 1 >= ringOffsets.length) {
+				ringOffsets = Arrays.copyOf(ringOffsets,
+						ringOffsets.length * 2);
+			}
+			ringOffsets[rings++] = values / precisions.length;
+		}
+
+		/**
+		 * Read a ring count and rings
+		 */
+		void readRings() {
+			int count = (int) readVarInt();
+			for (int i = 0; i < count; i++) {
+				readRing();
+			}
+		}
+
+		/**
+		 * Read a ring point count and points
+		 */
+		void readRing() {
+			startRing();
+			readPoints((int) readVarInt());
+		}
+
+		/**
+		 * Read points as zig-zag deltas from the previous point
+		 *
+		 * @param count
+		 *            point count
+		 */
+		void readPoints(int count) {
+			int dimension = precisions.length;
+			int required = values + count * dimension;
+			if (required > coordinates.length) {
+				coordinates = Arrays.copyOf(coordinates,
+						Math.max(required, coordinates.length * 2));
+			}
+			for (int point = 0; point < count; point++) {
+				for (int i = 0; i < dimension; i++) {
+					long encoded = readVarInt();
+					long delta = (encoded >>> 1) ^ -(encoded & 1);
+					previous[i] += delta;
+					coordinates[values++] = dequantize(previous[i],
+							precisions[i]);
+				}
+			}
+		}
+
+		/**
+		 * Create the packed geometry from the read values
+		 *
+		 * @param geometryType
+		 *            geometry type
+		 * @param hasZ
+		 *            has z coordinates
+		 * @param hasM
+		 *            has m coordinates
+		 * @return packed geometry
+		 */
+		PackedGeometry toPacked(GeometryType geometryType, boolean hasZ,
+				boolean hasM) {
+			int[] packedRingOffsets = Arrays.copyOf(ringOffsets, rings + 1);
+			packedRingOffsets[rings] = values / precisions.length;
+			int[] packedPartOffsets = Arrays.copyOf(partOffsets, parts + 1);
+			packedPartOffsets[parts] = rings;
+			return new PackedGeometry(geometryType, hasZ, hasM,
+					Arrays.copyOf(coordinates, values), packedRingOffsets,
+					packedPartOffsets);
+		}
+
+	}
+
+}
@@ -0,0 +1,309 @@
+package mil.nga.geopackage.geom;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import mil.nga.sf.Geometry;
+
+/**
+ * Batch GeoPackage geometry encoding and decoding, splitting the work across a
+ * fork join pool. Results are returned in the same order as the inputs.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class GeoPackageGeometryBatch {
+
+	/**
+	 * Default number of geometries encoded or decoded per forked task
+	 */
+	public static final int DEFAULT_THRESHOLD = 128;
+
+	/**
+	 * Encode the geometries into GeoPackage geometry bytes using the common
+	 * pool
+	 *
+	 * @param srsId
+	 *            SRS id
+	 * @param geometries
+	 *            geometries, null geometries are encoded as empty
+	 * @param buildEnvelope
+	 *            true to build and write the envelope
+	 * @return GeoPackage geometry bytes in geometry order
+	 */
+	public static List<byte[]> encode(long srsId, List<Geometry> geometries,
+			boolean buildEnvelope) {
+		return encode(srsId, geometries, buildEnvelope,
+				ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Encode the geometries into GeoPackage geometry bytes
+	 *
+	 * @param srsId
+	 *            SRS id
+	 * @param geometries
+	 *            geometries, null geometries are encoded as empty
+	 * @param buildEnvelope
+	 *            true to build and write the envelope
+	 * @param pool
+	 *            fork join pool
+	 * @return GeoPackage geometry bytes in geometry order
+	 */
+	public static List<byte[]> encode(long srsId, List<Geometry> geometries,
+			boolean buildEnvelope, ForkJoinPool pool) {
+		return encode(srsId, geometries, buildEnvelope, pool,
+				DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Encode the geometries into GeoPackage geometry bytes
+	 *
+	 * @param srsId
+	 *            SRS id
+	 * @param geometries
+	 *            geometries, null geometries are encoded as empty
+	 * @param buildEnvelope
+	 *            true to build and write the envelope
+	 * @param pool
+	 *            fork join pool
+	 * @param threshold
+	 *            maximum number of geometries encoded per forked task
+	 * @return GeoPackage geometry bytes in geometry order
+	 */
+	public static List<byte[]> encode(long srsId, List<Geometry> geometries,
+			boolean buildEnvelope, ForkJoinPool pool, int threshold) {
+		Geometry[] input = geometries.toArray(new Geometry[0]);
+		byte[][] output = new byte[input.length][];
+		pool.invoke(new EncodeAction(srsId, input, output, buildEnvelope,
+				Math.max(1, threshold), 0, input.length));
+		return Arrays.asList(output);
+	}
+
+	/**
+	 * Decode the GeoPackage geometry bytes into geometry data using the common
+	 * pool
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes, null bytes decode as null
+	 * @return geometry data in bytes order
+	 */
+	public static List<GeoPackageGeometryData> decode(List<byte[]> bytes) {
+		return decode(bytes, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Decode the GeoPackage geometry bytes into geometry data
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes, null bytes decode as null
+	 * @param pool
+	 *            fork join pool
+	 * @return geometry data in bytes order
+	 */
+	public static List<GeoPackageGeometryData> decode(List<byte[]> bytes,
+			ForkJoinPool pool) {
+		return decode(bytes, pool, DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Decode the GeoPackage geometry bytes into geometry data
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes, null bytes decode as null
+	 * @param pool
+	 *            fork join pool
+	 * @param threshold
+	 *            maximum number of geometries decoded per forked task
+	 * @return geometry data in bytes order
+	 */
+	public static List<GeoPackageGeometryData> decode(List<byte[]> bytes,
+			ForkJoinPool pool, int threshold) {
+		byte[][] input = bytes.toArray(new byte[0][]);
+		GeoPackageGeometryData[] output = new GeoPackageGeometryData[input.length];
+		pool.invoke(new DecodeAction(input, output, Math.max(1, threshold), 0,
+				input.length));
+		return Arrays.asList(output);
+	}
+
+	/**
+	 * Encode action over a range of geometries
+	 */
+	private static class EncodeAction extends RecursiveAction {
+
+		/**
+		 * Serial version id
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * SRS id
+		 */
+		private final long srsId;
+
+		/**
+		 * Geometries
+		 */
+		private final Geometry[] input;
+
+		/**
+		 * Encoded bytes
+		 */
+		private final byte[][] output;
+
+		/**
+		 * Build envelope flag
+		 */
+		private final boolean buildEnvelope;
+
+		/**
+		 * Task threshold
+		 */
+		private final int threshold;
+
+		/**
+		 * Range start, inclusive
+		 */
+		private final int start;
+
+		/**
+		 * Range end, exclusive
+		 */
+		private final int end;
+
+		/**
+		 * Constructor
+		 *
+		 * @param srsId
+		 *            SRS id
+		 * @param input
+		 *            geometries
+		 * @param output
+		 *            encoded bytes
+		 * @param buildEnvelope
+		 *            build envelope flag
+		 * @param threshold
+		 *            task threshold
+		 * @param start
+		 *            range start
+		 * @param end
+		 *            range end
+		 */
+		EncodeAction(long srsId, Geometry[] input, byte[][] output,
+				boolean buildEnvelope, int threshold, int start, int end) {
+			this.srsId = srsId;
+			this.input = input;
+			this.output = output;
+			this.buildEnvelope = buildEnvelope;
+			this.threshold = threshold;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			if (end - start <= threshold) {
+				for (int i = start; i < end; i++) {
+					GeoPackageGeometryData geometryData = new GeoPackageGeometryData(
+							srsId, input[i], buildEnvelope);
+					output[i] = GeoPackageGeometryEncoder.toBytes(geometryData);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(
+						new EncodeAction(srsId, input, output, buildEnvelope,
+								threshold, start, middle),
+						new EncodeAction(srsId, input, output, buildEnvelope,
+								threshold, middle, end));
+			}
+		}
+
+	}
+
+	/**
+	 * Decode action over a range of geometry bytes
+	 */
+	private static class DecodeAction extends RecursiveAction {
+
+		/**
+		 * Serial version id
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Geometry bytes
+		 */
+		private final byte[][] input;
+
+		/**
+		 * Decoded geometry data
+		 */
+		private final GeoPackageGeometryData[] output;
+
+		/**
+		 * Task threshold
+		 */
+		private final int threshold;
+
+		/**
+		 * Range start, inclusive
+		 */
+		private final int start;
+
+		/**
+		 * Range end, exclusive
+		 */
+		private final int end;
+
+		/**
+		 * Constructor
+		 *
+		 * @param input
+		 *            geometry bytes
+		 * @param output
+		 *            decoded geometry data
+		 * @param threshold
+		 *            task threshold
+		 * @param start
+		 *            range start
+		 * @param end
+		 *            range end
+		 */
+		DecodeAction(byte[][] input, GeoPackageGeometryData[] output,
+				int threshold, int start, int end) {
+			this.input = input;
+			this.output = output;
+			this.threshold = threshold;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			if (end - start <= threshold) {
+				for (int i = start; i < end; i++) {
+					if (input[i] != null) {
+						output[i] = GeoPackageGeometryData.create(input[i]);
+					}
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(
+						new DecodeAction(input, output, threshold, start,
+								middle),
+						new DecodeAction(input, output, threshold, middle,
+								end));
+			}
+		}
+
+	}
+
+}
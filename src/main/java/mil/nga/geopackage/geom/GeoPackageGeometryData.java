@@ -1,5 +1,6 @@
 package mil.nga.geopackage.geom;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -14,12 +15,10 @@ import mil.nga.sf.Geometry;
 import mil.nga.sf.GeometryEnvelope;
 import mil.nga.sf.proj.ProjectionTransform;
 import mil.nga.sf.util.ByteReader;
-import mil.nga.sf.util.ByteWriter;
 import mil.nga.sf.util.GeometryEnvelopeBuilder;
 import mil.nga.sf.util.filter.GeometryFilter;
 import mil.nga.sf.util.filter.PointFiniteFilter;
 import mil.nga.sf.wkb.GeometryReader;
-import mil.nga.sf.wkb.GeometryWriter;
 
 /**
  * GeoPackage Geometry Data
@@ -84,6 +83,23 @@ public class GeoPackageGeometryData {
 	 */
 	private Geometry geometry;
 
+	/**
+	 * True when the Well-Known Binary geometry bytes have not yet been read
+	 * into the geometry
+	 */
+	private boolean geometryUnread = false;
+
+	/**
+	 * Compact geometry bytes when read from or written as a compact geometry
+	 */
+	private byte[] compactBytes;
+
+	/**
+	 * Compact geometry x and y, z, and m decimal digit precisions when read
+	 * from a compact geometry, null when written as a standard geometry
+	 */
+	private int[] compactPrecisions;
+
 	/**
 	 * Get geometry filter
 	 * 
@@ -303,6 +319,37 @@ public class GeoPackageGeometryData {
 		return new GeoPackageGeometryData(bytes);
 	}
 
+	/**
+	 * Create the geometry data from GeoPackage geometry bytes, optionally
+	 * deferring the read of the Well-Known Binary geometry until the first
+	 * {@link #getGeometry()} call
+	 * 
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param lazy
+	 *            true to only read the header and envelope, false to read the
+	 *            geometry
+	 * @return geometry data
+	 * @since 4.0.1
+	 */
+	public static GeoPackageGeometryData create(byte[] bytes, boolean lazy) {
+		return new GeoPackageGeometryData(bytes, lazy);
+	}
+
+	/**
+	 * Create the geometry data from GeoPackage geometry bytes, only reading the
+	 * header and envelope. The Well-Known Binary geometry is read upon the
+	 * first {@link #getGeometry()} call.
+	 * 
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return geometry data
+	 * @since 4.0.1
+	 */
+	public static GeoPackageGeometryData createLazy(byte[] bytes) {
+		return create(bytes, true);
+	}
+
 	/**
 	 * Create the geometry data, default SRS Id of {@link #getDefaultSrsId()}
 	 * 
@@ -886,7 +933,7 @@ public class GeoPackageGeometryData {
 	 * @since 4.0.0
 	 */
 	public static byte[] wkb(byte[] bytes) throws IOException {
-		return create(bytes).getWkb();
+		return createLazy(bytes).getWkb();
 	}
 
 	/**
@@ -1085,22 +1132,34 @@ public class GeoPackageGeometryData {
 	 */
 	public GeoPackageGeometryData(GeoPackageGeometryData geometryData) {
 		setSrsId(geometryData.getSrsId());
-		Geometry geometry = geometryData.getGeometry();
-		if (geometry != null) {
-			geometry = geometry.copy();
+		if (geometryData.geometryUnread) {
+			extended = geometryData.isExtended();
+			empty = geometryData.isEmpty();
+			geometryUnread = true;
+		} else {
+			Geometry geometry = geometryData.getGeometry();
+			if (geometry != null) {
+				geometry = geometry.copy();
+			}
+			setGeometry(geometry);
 		}
-		setGeometry(geometry);
 		GeometryEnvelope envelope = geometryData.getEnvelope();
 		if (envelope != null) {
 			envelope = envelope.copy();
 		}
 		setEnvelope(envelope);
-		byte[] bytes = geometryData.getBytes();
+		byte[] bytes = geometryData.bytes;
 		if (bytes != null) {
 			bytes = Arrays.copyOf(bytes, bytes.length);
 		}
 		this.bytes = bytes;
 		this.wkbGeometryIndex = geometryData.wkbGeometryIndex;
+		byte[] compactBytes = geometryData.compactBytes;
+		if (compactBytes != null) {
+			compactBytes = Arrays.copyOf(compactBytes, compactBytes.length);
+		}
+		this.compactBytes = compactBytes;
+		this.compactPrecisions = geometryData.compactPrecisions;
 		setByteOrder(geometryData.getByteOrder());
 	}
 
@@ -1114,6 +1173,20 @@ public class GeoPackageGeometryData {
 		fromBytes(bytes);
 	}
 
+	/**
+	 * Constructor
+	 * 
+	 * @param bytes
+	 *            geometry bytes
+	 * @param lazy
+	 *            true to only read the header and envelope, deferring the
+	 *            geometry read until the first {@link #getGeometry()} call
+	 * @since 4.0.1
+	 */
+	public GeoPackageGeometryData(byte[] bytes, boolean lazy) {
+		fromBytes(bytes, lazy);
+	}
+
 	/**
 	 * Populate the geometry data from the bytes
 	 * 
@@ -1121,9 +1194,32 @@ public class GeoPackageGeometryData {
 	 *            geometry bytes
 	 */
 	public void fromBytes(byte[] bytes) {
+		fromBytes(bytes, false);
+	}
+
+	/**
+	 * Populate the geometry data from the bytes, optionally deferring the read
+	 * of the Well-Known Binary geometry until the first {@link #getGeometry()}
+	 * call. Compact geometry bytes are decoded to a standard geometry, keeping
+	 * the compact bytes and precisions to write the geometry back as a
+	 * compact geometry.
+	 * 
+	 * @param bytes
+	 *            geometry bytes
+	 * @param lazy
+	 *            true to only read the header and envelope, false to read the
+	 *            geometry
+	 * @since 4.0.1
+	 */
+	public void fromBytes(byte[] bytes, boolean lazy) {
 		this.bytes = bytes;
+		this.geometry = null;
+		this.geometryUnread = false;
+		this.compactBytes = null;
+		this.compactPrecisions = null;
 
 		ByteReader reader = new ByteReader(bytes);
+		byte flags;
 
 		// Get 2 bytes as the magic number and validate
 		String magic = null;
@@ -1154,7 +1250,7 @@ public class GeoPackageGeometryData {
 			}
 
 			// Get a flags byte and then read the flag values
-			byte flags = reader.readByte();
+			flags = reader.readByte();
 			int envelopeIndicator = readFlags(flags);
 			reader.setByteOrder(byteOrder);
 
@@ -1172,22 +1268,77 @@ public class GeoPackageGeometryData {
 		// Save off where the WKB bytes start
 		wkbGeometryIndex = reader.getNextByte();
 
+		// Compact geometries are decoded to standard geometry bytes, keeping
+		// the compact bytes and precisions
+		boolean compact = !empty
+				&& CompactGeometry.isCompact(bytes, null, wkbGeometryIndex,
+						flags);
+
 		// Read the Well-Known Binary Geometry if not marked as empty
-		if (!empty) {
-			try {
-				geometry = GeometryReader.readGeometry(reader, geometryFilter);
-			} catch (IOException e) {
-				throw new GeoPackageException("Failed to read the WKB geometry",
-						e);
+		if (!empty && !compact) {
+			if (lazy) {
+				geometryUnread = true;
+			} else {
+				geometry = readGeometry(reader);
 			}
 		}
 
 		// Close the reader
 		reader.close();
+
+		if (compact) {
+			int[] precisions = CompactGeometry.readPrecisions(bytes,
+					wkbGeometryIndex);
+			fromBytes(CompactGeometry.toStandard(bytes), lazy);
+			compactBytes = bytes;
+			compactPrecisions = precisions;
+		}
 	}
 
 	/**
-	 * Write the geometry to bytes
+	 * Read the Well-Known Binary geometry from the reader
+	 * 
+	 * @param reader
+	 *            byte reader positioned at the start of the geometry bytes
+	 * @return geometry
+	 */
+	private static Geometry readGeometry(ByteReader reader) {
+		try {
+			return GeometryReader.readGeometry(reader, geometryFilter);
+		} catch (IOException e) {
+			throw new GeoPackageException("Failed to read the WKB geometry", e);
+		}
+	}
+
+	/**
+	 * Read the unread Well-Known Binary geometry from the bytes
+	 */
+	private void readUnreadGeometry() {
+		ByteReader reader = new ByteReader(new ByteArrayInputStream(bytes,
+				wkbGeometryIndex, bytes.length - wkbGeometryIndex));
+		try {
+			geometry = readGeometry(reader);
+		} finally {
+			reader.close();
+		}
+		geometryUnread = false;
+	}
+
+	/**
+	 * Determine if the Well-Known Binary geometry has been read from the bytes,
+	 * or set directly. Returns false when the geometry data was lazily created
+	 * and {@link #getGeometry()} has not yet been called.
+	 * 
+	 * @return true if the geometry has been read
+	 * @since 4.0.1
+	 */
+	public boolean isGeometryRead() {
+		return !geometryUnread;
+	}
+
+	/**
+	 * Write the geometry to bytes, as a compact geometry of the read
+	 * precisions when read from a compact geometry
 	 * 
 	 * @return bytes
 	 * @throws IOException
@@ -1195,40 +1346,51 @@ public class GeoPackageGeometryData {
 	 */
 	public byte[] toBytes() throws IOException {
 
-		ByteWriter writer = new ByteWriter();
-
-		// Write GP as the 2 byte magic number
-		writer.writeString(GeoPackageConstants.GEOMETRY_MAGIC_NUMBER);
+		// Read a lazily deferred geometry before rewriting the bytes
+		getGeometry();
 
-		// Write a byte as the version, value of 0 = version 1
-		writer.writeByte(GeoPackageConstants.GEOMETRY_VERSION_1);
-
-		// Build and write a flags byte
-		byte flags = buildFlagsByte();
-		writer.writeByte(flags);
-		writer.setByteOrder(byteOrder);
-
-		// Write the 4 byte srs id int
-		writer.writeInt(srsId);
-
-		// Write the envelope
-		writeEnvelope(writer);
+		// Write the exactly sized bytes
+		bytes = GeoPackageGeometryEncoder.toBytes(this);
 
 		// Save off where the WKB bytes start
-		wkbGeometryIndex = writer.size();
+		wkbGeometryIndex = GeoPackageGeometryEncoder.headerSize(envelope);
 
-		// Write the Well-Known Binary Geometry if not marked as empty
-		if (!empty) {
-			GeometryWriter.writeGeometry(writer, geometry);
+		if (compactPrecisions != null) {
+			compactBytes = toCompact(bytes);
 		}
 
-		// Get the bytes
-		bytes = writer.getBytes();
+		return getBytes();
+	}
 
-		// Close the writer
-		writer.close();
+	/**
+	 * Encode the geometry to bytes without saving them as the geometry data
+	 * bytes, as a compact geometry of the read precisions when read from a
+	 * compact geometry
+	 * 
+	 * @return bytes
+	 * @since 4.0.1
+	 */
+	public byte[] encode() {
+		getGeometry();
+		byte[] encoded = GeoPackageGeometryEncoder.toBytes(this);
+		if (compactPrecisions != null) {
+			encoded = toCompact(encoded);
+		}
+		return encoded;
+	}
 
-		return bytes;
+	/**
+	 * Convert standard geometry bytes to a compact geometry of the read
+	 * compact precisions
+	 * 
+	 * @param standard
+	 *            standard GeoPackage geometry bytes
+	 * @return compact GeoPackage geometry bytes, or the provided bytes when
+	 *         the geometry can not be compacted
+	 */
+	private byte[] toCompact(byte[] standard) {
+		return CompactGeometry.toCompact(standard, compactPrecisions[0],
+				compactPrecisions[1], compactPrecisions[2]);
 	}
 
 	/**
@@ -1281,7 +1443,7 @@ public class GeoPackageGeometryData {
 	 * 
 	 * @return envelope indicator
 	 */
-	private byte buildFlagsByte() {
+	byte buildFlagsByte() {
 
 		byte flag = 0;
 
@@ -1375,43 +1537,23 @@ public class GeoPackageGeometryData {
 	}
 
 	/**
-	 * Write the envelope bytes
+	 * Is the geometry extended
 	 * 
-	 * @param writer
-	 *            byte writer
-	 * @throws IOException
+	 * @return true if extended
 	 */
-	private void writeEnvelope(ByteWriter writer) throws IOException {
-
-		if (envelope != null) {
-
-			// Write x and y values
-			writer.writeDouble(envelope.getMinX());
-			writer.writeDouble(envelope.getMaxX());
-			writer.writeDouble(envelope.getMinY());
-			writer.writeDouble(envelope.getMaxY());
-
-			// Write z values
-			if (envelope.hasZ()) {
-				writer.writeDouble(envelope.getMinZ());
-				writer.writeDouble(envelope.getMaxZ());
-			}
-
-			// Write m values
-			if (envelope.hasM()) {
-				writer.writeDouble(envelope.getMinM());
-				writer.writeDouble(envelope.getMaxM());
-			}
-		}
+	public boolean isExtended() {
+		return extended;
 	}
 
 	/**
-	 * Is the geometry extended
+	 * Determine if the geometry data was read from a compact geometry and is
+	 * written as a compact geometry
 	 * 
-	 * @return true if extended
+	 * @return true if compact
+	 * @since 4.0.1
 	 */
-	public boolean isExtended() {
-		return extended;
+	public boolean isCompact() {
+		return compactPrecisions != null;
 	}
 
 	/**
@@ -1451,11 +1593,15 @@ public class GeoPackageGeometryData {
 	}
 
 	/**
-	 * Get the geometry
+	 * Get the geometry, reading the Well-Known Binary geometry bytes when
+	 * lazily deferred
 	 * 
 	 * @return geometry
 	 */
 	public Geometry getGeometry() {
+		if (geometryUnread) {
+			readUnreadGeometry();
+		}
 		return geometry;
 	}
 
@@ -1522,6 +1668,7 @@ public class GeoPackageGeometryData {
 	 */
 	public void setGeometry(Geometry geometry) {
 		this.geometry = geometry;
+		geometryUnread = false;
 		empty = geometry == null;
 		if (geometry != null) {
 			extended = GeometryExtensions
@@ -1607,12 +1754,14 @@ public class GeoPackageGeometryData {
 
 	/**
 	 * Get the bytes of the entire GeoPackage geometry including GeoPackage
-	 * header and WKB bytes
+	 * header and WKB bytes. Compact geometries return the compact bytes,
+	 * while the header and Well-Known Binary accessors return the decoded
+	 * standard geometry.
 	 * 
 	 * @return bytes
 	 */
 	public byte[] getBytes() {
-		return bytes;
+		return compactBytes != null ? compactBytes : bytes;
 	}
 
 	/**
@@ -1691,6 +1840,7 @@ public class GeoPackageGeometryData {
 	 */
 	public String getWkt() {
 		String wkt = null;
+		Geometry geometry = getGeometry();
 		if (geometry != null) {
 			try {
 				wkt = mil.nga.sf.wkt.GeometryWriter.writeGeometry(geometry);
@@ -1702,6 +1852,24 @@ public class GeoPackageGeometryData {
 		return wkt;
 	}
 
+	/**
+	 * Get a packed coordinate geometry. When the geometry has not been read,
+	 * the packed geometry is read directly from the Well-Known Binary bytes
+	 * without creating the geometry.
+	 *
+	 * @return packed geometry or null if empty
+	 * @since 4.0.1
+	 */
+	public PackedGeometry getPackedGeometry() {
+		PackedGeometry packed = null;
+		if (geometryUnread) {
+			packed = PackedGeometry.readWkb(bytes, wkbGeometryIndex);
+		} else if (geometry != null) {
+			packed = PackedGeometry.create(geometry);
+		}
+		return packed;
+	}
+
 	/**
 	 * Get the envelope if it exists or build, set, and retrieve it from the
 	 * geometry
@@ -1725,9 +1893,20 @@ public class GeoPackageGeometryData {
 	 */
 	public GeometryEnvelope buildEnvelope() {
 		GeometryEnvelope envelope = null;
-		Geometry geometry = getGeometry();
-		if (geometry != null) {
-			envelope = GeometryEnvelopeBuilder.buildEnvelope(geometry);
+		if (geometryUnread && GeometryEnvelopeReader
+				.getScanFilter() != GeometryEnvelopeReader.SCAN_FILTER_UNSUPPORTED) {
+			// Scan the unread geometry bytes instead of reading the geometry,
+			// applying the finite geometry filter to the scanned points
+			double[] values = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+			if (GeometryEnvelopeReader.readWkbEnvelope(bytes, wkbGeometryIndex,
+					values)) {
+				envelope = GeometryEnvelopeReader.toGeometryEnvelope(values);
+			}
+		} else {
+			Geometry geometry = getGeometry();
+			if (geometry != null) {
+				envelope = GeometryEnvelopeBuilder.buildEnvelope(geometry);
+			}
 		}
 		setEnvelope(envelope);
 		return envelope;
@@ -1767,6 +1946,8 @@ public class GeoPackageGeometryData {
 		if (transform.isSameProjection()) {
 			transformed = new GeoPackageGeometryData(transformed);
 		} else {
+			// Read through the geometry filter and transform with the
+			// projection transform geometry rules, matching eager data
 			Geometry geometry = getGeometry();
 			if (geometry != null) {
 				geometry = transform.transform(geometry);
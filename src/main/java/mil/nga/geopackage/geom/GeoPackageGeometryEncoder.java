@@ -0,0 +1,555 @@
+package mil.nga.geopackage.geom;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import mil.nga.geopackage.GeoPackageConstants;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.sf.CompoundCurve;
+import mil.nga.sf.CurvePolygon;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryCollection;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.LineString;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.PolyhedralSurface;
+import mil.nga.sf.wkb.GeometryCodes;
+
+/**
+ * GeoPackage geometry encoder writing the GeoPackage header, envelope, and
+ * Well-Known Binary geometry directly into byte buffers. The encoded size is
+ * computed before writing so that exactly sized byte arrays are produced
+ * without intermediate streams or copies.
+ *
+ * An encoder instance retains a growable byte buffer reused across
+ * {@link #encode(GeoPackageGeometryData)} calls and is not thread safe. Use one
+ * encoder per thread.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class GeoPackageGeometryEncoder {
+
+	/**
+	 * Default initial reusable buffer capacity
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Reusable buffer
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructor
+	 */
+	public GeoPackageGeometryEncoder() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            initial reusable buffer capacity
+	 */
+	public GeoPackageGeometryEncoder(int capacity) {
+		buffer = ByteBuffer.allocate(capacity);
+	}
+
+	/**
+	 * Encode the geometry data into the reusable buffer, growing it when
+	 * needed. The returned buffer has a position of zero and a limit of the
+	 * encoded size, and is only valid until the next encode call.
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @return reusable buffer containing the GeoPackage geometry bytes
+	 */
+	public ByteBuffer encode(GeoPackageGeometryData geometryData) {
+		int size = size(geometryData);
+		if (buffer.capacity() < size) {
+			buffer = ByteBuffer
+					.allocate(Math.max(size, buffer.capacity() * 2));
+		}
+		((Buffer) buffer).clear();
+		write(geometryData, buffer, size);
+		((Buffer) buffer).flip();
+		return buffer;
+	}
+
+	/**
+	 * Get the current reusable buffer capacity
+	 *
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * Encode the geometry data into an exactly sized byte array
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @return GeoPackage geometry bytes
+	 */
+	public static byte[] toBytes(GeoPackageGeometryData geometryData) {
+		int size = size(geometryData);
+		byte[] bytes = new byte[size];
+		write(geometryData, ByteBuffer.wrap(bytes), size);
+		return bytes;
+	}
+
+	/**
+	 * Encode a packed geometry into exactly sized GeoPackage geometry bytes
+	 * without creating the geometry
+	 *
+	 * @param srsId
+	 *            SRS id
+	 * @param packed
+	 *            packed geometry
+	 * @param byteOrder
+	 *            byte order
+	 * @param buildEnvelope
+	 *            true to compute and write the envelope
+	 * @return GeoPackage geometry bytes
+	 */
+	public static byte[] toBytes(int srsId, PackedGeometry packed,
+			ByteOrder byteOrder, boolean buildEnvelope) {
+
+		double[] envelope = null;
+		if (buildEnvelope) {
+			envelope = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+			if (!packed.readEnvelope(envelope)) {
+				envelope = null;
+			}
+		}
+
+		byte[] bytes = new byte[headerSize(envelope, packed)
+				+ packed.wkbSize()];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		writeHeader(buffer, srsId, envelope, packed, byteOrder, false);
+
+		packed.writeWkb(buffer);
+
+		return bytes;
+	}
+
+	/**
+	 * Compute the GeoPackage header size of a packed geometry, including the
+	 * envelope
+	 *
+	 * @param envelope
+	 *            envelope values or null
+	 * @param packed
+	 *            packed geometry
+	 * @return size in bytes
+	 */
+	static int headerSize(double[] envelope, PackedGeometry packed) {
+		int size = GeometryEnvelopeReader.HEADER_LENGTH;
+		if (envelope != null) {
+			size += 32;
+			if (packed.hasZ()) {
+				size += 16;
+			}
+			if (packed.hasM()) {
+				size += 16;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Write the GeoPackage header and envelope of a packed geometry, leaving
+	 * the buffer in the byte order
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param srsId
+	 *            SRS id
+	 * @param envelope
+	 *            envelope values or null
+	 * @param packed
+	 *            packed geometry
+	 * @param byteOrder
+	 *            byte order
+	 * @param extended
+	 *            true if an extended GeoPackage geometry
+	 */
+	static void writeHeader(ByteBuffer buffer, int srsId, double[] envelope,
+			PackedGeometry packed, ByteOrder byteOrder, boolean extended) {
+
+		int indicator = 0;
+		if (envelope != null) {
+			indicator = 1;
+			if (packed.hasZ()) {
+				indicator++;
+			}
+			if (packed.hasM()) {
+				indicator += 2;
+			}
+		}
+
+		// Write GP as the 2 byte magic number
+		String magicNumber = GeoPackageConstants.GEOMETRY_MAGIC_NUMBER;
+		buffer.put((byte) magicNumber.charAt(0));
+		buffer.put((byte) magicNumber.charAt(1));
+
+		// Write a byte as the version, value of 0 = version 1
+		buffer.put(GeoPackageConstants.GEOMETRY_VERSION_1);
+
+		// Write the flags byte
+		int flags = indicator << 1;
+		if (extended) {
+			flags |= 1 << 5;
+		}
+		if (byteOrder != ByteOrder.BIG_ENDIAN) {
+			flags |= 1;
+		}
+		buffer.put((byte) flags);
+		buffer.order(byteOrder);
+
+		// Write the 4 byte srs id int
+		buffer.putInt(srsId);
+
+		// Write the envelope
+		if (envelope != null) {
+			buffer.putDouble(envelope[GeometryEnvelopeReader.MIN_X]);
+			buffer.putDouble(envelope[GeometryEnvelopeReader.MAX_X]);
+			buffer.putDouble(envelope[GeometryEnvelopeReader.MIN_Y]);
+			buffer.putDouble(envelope[GeometryEnvelopeReader.MAX_Y]);
+			if (packed.hasZ()) {
+				buffer.putDouble(envelope[GeometryEnvelopeReader.MIN_Z]);
+				buffer.putDouble(envelope[GeometryEnvelopeReader.MAX_Z]);
+			}
+			if (packed.hasM()) {
+				buffer.putDouble(envelope[GeometryEnvelopeReader.MIN_M]);
+				buffer.putDouble(envelope[GeometryEnvelopeReader.MAX_M]);
+			}
+		}
+	}
+
+	/**
+	 * Write the geometry data into the byte buffer at the current position,
+	 * advancing the position by the written size. The buffer byte order is
+	 * restored after writing.
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @param buffer
+	 *            byte buffer with at least {@link #size} bytes remaining
+	 * @return number of bytes written
+	 */
+	public static int write(GeoPackageGeometryData geometryData,
+			ByteBuffer buffer) {
+		return write(geometryData, buffer, size(geometryData));
+	}
+
+	/**
+	 * Write the geometry data of the computed size into the byte buffer
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @param buffer
+	 *            byte buffer
+	 * @param size
+	 *            computed encoded size
+	 * @return number of bytes written
+	 */
+	private static int write(GeoPackageGeometryData geometryData,
+			ByteBuffer buffer, int size) {
+
+		if (buffer.remaining() < size) {
+			throw new GeoPackageException(
+					"Insufficient buffer space to write GeoPackage geometry. Required: "
+							+ size + ", Remaining: " + buffer.remaining());
+		}
+
+		ByteOrder bufferOrder = buffer.order();
+		ByteOrder byteOrder = geometryData.getByteOrder();
+
+		// Write GP as the 2 byte magic number
+		String magicNumber = GeoPackageConstants.GEOMETRY_MAGIC_NUMBER;
+		buffer.put((byte) magicNumber.charAt(0));
+		buffer.put((byte) magicNumber.charAt(1));
+
+		// Write a byte as the version, value of 0 = version 1
+		buffer.put(GeoPackageConstants.GEOMETRY_VERSION_1);
+
+		// Write the flags byte
+		buffer.put(geometryData.buildFlagsByte());
+		buffer.order(byteOrder);
+
+		try {
+
+			// Write the 4 byte srs id int
+			buffer.putInt(geometryData.getSrsId());
+
+			// Write the envelope
+			writeEnvelope(buffer, geometryData.getEnvelope());
+
+			// Write the Well-Known Binary Geometry if not marked as empty
+			if (!geometryData.isEmpty()) {
+				writeGeometry(buffer, geometryData.getGeometry());
+			}
+
+		} finally {
+			buffer.order(bufferOrder);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Compute the encoded GeoPackage geometry size
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @return size in bytes
+	 */
+	public static int size(GeoPackageGeometryData geometryData) {
+		int size = headerSize(geometryData.getEnvelope());
+		if (!geometryData.isEmpty()) {
+			size += wkbSize(geometryData.getGeometry());
+		}
+		return size;
+	}
+
+	/**
+	 * Compute the GeoPackage header size, including the envelope
+	 *
+	 * @param envelope
+	 *            geometry envelope or null
+	 * @return size in bytes
+	 */
+	public static int headerSize(GeometryEnvelope envelope) {
+		int size = GeometryEnvelopeReader.HEADER_LENGTH;
+		if (envelope != null) {
+			size += 32;
+			if (envelope.hasZ()) {
+				size += 16;
+			}
+			if (envelope.hasM()) {
+				size += 16;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Compute the Well-Known Binary geometry size
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @return size in bytes
+	 */
+	public static int wkbSize(Geometry geometry) {
+
+		// Byte order and geometry type code
+		int size = 5;
+
+		switch (geometry.getGeometryType()) {
+
+		case POINT:
+			size += pointSize((Point) geometry);
+			break;
+
+		case LINESTRING:
+		case CIRCULARSTRING:
+			size += lineStringSize((LineString) geometry);
+			break;
+
+		case POLYGON:
+		case TRIANGLE:
+			size += 4;
+			for (LineString ring : ((Polygon) geometry).getRings()) {
+				size += lineStringSize(ring);
+			}
+			break;
+
+		default:
+			size += 4;
+			for (Geometry child : children(geometry)) {
+				size += wkbSize(child);
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Write the envelope
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param envelope
+	 *            geometry envelope or null
+	 */
+	private static void writeEnvelope(ByteBuffer buffer,
+			GeometryEnvelope envelope) {
+
+		if (envelope != null) {
+
+			// Write x and y values
+			buffer.putDouble(envelope.getMinX());
+			buffer.putDouble(envelope.getMaxX());
+			buffer.putDouble(envelope.getMinY());
+			buffer.putDouble(envelope.getMaxY());
+
+			// Write z values
+			if (envelope.hasZ()) {
+				buffer.putDouble(envelope.getMinZ());
+				buffer.putDouble(envelope.getMaxZ());
+			}
+
+			// Write m values
+			if (envelope.hasM()) {
+				buffer.putDouble(envelope.getMinM());
+				buffer.putDouble(envelope.getMaxM());
+			}
+		}
+	}
+
+	/**
+	 * Write the Well-Known Binary geometry in the buffer byte order
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param geometry
+	 *            geometry
+	 */
+	private static void writeGeometry(ByteBuffer buffer, Geometry geometry) {
+
+		// Write the byte order and geometry type code
+		buffer.put((byte) (buffer.order() == ByteOrder.BIG_ENDIAN ? 0 : 1));
+		buffer.putInt(GeometryCodes.getCode(geometry));
+
+		switch (geometry.getGeometryType()) {
+
+		case POINT:
+			writePoint(buffer, (Point) geometry);
+			break;
+
+		case LINESTRING:
+		case CIRCULARSTRING:
+			writeLineString(buffer, (LineString) geometry);
+			break;
+
+		case POLYGON:
+		case TRIANGLE:
+			List<LineString> rings = ((Polygon) geometry).getRings();
+			buffer.putInt(rings.size());
+			for (LineString ring : rings) {
+				writeLineString(buffer, ring);
+			}
+			break;
+
+		default:
+			List<? extends Geometry> children = children(geometry);
+			buffer.putInt(children.size());
+			for (Geometry child : children) {
+				writeGeometry(buffer, child);
+			}
+		}
+	}
+
+	/**
+	 * Write the line string point count and points
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param lineString
+	 *            line string
+	 */
+	private static void writeLineString(ByteBuffer buffer,
+			LineString lineString) {
+		List<Point> points = lineString.getPoints();
+		buffer.putInt(points.size());
+		for (Point point : points) {
+			writePoint(buffer, point);
+		}
+	}
+
+	/**
+	 * Write the point coordinates
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param point
+	 *            point
+	 */
+	private static void writePoint(ByteBuffer buffer, Point point) {
+		buffer.putDouble(point.getX());
+		buffer.putDouble(point.getY());
+		if (point.hasZ()) {
+			buffer.putDouble(point.getZ());
+		}
+		if (point.hasM()) {
+			buffer.putDouble(point.getM());
+		}
+	}
+
+	/**
+	 * Get the line string point count and points size
+	 *
+	 * @param lineString
+	 *            line string
+	 * @return size in bytes
+	 */
+	private static int lineStringSize(LineString lineString) {
+		int size = 4;
+		for (Point point : lineString.getPoints()) {
+			size += pointSize(point);
+		}
+		return size;
+	}
+
+	/**
+	 * Get the point coordinates size
+	 *
+	 * @param point
+	 *            point
+	 * @return size in bytes
+	 */
+	private static int pointSize(Point point) {
+		int size = 16;
+		if (point.hasZ()) {
+			size += 8;
+		}
+		if (point.hasM()) {
+			size += 8;
+		}
+		return size;
+	}
+
+	/**
+	 * Get the child geometries of a multi, collection, curve, or surface
+	 * geometry written as nested Well-Known Binary geometries
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @return child geometries
+	 */
+	private static List<? extends Geometry> children(Geometry geometry) {
+		List<? extends Geometry> children;
+		if (geometry instanceof GeometryCollection) {
+			children = ((GeometryCollection<?>) geometry).getGeometries();
+		} else if (geometry instanceof CompoundCurve) {
+			children = ((CompoundCurve) geometry).getLineStrings();
+		} else if (geometry instanceof CurvePolygon) {
+			children = ((CurvePolygon<?>) geometry).getRings();
+		} else if (geometry instanceof PolyhedralSurface) {
+			children = ((PolyhedralSurface) geometry).getPolygons();
+		} else {
+			throw new GeoPackageException(
+					"Unsupported Geometry Type for writing: "
+							+ geometry.getGeometryType());
+		}
+		return children;
+	}
+
+}
@@ -0,0 +1,223 @@
+package mil.nga.geopackage.geom;
+
+import java.nio.ByteOrder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.srs.SpatialReferenceSystem;
+import mil.nga.geopackage.srs.SpatialReferenceSystemDao;
+import mil.nga.sf.proj.Projection;
+import mil.nga.sf.proj.ProjectionTransform;
+
+/**
+ * GeoPackage geometry transformer, reprojecting GeoPackage geometry bytes
+ * directly into GeoPackage geometry bytes in a target Spatial Reference
+ * System. Point, line string, polygon, and multi geometries are transformed as
+ * packed coordinate arrays without creating the geometry, while other geometry
+ * types are transformed through the geometry.
+ *
+ * Projection transforms are cached per source and target SRS id pair. Cached
+ * projection transforms are not thread safe, use one transformer per thread.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class GeoPackageGeometryTransformer {
+
+	/**
+	 * Spatial Reference System DAO
+	 */
+	private final SpatialReferenceSystemDao srsDao;
+
+	/**
+	 * Projections by SRS id
+	 */
+	private final Map<Long, Projection> projections = new HashMap<>();
+
+	/**
+	 * Projection transforms by source and target SRS id
+	 */
+	private final Map<String, ProjectionTransform> transforms = new HashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param srsDao
+	 *            Spatial Reference System DAO
+	 */
+	public GeoPackageGeometryTransformer(SpatialReferenceSystemDao srsDao) {
+		this.srsDao = srsDao;
+	}
+
+	/**
+	 * Get the projection for the SRS id, cached after the first lookup
+	 *
+	 * @param srsId
+	 *            SRS id
+	 * @return projection
+	 */
+	public Projection getProjection(long srsId) {
+		Projection projection = projections.get(srsId);
+		if (projection == null) {
+			SpatialReferenceSystem srs;
+			try {
+				srs = srsDao.queryForId(srsId);
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to retrieve Spatial Reference System. SRS ID: "
+								+ srsId,
+						e);
+			}
+			if (srs == null) {
+				throw new GeoPackageException(
+						"Spatial Reference System could not be found. SRS ID: "
+								+ srsId);
+			}
+			projection = srs.getProjection();
+			projections.put(srsId, projection);
+		}
+		return projection;
+	}
+
+	/**
+	 * Get the projection transform between the SRS ids, cached after the first
+	 * request
+	 *
+	 * @param fromSrsId
+	 *            source SRS id
+	 * @param toSrsId
+	 *            target SRS id
+	 * @return projection transform
+	 */
+	public ProjectionTransform getTransform(long fromSrsId, long toSrsId) {
+		String key = fromSrsId + ":" + toSrsId;
+		ProjectionTransform transform = transforms.get(key);
+		if (transform == null) {
+			transform = getProjection(fromSrsId)
+					.getTransformation(getProjection(toSrsId));
+			transforms.put(key, transform);
+		}
+		return transform;
+	}
+
+	/**
+	 * Clear the cached projections and projection transforms
+	 */
+	public void clear() {
+		projections.clear();
+		transforms.clear();
+	}
+
+	/**
+	 * Transform the GeoPackage geometry bytes to the target SRS id, using the
+	 * SRS id of the bytes as the source
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param toSrsId
+	 *            target SRS id
+	 * @return transformed GeoPackage geometry bytes
+	 */
+	public byte[] transform(byte[] bytes, int toSrsId) {
+		byte[] transformed = null;
+		if (bytes != null) {
+			int fromSrsId = GeometryEnvelopeReader.readSrsId(bytes);
+			transformed = transform(bytes, getTransform(fromSrsId, toSrsId),
+					toSrsId);
+		}
+		return transformed;
+	}
+
+	/**
+	 * Transform the GeoPackage geometry bytes to the target SRS id, using the
+	 * SRS id of each geometry as the source
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes, null bytes transform as null
+	 * @param toSrsId
+	 *            target SRS id
+	 * @return transformed GeoPackage geometry bytes in bytes order
+	 */
+	public List<byte[]> transform(List<byte[]> bytes, int toSrsId) {
+		List<byte[]> transformed = new ArrayList<>(bytes.size());
+		for (byte[] geometryBytes : bytes) {
+			transformed.add(transform(geometryBytes, toSrsId));
+		}
+		return transformed;
+	}
+
+	/**
+	 * Transform the geometry data to the target SRS id
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @param toSrsId
+	 *            target SRS id
+	 * @return transformed geometry data
+	 */
+	public GeoPackageGeometryData transform(
+			GeoPackageGeometryData geometryData, int toSrsId) {
+		GeoPackageGeometryData transformed = geometryData
+				.transform(getTransform(geometryData.getSrsId(), toSrsId));
+		transformed.setSrsId(toSrsId);
+		return transformed;
+	}
+
+	/**
+	 * Transform the GeoPackage geometry bytes using the projection transform.
+	 * An envelope is written in the transformed bytes when the bytes contain a
+	 * header envelope, computed from the transformed coordinates. Compact
+	 * geometries are transformed into standard GeoPackage geometry bytes.
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param transform
+	 *            projection transform
+	 * @param toSrsId
+	 *            SRS id of the transformed bytes
+	 * @return transformed GeoPackage geometry bytes
+	 */
+	public static byte[] transform(byte[] bytes, ProjectionTransform transform,
+			int toSrsId) {
+
+		byte flags = GeometryEnvelopeReader.validateHeader(bytes, null, 0);
+		boolean envelope = GeometryEnvelopeReader
+				.getEnvelopeIndicator(flags) > 0;
+		ByteOrder byteOrder = GeometryEnvelopeReader.isBigEndian(flags)
+				? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN;
+
+		int wkbGeometryIndex = GeometryEnvelopeReader
+				.getWkbGeometryIndex(flags);
+
+		byte[] transformed;
+
+		if (GeometryEnvelopeReader.isEmptyFlag(flags)) {
+			GeoPackageGeometryData geometryData = GeoPackageGeometryData
+					.createLazy(bytes);
+			geometryData.setSrsId(toSrsId);
+			transformed = GeoPackageGeometryEncoder.toBytes(geometryData);
+		} else if (CompactGeometry.isCompact(bytes, null, wkbGeometryIndex,
+				flags) || PackedGeometry.isSupported(bytes, wkbGeometryIndex)) {
+			PackedGeometry packed = PackedGeometry.read(bytes, null,
+					wkbGeometryIndex, flags);
+			transformed = GeoPackageGeometryEncoder.toBytes(toSrsId,
+					packed.transform(transform), byteOrder, envelope);
+		} else {
+			GeoPackageGeometryData geometryData = GeoPackageGeometryData
+					.create(bytes).transform(transform);
+			geometryData.setSrsId(toSrsId);
+			if (envelope) {
+				geometryData.buildEnvelope();
+			}
+			transformed = GeoPackageGeometryEncoder.toBytes(geometryData);
+		}
+
+		return transformed;
+	}
+
+}
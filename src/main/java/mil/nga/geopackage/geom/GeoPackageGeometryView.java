@@ -0,0 +1,510 @@
+package mil.nga.geopackage.geom;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.util.ByteReader;
+import mil.nga.sf.wkb.GeometryReader;
+
+/**
+ * Read only GeoPackage geometry view over GeoPackage geometry bytes, without
+ * copying the bytes. The view can be pointed at the next geometry bytes,
+ * allowing a single instance to be reused while iterating over query results.
+ * The header is read when pointed at new bytes, while the envelope and
+ * geometry are read when requested.
+ *
+ * The viewed bytes must not be modified while in use by the view.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class GeoPackageGeometryView {
+
+	/**
+	 * Viewed byte array, null when viewing a byte buffer without an accessible
+	 * array
+	 */
+	private byte[] array;
+
+	/**
+	 * Viewed byte buffer, null when viewing a byte array
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Offset of the GeoPackage geometry within the array or buffer
+	 */
+	private int offset;
+
+	/**
+	 * Length of the GeoPackage geometry bytes
+	 */
+	private int length;
+
+	/**
+	 * Flags byte
+	 */
+	private byte flags;
+
+	/**
+	 * Well-Known Binary Geometry index relative to the offset
+	 */
+	private int wkbGeometryIndex;
+
+	/**
+	 * Envelope values
+	 */
+	private final double[] envelopeValues = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+
+	/**
+	 * True when the envelope values have been read
+	 */
+	private boolean envelopeRead = false;
+
+	/**
+	 * True when the envelope values contain an envelope
+	 */
+	private boolean hasEnvelope = false;
+
+	/**
+	 * Geometry, read when requested
+	 */
+	private Geometry geometry;
+
+	/**
+	 * Constructor, call {@link #wrap(byte[])} or {@link #wrap(ByteBuffer)}
+	 * before reading values
+	 */
+	public GeoPackageGeometryView() {
+
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 */
+	public GeoPackageGeometryView(byte[] bytes) {
+		wrap(bytes);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer, from the position to the
+	 *            limit
+	 */
+	public GeoPackageGeometryView(ByteBuffer buffer) {
+		wrap(buffer);
+	}
+
+	/**
+	 * Point the view at GeoPackage geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return this view
+	 */
+	public GeoPackageGeometryView wrap(byte[] bytes) {
+		return wrap(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Point the view at GeoPackage geometry bytes within a byte array
+	 *
+	 * @param bytes
+	 *            byte array
+	 * @param offset
+	 *            GeoPackage geometry offset within the array
+	 * @param length
+	 *            GeoPackage geometry length
+	 * @return this view
+	 */
+	public GeoPackageGeometryView wrap(byte[] bytes, int offset, int length) {
+		this.array = bytes;
+		this.buffer = null;
+		return point(offset, length);
+	}
+
+	/**
+	 * Point the view at the GeoPackage geometry bytes from the buffer position
+	 * to the limit. The buffer position, limit, and byte order are not
+	 * modified.
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @return this view
+	 */
+	public GeoPackageGeometryView wrap(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			this.array = buffer.array();
+			this.buffer = null;
+			return point(buffer.arrayOffset() + buffer.position(),
+					buffer.remaining());
+		}
+		this.array = null;
+		this.buffer = buffer;
+		return point(buffer.position(), buffer.remaining());
+	}
+
+	/**
+	 * Point the view at the offset and length, reading the header
+	 *
+	 * @param offset
+	 *            offset
+	 * @param length
+	 *            length
+	 * @return this view
+	 */
+	private GeoPackageGeometryView point(int offset, int length) {
+		this.offset = offset;
+		this.length = length;
+		flags = GeometryEnvelopeReader.validateHeader(array, buffer, offset);
+		wkbGeometryIndex = GeometryEnvelopeReader.getWkbGeometryIndex(flags);
+		envelopeRead = false;
+		hasEnvelope = false;
+		geometry = null;
+		return this;
+	}
+
+	/**
+	 * Is the geometry extended
+	 *
+	 * @return true if extended
+	 */
+	public boolean isExtended() {
+		return GeometryEnvelopeReader.isExtendedFlag(flags);
+	}
+
+	/**
+	 * Is the geometry empty
+	 *
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return GeometryEnvelopeReader.isEmptyFlag(flags);
+	}
+
+	/**
+	 * Get the byte order
+	 *
+	 * @return byte order
+	 */
+	public ByteOrder getByteOrder() {
+		return GeometryEnvelopeReader.isBigEndian(flags) ? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN;
+	}
+
+	/**
+	 * Get the SRS id
+	 *
+	 * @return SRS id
+	 */
+	public int getSrsId() {
+		return GeometryEnvelopeReader.readInt(array, buffer, offset + 4,
+				GeometryEnvelopeReader.isBigEndian(flags));
+	}
+
+	/**
+	 * Determine if the GeoPackage header contains an envelope
+	 *
+	 * @return true if a header envelope
+	 */
+	public boolean hasHeaderEnvelope() {
+		return GeometryEnvelopeReader.getEnvelopeIndicator(flags) > 0;
+	}
+
+	/**
+	 * Read the envelope values, from the header or by scanning the Well-Known
+	 * Binary coordinates, into the provided values
+	 *
+	 * @param envelope
+	 *            envelope values of at least
+	 *            {@link GeometryEnvelopeReader#ENVELOPE_LENGTH}
+	 * @return true if an envelope was read, false if empty
+	 */
+	public boolean readEnvelope(double[] envelope) {
+		boolean read = readEnvelopeValues();
+		if (read) {
+			System.arraycopy(envelopeValues, 0, envelope, 0,
+					GeometryEnvelopeReader.ENVELOPE_LENGTH);
+		}
+		return read;
+	}
+
+	/**
+	 * Get a single envelope value, from the header or by scanning the
+	 * Well-Known Binary coordinates
+	 *
+	 * @param index
+	 *            envelope value index, such as
+	 *            {@link GeometryEnvelopeReader#MIN_X}
+	 * @return envelope value, {@link Double#NaN} if empty or not present
+	 */
+	public double getEnvelopeValue(int index) {
+		double value = Double.NaN;
+		if (readEnvelopeValues()) {
+			value = envelopeValues[index];
+		}
+		return value;
+	}
+
+	/**
+	 * Get the geometry envelope, from the header or by scanning the Well-Known
+	 * Binary coordinates
+	 *
+	 * @return geometry envelope or null if empty
+	 */
+	public GeometryEnvelope getEnvelope() {
+		GeometryEnvelope envelope = null;
+		if (readEnvelopeValues()) {
+			envelope = GeometryEnvelopeReader
+					.toGeometryEnvelope(envelopeValues);
+		}
+		return envelope;
+	}
+
+	/**
+	 * Read the envelope values if not yet read
+	 *
+	 * @return true if an envelope exists
+	 */
+	private boolean readEnvelopeValues() {
+		if (!envelopeRead) {
+			hasEnvelope = GeometryEnvelopeReader.readEnvelope(array, buffer,
+					offset, envelopeValues);
+			envelopeRead = true;
+		}
+		return hasEnvelope;
+	}
+
+	/**
+	 * Get the geometry, reading the Well-Known Binary bytes on the first call
+	 * for the currently viewed bytes
+	 *
+	 * @return geometry or null if empty
+	 */
+	public Geometry getGeometry() {
+		if (geometry == null && !isEmpty()) {
+			int index = offset + wkbGeometryIndex;
+			if (CompactGeometry.isCompact(array, buffer, index, flags)) {
+				geometry = CompactGeometry.read(array, buffer, index)
+						.toGeometry();
+			} else {
+				ByteReader reader = new ByteReader(createWkbInputStream());
+				try {
+					geometry = GeometryReader.readGeometry(reader,
+							GeoPackageGeometryData.getGeometryFilter());
+				} catch (IOException e) {
+					throw new GeoPackageException(
+							"Failed to read the WKB geometry", e);
+				} finally {
+					reader.close();
+				}
+			}
+		}
+		return geometry;
+	}
+
+	/**
+	 * Read a packed coordinate geometry directly from the viewed Well-Known
+	 * Binary or compact geometry bytes, without creating the geometry
+	 *
+	 * @return packed geometry or null if empty
+	 */
+	public PackedGeometry getPackedGeometry() {
+		PackedGeometry packed = null;
+		if (!isEmpty()) {
+			packed = PackedGeometry.read(array, buffer,
+					offset + wkbGeometryIndex, flags);
+		}
+		return packed;
+	}
+
+	/**
+	 * Return the byte index where the Well-Known Binary bytes start, relative
+	 * to the start of the GeoPackage geometry bytes
+	 *
+	 * @return index
+	 */
+	public int getWkbGeometryIndex() {
+		return wkbGeometryIndex;
+	}
+
+	/**
+	 * Get the GeoPackage geometry byte length
+	 *
+	 * @return length
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Get a byte buffer view of the entire GeoPackage geometry including
+	 * GeoPackage header and WKB bytes, sharing the viewed bytes. The returned
+	 * buffer position is zero.
+	 *
+	 * @return byte buffer
+	 */
+	public ByteBuffer getBuffer() {
+		return slice(0, length).order(getByteOrder());
+	}
+
+	/**
+	 * Get a byte buffer view of the Well-Known Binary Geometry bytes, sharing
+	 * the viewed bytes. Compact geometries are decoded into a new standard
+	 * Well-Known Binary buffer. The returned buffer position is zero.
+	 *
+	 * @return byte buffer
+	 */
+	public ByteBuffer getWkbBuffer() {
+		ByteBuffer wkbBuffer;
+		if (isCompact()) {
+			byte[] standard = GeoPackageGeometryEncoder.toBytes(getSrsId(),
+					getPackedGeometry(), getByteOrder(), false);
+			wkbBuffer = ByteBuffer.wrap(standard,
+					GeometryEnvelopeReader.HEADER_LENGTH,
+					standard.length - GeometryEnvelopeReader.HEADER_LENGTH)
+					.slice();
+		} else {
+			wkbBuffer = slice(wkbGeometryIndex, length - wkbGeometryIndex);
+		}
+		return wkbBuffer.order(getByteOrder());
+	}
+
+	/**
+	 * Copy the Well-Known Binary Geometry bytes, decoding compact geometries
+	 * to standard Well-Known Binary
+	 *
+	 * @return bytes
+	 */
+	public byte[] getWkb() {
+		ByteBuffer wkbBuffer = getWkbBuffer();
+		byte[] wkb = new byte[wkbBuffer.remaining()];
+		wkbBuffer.get(wkb);
+		return wkb;
+	}
+
+	/**
+	 * Determine if the viewed geometry is a compact geometry
+	 *
+	 * @return true if compact
+	 */
+	private boolean isCompact() {
+		return !isEmpty() && CompactGeometry.isCompact(array, buffer,
+				offset + wkbGeometryIndex, flags);
+	}
+
+	/**
+	 * Copy the viewed bytes into new geometry data. The geometry is lazily
+	 * read by the geometry data.
+	 *
+	 * @return geometry data
+	 */
+	public GeoPackageGeometryData toGeometryData() {
+		byte[] bytes = new byte[length];
+		getBuffer().get(bytes);
+		return GeoPackageGeometryData.createLazy(bytes);
+	}
+
+	/**
+	 * Create a byte buffer slice of the viewed bytes
+	 *
+	 * @param index
+	 *            index relative to the geometry offset
+	 * @param sliceLength
+	 *            slice length
+	 * @return byte buffer
+	 */
+	private ByteBuffer slice(int index, int sliceLength) {
+		ByteBuffer slice;
+		if (array != null) {
+			slice = ByteBuffer.wrap(array, offset + index, sliceLength)
+					.slice();
+		} else {
+			ByteBuffer duplicate = buffer.duplicate();
+			((Buffer) duplicate).limit(offset + index + sliceLength);
+			((Buffer) duplicate).position(offset + index);
+			slice = duplicate.slice();
+		}
+		return slice;
+	}
+
+	/**
+	 * Create an input stream over the Well-Known Binary bytes
+	 *
+	 * @return input stream
+	 */
+	private InputStream createWkbInputStream() {
+		InputStream inputStream;
+		if (array != null) {
+			inputStream = new ByteArrayInputStream(array,
+					offset + wkbGeometryIndex, length - wkbGeometryIndex);
+		} else {
+			inputStream = new ByteBufferInputStream(getWkbBuffer());
+		}
+		return inputStream;
+	}
+
+	/**
+	 * Input stream reading from a byte buffer
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		/**
+		 * Byte buffer
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Constructor
+		 *
+		 * @param buffer
+		 *            byte buffer
+		 */
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			int read = -1;
+			if (buffer.hasRemaining()) {
+				read = Math.min(len, buffer.remaining());
+				buffer.get(bytes, off, read);
+			}
+			return read;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+
+	}
+
+}
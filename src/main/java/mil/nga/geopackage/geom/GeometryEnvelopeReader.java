@@ -0,0 +1,1153 @@
+package mil.nga.geopackage.geom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import mil.nga.geopackage.GeoPackageConstants;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.GeometryType;
+import mil.nga.sf.util.GeometryEnvelopeBuilder;
+import mil.nga.sf.util.filter.FiniteFilterType;
+import mil.nga.sf.util.filter.GeometryFilter;
+import mil.nga.sf.util.filter.PointFiniteFilter;
+import mil.nga.sf.wkb.GeometryCodes;
+
+/**
+ * Reads geometry envelopes directly from GeoPackage geometry bytes into
+ * primitive values without creating readers, envelopes, or geometries. When the
+ * GeoPackage header does not contain an envelope, the Well-Known Binary
+ * coordinates are scanned in place to compute the envelope, applying the
+ * {@link GeoPackageGeometryData#getGeometryFilter()} so that scanned envelopes
+ * match envelopes built from read geometries.
+ *
+ * Envelope values are ordered as stored in the GeoPackage geometry header:
+ * min x, max x, min y, max y, min z, max z, min m, max m. Z and M values are
+ * {@link Double#NaN} when not present.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class GeometryEnvelopeReader {
+
+	/**
+	 * Number of envelope values
+	 */
+	public static final int ENVELOPE_LENGTH = 8;
+
+	/**
+	 * Min X envelope value index
+	 */
+	public static final int MIN_X = 0;
+
+	/**
+	 * Max X envelope value index
+	 */
+	public static final int MAX_X = 1;
+
+	/**
+	 * Min Y envelope value index
+	 */
+	public static final int MIN_Y = 2;
+
+	/**
+	 * Max Y envelope value index
+	 */
+	public static final int MAX_Y = 3;
+
+	/**
+	 * Min Z envelope value index
+	 */
+	public static final int MIN_Z = 4;
+
+	/**
+	 * Max Z envelope value index
+	 */
+	public static final int MAX_Z = 5;
+
+	/**
+	 * Min M envelope value index
+	 */
+	public static final int MIN_M = 6;
+
+	/**
+	 * Max M envelope value index
+	 */
+	public static final int MAX_M = 7;
+
+	/**
+	 * GeoPackage geometry header byte length before the envelope
+	 */
+	public static final int HEADER_LENGTH = 8;
+
+	/**
+	 * Flags byte index
+	 */
+	private static final int FLAGS_INDEX = 3;
+
+	/**
+	 * SRS id index
+	 */
+	private static final int SRS_ID_INDEX = 4;
+
+	/**
+	 * Scan filter value when the geometry filter can not be applied while
+	 * scanning coordinates
+	 */
+	static final int SCAN_FILTER_UNSUPPORTED = -1;
+
+	/**
+	 * Scan filter flag for filtering non finite z values
+	 */
+	static final int SCAN_FILTER_Z = 1;
+
+	/**
+	 * Scan filter flag for filtering non finite m values
+	 */
+	static final int SCAN_FILTER_M = 2;
+
+	/**
+	 * Read the envelope from the GeoPackage geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param envelope
+	 *            envelope values of at least {@link #ENVELOPE_LENGTH}
+	 * @return true if an envelope was read, false if the geometry is empty
+	 */
+	public static boolean readEnvelope(byte[] bytes, double[] envelope) {
+		return readEnvelope(bytes, null, 0, envelope);
+	}
+
+	/**
+	 * Read the envelope from the GeoPackage geometry bytes starting at the
+	 * buffer position. The buffer position, limit, and byte order are not
+	 * modified.
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @param envelope
+	 *            envelope values of at least {@link #ENVELOPE_LENGTH}
+	 * @return true if an envelope was read, false if the geometry is empty
+	 */
+	public static boolean readEnvelope(ByteBuffer buffer, double[] envelope) {
+		return readEnvelope(null, buffer, buffer.position(), envelope);
+	}
+
+	/**
+	 * Read the envelope from the GeoPackage geometry bytes, putting
+	 * {@link #ENVELOPE_LENGTH} values into the double buffer when read. Scanned
+	 * envelopes are accumulated in place at the buffer position, so the values
+	 * following the position may be overwritten when no envelope is read.
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param envelope
+	 *            envelope double buffer
+	 * @return true if an envelope was read, false if the geometry is empty
+	 */
+	public static boolean readEnvelope(byte[] bytes, DoubleBuffer envelope) {
+		return readEnvelope(bytes, null, 0, envelope);
+	}
+
+	/**
+	 * Read the envelope from the GeoPackage geometry bytes starting at the
+	 * buffer position, putting {@link #ENVELOPE_LENGTH} values into the double
+	 * buffer when read. Scanned envelopes are accumulated in place at the
+	 * double buffer position, so the values following the position may be
+	 * overwritten when no envelope is read.
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @param envelope
+	 *            envelope double buffer
+	 * @return true if an envelope was read, false if the geometry is empty
+	 */
+	public static boolean readEnvelope(ByteBuffer buffer,
+			DoubleBuffer envelope) {
+		return readEnvelope(null, buffer, buffer.position(), envelope);
+	}
+
+	/**
+	 * Read a single envelope value from the GeoPackage geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param index
+	 *            envelope value index, such as {@link #MIN_X}
+	 * @return envelope value, {@link Double#NaN} if empty or not present
+	 */
+	public static double readEnvelopeValue(byte[] bytes, int index) {
+		return readEnvelopeValue(bytes, index, null);
+	}
+
+	/**
+	 * Read a single envelope value from the GeoPackage geometry bytes, using
+	 * the provided envelope values when the envelope is scanned from the
+	 * Well-Known Binary coordinates
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @param index
+	 *            envelope value index, such as {@link #MIN_X}
+	 * @param envelope
+	 *            reusable envelope values of at least {@link #ENVELOPE_LENGTH},
+	 *            or null to allocate when scanned
+	 * @return envelope value, {@link Double#NaN} if empty or not present
+	 */
+	public static double readEnvelopeValue(byte[] bytes, int index,
+			double[] envelope) {
+		return readEnvelopeValue(bytes, null, 0, index, envelope);
+	}
+
+	/**
+	 * Read a single envelope value from the GeoPackage geometry bytes starting
+	 * at the buffer position
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @param index
+	 *            envelope value index, such as {@link #MIN_X}
+	 * @return envelope value, {@link Double#NaN} if empty or not present
+	 */
+	public static double readEnvelopeValue(ByteBuffer buffer, int index) {
+		return readEnvelopeValue(null, buffer, buffer.position(), index, null);
+	}
+
+	/**
+	 * Read the empty flag from the GeoPackage geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return true if empty
+	 */
+	public static boolean isEmpty(byte[] bytes) {
+		return isEmptyFlag(validateHeader(bytes, null, 0));
+	}
+
+	/**
+	 * Read the empty flag from the GeoPackage geometry bytes starting at the
+	 * buffer position
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @return true if empty
+	 */
+	public static boolean isEmpty(ByteBuffer buffer) {
+		return isEmptyFlag(validateHeader(null, buffer, buffer.position()));
+	}
+
+	/**
+	 * Read the SRS id from the GeoPackage geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return SRS id
+	 */
+	public static int readSrsId(byte[] bytes) {
+		byte flags = validateHeader(bytes, null, 0);
+		return readInt(bytes, null, SRS_ID_INDEX, isBigEndian(flags));
+	}
+
+	/**
+	 * Read the SRS id from the GeoPackage geometry bytes starting at the buffer
+	 * position
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @return SRS id
+	 */
+	public static int readSrsId(ByteBuffer buffer) {
+		int offset = buffer.position();
+		byte flags = validateHeader(null, buffer, offset);
+		return readInt(null, buffer, offset + SRS_ID_INDEX,
+				isBigEndian(flags));
+	}
+
+	/**
+	 * Get the byte index where the Well-Known Binary bytes start, relative to
+	 * the start of the GeoPackage geometry bytes
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return Well-Known Binary index
+	 */
+	public static int getWkbGeometryIndex(byte[] bytes) {
+		return getWkbGeometryIndex(validateHeader(bytes, null, 0));
+	}
+
+	/**
+	 * Get the byte index where the Well-Known Binary bytes start, relative to
+	 * the buffer position
+	 *
+	 * @param buffer
+	 *            GeoPackage geometry byte buffer
+	 * @return Well-Known Binary index
+	 */
+	public static int getWkbGeometryIndex(ByteBuffer buffer) {
+		return getWkbGeometryIndex(
+				validateHeader(null, buffer, buffer.position()));
+	}
+
+	/**
+	 * Compute the envelope by scanning the Well-Known Binary bytes
+	 *
+	 * @param wkb
+	 *            Well-Known Binary bytes
+	 * @param offset
+	 *            offset where the Well-Known Binary geometry starts
+	 * @param envelope
+	 *            envelope values of at least {@link #ENVELOPE_LENGTH}
+	 * @return true if the geometry contained points accepted by the geometry
+	 *         filter
+	 */
+	public static boolean readWkbEnvelope(byte[] wkb, int offset,
+			double[] envelope) {
+		return scanEnvelope(wkb, null, offset, (byte) 0, envelope, null, 0);
+	}
+
+	/**
+	 * Compute the envelope by scanning the Well-Known Binary bytes starting at
+	 * the buffer position
+	 *
+	 * @param wkb
+	 *            Well-Known Binary byte buffer
+	 * @param envelope
+	 *            envelope values of at least {@link #ENVELOPE_LENGTH}
+	 * @return true if the geometry contained points accepted by the geometry
+	 *         filter
+	 */
+	public static boolean readWkbEnvelope(ByteBuffer wkb, double[] envelope) {
+		return scanEnvelope(null, wkb, wkb.position(), (byte) 0, envelope,
+				null, 0);
+	}
+
+	/**
+	 * Create a geometry envelope from envelope values
+	 *
+	 * @param envelope
+	 *            envelope values
+	 * @return geometry envelope
+	 */
+	public static GeometryEnvelope toGeometryEnvelope(double[] envelope) {
+		boolean hasZ = !Double.isNaN(envelope[MIN_Z]);
+		boolean hasM = !Double.isNaN(envelope[MIN_M]);
+		GeometryEnvelope geometryEnvelope = new GeometryEnvelope(hasZ, hasM);
+		geometryEnvelope.setMinX(envelope[MIN_X]);
+		geometryEnvelope.setMaxX(envelope[MAX_X]);
+		geometryEnvelope.setMinY(envelope[MIN_Y]);
+		geometryEnvelope.setMaxY(envelope[MAX_Y]);
+		if (hasZ) {
+			geometryEnvelope.setMinZ(envelope[MIN_Z]);
+			geometryEnvelope.setMaxZ(envelope[MAX_Z]);
+		}
+		if (hasM) {
+			geometryEnvelope.setMinM(envelope[MIN_M]);
+			geometryEnvelope.setMaxM(envelope[MAX_M]);
+		}
+		return geometryEnvelope;
+	}
+
+	/**
+	 * Read the envelope into the double buffer
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            GeoPackage geometry start offset
+	 * @param envelope
+	 *            envelope double buffer
+	 * @return true if read
+	 */
+	private static boolean readEnvelope(byte[] array, ByteBuffer buffer,
+			int offset, DoubleBuffer envelope) {
+		byte flags = validateHeader(array, buffer, offset);
+		boolean read = false;
+		if (!isEmptyFlag(flags)) {
+			int indicator = getEnvelopeIndicator(flags);
+			if (indicator > 0) {
+				boolean bigEndian = isBigEndian(flags);
+				int index = offset + HEADER_LENGTH;
+				for (int i = MIN_X; i <= MAX_Y; i++) {
+					envelope.put(readDouble(array, buffer, index, bigEndian));
+					index += 8;
+				}
+				index = putOptional(array, buffer, index, bigEndian,
+						indicator == 2 || indicator == 4, envelope);
+				putOptional(array, buffer, index, bigEndian,
+						indicator == 3 || indicator == 4, envelope);
+				read = true;
+			} else {
+				// Accumulate directly into the buffer values at the position
+				int base = envelope.position();
+				read = scanEnvelope(array, buffer, offset + HEADER_LENGTH,
+						flags, null, envelope, base);
+				if (read) {
+					envelope.position(base + ENVELOPE_LENGTH);
+				}
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Put optional min and max envelope values into the double buffer
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            byte index
+	 * @param bigEndian
+	 *            big endian flag
+	 * @param present
+	 *            true if the values are present
+	 * @param envelope
+	 *            envelope double buffer
+	 * @return next byte index
+	 */
+	private static int putOptional(byte[] array, ByteBuffer buffer, int index,
+			boolean bigEndian, boolean present, DoubleBuffer envelope) {
+		if (present) {
+			envelope.put(readDouble(array, buffer, index, bigEndian));
+			envelope.put(readDouble(array, buffer, index + 8, bigEndian));
+			index += 16;
+		} else {
+			envelope.put(Double.NaN);
+			envelope.put(Double.NaN);
+		}
+		return index;
+	}
+
+	/**
+	 * Read the envelope into the values
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            GeoPackage geometry start offset
+	 * @param envelope
+	 *            envelope values
+	 * @return true if read
+	 */
+	static boolean readEnvelope(byte[] array, ByteBuffer buffer, int offset,
+			double[] envelope) {
+		byte flags = validateHeader(array, buffer, offset);
+		boolean read = false;
+		if (!isEmptyFlag(flags)) {
+			int indicator = getEnvelopeIndicator(flags);
+			if (indicator > 0) {
+				boolean bigEndian = isBigEndian(flags);
+				int index = offset + HEADER_LENGTH;
+				for (int i = MIN_X; i <= MAX_Y; i++) {
+					envelope[i] = readDouble(array, buffer, index, bigEndian);
+					index += 8;
+				}
+				if (indicator == 2 || indicator == 4) {
+					envelope[MIN_Z] = readDouble(array, buffer, index,
+							bigEndian);
+					envelope[MAX_Z] = readDouble(array, buffer, index + 8,
+							bigEndian);
+					index += 16;
+				} else {
+					envelope[MIN_Z] = Double.NaN;
+					envelope[MAX_Z] = Double.NaN;
+				}
+				if (indicator == 3 || indicator == 4) {
+					envelope[MIN_M] = readDouble(array, buffer, index,
+							bigEndian);
+					envelope[MAX_M] = readDouble(array, buffer, index + 8,
+							bigEndian);
+				} else {
+					envelope[MIN_M] = Double.NaN;
+					envelope[MAX_M] = Double.NaN;
+				}
+				read = true;
+			} else {
+				read = scanEnvelope(array, buffer, offset + HEADER_LENGTH,
+						flags, envelope, null, 0);
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Read a single envelope value
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            GeoPackage geometry start offset
+	 * @param valueIndex
+	 *            envelope value index
+	 * @param envelope
+	 *            envelope values used when scanned, or null to allocate
+	 * @return envelope value
+	 */
+	private static double readEnvelopeValue(byte[] array, ByteBuffer buffer,
+			int offset, int valueIndex, double[] envelope) {
+		if (valueIndex < 0 || valueIndex >= ENVELOPE_LENGTH) {
+			throw new GeoPackageException(
+					"Envelope value index must be between 0 and "
+							+ (ENVELOPE_LENGTH - 1) + ". Actual: "
+							+ valueIndex);
+		}
+		byte flags = validateHeader(array, buffer, offset);
+		double value = Double.NaN;
+		if (!isEmptyFlag(flags)) {
+			int indicator = getEnvelopeIndicator(flags);
+			if (indicator > 0) {
+				int index = valueIndex;
+				boolean present = true;
+				if (valueIndex >= MIN_M) {
+					present = indicator == 3 || indicator == 4;
+					if (indicator == 3) {
+						index -= 2;
+					}
+				} else if (valueIndex >= MIN_Z) {
+					present = indicator == 2 || indicator == 4;
+				}
+				if (present) {
+					value = readDouble(array, buffer,
+							offset + HEADER_LENGTH + index * 8,
+							isBigEndian(flags));
+				}
+			} else {
+				double[] values = envelope != null ? envelope
+						: new double[ENVELOPE_LENGTH];
+				if (scanEnvelope(array, buffer, offset + HEADER_LENGTH, flags,
+						values, null, 0)) {
+					value = values[valueIndex];
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Scan the Well-Known Binary coordinates to compute the envelope, applying
+	 * the {@link GeoPackageGeometryData#getGeometryFilter()} to the points.
+	 * Envelope values are accumulated in the value array, or the value buffer
+	 * at the base index when the array is null.
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            Well-Known Binary start offset
+	 * @param flags
+	 *            GeoPackage geometry flags byte, 0 for Well-Known Binary bytes
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @return true if filtered points were found
+	 */
+	private static boolean scanEnvelope(byte[] array, ByteBuffer buffer,
+			int offset, byte flags, double[] values, DoubleBuffer valueBuffer,
+			int base) {
+
+		int filter = getScanFilter();
+		boolean compact = CompactGeometry.isCompact(array, buffer, offset,
+				flags);
+
+		if (filter == SCAN_FILTER_UNSUPPORTED || (filter != 0 && compact)) {
+			return readFilteredEnvelope(array, buffer, offset, compact,
+					values, valueBuffer, base);
+		}
+
+		if (compact) {
+			PackedGeometry packed = CompactGeometry.read(array, buffer,
+					offset);
+			return values != null ? packed.readEnvelope(values)
+					: packed.readEnvelope(valueBuffer, base);
+		}
+
+		for (int i = MIN_X; i < ENVELOPE_LENGTH; i += 2) {
+			setValue(values, valueBuffer, base, i, Double.POSITIVE_INFINITY);
+			setValue(values, valueBuffer, base, i + 1,
+					Double.NEGATIVE_INFINITY);
+		}
+
+		scanGeometry(array, buffer, offset, filter, values, valueBuffer,
+				base);
+
+		boolean found = getValue(values, valueBuffer, base,
+				MIN_X) <= getValue(values, valueBuffer, base, MAX_X);
+		if (!found) {
+			setValue(values, valueBuffer, base, MIN_X, Double.NaN);
+			setValue(values, valueBuffer, base, MAX_X, Double.NaN);
+			setValue(values, valueBuffer, base, MIN_Y, Double.NaN);
+			setValue(values, valueBuffer, base, MAX_Y, Double.NaN);
+		}
+		if (!found || getValue(values, valueBuffer, base,
+				MIN_Z) > getValue(values, valueBuffer, base, MAX_Z)) {
+			setValue(values, valueBuffer, base, MIN_Z, Double.NaN);
+			setValue(values, valueBuffer, base, MAX_Z, Double.NaN);
+		}
+		if (!found || getValue(values, valueBuffer, base,
+				MIN_M) > getValue(values, valueBuffer, base, MAX_M)) {
+			setValue(values, valueBuffer, base, MIN_M, Double.NaN);
+			setValue(values, valueBuffer, base, MAX_M, Double.NaN);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Read the filtered geometry and build the envelope, used when the
+	 * {@link GeoPackageGeometryData#getGeometryFilter()} can not be applied
+	 * while scanning
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            Well-Known Binary start offset
+	 * @param compact
+	 *            true if a compact geometry
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @return true if the filtered geometry has an envelope
+	 */
+	private static boolean readFilteredEnvelope(byte[] array,
+			ByteBuffer buffer, int offset, boolean compact, double[] values,
+			DoubleBuffer valueBuffer, int base) {
+
+		byte[] wkb;
+		if (compact) {
+			wkb = CompactGeometry.read(array, buffer, offset)
+					.toWkb(ByteOrder.BIG_ENDIAN);
+		} else if (array != null) {
+			wkb = Arrays.copyOfRange(array, offset, array.length);
+		} else {
+			wkb = new byte[buffer.limit() - offset];
+			for (int i = 0; i < wkb.length; i++) {
+				wkb[i] = buffer.get(offset + i);
+			}
+		}
+
+		Geometry geometry;
+		try {
+			geometry = GeoPackageGeometryData.createGeometryFromWkb(wkb);
+		} catch (IOException e) {
+			throw new GeoPackageException("Failed to read the WKB geometry",
+					e);
+		}
+		GeometryEnvelope envelope = null;
+		if (geometry != null) {
+			envelope = GeometryEnvelopeBuilder.buildEnvelope(geometry);
+		}
+
+		boolean found = envelope != null;
+		if (found) {
+			setValue(values, valueBuffer, base, MIN_X, envelope.getMinX());
+			setValue(values, valueBuffer, base, MAX_X, envelope.getMaxX());
+			setValue(values, valueBuffer, base, MIN_Y, envelope.getMinY());
+			setValue(values, valueBuffer, base, MAX_Y, envelope.getMaxY());
+			setValue(values, valueBuffer, base, MIN_Z,
+					envelope.hasZ() ? envelope.getMinZ() : Double.NaN);
+			setValue(values, valueBuffer, base, MAX_Z,
+					envelope.hasZ() ? envelope.getMaxZ() : Double.NaN);
+			setValue(values, valueBuffer, base, MIN_M,
+					envelope.hasM() ? envelope.getMinM() : Double.NaN);
+			setValue(values, valueBuffer, base, MAX_M,
+					envelope.hasM() ? envelope.getMaxM() : Double.NaN);
+		}
+		return found;
+	}
+
+	/**
+	 * Scan a Well-Known Binary geometry, expanding the envelope
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            geometry start index
+	 * @param filter
+	 *            scan filter
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @return next byte index after the geometry
+	 */
+	private static int scanGeometry(byte[] array, ByteBuffer buffer, int index,
+			int filter, double[] values, DoubleBuffer valueBuffer, int base) {
+
+		boolean bigEndian = readByte(array, buffer, index) == 0;
+		int code = readInt(array, buffer, index + 1, bigEndian);
+		index += 5;
+
+		GeometryType geometryType = GeometryCodes.getGeometryType(code);
+		boolean hasZ = GeometryCodes.hasZ(code);
+		boolean hasM = GeometryCodes.hasM(code);
+
+		switch (geometryType) {
+
+		case POINT:
+			index = scanPoints(array, buffer, index, 1, bigEndian, hasZ, hasM,
+					filter, values, valueBuffer, base);
+			break;
+
+		case LINESTRING:
+		case CIRCULARSTRING:
+			index = scanPoints(array, buffer, index + 4,
+					readInt(array, buffer, index, bigEndian), bigEndian, hasZ,
+					hasM, filter, values, valueBuffer, base);
+			break;
+
+		case POLYGON:
+		case TRIANGLE:
+			int rings = readInt(array, buffer, index, bigEndian);
+			index += 4;
+			for (int i = 0; i < rings; i++) {
+				index = scanPoints(array, buffer, index + 4,
+						readInt(array, buffer, index, bigEndian), bigEndian,
+						hasZ, hasM, filter, values, valueBuffer, base);
+			}
+			break;
+
+		case MULTIPOINT:
+		case MULTILINESTRING:
+		case MULTIPOLYGON:
+		case GEOMETRYCOLLECTION:
+		case COMPOUNDCURVE:
+		case CURVEPOLYGON:
+		case MULTICURVE:
+		case MULTISURFACE:
+		case POLYHEDRALSURFACE:
+		case TIN:
+			int geometries = readInt(array, buffer, index, bigEndian);
+			index += 4;
+			for (int i = 0; i < geometries; i++) {
+				index = scanGeometry(array, buffer, index, filter, values,
+						valueBuffer, base);
+			}
+			break;
+
+		default:
+			throw new GeoPackageException(
+					"Geometry Type not supported: " + geometryType);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Scan Well-Known Binary points, expanding the envelope with the points
+	 * accepted by the scan filter
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            first point index
+	 * @param count
+	 *            number of points
+	 * @param bigEndian
+	 *            big endian flag
+	 * @param hasZ
+	 *            true if points have z values
+	 * @param hasM
+	 *            true if points have m values
+	 * @param filter
+	 *            scan filter
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @return next byte index after the points
+	 */
+	private static int scanPoints(byte[] array, ByteBuffer buffer, int index,
+			int count, boolean bigEndian, boolean hasZ, boolean hasM,
+			int filter, double[] values, DoubleBuffer valueBuffer, int base) {
+
+		for (int i = 0; i < count; i++) {
+
+			double x = readDouble(array, buffer, index, bigEndian);
+			double y = readDouble(array, buffer, index + 8, bigEndian);
+			index += 16;
+
+			double z = Double.NaN;
+			if (hasZ) {
+				z = readDouble(array, buffer, index, bigEndian);
+				index += 8;
+			}
+
+			double m = Double.NaN;
+			if (hasM) {
+				m = readDouble(array, buffer, index, bigEndian);
+				index += 8;
+			}
+
+			if (accept(filter, x, y, hasZ, z, hasM, m)) {
+				expand(values, valueBuffer, base, MIN_X, x);
+				expand(values, valueBuffer, base, MIN_Y, y);
+				if (hasZ) {
+					expand(values, valueBuffer, base, MIN_Z, z);
+				}
+				if (hasM) {
+					expand(values, valueBuffer, base, MIN_M, m);
+				}
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * Expand the min and max envelope values with the value, ignoring
+	 * {@link Double#NaN}
+	 *
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @param minIndex
+	 *            min envelope value index, followed by the max
+	 * @param value
+	 *            value
+	 */
+	private static void expand(double[] values, DoubleBuffer valueBuffer,
+			int base, int minIndex, double value) {
+		if (value < getValue(values, valueBuffer, base, minIndex)) {
+			setValue(values, valueBuffer, base, minIndex, value);
+		}
+		if (value > getValue(values, valueBuffer, base, minIndex + 1)) {
+			setValue(values, valueBuffer, base, minIndex + 1, value);
+		}
+	}
+
+	/**
+	 * Get an envelope value
+	 *
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @param index
+	 *            envelope value index
+	 * @return envelope value
+	 */
+	private static double getValue(double[] values, DoubleBuffer valueBuffer,
+			int base, int index) {
+		return values != null ? values[index] : valueBuffer.get(base + index);
+	}
+
+	/**
+	 * Set an envelope value
+	 *
+	 * @param values
+	 *            envelope values or null
+	 * @param valueBuffer
+	 *            envelope value buffer when values is null
+	 * @param base
+	 *            value buffer index of the first envelope value
+	 * @param index
+	 *            envelope value index
+	 * @param value
+	 *            envelope value
+	 */
+	private static void setValue(double[] values, DoubleBuffer valueBuffer,
+			int base, int index, double value) {
+		if (values != null) {
+			values[index] = value;
+		} else {
+			valueBuffer.put(base + index, value);
+		}
+	}
+
+	/**
+	 * Get the scan filter of the current
+	 * {@link GeoPackageGeometryData#getGeometryFilter()}. Finite point filters
+	 * are applied while scanning coordinates; any other filter is
+	 * {@link #SCAN_FILTER_UNSUPPORTED} and requires reading the geometry.
+	 *
+	 * @return scan filter flags or {@link #SCAN_FILTER_UNSUPPORTED}
+	 */
+	static int getScanFilter() {
+		int filter = SCAN_FILTER_UNSUPPORTED;
+		GeometryFilter geometryFilter = GeoPackageGeometryData
+				.getGeometryFilter();
+		if (geometryFilter != null
+				&& geometryFilter.getClass() == PointFiniteFilter.class) {
+			PointFiniteFilter finiteFilter = (PointFiniteFilter) geometryFilter;
+			if (finiteFilter.getType() == FiniteFilterType.FINITE) {
+				filter = 0;
+				if (finiteFilter.isFilterZ()) {
+					filter |= SCAN_FILTER_Z;
+				}
+				if (finiteFilter.isFilterM()) {
+					filter |= SCAN_FILTER_M;
+				}
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * Determine if the point is accepted by the scan filter
+	 *
+	 * @param filter
+	 *            scan filter
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @param hasZ
+	 *            true if the point has a z value
+	 * @param z
+	 *            z value
+	 * @param hasM
+	 *            true if the point has an m value
+	 * @param m
+	 *            m value
+	 * @return true if accepted
+	 */
+	static boolean accept(int filter, double x, double y, boolean hasZ,
+			double z, boolean hasM, double m) {
+		return Double.isFinite(x) && Double.isFinite(y)
+				&& (!hasZ || (filter & SCAN_FILTER_Z) == 0
+						|| Double.isFinite(z))
+				&& (!hasM || (filter & SCAN_FILTER_M) == 0
+						|| Double.isFinite(m));
+	}
+
+	/**
+	 * Validate the GeoPackage geometry header magic number, version, and flags
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            GeoPackage geometry start offset
+	 * @return flags byte
+	 */
+	static byte validateHeader(byte[] array, ByteBuffer buffer, int offset) {
+
+		String magicNumber = GeoPackageConstants.GEOMETRY_MAGIC_NUMBER;
+		byte magic1 = readByte(array, buffer, offset);
+		byte magic2 = readByte(array, buffer, offset + 1);
+		if (magic1 != magicNumber.charAt(0)
+				|| magic2 != magicNumber.charAt(1)) {
+			throw new GeoPackageException(
+					"Unexpected GeoPackage Geometry magic number: "
+							+ (char) magic1 + (char) magic2 + ", Expected: "
+							+ magicNumber);
+		}
+
+		byte version = readByte(array, buffer, offset + 2);
+		if (version != GeoPackageConstants.GEOMETRY_VERSION_1) {
+			throw new GeoPackageException(
+					"Unexpected GeoPackage Geometry version: " + version
+							+ ", Expected: "
+							+ GeoPackageConstants.GEOMETRY_VERSION_1);
+		}
+
+		byte flags = readByte(array, buffer, offset + FLAGS_INDEX);
+		if (((flags >> 6) & 3) != 0) {
+			throw new GeoPackageException(
+					"Unexpected GeoPackage Geometry flags. Flag bit 7 and 6 should both be 0, 7="
+							+ ((flags >> 7) & 1) + ", 6=" + ((flags >> 6) & 1));
+		}
+		int envelopeIndicator = getEnvelopeIndicator(flags);
+		if (envelopeIndicator > 4) {
+			throw new GeoPackageException(
+					"Unexpected GeoPackage Geometry flags. Envelope contents indicator must be between 0 and 4. Actual: "
+							+ envelopeIndicator);
+		}
+
+		return flags;
+	}
+
+	/**
+	 * Get the Well-Known Binary index from the flags
+	 *
+	 * @param flags
+	 *            flags byte
+	 * @return Well-Known Binary index
+	 */
+	static int getWkbGeometryIndex(byte flags) {
+		int indicator = getEnvelopeIndicator(flags);
+		int envelopeValues = 0;
+		switch (indicator) {
+		case 1:
+			envelopeValues = 4;
+			break;
+		case 2:
+		case 3:
+			envelopeValues = 6;
+			break;
+		case 4:
+			envelopeValues = 8;
+			break;
+		default:
+		}
+		return HEADER_LENGTH + envelopeValues * 8;
+	}
+
+	/**
+	 * Get the envelope contents indicator from the flags
+	 *
+	 * @param flags
+	 *            flags byte
+	 * @return envelope indicator
+	 */
+	static int getEnvelopeIndicator(byte flags) {
+		return (flags >> 1) & 7;
+	}
+
+	/**
+	 * Get the empty flag from the flags
+	 *
+	 * @param flags
+	 *            flags byte
+	 * @return true if empty
+	 */
+	static boolean isEmptyFlag(byte flags) {
+		return ((flags >> 4) & 1) == 1;
+	}
+
+	/**
+	 * Get the extended geometry flag from the flags
+	 *
+	 * @param flags
+	 *            flags byte
+	 * @return true if extended
+	 */
+	static boolean isExtendedFlag(byte flags) {
+		return ((flags >> 5) & 1) == 1;
+	}
+
+	/**
+	 * Get the big endian byte order flag from the flags
+	 *
+	 * @param flags
+	 *            flags byte
+	 * @return true if big endian
+	 */
+	static boolean isBigEndian(byte flags) {
+		return (flags & 1) == 0;
+	}
+
+	/**
+	 * Read a byte
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            absolute byte index
+	 * @return byte
+	 */
+	static byte readByte(byte[] array, ByteBuffer buffer, int index) {
+		return array != null ? array[index] : buffer.get(index);
+	}
+
+	/**
+	 * Read an int
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            absolute byte index
+	 * @param bigEndian
+	 *            big endian flag
+	 * @return int
+	 */
+	static int readInt(byte[] array, ByteBuffer buffer, int index,
+			boolean bigEndian) {
+		int value;
+		if (array != null) {
+			if (bigEndian) {
+				value = ((array[index] & 0xff) << 24)
+						| ((array[index + 1] & 0xff) << 16)
+						| ((array[index + 2] & 0xff) << 8)
+						| (array[index + 3] & 0xff);
+			} else {
+				value = ((array[index + 3] & 0xff) << 24)
+						| ((array[index + 2] & 0xff) << 16)
+						| ((array[index + 1] & 0xff) << 8)
+						| (array[index] & 0xff);
+			}
+		} else {
+			value = buffer.getInt(index);
+			if (bigEndian != (buffer.order() == ByteOrder.BIG_ENDIAN)) {
+				value = Integer.reverseBytes(value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Read a double
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            absolute byte index
+	 * @param bigEndian
+	 *            big endian flag
+	 * @return double
+	 */
+	static double readDouble(byte[] array, ByteBuffer buffer, int index,
+			boolean bigEndian) {
+		long value;
+		if (array != null) {
+			value = 0;
+			if (bigEndian) {
+				for (int i = 0; i < 8; i++) {
+					value = (value << 8) | (array[index + i] & 0xffL);
+				}
+			} else {
+				for (int i = 7; i >= 0; i--) {
+					value = (value << 8) | (array[index + i] & 0xffL);
+				}
+			}
+		} else {
+			value = buffer.getLong(index);
+			if (bigEndian != (buffer.order() == ByteOrder.BIG_ENDIAN)) {
+				value = Long.reverseBytes(value);
+			}
+		}
+		return Double.longBitsToDouble(value);
+	}
+
+}
@@ -0,0 +1,1236 @@
+package mil.nga.geopackage.geom;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.ProjCoordinate;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.GeometryType;
+import mil.nga.sf.LineString;
+import mil.nga.sf.MultiLineString;
+import mil.nga.sf.MultiPoint;
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.proj.ProjectionTransform;
+import mil.nga.sf.wkb.GeometryCodes;
+
+/**
+ * Packed coordinate geometry representation, storing all coordinates in a
+ * single interleaved double array in place of one point object per vertex.
+ * Supports point, line string, polygon, multi point, multi line string, and
+ * multi polygon geometries.
+ *
+ * Coordinates are interleaved as x, y, optional z, and optional m values per
+ * point. Points are grouped into rings through ring offsets (line strings and
+ * single points are a single ring) and rings are grouped into parts through
+ * part offsets (each geometry within a multi geometry is a part).
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class PackedGeometry {
+
+	/**
+	 * Geometry type
+	 */
+	private final GeometryType geometryType;
+
+	/**
+	 * Has z coordinates
+	 */
+	private final boolean hasZ;
+
+	/**
+	 * Has m coordinates
+	 */
+	private final boolean hasM;
+
+	/**
+	 * Number of coordinate values per point
+	 */
+	private final int dimension;
+
+	/**
+	 * Interleaved point coordinates
+	 */
+	private final double[] coordinates;
+
+	/**
+	 * Ring start point indices, with a final entry of the point count
+	 */
+	private final int[] ringOffsets;
+
+	/**
+	 * Part start ring indices, with a final entry of the ring count
+	 */
+	private final int[] partOffsets;
+
+	/**
+	 * Determine if the geometry type is supported as a packed geometry
+	 *
+	 * @param geometryType
+	 *            geometry type
+	 * @return true if supported
+	 */
+	public static boolean isSupported(GeometryType geometryType) {
+		boolean supported;
+		switch (geometryType) {
+		case POINT:
+		case LINESTRING:
+		case POLYGON:
+		case MULTIPOINT:
+		case MULTILINESTRING:
+		case MULTIPOLYGON:
+			supported = true;
+			break;
+		default:
+			supported = false;
+		}
+		return supported;
+	}
+
+	/**
+	 * Determine if the Well-Known Binary geometry type is supported as a
+	 * packed geometry
+	 *
+	 * @param wkb
+	 *            Well-Known Binary bytes
+	 * @param offset
+	 *            Well-Known Binary geometry start offset
+	 * @return true if supported
+	 */
+	public static boolean isSupported(byte[] wkb, int offset) {
+		boolean bigEndian = GeometryEnvelopeReader.readByte(wkb, null,
+				offset) == 0;
+		int code = GeometryEnvelopeReader.readInt(wkb, null, offset + 1,
+				bigEndian);
+		return isSupported(GeometryCodes.getGeometryType(code));
+	}
+
+	/**
+	 * Read a packed geometry from standard or compact GeoPackage geometry
+	 * bytes without creating the geometry object graph
+	 *
+	 * @param bytes
+	 *            GeoPackage geometry bytes
+	 * @return packed geometry or null if empty
+	 */
+	public static PackedGeometry read(byte[] bytes) {
+		PackedGeometry packed = null;
+		byte flags = GeometryEnvelopeReader.validateHeader(bytes, null, 0);
+		if (!GeometryEnvelopeReader.isEmptyFlag(flags)) {
+			packed = read(bytes, null,
+					GeometryEnvelopeReader.getWkbGeometryIndex(flags), flags);
+		}
+		return packed;
+	}
+
+	/**
+	 * Read a packed geometry from Well-Known Binary bytes
+	 *
+	 * @param wkb
+	 *            Well-Known Binary bytes
+	 * @param offset
+	 *            Well-Known Binary geometry start offset
+	 * @return packed geometry
+	 */
+	public static PackedGeometry readWkb(byte[] wkb, int offset) {
+		return readWkb(wkb, null, offset);
+	}
+
+	/**
+	 * Read a packed geometry from Well-Known Binary bytes starting at the
+	 * buffer position. The buffer position, limit, and byte order are not
+	 * modified.
+	 *
+	 * @param wkb
+	 *            Well-Known Binary byte buffer
+	 * @return packed geometry
+	 */
+	public static PackedGeometry readWkb(ByteBuffer wkb) {
+		return readWkb(null, wkb, wkb.position());
+	}
+
+	/**
+	 * Create a packed geometry from a geometry
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @return packed geometry
+	 */
+	public static PackedGeometry create(Geometry geometry) {
+
+		GeometryType geometryType = geometry.getGeometryType();
+		validateSupported(geometryType);
+
+		Packer packer = new Packer(geometry.hasZ(), geometry.hasM());
+		packGeometry(geometry, packer);
+		packer.allocate();
+		packGeometry(geometry, packer);
+
+		return new PackedGeometry(geometryType, geometry.hasZ(),
+				geometry.hasM(), packer.coordinates, packer.ringOffsets,
+				packer.partOffsets);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param geometryType
+	 *            geometry type
+	 * @param hasZ
+	 *            has z coordinates
+	 * @param hasM
+	 *            has m coordinates
+	 * @param coordinates
+	 *            interleaved point coordinates
+	 * @param ringOffsets
+	 *            ring start point indices, with a final entry of the point
+	 *            count
+	 * @param partOffsets
+	 *            part start ring indices, with a final entry of the ring count
+	 */
+	public PackedGeometry(GeometryType geometryType, boolean hasZ,
+			boolean hasM, double[] coordinates, int[] ringOffsets,
+			int[] partOffsets) {
+		validateSupported(geometryType);
+		this.geometryType = geometryType;
+		this.hasZ = hasZ;
+		this.hasM = hasM;
+		this.dimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+		this.coordinates = coordinates;
+		this.ringOffsets = ringOffsets;
+		this.partOffsets = partOffsets;
+	}
+
+	/**
+	 * Get the geometry type
+	 *
+	 * @return geometry type
+	 */
+	public GeometryType getGeometryType() {
+		return geometryType;
+	}
+
+	/**
+	 * Has z coordinates
+	 *
+	 * @return true if has z
+	 */
+	public boolean hasZ() {
+		return hasZ;
+	}
+
+	/**
+	 * Has m coordinates
+	 *
+	 * @return true if has m
+	 */
+	public boolean hasM() {
+		return hasM;
+	}
+
+	/**
+	 * Get the number of coordinate values per point
+	 *
+	 * @return dimension
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Get the interleaved point coordinates
+	 *
+	 * @return coordinates
+	 */
+	public double[] getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Get the ring start point indices, with a final entry of the point count
+	 *
+	 * @return ring offsets
+	 */
+	public int[] getRingOffsets() {
+		return ringOffsets;
+	}
+
+	/**
+	 * Get the part start ring indices, with a final entry of the ring count
+	 *
+	 * @return part offsets
+	 */
+	public int[] getPartOffsets() {
+		return partOffsets;
+	}
+
+	/**
+	 * Get the number of points
+	 *
+	 * @return point count
+	 */
+	public int numPoints() {
+		return ringOffsets[ringOffsets.length - 1];
+	}
+
+	/**
+	 * Get the number of rings
+	 *
+	 * @return ring count
+	 */
+	public int numRings() {
+		return ringOffsets.length - 1;
+	}
+
+	/**
+	 * Get the number of parts
+	 *
+	 * @return part count
+	 */
+	public int numParts() {
+		return partOffsets.length - 1;
+	}
+
+	/**
+	 * Get the x coordinate of the point
+	 *
+	 * @param point
+	 *            point index
+	 * @return x
+	 */
+	public double getX(int point) {
+		return coordinates[point * dimension];
+	}
+
+	/**
+	 * Get the y coordinate of the point
+	 *
+	 * @param point
+	 *            point index
+	 * @return y
+	 */
+	public double getY(int point) {
+		return coordinates[point * dimension + 1];
+	}
+
+	/**
+	 * Get the z coordinate of the point
+	 *
+	 * @param point
+	 *            point index
+	 * @return z or {@link Double#NaN} if no z coordinates
+	 */
+	public double getZ(int point) {
+		return hasZ ? coordinates[point * dimension + 2] : Double.NaN;
+	}
+
+	/**
+	 * Get the m coordinate of the point
+	 *
+	 * @param point
+	 *            point index
+	 * @return m or {@link Double#NaN} if no m coordinates
+	 */
+	public double getM(int point) {
+		return hasM ? coordinates[point * dimension + dimension - 1]
+				: Double.NaN;
+	}
+
+	/**
+	 * Compute the envelope of the finite points
+	 *
+	 * @param envelope
+	 *            envelope values of at least
+	 *            {@link GeometryEnvelopeReader#ENVELOPE_LENGTH}, ordered as
+	 *            read by {@link GeometryEnvelopeReader}
+	 * @return true if finite points were found
+	 */
+	public boolean readEnvelope(double[] envelope) {
+		return readEnvelope(envelope, null, 0);
+	}
+
+	/**
+	 * Compute the envelope of the finite points into the double buffer values
+	 * starting at the base index, without modifying the buffer position
+	 *
+	 * @param envelope
+	 *            envelope double buffer with at least
+	 *            {@link GeometryEnvelopeReader#ENVELOPE_LENGTH} values from the
+	 *            base index
+	 * @param base
+	 *            buffer index of the first envelope value
+	 * @return true if finite points were found
+	 */
+	boolean readEnvelope(DoubleBuffer envelope, int base) {
+		return readEnvelope(null, envelope, base);
+	}
+
+	/**
+	 * Compute the envelope of the finite points into the values, or the
+	 * double buffer when the values are null
+	 *
+	 * @param values
+	 *            envelope values or null
+	 * @param buffer
+	 *            envelope double buffer when values are null
+	 * @param base
+	 *            buffer index of the first envelope value
+	 * @return true if finite points were found
+	 */
+	private boolean readEnvelope(double[] values, DoubleBuffer buffer,
+			int base) {
+
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		double minZ = Double.POSITIVE_INFINITY;
+		double maxZ = Double.NEGATIVE_INFINITY;
+		double minM = Double.POSITIVE_INFINITY;
+		double maxM = Double.NEGATIVE_INFINITY;
+
+		int mOffset = dimension - 1;
+		for (int i = 0; i < coordinates.length; i += dimension) {
+			double x = coordinates[i];
+			double y = coordinates[i + 1];
+			if (Double.isNaN(x) || Double.isInfinite(x) || Double.isNaN(y)
+					|| Double.isInfinite(y)) {
+				continue;
+			}
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+			if (hasZ) {
+				double z = coordinates[i + 2];
+				if (z < minZ) {
+					minZ = z;
+				}
+				if (z > maxZ) {
+					maxZ = z;
+				}
+			}
+			if (hasM) {
+				double m = coordinates[i + mOffset];
+				if (m < minM) {
+					minM = m;
+				}
+				if (m > maxM) {
+					maxM = m;
+				}
+			}
+		}
+
+		boolean found = minX <= maxX;
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MIN_X,
+				found ? minX : Double.NaN);
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MAX_X,
+				found ? maxX : Double.NaN);
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MIN_Y,
+				found ? minY : Double.NaN);
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MAX_Y,
+				found ? maxY : Double.NaN);
+		boolean z = found && minZ <= maxZ;
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MIN_Z,
+				z ? minZ : Double.NaN);
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MAX_Z,
+				z ? maxZ : Double.NaN);
+		boolean m = found && minM <= maxM;
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MIN_M,
+				m ? minM : Double.NaN);
+		putEnvelopeValue(values, buffer, base, GeometryEnvelopeReader.MAX_M,
+				m ? maxM : Double.NaN);
+
+		return found;
+	}
+
+	/**
+	 * Put an envelope value into the values, or the double buffer when the
+	 * values are null
+	 *
+	 * @param values
+	 *            envelope values or null
+	 * @param buffer
+	 *            envelope double buffer when values are null
+	 * @param base
+	 *            buffer index of the first envelope value
+	 * @param index
+	 *            envelope value index
+	 * @param value
+	 *            envelope value
+	 */
+	private static void putEnvelopeValue(double[] values, DoubleBuffer buffer,
+			int base, int index, double value) {
+		if (values != null) {
+			values[index] = value;
+		} else {
+			buffer.put(base + index, value);
+		}
+	}
+
+	/**
+	 * Build the geometry envelope of the finite points
+	 *
+	 * @return geometry envelope or null if no finite points
+	 */
+	public GeometryEnvelope buildEnvelope() {
+		GeometryEnvelope envelope = null;
+		double[] values = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+		if (readEnvelope(values)) {
+			envelope = GeometryEnvelopeReader.toGeometryEnvelope(values);
+		}
+		return envelope;
+	}
+
+	/**
+	 * Transform the coordinates using the provided projection transform,
+	 * returning a new packed geometry sharing the ring and part offsets
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @return transformed packed geometry
+	 */
+	public PackedGeometry transform(ProjectionTransform transform) {
+		double[] transformed = Arrays.copyOf(coordinates, coordinates.length);
+		if (!transform.isSameProjection()) {
+			transform(transform, transformed, dimension, hasZ);
+		}
+		return new PackedGeometry(geometryType, hasZ, hasM, transformed,
+				ringOffsets, partOffsets);
+	}
+
+	/**
+	 * Transform interleaved coordinates in place, reusing coordinate objects
+	 * across all points
+	 *
+	 * @param transform
+	 *            projection transform
+	 * @param coordinates
+	 *            interleaved coordinates
+	 * @param dimension
+	 *            number of coordinate values per point
+	 * @param hasZ
+	 *            true if the third coordinate value is z
+	 */
+	public static void transform(ProjectionTransform transform,
+			double[] coordinates, int dimension, boolean hasZ) {
+		CoordinateTransform coordinateTransform = transform.getTransform();
+		ProjCoordinate from = new ProjCoordinate();
+		ProjCoordinate to = new ProjCoordinate();
+		for (int i = 0; i < coordinates.length; i += dimension) {
+			from.x = coordinates[i];
+			from.y = coordinates[i + 1];
+			from.z = hasZ ? coordinates[i + 2] : Double.NaN;
+			to.z = Double.NaN;
+			coordinateTransform.transform(from, to);
+			coordinates[i] = to.x;
+			coordinates[i + 1] = to.y;
+			if (hasZ && !Double.isNaN(to.z)) {
+				coordinates[i + 2] = to.z;
+			}
+		}
+	}
+
+	/**
+	 * Compute the Well-Known Binary size
+	 *
+	 * @return size in bytes
+	 */
+	public int wkbSize() {
+
+		int pointSize = dimension * 8;
+		int size;
+
+		switch (geometryType) {
+		case POINT:
+			size = 5 + pointSize;
+			break;
+		case LINESTRING:
+			size = 9 + numPoints() * pointSize;
+			break;
+		case POLYGON:
+			size = 9 + numRings() * 4 + numPoints() * pointSize;
+			break;
+		case MULTIPOINT:
+			size = 9 + numParts() * (5 + pointSize);
+			break;
+		case MULTILINESTRING:
+			size = 9 + numParts() * 9 + numPoints() * pointSize;
+			break;
+		case MULTIPOLYGON:
+			size = 9 + numParts() * 9 + numRings() * 4
+					+ numPoints() * pointSize;
+			break;
+		default:
+			throw unsupported(geometryType);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Write the Well-Known Binary geometry into the buffer at the current
+	 * position using the buffer byte order
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 */
+	public void writeWkb(ByteBuffer buffer) {
+
+		switch (geometryType) {
+		case POINT:
+		case LINESTRING:
+		case POLYGON:
+			writePart(buffer, geometryType, 0);
+			break;
+		case MULTIPOINT:
+			writeMulti(buffer, GeometryType.POINT);
+			break;
+		case MULTILINESTRING:
+			writeMulti(buffer, GeometryType.LINESTRING);
+			break;
+		case MULTIPOLYGON:
+			writeMulti(buffer, GeometryType.POLYGON);
+			break;
+		default:
+			throw unsupported(geometryType);
+		}
+	}
+
+	/**
+	 * Write the Well-Known Binary geometry bytes
+	 *
+	 * @param byteOrder
+	 *            byte order
+	 * @return Well-Known Binary bytes
+	 */
+	public byte[] toWkb(ByteOrder byteOrder) {
+		byte[] bytes = new byte[wkbSize()];
+		writeWkb(ByteBuffer.wrap(bytes).order(byteOrder));
+		return bytes;
+	}
+
+	/**
+	 * Convert to a geometry
+	 *
+	 * @return geometry
+	 */
+	public Geometry toGeometry() {
+
+		Geometry geometry;
+
+		switch (geometryType) {
+		case POINT:
+			geometry = createPoint(ringOffsets[0]);
+			break;
+		case LINESTRING:
+			geometry = createLineString(0);
+			break;
+		case POLYGON:
+			geometry = createPolygon(0);
+			break;
+		case MULTIPOINT:
+			MultiPoint multiPoint = new MultiPoint(hasZ, hasM);
+			for (int part = 0; part < numParts(); part++) {
+				multiPoint.addPoint(
+						createPoint(ringOffsets[partOffsets[part]]));
+			}
+			geometry = multiPoint;
+			break;
+		case MULTILINESTRING:
+			MultiLineString multiLineString = new MultiLineString(hasZ, hasM);
+			for (int part = 0; part < numParts(); part++) {
+				multiLineString
+						.addLineString(createLineString(partOffsets[part]));
+			}
+			geometry = multiLineString;
+			break;
+		case MULTIPOLYGON:
+			MultiPolygon multiPolygon = new MultiPolygon(hasZ, hasM);
+			for (int part = 0; part < numParts(); part++) {
+				multiPolygon.addPolygon(createPolygon(part));
+			}
+			geometry = multiPolygon;
+			break;
+		default:
+			throw unsupported(geometryType);
+		}
+
+		return geometry;
+	}
+
+	/**
+	 * Write multi geometry parts as nested Well-Known Binary geometries
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param partType
+	 *            part geometry type
+	 */
+	private void writeMulti(ByteBuffer buffer, GeometryType partType) {
+		writeHeader(buffer, geometryType);
+		buffer.putInt(numParts());
+		for (int part = 0; part < numParts(); part++) {
+			writePart(buffer, partType, part);
+		}
+	}
+
+	/**
+	 * Write a single part as a Well-Known Binary geometry
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param partType
+	 *            part geometry type
+	 * @param part
+	 *            part index
+	 */
+	private void writePart(ByteBuffer buffer, GeometryType partType,
+			int part) {
+		writeHeader(buffer, partType);
+		int ringStart = partOffsets[part];
+		int ringEnd = partOffsets[part + 1];
+		switch (partType) {
+		case POINT:
+			writePoints(buffer, ringOffsets[ringStart],
+					ringOffsets[ringStart] + 1);
+			break;
+		case LINESTRING:
+			writeRing(buffer, ringStart);
+			break;
+		default:
+			buffer.putInt(ringEnd - ringStart);
+			for (int ring = ringStart; ring < ringEnd; ring++) {
+				writeRing(buffer, ring);
+			}
+		}
+	}
+
+	/**
+	 * Write the Well-Known Binary byte order and geometry type code
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param type
+	 *            geometry type
+	 */
+	private void writeHeader(ByteBuffer buffer, GeometryType type) {
+		buffer.put((byte) (buffer.order() == ByteOrder.BIG_ENDIAN ? 0 : 1));
+		buffer.putInt(GeometryCodes.getCode(type, hasZ, hasM));
+	}
+
+	/**
+	 * Write the ring point count and points
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param ring
+	 *            ring index
+	 */
+	private void writeRing(ByteBuffer buffer, int ring) {
+		int start = ringOffsets[ring];
+		int end = ringOffsets[ring + 1];
+		buffer.putInt(end - start);
+		writePoints(buffer, start, end);
+	}
+
+	/**
+	 * Write the point coordinates
+	 *
+	 * @param buffer
+	 *            byte buffer
+	 * @param start
+	 *            start point, inclusive
+	 * @param end
+	 *            end point, exclusive
+	 */
+	private void writePoints(ByteBuffer buffer, int start, int end) {
+		for (int i = start * dimension; i < end * dimension; i++) {
+			buffer.putDouble(coordinates[i]);
+		}
+	}
+
+	/**
+	 * Create a point
+	 *
+	 * @param point
+	 *            point index
+	 * @return point
+	 */
+	private Point createPoint(int point) {
+		Point created = new Point(hasZ, hasM, getX(point), getY(point));
+		if (hasZ) {
+			created.setZ(getZ(point));
+		}
+		if (hasM) {
+			created.setM(getM(point));
+		}
+		return created;
+	}
+
+	/**
+	 * Create a line string from a ring
+	 *
+	 * @param ring
+	 *            ring index
+	 * @return line string
+	 */
+	private LineString createLineString(int ring) {
+		LineString lineString = new LineString(hasZ, hasM);
+		for (int point = ringOffsets[ring]; point < ringOffsets[ring
+				+ 1]; point++) {
+			lineString.addPoint(createPoint(point));
+		}
+		return lineString;
+	}
+
+	/**
+	 * Create a polygon from a part
+	 *
+	 * @param part
+	 *            part index
+	 * @return polygon
+	 */
+	private Polygon createPolygon(int part) {
+		Polygon polygon = new Polygon(hasZ, hasM);
+		for (int ring = partOffsets[part]; ring < partOffsets[part
+				+ 1]; ring++) {
+			polygon.addRing(createLineString(ring));
+		}
+		return polygon;
+	}
+
+	/**
+	 * Read a packed geometry from Well-Known Binary or compact geometry bytes
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            geometry start offset following the GeoPackage header
+	 * @param flags
+	 *            GeoPackage geometry flags byte
+	 * @return packed geometry
+	 */
+	static PackedGeometry read(byte[] array, ByteBuffer buffer, int offset,
+			byte flags) {
+		PackedGeometry packed;
+		if (CompactGeometry.isCompact(array, buffer, offset, flags)) {
+			packed = CompactGeometry.read(array, buffer, offset);
+		} else {
+			packed = readWkb(array, buffer, offset);
+		}
+		return packed;
+	}
+
+	/**
+	 * Read a packed geometry from Well-Known Binary bytes, counting in a first
+	 * pass and filling exactly sized arrays in a second pass
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param offset
+	 *            Well-Known Binary start offset
+	 * @return packed geometry
+	 */
+	private static PackedGeometry readWkb(byte[] array, ByteBuffer buffer,
+			int offset) {
+
+		boolean bigEndian = GeometryEnvelopeReader.readByte(array, buffer,
+				offset) == 0;
+		int code = GeometryEnvelopeReader.readInt(array, buffer, offset + 1,
+				bigEndian);
+		GeometryType geometryType = GeometryCodes.getGeometryType(code);
+		validateSupported(geometryType);
+		boolean hasZ = GeometryCodes.hasZ(code);
+		boolean hasM = GeometryCodes.hasM(code);
+
+		Packer packer = new Packer(hasZ, hasM);
+		readGeometry(array, buffer, offset, packer);
+		packer.allocate();
+		readGeometry(array, buffer, offset, packer);
+
+		return new PackedGeometry(geometryType, hasZ, hasM,
+				packer.coordinates, packer.ringOffsets, packer.partOffsets);
+	}
+
+	/**
+	 * Read a Well-Known Binary geometry into the packer
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            geometry start index
+	 * @param packer
+	 *            packer
+	 * @return next byte index
+	 */
+	private static int readGeometry(byte[] array, ByteBuffer buffer, int index,
+			Packer packer) {
+
+		boolean bigEndian = GeometryEnvelopeReader.readByte(array, buffer,
+				index) == 0;
+		int code = GeometryEnvelopeReader.readInt(array, buffer, index + 1,
+				bigEndian);
+		index += 5;
+
+		if (GeometryCodes.hasZ(code) != packer.hasZ
+				|| GeometryCodes.hasM(code) != packer.hasM) {
+			throw new GeoPackageException(
+					"Packed geometries require consistent dimensions. Geometry code: "
+							+ code);
+		}
+
+		GeometryType geometryType = GeometryCodes.getGeometryType(code);
+		switch (geometryType) {
+		case POINT:
+			packer.startPart();
+			packer.startRing();
+			index = readPoints(array, buffer, index, 1, bigEndian, packer);
+			break;
+		case LINESTRING:
+			packer.startPart();
+			index = readRing(array, buffer, index, bigEndian, packer);
+			break;
+		case POLYGON:
+			packer.startPart();
+			int rings = GeometryEnvelopeReader.readInt(array, buffer, index,
+					bigEndian);
+			index += 4;
+			for (int i = 0; i < rings; i++) {
+				index = readRing(array, buffer, index, bigEndian, packer);
+			}
+			break;
+		case MULTIPOINT:
+		case MULTILINESTRING:
+		case MULTIPOLYGON:
+			if (packer.nested) {
+				throw unsupported(geometryType);
+			}
+			packer.nested = true;
+			int geometries = GeometryEnvelopeReader.readInt(array, buffer,
+					index, bigEndian);
+			index += 4;
+			for (int i = 0; i < geometries; i++) {
+				index = readGeometry(array, buffer, index, packer);
+			}
+			packer.nested = false;
+			break;
+		default:
+			throw unsupported(geometryType);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Read a Well-Known Binary ring point count and points
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            ring start index
+	 * @param bigEndian
+	 *            big endian flag
+	 * @param packer
+	 *            packer
+	 * @return next byte index
+	 */
+	private static int readRing(byte[] array, ByteBuffer buffer, int index,
+			boolean bigEndian, Packer packer) {
+		packer.startRing();
+		int count = GeometryEnvelopeReader.readInt(array, buffer, index,
+				bigEndian);
+		return readPoints(array, buffer, index + 4, count, bigEndian, packer);
+	}
+
+	/**
+	 * Read Well-Known Binary points
+	 *
+	 * @param array
+	 *            byte array or null
+	 * @param buffer
+	 *            byte buffer when array is null
+	 * @param index
+	 *            first point index
+	 * @param count
+	 *            point count
+	 * @param bigEndian
+	 *            big endian flag
+	 * @param packer
+	 *            packer
+	 * @return next byte index
+	 */
+	private static int readPoints(byte[] array, ByteBuffer buffer, int index,
+			int count, boolean bigEndian, Packer packer) {
+		int values = count * packer.dimension;
+		if (packer.coordinates != null) {
+			int coordinate = packer.points * packer.dimension;
+			for (int i = 0; i < values; i++) {
+				packer.coordinates[coordinate++] = GeometryEnvelopeReader
+						.readDouble(array, buffer, index, bigEndian);
+				index += 8;
+			}
+		} else {
+			index += values * 8;
+		}
+		packer.points += count;
+		return index;
+	}
+
+	/**
+	 * Pack a geometry into the packer
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @param packer
+	 *            packer
+	 */
+	private static void packGeometry(Geometry geometry, Packer packer) {
+		packer.reset();
+		switch (geometry.getGeometryType()) {
+		case POINT:
+			packer.startPart();
+			packer.startRing();
+			packer.addPoint((Point) geometry);
+			break;
+		case LINESTRING:
+			packer.startPart();
+			packer.addRing((LineString) geometry);
+			break;
+		case POLYGON:
+			packPolygon((Polygon) geometry, packer);
+			break;
+		case MULTIPOINT:
+			for (Point point : ((MultiPoint) geometry).getPoints()) {
+				packer.startPart();
+				packer.startRing();
+				packer.addPoint(point);
+			}
+			break;
+		case MULTILINESTRING:
+			for (LineString lineString : ((MultiLineString) geometry)
+					.getLineStrings()) {
+				packer.startPart();
+				packer.addRing(lineString);
+			}
+			break;
+		case MULTIPOLYGON:
+			for (Polygon polygon : ((MultiPolygon) geometry).getPolygons()) {
+				packPolygon(polygon, packer);
+			}
+			break;
+		default:
+			throw unsupported(geometry.getGeometryType());
+		}
+	}
+
+	/**
+	 * Pack a polygon into the packer
+	 *
+	 * @param polygon
+	 *            polygon
+	 * @param packer
+	 *            packer
+	 */
+	private static void packPolygon(Polygon polygon, Packer packer) {
+		packer.startPart();
+		for (LineString ring : polygon.getRings()) {
+			packer.addRing(ring);
+		}
+	}
+
+	/**
+	 * Validate the geometry type is supported
+	 *
+	 * @param geometryType
+	 *            geometry type
+	 */
+	private static void validateSupported(GeometryType geometryType) {
+		if (!isSupported(geometryType)) {
+			throw unsupported(geometryType);
+		}
+	}
+
+	/**
+	 * Create an unsupported geometry type exception
+	 *
+	 * @param geometryType
+	 *            geometry type
+	 * @return exception
+	 */
+	private static GeoPackageException unsupported(
+			GeometryType geometryType) {
+		return new GeoPackageException(
+				"Geometry Type not supported as a packed geometry: "
+						+ geometryType);
+	}
+
+	/**
+	 * Packing state, counting in a first pass and filling the allocated
+	 * arrays in a second pass
+	 */
+	private static class Packer {
+
+		/**
+		 * Has z coordinates
+		 */
+		final boolean hasZ;
+
+		/**
+		 * Has m coordinates
+		 */
+		final boolean hasM;
+
+		/**
+		 * Coordinate values per point
+		 */
+		final int dimension;
+
+		/**
+		 * Coordinates, null while counting
+		 */
+		double[] coordinates;
+
+		/**
+		 * Ring offsets, null while counting
+		 */
+		int[] ringOffsets;
+
+		/**
+		 * Part offsets, null while counting
+		 */
+		int[] partOffsets;
+
+		/**
+		 * Points packed
+		 */
+		int points;
+
+		/**
+		 * Rings packed
+		 */
+		int rings;
+
+		/**
+		 * Parts packed
+		 */
+		int parts;
+
+		/**
+		 * True while reading multi geometry children
+		 */
+		boolean nested;
+
+		/**
+		 * Constructor
+		 *
+		 * @param hasZ
+		 *            has z coordinates
+		 * @param hasM
+		 *            has m coordinates
+		 */
+		Packer(boolean hasZ, boolean hasM) {
+			this.hasZ = hasZ;
+			this.hasM = hasM;
+			this.dimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+		}
+
+		/**
+		 * Allocate the arrays from the counts and reset for filling
+		 */
+		void allocate() {
+			coordinates = new double[points * dimension];
+			ringOffsets = new int[rings + 1];
+			partOffsets = new int[parts + 1];
+			ringOffsets[rings] = points;
+			partOffsets[parts] = rings;
+			reset();
+		}
+
+		/**
+		 * Reset the counts
+		 */
+		void reset() {
+			points = 0;
+			rings = 0;
+			parts = 0;
+		}
+
+		/**
+		 * Start a new part
+		 */
+		void startPart() {
+			if (partOffsets != null) {
+				partOffsets[parts] = rings;
+			}
+			parts++;
+		}
+
+		/**
+		 * Start a new ring
+		 */
+		void startRing() {
+			if (ringOffsets != null) {
+				ringOffsets[rings] = points;
+			}
+			rings++;
+		}
+
+		/**
+		 * Add a ring of points
+		 *
+		 * @param lineString
+		 *            line string
+		 */
+		void addRing(LineString lineString) {
+			startRing();
+			List<Point> ringPoints = lineString.getPoints();
+			for (Point point : ringPoints) {
+				addPoint(point);
+			}
+		}
+
+		/**
+		 * Add a point
+		 *
+		 * @param point
+		 *            point
+		 */
+		void addPoint(Point point) {
+			if (coordinates != null) {
+				int index = points * dimension;
+				coordinates[index++] = point.getX();
+				coordinates[index++] = point.getY();
+				if (hasZ) {
+					Double z = point.getZ();
+					coordinates[index++] = z != null ? z : Double.NaN;
+				}
+				if (hasM) {
+					Double m = point.getM();
+					coordinates[index] = m != null ? m : Double.NaN;
+				}
+			}
+			points++;
+		}
+
+	}
+
+}
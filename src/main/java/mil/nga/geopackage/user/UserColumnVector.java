@@ -0,0 +1,351 @@
+package mil.nga.geopackage.user;
+
+import java.util.Arrays;
+
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.Result;
+
+/**
+ * User column vector of a single column's values for a batch of rows, stored
+ * in a primitive or object array by value type with a null bitmap. Arrays are
+ * reused between batches.
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class UserColumnVector {
+
+	/**
+	 * Vector value type
+	 */
+	public enum Type {
+
+		/**
+		 * Integer values in a long array
+		 */
+		LONG,
+
+		/**
+		 * Floating point values in a double array
+		 */
+		DOUBLE,
+
+		/**
+		 * Text and date values in a String array
+		 */
+		STRING,
+
+		/**
+		 * Blob and geometry values in a byte array array
+		 */
+		BLOB;
+
+		/**
+		 * Get the vector type for the data type
+		 *
+		 * @param dataType
+		 *            data type, null for geometries
+		 * @return vector type
+		 */
+		public static Type fromDataType(GeoPackageDataType dataType) {
+			Type type = BLOB;
+			if (dataType != null) {
+				switch (dataType) {
+				case BOOLEAN:
+				case TINYINT:
+				case SMALLINT:
+				case MEDIUMINT:
+				case INT:
+				case INTEGER:
+					type = LONG;
+					break;
+				case FLOAT:
+				case DOUBLE:
+				case REAL:
+					type = DOUBLE;
+					break;
+				case TEXT:
+				case DATE:
+				case DATETIME:
+					type = STRING;
+					break;
+				default:
+					type = BLOB;
+				}
+			}
+			return type;
+		}
+
+	}
+
+	/**
+	 * Column name
+	 */
+	private final String name;
+
+	/**
+	 * Column data type
+	 */
+	private final GeoPackageDataType dataType;
+
+	/**
+	 * Vector type
+	 */
+	private final Type type;
+
+	/**
+	 * Long values
+	 */
+	private long[] longs;
+
+	/**
+	 * Double values
+	 */
+	private double[] doubles;
+
+	/**
+	 * String values
+	 */
+	private String[] strings;
+
+	/**
+	 * Blob values
+	 */
+	private byte[][] blobs;
+
+	/**
+	 * Null bitmap, bit set for null values
+	 */
+	private long[] nulls;
+
+	/**
+	 * Number of null values
+	 */
+	private int nullCount;
+
+	/**
+	 * Number of values
+	 */
+	private int size;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 *            column name
+	 * @param dataType
+	 *            column data type, null for geometries
+	 * @param capacity
+	 *            value capacity
+	 */
+	public UserColumnVector(String name, GeoPackageDataType dataType,
+			int capacity) {
+		this.name = name;
+		this.dataType = dataType;
+		this.type = Type.fromDataType(dataType);
+		switch (type) {
+		case LONG:
+			longs = new long[capacity];
+			break;
+		case DOUBLE:
+			doubles = new double[capacity];
+			break;
+		case STRING:
+			strings = new String[capacity];
+			break;
+		default:
+			blobs = new byte[capacity][];
+		}
+		nulls = new long[(capacity + 63) >>> 6];
+	}
+
+	/**
+	 * Get the column name
+	 *
+	 * @return column name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the column data type
+	 *
+	 * @return data type, null for geometries
+	 */
+	public GeoPackageDataType getDataType() {
+		return dataType;
+	}
+
+	/**
+	 * Get the vector type
+	 *
+	 * @return vector type
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Get the number of values
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of null values
+	 *
+	 * @return null count
+	 */
+	public int getNullCount() {
+		return nullCount;
+	}
+
+	/**
+	 * Determine if the value at the index is null
+	 *
+	 * @param index
+	 *            value index
+	 * @return true if null
+	 */
+	public boolean isNull(int index) {
+		return (nulls[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Get the long value at the index, 0 when null
+	 *
+	 * @param index
+	 *            value index
+	 * @return long value
+	 */
+	public long getLong(int index) {
+		return longs[index];
+	}
+
+	/**
+	 * Get the double value at the index, 0.0 when null
+	 *
+	 * @param index
+	 *            value index
+	 * @return double value
+	 */
+	public double getDouble(int index) {
+		return doubles[index];
+	}
+
+	/**
+	 * Get the String value at the index
+	 *
+	 * @param index
+	 *            value index
+	 * @return String value or null
+	 */
+	public String getString(int index) {
+		return strings[index];
+	}
+
+	/**
+	 * Get the blob value at the index
+	 *
+	 * @param index
+	 *            value index
+	 * @return blob value or null
+	 */
+	public byte[] getBlob(int index) {
+		return blobs[index];
+	}
+
+	/**
+	 * Get the long values array, valid through {@link #size()}
+	 *
+	 * @return long values or null when not a {@link Type#LONG} vector
+	 */
+	public long[] getLongs() {
+		return longs;
+	}
+
+	/**
+	 * Get the double values array, valid through {@link #size()}
+	 *
+	 * @return double values or null when not a {@link Type#DOUBLE} vector
+	 */
+	public double[] getDoubles() {
+		return doubles;
+	}
+
+	/**
+	 * Get the String values array, valid through {@link #size()}
+	 *
+	 * @return String values or null when not a {@link Type#STRING} vector
+	 */
+	public String[] getStrings() {
+		return strings;
+	}
+
+	/**
+	 * Get the blob values array, valid through {@link #size()}
+	 *
+	 * @return blob values or null when not a {@link Type#BLOB} vector
+	 */
+	public byte[][] getBlobs() {
+		return blobs;
+	}
+
+	/**
+	 * Get the null bitmap, with bit (index % 64) of word (index / 64) set for
+	 * null values
+	 *
+	 * @return null bitmap
+	 */
+	public long[] getNulls() {
+		return nulls;
+	}
+
+	/**
+	 * Clear the values for the next batch
+	 */
+	void clear() {
+		Arrays.fill(nulls, 0, ((size + 63) >>> 6), 0L);
+		if (strings != null) {
+			Arrays.fill(strings, 0, size, null);
+		} else if (blobs != null) {
+			Arrays.fill(blobs, 0, size, null);
+		}
+		size = 0;
+		nullCount = 0;
+	}
+
+	/**
+	 * Read and append the result value of the column index
+	 *
+	 * @param result
+	 *            result positioned at a row
+	 * @param columnIndex
+	 *            result column index
+	 */
+	void read(Result result, int columnIndex) {
+		int index = size++;
+		switch (type) {
+		case LONG:
+			longs[index] = result.getLong(columnIndex);
+			break;
+		case DOUBLE:
+			doubles[index] = result.getDouble(columnIndex);
+			break;
+		case STRING:
+			strings[index] = result.getString(columnIndex);
+			break;
+		default:
+			blobs[index] = result.getBlob(columnIndex);
+		}
+		if (result.wasNull()) {
+			nulls[index >>> 6] |= 1L << index;
+			nullCount++;
+		}
+	}
+
+}
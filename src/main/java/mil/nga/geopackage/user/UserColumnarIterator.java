@@ -0,0 +1,263 @@
+package mil.nga.geopackage.user;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * User columnar iterator reading query results into fixed size batches of
+ * column vectors. The same column vectors are refilled for each batch, so a
+ * batch must be consumed before advancing to the next.
+ *
+ * @param <TColumn>
+ *            column type
+ * @param <TTable>
+ *            table type
+ * @param <TRow>
+ *            row type
+ * @param <TResult>
+ *            result type
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class UserColumnarIterator<TColumn extends UserColumn, TTable extends UserTable<TColumn>, TRow extends UserCoreRow<TColumn, TTable>, TResult extends UserCoreResult<TColumn, TTable, TRow>>
+		implements Iterator<UserColumnVector[]>, Iterable<UserColumnVector[]>,
+		Closeable {
+
+	/**
+	 * User DAO
+	 */
+	private final UserCoreDao<TColumn, TTable, TRow, TResult> dao;
+
+	/**
+	 * Distinct rows
+	 */
+	private final boolean distinct;
+
+	/**
+	 * Query columns
+	 */
+	private final String[] columns;
+
+	/**
+	 * Where clause
+	 */
+	private final String where;
+
+	/**
+	 * Result
+	 */
+	private final TResult result;
+
+	/**
+	 * Query start nanoseconds, 0 once recorded or when not measured
+	 */
+	private long start;
+
+	/**
+	 * Column vectors in query column order
+	 */
+	private final UserColumnVector[] vectors;
+
+	/**
+	 * Batch size
+	 */
+	private final int batchSize;
+
+	/**
+	 * Next batch has been read
+	 */
+	private boolean batchRead = false;
+
+	/**
+	 * Result has been read to completion
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Rows read, when metrics are enabled
+	 */
+	private long rowsRead = 0;
+
+	/**
+	 * Blob bytes read, when metrics are enabled
+	 */
+	private long blobBytesRead = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dao
+	 *            user DAO
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            query column names
+	 * @param where
+	 *            where clause
+	 * @param result
+	 *            result of the query
+	 * @param start
+	 *            query start nanoseconds, recorded as the query measurement
+	 *            once the first row is stepped, 0 when not measured
+	 * @param batchSize
+	 *            max rows per batch
+	 */
+	public UserColumnarIterator(UserCoreDao<TColumn, TTable, TRow, TResult> dao,
+			boolean distinct, String[] columns, String where, TResult result,
+			long start, int batchSize) {
+		this.dao = dao;
+		this.distinct = distinct;
+		this.columns = columns;
+		this.where = where;
+		this.result = result;
+		this.start = start;
+		this.batchSize = batchSize;
+		TTable table = dao.getTable();
+		this.vectors = new UserColumnVector[columns.length];
+		try {
+			for (int i = 0; i < columns.length; i++) {
+				vectors[i] = new UserColumnVector(columns[i],
+						table.getColumn(columns[i]).getDataType(), batchSize);
+			}
+		} catch (RuntimeException e) {
+			result.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the column vectors, in query column order
+	 *
+	 * @return column vectors
+	 */
+	public UserColumnVector[] getVectors() {
+		return vectors;
+	}
+
+	/**
+	 * Get the column vector for the column name
+	 *
+	 * @param columnName
+	 *            column name
+	 * @return column vector or null
+	 */
+	public UserColumnVector getVector(String columnName) {
+		UserColumnVector columnVector = null;
+		for (UserColumnVector vector : vectors) {
+			if (vector.getName().equals(columnName)) {
+				columnVector = vector;
+				break;
+			}
+		}
+		return columnVector;
+	}
+
+	/**
+	 * Get the max rows per batch
+	 *
+	 * @return batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<UserColumnVector[]> iterator() {
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNext() {
+		if (!batchRead && !finished) {
+			readBatch();
+		}
+		return batchRead;
+	}
+
+	/**
+	 * Get the next batch of column vectors, each sized to the number of rows
+	 * in the batch
+	 *
+	 * @return column vectors
+	 */
+	@Override
+	public UserColumnVector[] next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		batchRead = false;
+		return vectors;
+	}
+
+	/**
+	 * Close the result
+	 */
+	@Override
+	public void close() {
+		if (!finished) {
+			finished = true;
+			result.close();
+			if (dao.isMetricsEnabled()) {
+				dao.recordRows(distinct, columns, where, null, null, null,
+						rowsRead, blobBytesRead);
+			}
+		}
+	}
+
+	/**
+	 * Read the next batch into the column vectors
+	 */
+	private void readBatch() {
+		for (UserColumnVector vector : vectors) {
+			vector.clear();
+		}
+		int rows = 0;
+		while (rows < batchSize && moveToNext()) {
+			for (int i = 0; i < vectors.length; i++) {
+				vectors[i].read(result, i);
+			}
+			rows++;
+		}
+		if (dao.isMetricsEnabled()) {
+			rowsRead += rows;
+			for (UserColumnVector vector : vectors) {
+				byte[][] blobs = vector.getBlobs();
+				if (blobs != null) {
+					for (int i = 0; i < rows; i++) {
+						if (blobs[i] != null) {
+							blobBytesRead += blobs[i].length;
+						}
+					}
+				}
+			}
+		}
+		if (rows < batchSize) {
+			close();
+		}
+		batchRead = rows > 0;
+	}
+
+	/**
+	 * Move the result to the next row, recording the query measurement on
+	 * the first step when the query executes
+	 *
+	 * @return true if moved to the next row
+	 */
+	private boolean moveToNext() {
+		boolean moved = result.moveToNext();
+		if (start != 0) {
+			dao.recordQuery(start, distinct, columns, where, null, null, null);
+			start = 0;
+		}
+		return moved;
+	}
+
+}
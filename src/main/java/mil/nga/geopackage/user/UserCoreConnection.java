@@ -1,5 +1,8 @@
 package mil.nga.geopackage.user;
 
+import mil.nga.geopackage.db.GeoPackageCoreConnection;
+import mil.nga.geopackage.db.GeoPackageStatement;
+
 /**
  * GeoPackage Connection used to define common functionality within different
  * connection types
@@ -29,6 +32,30 @@ public abstract class UserCoreConnection<TColumn extends UserColumn, TTable exte
 	 */
 	public abstract TResult rawQuery(String sql, String[] selectionArgs);
 
+	/**
+	 * Runs the statement leased with
+	 * {@link GeoPackageCoreConnection#leaseStatement(String)} and returns a
+	 * {@link UserCoreResult} over the result set, taking ownership of the
+	 * lease. Implementations executing a compiled statement close it when the
+	 * result is closed. The default implementation runs the statement SQL with
+	 * {@link #rawQuery(String, String[])} and ends the lease.
+	 * 
+	 * @param statement
+	 *            leased statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @return result
+	 * @since 4.0.1
+	 */
+	public TResult query(GeoPackageStatement statement,
+			String[] selectionArgs) {
+		try {
+			return rawQuery(statement.getSql(), selectionArgs);
+		} finally {
+			statement.close();
+		}
+	}
+
 	/**
 	 * Query the given table, returning a {@link UserCoreResult} over the result
 	 * set.
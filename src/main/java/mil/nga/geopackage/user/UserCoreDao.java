@@ -2,22 +2,40 @@ package mil.nga.geopackage.user;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.locationtech.proj4j.units.Units;
 
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.contents.Contents;
+import mil.nga.geopackage.db.AggregateQuery;
 import mil.nga.geopackage.db.AlterTable;
 import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.DateConverter;
 import mil.nga.geopackage.db.GeoPackageCoreConnection;
 import mil.nga.geopackage.db.GeoPackageDao;
 import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.GeoPackageStatement;
+import mil.nga.geopackage.extension.nga.count.RowCountExtension;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.io.GeoPackageProgress;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionConstants;
@@ -39,6 +57,43 @@ import mil.nga.sf.proj.ProjectionTransform;
  */
 public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends UserTable<TColumn>, TRow extends UserCoreRow<TColumn, TTable>, TResult extends UserCoreResult<TColumn, TTable, TRow>> {
 
+	/**
+	 * Default number of rows per committed transaction for batch inserts
+	 * 
+	 * @since 4.0.1
+	 */
+	public static final int DEFAULT_INSERT_TRANSACTION_LIMIT = 1000;
+
+	/**
+	 * Default milliseconds between row cache validations against the
+	 * connection data version
+	 * 
+	 * @since 4.0.1
+	 */
+	public static final long DEFAULT_ROW_CACHE_VALIDATION_INTERVAL = 1000;
+
+	/**
+	 * Number of keys per insert statement when loading a temporary key table
+	 * 
+	 * @since 4.0.1
+	 */
+	public static final int KEY_INSERT_CHUNK = 500;
+
+	/**
+	 * Temporary key table name prefix
+	 */
+	private static final String KEY_TABLE_PREFIX = "gpkg_query_keys_";
+
+	/**
+	 * Temporary key table column
+	 */
+	private static final String KEY_COLUMN = "key";
+
+	/**
+	 * Temporary key table name sequence
+	 */
+	private static final AtomicLong keyTableSequence = new AtomicLong();
+
 	/**
 	 * Database
 	 */
@@ -64,6 +119,42 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 */
 	protected Projection projection;
 
+	/**
+	 * Row cache, null when disabled
+	 */
+	private volatile UserRowCache<TColumn, TTable, TRow> rowCache;
+
+	/**
+	 * Connection data version when the row cache was last validated, -1 when
+	 * not yet validated
+	 */
+	private volatile long rowCacheDataVersion = -1;
+
+	/**
+	 * Nanoseconds when the row cache was last validated
+	 */
+	private volatile long rowCacheValidated;
+
+	/**
+	 * Milliseconds between row cache validations against the data version
+	 */
+	private volatile long rowCacheValidationInterval = DEFAULT_ROW_CACHE_VALIDATION_INTERVAL;
+
+	/**
+	 * Queried temporary key tables pending a drop
+	 */
+	private final Queue<String> keyTables = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Maintained count mode flag
+	 */
+	private volatile boolean maintainedCount;
+
+	/**
+	 * Reader DAO supplier of asynchronous queries, null when not set
+	 */
+	private volatile Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> readerDaos;
+
 	/**
 	 * Constructor
 	 * 
@@ -251,6 +342,138 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 		return projection;
 	}
 
+	/**
+	 * Get the row cache used by {@link #queryForIdRowCached(long)}
+	 * 
+	 * @return row cache, null when disabled
+	 * @since 4.0.1
+	 */
+	public UserRowCache<TColumn, TTable, TRow> getRowCache() {
+		return rowCache;
+	}
+
+	/**
+	 * Set the row cache used by {@link #queryForIdRowCached(long)}
+	 * 
+	 * @param rowCache
+	 *            row cache, null to disable
+	 * @since 4.0.1
+	 */
+	public void setRowCache(UserRowCache<TColumn, TTable, TRow> rowCache) {
+		this.rowCache = rowCache;
+		rowCacheDataVersion = -1;
+	}
+
+	/**
+	 * Get the milliseconds between validations of the row cache against the
+	 * connection data version, which detects writes by other connections
+	 * 
+	 * @return validation interval in milliseconds
+	 * @since 4.0.1
+	 */
+	public long getRowCacheValidationInterval() {
+		return rowCacheValidationInterval;
+	}
+
+	/**
+	 * Set the milliseconds between validations of the row cache against the
+	 * connection data version, which detects writes by other connections.
+	 * Rows written by other connections may be served from the cache for up
+	 * to the interval.
+	 * 
+	 * @param rowCacheValidationInterval
+	 *            validation interval in milliseconds, 0 to validate on every
+	 *            cached read
+	 * @since 4.0.1
+	 */
+	public void setRowCacheValidationInterval(
+			long rowCacheValidationInterval) {
+		this.rowCacheValidationInterval = rowCacheValidationInterval;
+	}
+
+	/**
+	 * Enable caching of {@link #queryForIdRowCached(long)} rows, shared read
+	 * only rows invalidated by the id on DAO writes
+	 * 
+	 * @param maxSize
+	 *            max number of cached rows
+	 * @since 4.0.1
+	 */
+	public void enableRowCache(int maxSize) {
+		setRowCache(new UserRowCache<TColumn, TTable, TRow>(maxSize));
+	}
+
+	/**
+	 * Disable caching of {@link #queryForIdRowCached(long)} rows
+	 * 
+	 * @since 4.0.1
+	 */
+	public void disableRowCache() {
+		setRowCache(null);
+	}
+
+	/**
+	 * Invalidate the cached row after a row write
+	 * 
+	 * @param id
+	 *            row id
+	 * @since 4.0.1
+	 */
+	protected void invalidateRowCache(long id) {
+		UserRowCache<TColumn, TTable, TRow> cache = rowCache;
+		if (cache != null) {
+			cache.invalidate(id);
+		}
+	}
+
+	/**
+	 * Invalidate all cached rows after a write of unknown rows, such as SQL
+	 * executed directly on the connection
+	 * 
+	 * @since 4.0.1
+	 */
+	public void clearRowCache() {
+		UserRowCache<TColumn, TTable, TRow> cache = rowCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Invalidate the connection's cached query results of the table after a
+	 * write
+	 * 
+	 * @param rows
+	 *            number of rows changed
+	 * @since 4.0.1
+	 */
+	protected void invalidateResults(long rows) {
+		db.invalidateResults(getTableName(), rows);
+	}
+
+	/**
+	 * Is the maintained count mode enabled
+	 * 
+	 * @return true if {@link #count()} returns the maintained count
+	 * @since 4.0.1
+	 */
+	public boolean isMaintainedCount() {
+		return maintainedCount;
+	}
+
+	/**
+	 * Set the maintained count mode, where {@link #count()} returns the
+	 * {@link #countMaintained()} trigger maintained count instead of a full
+	 * table count when the table has the {@link RowCountExtension}
+	 * 
+	 * @param maintainedCount
+	 *            true to enable the maintained count mode
+	 * @since 4.0.1
+	 */
+	public void setMaintainedCount(boolean maintainedCount) {
+		this.maintainedCount = maintainedCount;
+	}
+
 	/**
 	 * Is the primary key modifiable
 	 * 
@@ -323,7 +546,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 * @since 3.5.0
 	 */
 	public TResult rawQuery(String sql, String[] selectionArgs) {
-		return userDb.rawQuery(sql, selectionArgs);
+		long start = db.metricsStart();
+		TResult result = userDb.rawQuery(sql, selectionArgs);
+		db.recordQuery(start, getTableName(), sql);
+		return result;
 	}
 
 	/**
@@ -382,9 +608,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 * @since 4.0.0
 	 */
 	public TResult query(boolean distinct, String[] columns) {
-		TResult result = userDb.query(distinct, getTableName(), columns, null,
-				null, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, null,
+				null, null, null, null, null);
+		recordQuery(start, distinct, columns, null);
 		return result;
 	}
 
@@ -450,9 +677,12 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 */
 	public TResult query(boolean distinct, String[] columns,
 			String[] columnsAs) {
-		TResult result = userDb.query(distinct, getTableName(), columns,
+		long start = db.metricsStart();
+		String sql = userDb.querySQL(distinct, getTableName(), columns,
 				columnsAs, null, null, null, null, null);
+		TResult result = statementQuery(sql, null);
 		prepareResult(result);
+		recordQuery(start, distinct, columns, null);
 		return result;
 	}
 
@@ -737,9 +967,11 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			String orderBy) {
 		String where = buildWhere(fieldName, value);
 		String[] whereArgs = buildWhereArgs(value);
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, groupBy, having, orderBy);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, groupBy, having, orderBy, null);
+		recordQuery(start, distinct, columns, where, groupBy, having,
+				orderBy);
 		return result;
 	}
 
@@ -881,9 +1113,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			String fieldName, ColumnValue value) {
 		String where = buildWhere(fieldName, value);
 		String[] whereArgs = buildWhereArgs(value);
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, null, null, null, null);
+		recordQuery(start, distinct, columns, where);
 		return result;
 	}
 
@@ -1157,9 +1390,11 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			String orderBy) {
 		String where = buildWhereLike(fieldName, value);
 		String[] whereArgs = buildWhereArgs(value);
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, groupBy, having, orderBy);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, groupBy, having, orderBy, null);
+		recordQuery(start, distinct, columns, where, groupBy, having,
+				orderBy);
 		return result;
 	}
 
@@ -1302,9 +1537,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			String fieldName, ColumnValue value) {
 		String where = buildWhereLike(fieldName, value);
 		String[] whereArgs = buildWhereArgs(value);
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, null, null, null, null);
+		recordQuery(start, distinct, columns, where);
 		return result;
 	}
 
@@ -1418,9 +1654,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			Map<String, Object> fieldValues) {
 		String where = buildWhere(fieldValues.entrySet());
 		String[] whereArgs = buildWhereArgs(fieldValues.values());
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, null, null, null, null);
+		recordQuery(start, distinct, columns, where);
 		return result;
 	}
 
@@ -1529,9 +1766,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			Map<String, ColumnValue> fieldValues) {
 		String where = buildValueWhere(fieldValues.entrySet());
 		String[] whereArgs = buildValueWhereArgs(fieldValues.values());
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, null, null, null, null);
+		recordQuery(start, distinct, columns, where);
 		return result;
 	}
 
@@ -1635,9 +1873,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	public TResult queryForId(boolean distinct, String[] columns, long id) {
 		String where = getPkWhere(id);
 		String[] whereArgs = getPkWhereArgs(id);
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, null, null, null, null);
+		recordQuery(start, distinct, columns, where);
 		return result;
 	}
 
@@ -1666,6 +1905,62 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 		return queryForIdRow(distinct, table.getColumnNames(), id);
 	}
 
+	/**
+	 * Query for the shared read only row with the provided id from the row
+	 * cache when enabled. DAO batch inserts, upserts, batch updates, and
+	 * deletes invalidate the cached rows they write by id, as do single row
+	 * inserts and updates of implementations calling
+	 * {@link #rowInserted(long)} and {@link #rowUpdated(UserCoreRow, int)}.
+	 * Writes by other connections are detected by the connection data
+	 * version, checked at most once per
+	 * {@link #getRowCacheValidationInterval()}. Writes by SQL executed
+	 * directly on this connection require {@link #clearRowCache()}. Cached
+	 * rows are shared between callers and must not be modified, use
+	 * {@link #queryForIdRow(long)} for a row to modify and update.
+	 * 
+	 * @param id
+	 *            id
+	 * @return shared row
+	 * @since 4.0.1
+	 */
+	public TRow queryForIdRowCached(long id) {
+		TRow row;
+		UserRowCache<TColumn, TTable, TRow> cache = rowCache;
+		if (cache != null) {
+			validateRowCache(cache);
+			row = cache.get(id, (rowId) -> queryForIdRow(false,
+					table.getColumnNames(), rowId));
+		} else {
+			row = queryForIdRow(id);
+		}
+		return row;
+	}
+
+	/**
+	 * Validate the row cache against the connection data version when the
+	 * validation interval has elapsed, clearing it after writes by other
+	 * connections
+	 * 
+	 * @param cache
+	 *            row cache
+	 */
+	private void validateRowCache(UserRowCache<TColumn, TTable, TRow> cache) {
+		long now = System.nanoTime();
+		long dataVersion = rowCacheDataVersion;
+		long interval = TimeUnit.MILLISECONDS
+				.toNanos(rowCacheValidationInterval);
+		if (dataVersion == -1 || now - rowCacheValidated >= interval) {
+			rowCacheValidated = now;
+			long currentDataVersion = db.dataVersion();
+			if (currentDataVersion != dataVersion) {
+				if (dataVersion != -1) {
+					cache.clear();
+				}
+				rowCacheDataVersion = currentDataVersion;
+			}
+		}
+	}
+
 	/**
 	 * Query for the row with the provided id
 	 * 
@@ -1694,11 +1989,19 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 */
 	public TRow queryForIdRow(boolean distinct, String[] columns, long id) {
 		TRow row = null;
-		TResult readCursor = queryForId(distinct, columns, id);
+		String where = getPkWhere(id);
+		long start = db.metricsStart();
+		TResult readCursor = queryResult(distinct, columns, where,
+				getPkWhereArgs(id), null, null, null, null);
 		if (readCursor.moveToNext()) {
 			row = readCursor.getRow();
 		}
 		readCursor.close();
+		recordQuery(start, distinct, columns, where);
+		if (db.isMetricsEnabled()) {
+			recordRows(distinct, columns, where, null, null, null,
+					row != null ? 1 : 0, blobBytes(row));
+		}
 		return row;
 	}
 
@@ -2642,6 +2945,326 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 		return query(distinct, columns, whereClause, args);
 	}
 
+	/**
+	 * Query for the rows with the provided ids in id order with a single
+	 * query, see {@link #queryIn(Collection, String)}
+	 * 
+	 * @param ids
+	 *            ids
+	 * @return result
+	 * @since 4.0.1
+	 */
+	public TResult queryForIds(long[] ids) {
+		return queryForIds(false, table.getColumnNames(), ids);
+	}
+
+	/**
+	 * Query for the rows with the provided ids in id order with a single
+	 * query, see {@link #queryIn(Collection, String)}
+	 * 
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param ids
+	 *            ids
+	 * @return result
+	 * @since 4.0.1
+	 */
+	public TResult queryForIds(boolean distinct, String[] columns,
+			long[] ids) {
+		Object[] keys = new Object[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			keys[i] = ids[i];
+		}
+		return queryIn(distinct, columns, keys, true,
+				table.getPkColumn().getName());
+	}
+
+	/**
+	 * Query for the rows with column values in the provided values, ordered
+	 * by the column, with a single query. The values are bound as a single
+	 * JSON array argument read by json_each. Connections without json_each,
+	 * or blob values, bulk load the values into a temporary key table.
+	 * 
+	 * @param values
+	 *            column values
+	 * @param column
+	 *            column name
+	 * @return result
+	 * @since 4.0.1
+	 */
+	public TResult queryIn(Collection<?> values, String column) {
+		return queryIn(false, table.getColumnNames(), values, column);
+	}
+
+	/**
+	 * Query for the rows with column values in the provided values, ordered
+	 * by the column, with a single query, see
+	 * {@link #queryIn(Collection, String)}
+	 * 
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param values
+	 *            column values
+	 * @param column
+	 *            column name
+	 * @return result
+	 * @since 4.0.1
+	 */
+	public TResult queryIn(boolean distinct, String[] columns,
+			Collection<?> values, String column) {
+		return queryIn(distinct, columns, values.toArray(), false, column);
+	}
+
+	/**
+	 * Drop the temporary key tables of previous key queries whose results
+	 * have been closed. Key tables are only created for connections without
+	 * json_each or for blob values. Key tables still read by an open result
+	 * are retained for a later attempt. Called at the start of each key query
+	 * and otherwise dropped when the connection closes.
+	 * 
+	 * @since 4.0.1
+	 */
+	public void dropKeyTables() {
+		for (int pending = keyTables.size(); pending > 0; pending--) {
+			String keyTable = keyTables.poll();
+			if (keyTable == null) {
+				break;
+			}
+			try {
+				db.execSQL("DROP TABLE IF EXISTS temp."
+						+ CoreSQLUtils.quoteWrap(keyTable));
+			} catch (Exception e) {
+				// Locked by an open result
+				keyTables.add(keyTable);
+			}
+		}
+	}
+
+	/**
+	 * Query for the rows with column values in the keys, ordered by the
+	 * column
+	 * 
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param keys
+	 *            key values
+	 * @param integer
+	 *            true if integer keys
+	 * @param column
+	 *            column name
+	 * @return result
+	 */
+	private TResult queryIn(boolean distinct, String[] columns, Object[] keys,
+			boolean integer, String column) {
+
+		dropKeyTables();
+
+		String quotedColumn = CoreSQLUtils.quoteWrap(column);
+
+		String keyTable = null;
+		String where;
+		String[] whereArgs = null;
+		if (keys.length == 0) {
+			where = quotedColumn + " IN ()";
+		} else {
+			String json = keysJson(keys, column);
+			if (json != null && db.supportsJsonEach()) {
+				where = quotedColumn + " IN (SELECT value FROM json_each(?))";
+				whereArgs = new String[] { json };
+			} else {
+				keyTable = createKeyTable(keys, integer, column);
+				where = quotedColumn + " IN (SELECT "
+						+ CoreSQLUtils.quoteWrap(KEY_COLUMN) + " FROM temp."
+						+ CoreSQLUtils.quoteWrap(keyTable) + ")";
+			}
+		}
+
+		long start = db.metricsStart();
+		TResult result;
+		try {
+			result = queryResult(distinct, columns, where, whereArgs, null,
+					null, quotedColumn, null);
+		} finally {
+			if (keyTable != null) {
+				keyTables.add(keyTable);
+			}
+		}
+		recordQuery(start, distinct, columns, quotedColumn + " IN (?...)",
+				null, null, quotedColumn);
+
+		return result;
+	}
+
+	/**
+	 * Build a JSON array of the keys
+	 * 
+	 * @param keys
+	 *            key values
+	 * @param column
+	 *            column name
+	 * @return JSON array, null when a key is not representable
+	 */
+	private String keysJson(Object[] keys, String column) {
+		GeoPackageDataType dataType = table.getColumn(column).getDataType();
+		// Text columns compare as text, as with an untyped key table
+		boolean text = dataType == GeoPackageDataType.TEXT
+				|| dataType == GeoPackageDataType.DATE
+				|| dataType == GeoPackageDataType.DATETIME;
+		StringBuilder json = new StringBuilder(keys.length * 8 + 2);
+		json.append('[');
+		for (int i = 0; json != null && i < keys.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			Object key = keys[i];
+			if (key == null) {
+				json.append("null");
+			} else if (text && key instanceof Number) {
+				json.append('"').append(key).append('"');
+			} else if (key instanceof Boolean) {
+				json.append(((Boolean) key) ? '1' : '0');
+			} else if (key instanceof Double || key instanceof Float) {
+				double value = ((Number) key).doubleValue();
+				if (Double.isNaN(value) || Double.isInfinite(value)) {
+					json.append("null");
+				} else {
+					json.append(value);
+				}
+			} else if (key instanceof Number) {
+				json.append(key);
+			} else if (key instanceof byte[]) {
+				json = null;
+			} else {
+				String value;
+				if (key instanceof Date) {
+					value = dateKey((Date) key, column);
+				} else {
+					value = key.toString();
+				}
+				json.append('"');
+				for (int c = 0; c < value.length(); c++) {
+					char character = value.charAt(c);
+					switch (character) {
+					case '"':
+					case '\\':
+						json.append('\\').append(character);
+						break;
+					default:
+						if (character < 0x20) {
+							json.append(String.format("\\u%04x",
+									(int) character));
+						} else {
+							json.append(character);
+						}
+					}
+				}
+				json.append('"');
+			}
+		}
+		String array = null;
+		if (json != null) {
+			array = json.append(']').toString();
+		}
+		return array;
+	}
+
+	/**
+	 * Get the stored text value of a date key
+	 * 
+	 * @param key
+	 *            date key
+	 * @param column
+	 *            column name
+	 * @return date text
+	 */
+	private String dateKey(Date key, String column) {
+		DateConverter converter = table.getColumn(column)
+				.getDataType() == GeoPackageDataType.DATE
+						? DateConverter.dateConverter()
+						: DateConverter.dateTimeConverter();
+		return converter.stringValue(key);
+	}
+
+	/**
+	 * Create and load a temporary key table, binding the keys to leased
+	 * chunked insert statements with
+	 * {@link GeoPackageCoreConnection#executeUpdate(String, Object[])}. The
+	 * inserted rows are tracked so they do not clear the connection result
+	 * cache.
+	 * 
+	 * @param keys
+	 *            key values
+	 * @param integer
+	 *            true if integer keys
+	 * @param column
+	 *            column name
+	 * @return key table name
+	 */
+	private String createKeyTable(Object[] keys, boolean integer,
+			String column) {
+
+		String keyTable = KEY_TABLE_PREFIX
+				+ keyTableSequence.incrementAndGet();
+		String quotedKeyTable = CoreSQLUtils.quoteWrap(keyTable);
+		String quotedKeyColumn = CoreSQLUtils.quoteWrap(KEY_COLUMN);
+
+		db.execSQL("CREATE TEMP TABLE " + quotedKeyTable + " ("
+				+ quotedKeyColumn + (integer ? " INTEGER" : "")
+				+ " PRIMARY KEY)");
+
+		boolean transaction = !inTransaction();
+		if (transaction) {
+			beginTransaction();
+		}
+		long loaded = 0;
+		try {
+			for (int offset = 0; offset < keys.length; offset += KEY_INSERT_CHUNK) {
+				int count = Math.min(KEY_INSERT_CHUNK, keys.length - offset);
+				StringBuilder sql = new StringBuilder(
+						"INSERT OR IGNORE INTO temp.").append(quotedKeyTable)
+								.append(" (").append(quotedKeyColumn)
+								.append(") VALUES ");
+				for (int i = 0; i < count; i++) {
+					if (i > 0) {
+						sql.append(", ");
+					}
+					sql.append("(?)");
+				}
+				Object[] args = Arrays.copyOfRange(keys, offset,
+						offset + count);
+				for (int i = 0; i < count; i++) {
+					if (args[i] instanceof Date) {
+						args[i] = dateKey((Date) args[i], column);
+					}
+				}
+				loaded += db.executeUpdate(sql.toString(), args);
+			}
+			db.trackChanges(loaded);
+		} catch (RuntimeException e) {
+			if (transaction) {
+				failTransaction();
+				transaction = false;
+			}
+			keyTables.add(keyTable);
+			throw new GeoPackageException(
+					"Failed to load query keys. Table: " + getTableName()
+							+ ", Keys: " + keys.length,
+					e);
+		} finally {
+			if (transaction) {
+				endTransaction();
+			}
+		}
+
+		return keyTable;
+	}
+
 	/**
 	 * Get the count in the nested SQL query
 	 * 
@@ -2704,7 +3327,8 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 			String[] nestedArgs, String where, String[] whereArgs) {
 		String whereClause = buildWhereIn(nestedSQL, where);
 		String[] args = buildWhereInArgs(nestedArgs, whereArgs);
-		return count(distinct, column, whereClause, args);
+		// Nested queries read other tables, not cached by table
+		return db.count(getTableName(), distinct, column, whereClause, args);
 	}
 
 	/**
@@ -2824,9 +3448,10 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 */
 	public TResult query(boolean distinct, String[] columns, String where,
 			String[] whereArgs) {
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, null, null, null);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, null, null, null, null);
+		recordQuery(start, distinct, columns, where);
 		return result;
 	}
 
@@ -3004,9 +3629,11 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 */
 	public TResult query(boolean distinct, String[] columns, String where,
 			String[] whereArgs, String groupBy, String having, String orderBy) {
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, groupBy, having, orderBy);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where,
+				whereArgs, groupBy, having, orderBy, null);
+		recordQuery(start, distinct, columns, where, groupBy, having,
+				orderBy);
 		return result;
 	}
 
@@ -3109,18 +3736,74 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	public TResult query(boolean distinct, String[] columns, String where,
 			String[] whereArgs, String groupBy, String having, String orderBy,
 			String limit) {
-		TResult result = userDb.query(distinct, getTableName(), columns, where,
-				whereArgs, groupBy, having, orderBy, limit);
-		prepareResult(result);
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where, whereArgs,
+				groupBy, having, orderBy, limit);
+		recordQuery(start, distinct, columns, where, groupBy, having,
+				orderBy);
 		return result;
 	}
 
 	/**
-	 * Query for id ordered rows starting at the offset and returning no more
-	 * than the limit.
+	 * Query for rows without recording a query measurement, for readers that
+	 * record the measurement once rows have been stepped. The query runs a
+	 * statement leased from the connection statement cache, see
+	 * {@link UserCoreConnection#query(GeoPackageStatement, String[])}.
 	 * 
-	 * @param limit
-	 *            chunk limit
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param groupBy
+	 *            group by
+	 * @param having
+	 *            having
+	 * @param orderBy
+	 *            order by
+	 * @param limit
+	 *            limit, may be null
+	 * @return result
+	 */
+	TResult queryResult(boolean distinct, String[] columns, String where,
+			String[] whereArgs, String groupBy, String having, String orderBy,
+			String limit) {
+		String sql = userDb.querySQL(distinct, getTableName(), columns, where,
+				groupBy, having, orderBy, limit);
+		TResult result = statementQuery(sql, whereArgs);
+		prepareResult(result);
+		return result;
+	}
+
+	/**
+	 * Query the SQL through a statement leased from the connection when it
+	 * has compiled statements, otherwise as a raw query
+	 * 
+	 * @param sql
+	 *            SQL
+	 * @param args
+	 *            arguments
+	 * @return result
+	 */
+	private TResult statementQuery(String sql, String[] args) {
+		TResult result;
+		if (db.hasCompiledStatements()) {
+			result = userDb.query(db.leaseStatement(sql), args);
+		} else {
+			result = userDb.rawQuery(sql, args);
+		}
+		return result;
+	}
+
+	/**
+	 * Query for id ordered rows starting at the offset and returning no more
+	 * than the limit.
+	 * 
+	 * @param limit
+	 *            chunk limit
 	 * @param offset
 	 *            chunk query offset
 	 * @return result
@@ -3576,229 +4259,1606 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	}
 
 	/**
-	 * Build a limit String with the limit and offset
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit. Unlike
+	 * {@link #queryForChunk(int, long)}, later pages do not re-scan earlier
+	 * rows.
 	 * 
 	 * @param limit
-	 *            limit
-	 * @param offset
-	 *            offset
-	 * @return limit
-	 * @since 3.1.0
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public String buildLimit(int limit, long offset) {
-		return offset + "," + limit;
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			int limit) {
+		return queryForKeysetChunks(false, limit);
 	}
 
 	/**
-	 * Begin a transaction
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @since 3.3.0
+	 * @param distinct
+	 *            distinct rows
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public abstract void beginTransaction();
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			boolean distinct, int limit) {
+		return queryForKeysetChunks(distinct, table.getColumnNames(), limit);
+	}
 
 	/**
-	 * End a transaction successfully
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @since 3.3.0
+	 * @param columns
+	 *            columns
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public void endTransaction() {
-		endTransaction(true);
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			String[] columns, int limit) {
+		return queryForKeysetChunks(false, columns, limit);
 	}
 
 	/**
-	 * Fail a transaction
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @since 3.3.0
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public void failTransaction() {
-		endTransaction(false);
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			boolean distinct, String[] columns, int limit) {
+		return queryForKeysetChunks(distinct, columns, null, null, limit);
 	}
 
 	/**
-	 * End a transaction
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @param successful
-	 *            true if the transaction was successful, false to rollback or
-	 *            not commit
-	 * @since 3.3.0
-	 */
-	public abstract void endTransaction(boolean successful);
-
-	/**
-	 * End a transaction as successful and begin a new transaction
-	 *
-	 * @since 3.3.0
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public void endAndBeginTransaction() {
-		endTransaction();
-		beginTransaction();
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			String where, String[] whereArgs, int limit) {
+		return queryForKeysetChunks(false, where, whereArgs, limit);
 	}
 
 	/**
-	 * Commit changes on the connection
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @since 3.3.0
+	 * @param distinct
+	 *            distinct rows
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public abstract void commit();
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			boolean distinct, String where, String[] whereArgs, int limit) {
+		return queryForKeysetChunks(distinct, table.getColumnNames(), where,
+				whereArgs, limit);
+	}
 
 	/**
-	 * Determine if currently within a transaction
-	 * 
-	 * @return true if in transaction
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @since 3.3.0
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public abstract boolean inTransaction();
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			String[] columns, String where, String[] whereArgs, int limit) {
+		return queryForKeysetChunks(false, columns, where, whereArgs, limit);
+	}
 
 	/**
-	 * Update the row
+	 * Iterate through id ordered rows with keyset pagination, querying pages
+	 * after the last returned id with no more than the limit.
 	 * 
-	 * @param row
-	 *            row
-	 * @return number of rows affected, should be 0 or 1
-	 */
-	public abstract int update(TRow row);
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
+	 */
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, int limit) {
+		return queryForKeysetChunks(distinct, columns, where, whereArgs, null,
+				limit);
+	}
 
 	/**
-	 * Delete the row
+	 * Iterate through key column ordered rows with keyset pagination, querying
+	 * pages after the last returned key with no more than the limit. The key
+	 * column should be indexed, and unique when the table has no primary key.
+	 * Rows with a null key value are not returned.
 	 * 
-	 * @param row
-	 *            row
-	 * @return number of rows affected, should be 0 or 1 unless the table has
-	 *         duplicate rows in it
+	 * @param keyColumn
+	 *            key column, null for the primary key
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public int delete(TRow row) {
-		int numDeleted;
-		if (row.hasId()) {
-			numDeleted = deleteById(row.getId());
-		} else {
-			numDeleted = delete(buildValueWhere(row.getAsMap()),
-					buildWhereArgs(row.getValues()));
-		}
-		return numDeleted;
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			String keyColumn, int limit) {
+		return queryForKeysetChunks(false, table.getColumnNames(), null, null,
+				keyColumn, limit);
 	}
 
 	/**
-	 * Delete a row by id
+	 * Iterate through key column ordered rows with keyset pagination, querying
+	 * pages after the last returned key with no more than the limit. The key
+	 * column should be indexed, and unique when the table has no primary key.
+	 * Rows with a null key value are not returned.
 	 * 
-	 * @param id
-	 *            id
-	 * @return number of rows affected, should be 0 or 1
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param keyColumn
+	 *            key column, null for the primary key
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public int deleteById(long id) {
-		return db.delete(getTableName(), getPkWhere(id), getPkWhereArgs(id));
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			String where, String[] whereArgs, String keyColumn, int limit) {
+		return queryForKeysetChunks(false, table.getColumnNames(), where,
+				whereArgs, keyColumn, limit);
 	}
 
 	/**
-	 * Delete rows matching the where clause
+	 * Iterate through key column ordered rows with keyset pagination, querying
+	 * pages after the last returned key with no more than the limit. The key
+	 * column should be indexed, and unique when the table has no primary key.
+	 * Rows with a null key value are not returned.
 	 * 
-	 * @param whereClause
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
 	 *            where clause
 	 * @param whereArgs
 	 *            where arguments
-	 * @return deleted count
+	 * @param keyColumn
+	 *            key column, null for the primary key
+	 * @param limit
+	 *            page limit
+	 * @return keyset iterator
+	 * @since 4.0.1
 	 */
-	public int delete(String whereClause, String[] whereArgs) {
-		return db.delete(getTableName(), whereClause, whereArgs);
+	public UserKeysetIterator<TColumn, TTable, TRow, TResult> queryForKeysetChunks(
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, String keyColumn, int limit) {
+		return new UserKeysetIterator<>(this, distinct, columns, where,
+				whereArgs, keyColumn, limit);
 	}
 
 	/**
-	 * Delete rows matching the field values
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param fieldValues
-	 *            field values
-	 * @return deleted count
-	 * @since 3.0.2
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	public int delete(Map<String, Object> fieldValues) {
-		String whereClause = buildWhere(fieldValues.entrySet());
-		String[] whereArgs = buildWhereArgs(fieldValues.values());
-		return delete(whereClause, whereArgs);
+	public Stream<TRow> stream() {
+		return stream(false);
 	}
 
 	/**
-	 * Delete all rows
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @return deleted count
-	 * @since 3.0.2
+	 * @param distinct
+	 *            distinct rows
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	public int deleteAll() {
-		return delete(null, null);
+	public Stream<TRow> stream(boolean distinct) {
+		return stream(distinct, table.getColumnNames());
 	}
 
 	/**
-	 * Creates a new row, same as calling {@link #insert(UserCoreRow)}
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param row
-	 *            row
-	 * @return row id
+	 * @param columns
+	 *            columns
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	public long create(TRow row) {
-		return insert(row);
+	public Stream<TRow> stream(String[] columns) {
+		return stream(false, columns);
 	}
 
 	/**
-	 * Inserts a new row
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param row
-	 *            row
-	 * @return row id
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	public abstract long insert(TRow row);
+	public Stream<TRow> stream(boolean distinct, String[] columns) {
+		return stream(distinct, columns, null, null);
+	}
 
 	/**
-	 * Get the primary key where clause
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param id
-	 *            id
-	 * @return primary key where clause
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	protected String getPkWhere(long id) {
-		return buildWhere(table.getPkColumn().getName(), id);
+	public Stream<TRow> stream(String where, String[] whereArgs) {
+		return stream(false, where, whereArgs);
 	}
 
 	/**
-	 * Get the primary key where args
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param id
-	 *            id
-	 * @return primary key where args
+	 * @param distinct
+	 *            distinct rows
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	protected String[] getPkWhereArgs(long id) {
-		return buildWhereArgs(id);
+	public Stream<TRow> stream(boolean distinct, String where,
+			String[] whereArgs) {
+		return stream(distinct, table.getColumnNames(), where, whereArgs);
 	}
 
 	/**
-	 * Build where (or selection) statement from the fields
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param fields
-	 *            fields
-	 * @return where clause
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return row stream
+	 * @since 4.0.1
 	 */
-	public String buildWhere(Set<Map.Entry<String, Object>> fields) {
-		StringBuilder selection = new StringBuilder();
-		for (Map.Entry<String, Object> field : fields) {
-			if (selection.length() > 0) {
-				selection.append(" AND ");
-			}
-			selection.append(buildWhere(field.getKey(), field.getValue()));
-		}
-		return selection.toString();
+	public Stream<TRow> stream(String[] columns, String where,
+			String[] whereArgs) {
+		return stream(false, columns, where, whereArgs);
 	}
 
 	/**
-	 * Build where (or selection) statement from the fields
+	 * Stream the rows, lazily advancing through a single result. The stream
+	 * should be closed to close the result when not fully consumed.
 	 * 
-	 * @param fields
-	 *            fields
-	 * @return where clause
-	 */
-	public String buildValueWhere(Set<Map.Entry<String, ColumnValue>> fields) {
-		StringBuilder selection = new StringBuilder();
-		for (Map.Entry<String, ColumnValue> field : fields) {
-			if (selection.length() > 0) {
-				selection.append(" AND ");
-			}
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return row stream
+	 * @since 4.0.1
+	 */
+	public Stream<TRow> stream(boolean distinct, String[] columns,
+			String where, String[] whereArgs) {
+		UserRowSpliterator<TColumn, TTable, TRow, TResult> spliterator = new UserRowSpliterator<>(
+				this, distinct, columns, where, whereArgs);
+		return StreamSupport.stream(spliterator, false)
+				.onClose(spliterator::close);
+	}
+
+	/**
+	 * Stream the rows in parallel, splitting the primary key id range into
+	 * ranges each read with its own result through a DAO of the table from
+	 * the split DAO supplier. The supplier is called once by each split that
+	 * reads, from the stream threads, and should return DAOs on separate
+	 * connections, such as reader connections, for the SQLite reads to run in
+	 * parallel. Supplied DAOs are not closed by the stream. Splits are
+	 * encounter ordered by id. The stream should be closed to close the
+	 * results when not fully consumed.
+	 * 
+	 * @param daos
+	 *            split DAO supplier
+	 * @return parallel row stream
+	 * @since 4.0.1
+	 */
+	public Stream<TRow> parallelStream(
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos) {
+		return parallelStream(daos, null, null);
+	}
+
+	/**
+	 * Stream the rows in parallel, splitting the primary key id range into
+	 * ranges each read with its own result through a DAO of the table from
+	 * the split DAO supplier. The supplier is called once by each split that
+	 * reads, from the stream threads, and should return DAOs on separate
+	 * connections, such as reader connections, for the SQLite reads to run in
+	 * parallel. Supplied DAOs are not closed by the stream. Splits are
+	 * encounter ordered by id. The stream should be closed to close the
+	 * results when not fully consumed.
+	 * 
+	 * @param daos
+	 *            split DAO supplier
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return parallel row stream
+	 * @since 4.0.1
+	 */
+	public Stream<TRow> parallelStream(
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos,
+			String where, String[] whereArgs) {
+		return parallelStream(daos, false, table.getColumnNames(), where,
+				whereArgs);
+	}
+
+	/**
+	 * Stream the rows in parallel, splitting the primary key id range into
+	 * ranges each read with its own result through a DAO of the table from
+	 * the split DAO supplier. The supplier is called once by each split that
+	 * reads, from the stream threads, and should return DAOs on separate
+	 * connections, such as reader connections, for the SQLite reads to run in
+	 * parallel. Supplied DAOs are not closed by the stream. Splits are
+	 * encounter ordered by id. The stream should be closed to close the
+	 * results when not fully consumed.
+	 * 
+	 * @param daos
+	 *            split DAO supplier
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return parallel row stream
+	 * @since 4.0.1
+	 */
+	public Stream<TRow> parallelStream(
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos,
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs) {
+		return parallelStream(daos, distinct, columns, where, whereArgs,
+				UserRowSpliterator.DEFAULT_MIN_SPLIT_SIZE);
+	}
+
+	/**
+	 * Stream the rows in parallel, splitting the primary key id range into
+	 * ranges each read with its own result through a DAO of the table from
+	 * the split DAO supplier. The supplier is called once by each split that
+	 * reads, from the stream threads, and should return DAOs on separate
+	 * connections, such as reader connections, for the SQLite reads to run in
+	 * parallel. Supplied DAOs are not closed by the stream. Splits are
+	 * encounter ordered by id. The stream should be closed to close the
+	 * results when not fully consumed.
+	 * 
+	 * @param daos
+	 *            split DAO supplier
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param minSplitSize
+	 *            minimum number of ids in a split range
+	 * @return parallel row stream
+	 * @since 4.0.1
+	 */
+	public Stream<TRow> parallelStream(
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos,
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, long minSplitSize) {
+
+		if (!table.hasPkColumn()) {
+			throw new GeoPackageException(
+					"Parallel stream requires a primary key. Table: "
+							+ getTableName());
+		}
+
+		Stream<TRow> stream;
+		String pkColumn = table.getPkColumnName();
+		Number minId = min(pkColumn, where, whereArgs);
+		Number maxId = max(pkColumn, where, whereArgs);
+		if (minId == null || maxId == null) {
+			stream = Stream.empty();
+		} else {
+			UserRowSpliterator<TColumn, TTable, TRow, TResult> spliterator = new UserRowSpliterator<>(
+					daos, distinct, columns, where, whereArgs,
+					minId.longValue(), maxId.longValue(), minSplitSize);
+			stream = StreamSupport.stream(spliterator, true)
+					.onClose(spliterator::close);
+		}
+
+		return stream;
+	}
+
+	/**
+	 * Query for all rows of the columns, read into column vector batches
+	 *
+	 * @param columns
+	 *            columns
+	 * @param batchSize
+	 *            max rows per batch
+	 * @return columnar iterator
+	 * @since 4.0.1
+	 */
+	public UserColumnarIterator<TColumn, TTable, TRow, TResult> queryColumnar(
+			String[] columns, int batchSize) {
+		return queryColumnar(false, columns, null, null, batchSize);
+	}
+
+	/**
+	 * Query for rows of the columns, read into column vector batches
+	 *
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param batchSize
+	 *            max rows per batch
+	 * @return columnar iterator
+	 * @since 4.0.1
+	 */
+	public UserColumnarIterator<TColumn, TTable, TRow, TResult> queryColumnar(
+			String[] columns, String where, String[] whereArgs, int batchSize) {
+		return queryColumnar(false, columns, where, whereArgs, batchSize);
+	}
+
+	/**
+	 * Query for rows of the columns, read into column vector batches of long,
+	 * double, String, or blob arrays by column data type with null bitmaps
+	 *
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param batchSize
+	 *            max rows per batch
+	 * @return columnar iterator
+	 * @since 4.0.1
+	 */
+	public UserColumnarIterator<TColumn, TTable, TRow, TResult> queryColumnar(
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, int batchSize) {
+		if (batchSize < 1) {
+			throw new GeoPackageException(
+					"Columnar batch size must be positive. Batch Size: "
+							+ batchSize);
+		}
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where, whereArgs,
+				null, null, null, null);
+		return new UserColumnarIterator<>(this, distinct, columns, where,
+				result, start, batchSize);
+	}
+
+	/**
+	 * Determine if query metrics are enabled on the connection
+	 * 
+	 * @return true if metrics enabled
+	 * @since 4.0.1
+	 */
+	public boolean isMetricsEnabled() {
+		return db.isMetricsEnabled();
+	}
+
+	/**
+	 * Record a query measurement
+	 * 
+	 * @param start
+	 *            start nanoseconds
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 */
+	private void recordQuery(long start, boolean distinct, String[] columns,
+			String where) {
+		recordQuery(start, distinct, columns, where, null, null, null);
+	}
+
+	/**
+	 * Get the start time of a query measurement
+	 * 
+	 * @return start nanoseconds, 0 when metrics and the slow query log are
+	 *         disabled
+	 */
+	long metricsStart() {
+		return db.metricsStart();
+	}
+
+	/**
+	 * Record a query measurement
+	 * 
+	 * @param start
+	 *            start nanoseconds
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param groupBy
+	 *            group by
+	 * @param having
+	 *            having
+	 * @param orderBy
+	 *            order by
+	 */
+	void recordQuery(long start, boolean distinct, String[] columns,
+			String where, String groupBy, String having, String orderBy) {
+		if (start != 0) {
+			db.recordQuery(start, getTableName(), userDb.querySQL(distinct,
+					getTableName(), columns, where, groupBy, having, orderBy));
+		}
+	}
+
+	/**
+	 * Record the rows read from a query
+	 * 
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param groupBy
+	 *            group by
+	 * @param having
+	 *            having
+	 * @param orderBy
+	 *            order by
+	 * @param rows
+	 *            number of rows read
+	 * @param blobBytes
+	 *            number of blob bytes read
+	 * @since 4.0.1
+	 */
+	public void recordRows(boolean distinct, String[] columns, String where,
+			String groupBy, String having, String orderBy, long rows,
+			long blobBytes) {
+		if (db.isMetricsEnabled()) {
+			db.recordRows(getTableName(), userDb.querySQL(distinct,
+					getTableName(), columns, where, groupBy, having, orderBy),
+					rows, blobBytes);
+		}
+	}
+
+	/**
+	 * Get the number of blob bytes in the row values
+	 * 
+	 * @param row
+	 *            row, may be null
+	 * @return blob bytes
+	 * @since 4.0.1
+	 */
+	public static long blobBytes(UserCoreRow<?, ?> row) {
+		long bytes = 0;
+		if (row != null) {
+			for (Object value : row.getValues()) {
+				if (value instanceof byte[]) {
+					bytes += ((byte[]) value).length;
+				} else if (value instanceof GeoPackageGeometryData) {
+					byte[] data = ((GeoPackageGeometryData) value)
+							.getBytes();
+					if (data != null) {
+						bytes += data.length;
+					}
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Build a limit String with the limit and offset
+	 * 
+	 * @param limit
+	 *            limit
+	 * @param offset
+	 *            offset
+	 * @return limit
+	 * @since 3.1.0
+	 */
+	public String buildLimit(int limit, long offset) {
+		return offset + "," + limit;
+	}
+
+	/**
+	 * Begin a transaction
+	 * 
+	 * @since 3.3.0
+	 */
+	public abstract void beginTransaction();
+
+	/**
+	 * End a transaction successfully
+	 * 
+	 * @since 3.3.0
+	 */
+	public void endTransaction() {
+		endTransaction(true);
+	}
+
+	/**
+	 * Fail a transaction
+	 * 
+	 * @since 3.3.0
+	 */
+	public void failTransaction() {
+		endTransaction(false);
+	}
+
+	/**
+	 * End a transaction
+	 * 
+	 * @param successful
+	 *            true if the transaction was successful, false to rollback or
+	 *            not commit
+	 * @since 3.3.0
+	 */
+	public abstract void endTransaction(boolean successful);
+
+	/**
+	 * End a transaction as successful and begin a new transaction
+	 *
+	 * @since 3.3.0
+	 */
+	public void endAndBeginTransaction() {
+		endTransaction();
+		beginTransaction();
+	}
+
+	/**
+	 * Commit changes on the connection
+	 * 
+	 * @since 3.3.0
+	 */
+	public abstract void commit();
+
+	/**
+	 * Determine if currently within a transaction
+	 * 
+	 * @return true if in transaction
+	 * 
+	 * @since 3.3.0
+	 */
+	public abstract boolean inTransaction();
+
+	/**
+	 * Update the row. Implementations call {@link #rowUpdated(UserCoreRow, int)}
+	 * after the update to invalidate the cached row and the cached query
+	 * results of the table.
+	 * 
+	 * @param row
+	 *            row
+	 * @return number of rows affected, should be 0 or 1
+	 */
+	public abstract int update(TRow row);
+
+	/**
+	 * Invalidate the cached row and the cached query results of the table
+	 * after a row update, called by {@link #update(UserCoreRow)}
+	 * implementations
+	 * 
+	 * @param row
+	 *            updated row
+	 * @param updated
+	 *            number of rows affected
+	 * @since 4.0.1
+	 */
+	protected void rowUpdated(TRow row, int updated) {
+		if (row.hasId()) {
+			invalidateRowCache(row.getId());
+		} else {
+			clearRowCache();
+		}
+		invalidateResults(updated);
+	}
+
+	/**
+	 * Delete the row
+	 * 
+	 * @param row
+	 *            row
+	 * @return number of rows affected, should be 0 or 1 unless the table has
+	 *         duplicate rows in it
+	 */
+	public int delete(TRow row) {
+		int numDeleted;
+		if (row.hasId()) {
+			numDeleted = deleteById(row.getId());
+		} else {
+			numDeleted = delete(buildValueWhere(row.getAsMap()),
+					buildWhereArgs(row.getValues()));
+		}
+		return numDeleted;
+	}
+
+	/**
+	 * Delete a row by id
+	 * 
+	 * @param id
+	 *            id
+	 * @return number of rows affected, should be 0 or 1
+	 */
+	public int deleteById(long id) {
+		long start = db.metricsStart();
+		String where = getPkWhere(id);
+		int deleted = db.delete(getTableName(), where, getPkWhereArgs(id));
+		invalidateRowCache(id);
+		invalidateResults(deleted);
+		recordDelete(start, where, deleted);
+		return deleted;
+	}
+
+	/**
+	 * Delete rows matching the where clause
+	 * 
+	 * @param whereClause
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return deleted count
+	 */
+	public int delete(String whereClause, String[] whereArgs) {
+		long start = db.metricsStart();
+		int deleted = db.delete(getTableName(), whereClause, whereArgs);
+		clearRowCache();
+		invalidateResults(deleted);
+		recordDelete(start, whereClause, deleted);
+		return deleted;
+	}
+
+	/**
+	 * Record a delete measurement
+	 * 
+	 * @param start
+	 *            start nanoseconds
+	 * @param where
+	 *            where clause
+	 * @param deleted
+	 *            deleted count
+	 */
+	private void recordDelete(long start, String where, int deleted) {
+		if (start != 0) {
+			String sql = "DELETE FROM "
+					+ CoreSQLUtils.quoteWrap(getTableName());
+			if (where != null) {
+				sql += " WHERE " + where;
+			}
+			db.recordWrite(start, getTableName(), sql, deleted);
+		}
+	}
+
+	/**
+	 * Delete rows matching the field values
+	 * 
+	 * @param fieldValues
+	 *            field values
+	 * @return deleted count
+	 * @since 3.0.2
+	 */
+	public int delete(Map<String, Object> fieldValues) {
+		String whereClause = buildWhere(fieldValues.entrySet());
+		String[] whereArgs = buildWhereArgs(fieldValues.values());
+		return delete(whereClause, whereArgs);
+	}
+
+	/**
+	 * Delete all rows
+	 * 
+	 * @return deleted count
+	 * @since 3.0.2
+	 */
+	public int deleteAll() {
+		return delete(null, null);
+	}
+
+	/**
+	 * Creates a new row, same as calling {@link #insert(UserCoreRow)}
+	 * 
+	 * @param row
+	 *            row
+	 * @return row id
+	 */
+	public long create(TRow row) {
+		return insert(row);
+	}
+
+	/**
+	 * Inserts a new row. Implementations call {@link #rowInserted(long)}
+	 * after the insert to invalidate the cached row of the id and the cached
+	 * query results of the table.
+	 * 
+	 * @param row
+	 *            row
+	 * @return row id
+	 */
+	public abstract long insert(TRow row);
+
+	/**
+	 * Invalidate the cached row of the id and the cached query results of the
+	 * table after a row insert, called by {@link #insert(UserCoreRow)}
+	 * implementations
+	 * 
+	 * @param id
+	 *            inserted row id
+	 * @since 4.0.1
+	 */
+	protected void rowInserted(long id) {
+		invalidateRowCache(id);
+		invalidateResults(1);
+	}
+
+	/**
+	 * Insert the rows in transaction chunks of
+	 * {@link #DEFAULT_INSERT_TRANSACTION_LIMIT} rows
+	 * 
+	 * @param rows
+	 *            rows
+	 * @return inserted row ids
+	 * @since 4.0.1
+	 */
+	public long[] insert(Iterable<TRow> rows) {
+		return insert(rows, DEFAULT_INSERT_TRANSACTION_LIMIT, null);
+	}
+
+	/**
+	 * Insert the rows in transaction chunks of
+	 * {@link #DEFAULT_INSERT_TRANSACTION_LIMIT} rows
+	 * 
+	 * @param rows
+	 *            rows
+	 * @return inserted row ids
+	 * @since 4.0.1
+	 */
+	public long[] insert(Iterator<TRow> rows) {
+		return insert(rows, DEFAULT_INSERT_TRANSACTION_LIMIT, null);
+	}
+
+	/**
+	 * Insert the rows in transaction chunks
+	 * 
+	 * @param rows
+	 *            rows
+	 * @param transactionLimit
+	 *            rows per committed transaction
+	 * @param progress
+	 *            progress tracker, may be null
+	 * @return inserted row ids
+	 * @since 4.0.1
+	 */
+	public long[] insert(Iterable<TRow> rows, int transactionLimit,
+			GeoPackageProgress progress) {
+		int capacity = rows instanceof Collection
+				? ((Collection<?>) rows).size()
+				: transactionLimit;
+		return insert(rows.iterator(), capacity, transactionLimit, progress);
+	}
+
+	/**
+	 * Insert the rows in transaction chunks
+	 * 
+	 * @param rows
+	 *            rows
+	 * @param transactionLimit
+	 *            rows per committed transaction
+	 * @param progress
+	 *            progress tracker, may be null
+	 * @return inserted row ids
+	 * @since 4.0.1
+	 */
+	public long[] insert(Iterator<TRow> rows, int transactionLimit,
+			GeoPackageProgress progress) {
+		return insert(rows, transactionLimit, transactionLimit, progress);
+	}
+
+	/**
+	 * Insert the rows in transaction chunks, each row inserted with
+	 * {@link #insertBatchRow(UserCoreRow)} between {@link #beginBatchInsert()}
+	 * and {@link #endBatchInsert()}
+	 * 
+	 * @param rows
+	 *            rows
+	 * @param capacity
+	 *            initial id array capacity
+	 * @param transactionLimit
+	 *            rows per committed transaction
+	 * @param progress
+	 *            progress tracker, may be null
+	 * @return inserted row ids
+	 */
+	private long[] insert(Iterator<TRow> rows, int capacity,
+			int transactionLimit, GeoPackageProgress progress) {
+		beginBatchInsert();
+		try {
+			return writeBatch(rows, capacity, transactionLimit, progress,
+					"insert", false, true, this::insertBatchRow);
+		} finally {
+			endBatchInsert();
+		}
+	}
+
+	/**
+	 * Batch row writer
+	 * 
+	 * @param <R>
+	 *            row type
+	 */
+	private interface BatchRowWriter<R> {
+
+		/**
+		 * Write the row
+		 * 
+		 * @param row
+		 *            row
+		 * @return write result, such as a row id or written count
+		 */
+		long write(R row);
+
+	}
+
+	/**
+	 * Write the rows in transaction chunks. When not already within a
+	 * transaction, a transaction is begun and committed every transaction
+	 * limit rows. When called within a caller managed transaction, the
+	 * transaction is left to the caller.
+	 * 
+	 * A cancelled progress stops the write, rolling back the current
+	 * uncommitted chunk when the progress requests cleanup. Returned results
+	 * exclude rolled back rows. When resetting ids, rows of a rolled back
+	 * chunk that were written without an id have the assigned id reset. The
+	 * cached query results are invalidated with
+	 * the exact number of rows changed by the executed writes, including
+	 * rolled back rows, as counted by the connection total changes.
+	 * 
+	 * @param rows
+	 *            rows
+	 * @param capacity
+	 *            initial result array capacity
+	 * @param transactionLimit
+	 *            rows per committed transaction
+	 * @param progress
+	 *            progress tracker, may be null
+	 * @param operation
+	 *            operation name for errors
+	 * @param changeResults
+	 *            true if the write results are changed row counts, false
+	 *            when each written row is a single changed row
+	 * @param resetIds
+	 *            true to reset the ids assigned to rolled back rows
+	 * @param writer
+	 *            row writer
+	 * @return row write results
+	 */
+	private long[] writeBatch(Iterator<TRow> rows, int capacity,
+			int transactionLimit, GeoPackageProgress progress,
+			String operation, boolean changeResults, boolean resetIds,
+			BatchRowWriter<TRow> writer) {
+
+		if (transactionLimit < 1) {
+			throw new GeoPackageException(
+					"Transaction limit must be positive. Limit: "
+							+ transactionLimit);
+		}
+
+		long[] results = new long[Math.max(capacity, 1)];
+		List<TRow> assigned = new ArrayList<>();
+		int count = 0;
+		int committed = 0;
+		long changes = 0;
+
+		long start = db.metricsStart();
+		long transactionStart = 0;
+		boolean transaction = !inTransaction();
+		if (transaction) {
+			beginTransaction();
+			transactionStart = db.metricsStart();
+		}
+		try {
+
+			while (rows.hasNext()) {
+
+				if (progress != null && !progress.isActive()) {
+					if (transaction && progress.cleanupOnCancel()) {
+						failTransaction();
+						db.recordTransaction(transactionStart, false);
+						resetIds(assigned);
+						beginTransaction();
+						transactionStart = db.metricsStart();
+						count = committed;
+					}
+					break;
+				}
+
+				TRow row = rows.next();
+				boolean assignId = resetIds && transaction && row.hasIdColumn()
+						&& !row.hasId();
+				long result = writer.write(row);
+				if (assignId) {
+					assigned.add(row);
+				}
+				changes += changeResults ? result : 1;
+				if (count == results.length) {
+					results = Arrays.copyOf(results, results.length * 2);
+				}
+				results[count++] = result;
+
+				if (progress != null) {
+					progress.addProgress(1);
+				}
+
+				if (count % transactionLimit == 0 && transaction) {
+					endAndBeginTransaction();
+					db.recordTransaction(transactionStart, true);
+					transactionStart = db.metricsStart();
+					committed = count;
+					assigned.clear();
+				}
+			}
+
+		} catch (RuntimeException e) {
+			if (transaction) {
+				failTransaction();
+				db.recordTransaction(transactionStart, false);
+				resetIds(assigned);
+				transaction = false;
+			}
+			throw new GeoPackageException("Failed to " + operation
+					+ " rows. Table: " + getTableName() + ", Committed: "
+					+ committed, e);
+		} finally {
+			if (transaction) {
+				endTransaction();
+				db.recordTransaction(transactionStart, true);
+			}
+			invalidateResults(changes);
+		}
+
+		if (count < results.length) {
+			results = Arrays.copyOf(results, count);
+		}
+
+		db.recordWrite(start, getTableName(), "batch " + operation, count);
+
+		return results;
+	}
+
+	/**
+	 * Reset the ids assigned to rolled back rows
+	 * 
+	 * @param rows
+	 *            rolled back rows with assigned ids
+	 */
+	private void resetIds(List<TRow> rows) {
+		for (TRow row : rows) {
+			row.resetId();
+		}
+		rows.clear();
+	}
+
+	/**
+	 * Begin a batch insert, such as compiling a reusable insert statement.
+	 * Implementations override together with
+	 * {@link #insertBatchRow(UserCoreRow)} and {@link #endBatchInsert()}.
+	 * 
+	 * @since 4.0.1
+	 */
+	protected void beginBatchInsert() {
+	}
+
+	/**
+	 * Insert a row of a batch insert. Default implementation on connections
+	 * with compiled statements binds the row values, excluding a null primary
+	 * key, to a leased insert statement with
+	 * {@link GeoPackageCoreConnection#executeInsert(String, Object[])}, reused
+	 * by rows writing the same columns, and sets the inserted id on the row.
+	 * Other connections insert the row with {@link #insert(UserCoreRow)}.
+	 * 
+	 * @param row
+	 *            row
+	 * @return row id
+	 * @since 4.0.1
+	 */
+	protected long insertBatchRow(TRow row) {
+		if (!db.hasCompiledStatements()) {
+			long id = insert(row);
+			row.resetModified();
+			return id;
+		}
+		String[] columns = getBatchColumns(row);
+		long id = db.executeInsert(buildInsertSQL(columns),
+				getBatchValues(row, columns.length));
+		if (row.hasIdColumn()) {
+			row.setId(id, true);
+		}
+		row.resetModified();
+		return id;
+	}
+
+	/**
+	 * End a batch insert, such as closing a reusable insert statement. Called
+	 * after a completed, cancelled, or failed batch insert.
+	 * 
+	 * @since 4.0.1
+	 */
+	protected void endBatchInsert() {
+	}
+
+	/**
+	 * Upsert the rows in transaction chunks of
+	 * {@link #DEFAULT_INSERT_TRANSACTION_LIMIT} rows, inserting new rows and
+	 * updating rows conflicting on the conflict columns. Requires SQLite
+	 * 3.24.0 or later.
+	 * 
+	 * @param rows
+	 *            rows
+	 * @param conflictColumns
+	 *            unique or primary key conflict columns, the primary key when
+	 *            none
+	 * @return number of rows written
+	 * @since 4.0.1
+	 */
+	public int upsert(Collection<TRow> rows, String... conflictColumns) {
+		return upsert(rows, DEFAULT_INSERT_TRANSACTION_LIMIT, null,
+				conflictColumns);
+	}
+
+	/**
+	 * Upsert the rows in transaction chunks, inserting new rows and updating
+	 * rows conflicting on the conflict columns. Rows without an id are
+	 * inserted with a generated id which is not set on the row. Requires
+	 * SQLite 3.24.0 or later.
+	 * 
+	 * @param rows
+	 *            rows
+	 * @param transactionLimit
+	 *            rows per committed transaction
+	 * @param progress
+	 *            progress tracker, may be null
+	 * @param conflictColumns
+	 *            unique or primary key conflict columns, the primary key when
+	 *            none, required when the table has no primary key
+	 * @return number of rows written
+	 * @since 4.0.1
+	 */
+	public int upsert(Collection<TRow> rows, int transactionLimit,
+			GeoPackageProgress progress, String... conflictColumns) {
+		final String[] conflicts;
+		if (conflictColumns != null && conflictColumns.length > 0) {
+			conflicts = conflictColumns;
+		} else if (table.hasPkColumn()) {
+			conflicts = new String[] { table.getPkColumnName() };
+		} else {
+			throw new GeoPackageException(
+					"Upsert conflict columns are required for tables without a primary key. Table: "
+							+ getTableName());
+		}
+		return sum(writeBatch(rows.iterator(), rows.size(), transactionLimit,
+				progress, "upsert", true, false,
+				row -> upsertBatchRow(row, conflicts)));
+	}
+
+	/**
+	 * Upsert a row of a batch upsert, executed with
+	 * {@link GeoPackageCoreConnection#executeUpdate(String, Object[])} on a
+	 * leased statement of the upsert SQL
+	 * 
+	 * @param row
+	 *            row
+	 * @param conflictColumns
+	 *            conflict columns
+	 * @return number of rows written, 0 when a conflict does nothing
+	 * @since 4.0.1
+	 */
+	protected long upsertBatchRow(TRow row, String[] conflictColumns) {
+
+		String[] columns = getBatchColumns(row);
+		int written = db.executeUpdate(
+				buildUpsertSQL(columns, conflictColumns),
+				getBatchValues(row, columns.length));
+		row.resetModified();
+		if (row.hasId() && conflictColumns.length == 1
+				&& conflictColumns[0].equals(table.getPkColumnName())) {
+			invalidateRowCache(row.getId());
+		} else {
+			clearRowCache();
+		}
+
+		return written;
+	}
+
+	/**
+	 * Update the modified columns of the rows in transaction chunks of
+	 * {@link #DEFAULT_INSERT_TRANSACTION_LIMIT} rows
+	 * 
+	 * @param rows
+	 *            rows with ids
+	 * @return number of rows written, excluding unmodified rows
+	 * @since 4.0.1
+	 */
+	public int update(Collection<TRow> rows) {
+		return update(rows, DEFAULT_INSERT_TRANSACTION_LIMIT, null);
+	}
+
+	/**
+	 * Update the modified columns of the rows in transaction chunks. Only
+	 * values set since a row was read or last written are updated, rows
+	 * without modified values are skipped.
+	 * 
+	 * @param rows
+	 *            rows with ids
+	 * @param transactionLimit
+	 *            rows per committed transaction
+	 * @param progress
+	 *            progress tracker, may be null
+	 * @return number of rows written, excluding unmodified rows
+	 * @since 4.0.1
+	 */
+	public int update(Collection<TRow> rows, int transactionLimit,
+			GeoPackageProgress progress) {
+		return sum(writeBatch(rows.iterator(), rows.size(), transactionLimit,
+				progress, "update", true, false, this::updateBatchRow));
+	}
+
+	/**
+	 * Update the modified columns of a row of a batch update, executed with
+	 * {@link GeoPackageCoreConnection#executeUpdate(String, Object[])} on a
+	 * leased statement of the update SQL
+	 * 
+	 * @param row
+	 *            row with an id
+	 * @return number of rows written, 0 when not modified or not found
+	 * @since 4.0.1
+	 */
+	protected long updateBatchRow(TRow row) {
+
+		if (!row.hasId()) {
+			throw new GeoPackageException(
+					"Batch updated rows require an id. Table: "
+							+ getTableName());
+		}
+
+		long written = 0;
+
+		int pkIndex = row.getPkColumnIndex();
+		int[] modified = row.getModifiedIndices();
+		int columnCount = 0;
+		for (int index : modified) {
+			if (index != pkIndex) {
+				columnCount++;
+			}
+		}
+
+		if (columnCount > 0) {
+
+			String[] columns = new String[columnCount];
+			Object[] args = new Object[columnCount + 1];
+			int argIndex = 0;
+			for (int index : modified) {
+				if (index != pkIndex) {
+					TColumn column = row.getColumn(index);
+					columns[argIndex] = column.getName();
+					args[argIndex++] = getBatchValue(column,
+							row.getValue(index));
+				}
+			}
+			args[argIndex] = row.getId();
+
+			written = db.executeUpdate(buildUpdateSQL(columns), args);
+			invalidateRowCache(row.getId());
+		}
+
+		row.resetModified();
+
+		return written;
+	}
+
+	/**
+	 * Get the batch insert or upsert columns of the row, all columns except a
+	 * null primary key
+	 * 
+	 * @param row
+	 *            row
+	 * @return column names
+	 */
+	private String[] getBatchColumns(TRow row) {
+		int pkIndex = row.getPkColumnIndex();
+		boolean excludePk = pkIndex >= 0 && row.getValue(pkIndex) == null;
+		String[] columns = new String[row.columnCount()
+				- (excludePk ? 1 : 0)];
+		int index = 0;
+		for (int i = 0; i < row.columnCount(); i++) {
+			if (i != pkIndex || !excludePk) {
+				columns[index++] = row.getColumnName(i);
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Get the batch insert or upsert bind values of the row, matching
+	 * {@link #getBatchColumns(UserCoreRow)}
+	 * 
+	 * @param row
+	 *            row
+	 * @param count
+	 *            number of batch columns
+	 * @return bind values
+	 */
+	private Object[] getBatchValues(TRow row, int count) {
+		boolean excludePk = count < row.columnCount();
+		int pkIndex = row.getPkColumnIndex();
+		Object[] values = new Object[count];
+		int index = 0;
+		for (int i = 0; i < row.columnCount(); i++) {
+			if (i != pkIndex || !excludePk) {
+				values[index++] = getBatchValue(row.getColumn(i),
+						row.getValue(i));
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Get the row value to bind in a batch write
+	 * 
+	 * @param column
+	 *            column
+	 * @param value
+	 *            row value
+	 * @return bind value
+	 * @since 4.0.1
+	 */
+	protected Object getBatchValue(TColumn column, Object value) {
+		Object batchValue = value;
+		if (value instanceof Date) {
+			batchValue = DateConverter.converter(column.getDataType())
+					.stringValue((Date) value);
+		} else if (value instanceof GeoPackageGeometryData) {
+			batchValue = ((GeoPackageGeometryData) value).encode();
+		}
+		return batchValue;
+	}
+
+	/**
+	 * Build the upsert SQL for the columns with a bind parameter per column,
+	 * updating all non conflict columns on conflict
+	 * 
+	 * @param columns
+	 *            column names
+	 * @param conflictColumns
+	 *            conflict column names
+	 * @return upsert SQL
+	 * @since 4.0.1
+	 */
+	public String buildUpsertSQL(String[] columns, String[] conflictColumns) {
+
+		StringBuilder sql = new StringBuilder(buildInsertSQL(columns));
+
+		sql.append(" ON CONFLICT (");
+		for (int i = 0; i < conflictColumns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(CoreSQLUtils.quoteWrap(conflictColumns[i]));
+		}
+		sql.append(") DO ");
+
+		List<String> conflicts = Arrays.asList(conflictColumns);
+		String pkColumn = table.hasPkColumn() ? table.getPkColumnName() : null;
+		StringBuilder set = new StringBuilder();
+		for (String column : columns) {
+			if (!conflicts.contains(column) && !column.equals(pkColumn)) {
+				if (set.length() > 0) {
+					set.append(", ");
+				}
+				String quoted = CoreSQLUtils.quoteWrap(column);
+				set.append(quoted).append(" = excluded.").append(quoted);
+			}
+		}
+
+		if (set.length() > 0) {
+			sql.append("UPDATE SET ").append(set);
+		} else {
+			sql.append("NOTHING");
+		}
+
+		return sql.toString();
+	}
+
+	/**
+	 * Build the insert SQL for the columns with a bind parameter per column
+	 * 
+	 * @param columns
+	 *            column names
+	 * @return insert SQL
+	 */
+	private String buildInsertSQL(String[] columns) {
+		StringBuilder sql = new StringBuilder("INSERT INTO ");
+		sql.append(CoreSQLUtils.quoteWrap(getTableName()));
+		sql.append(" (");
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(CoreSQLUtils.quoteWrap(columns[i]));
+		}
+		sql.append(") VALUES (");
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append("?");
+		}
+		sql.append(")");
+		return sql.toString();
+	}
+
+	/**
+	 * Build the primary key update SQL for the columns with a bind parameter
+	 * per column followed by the id bind parameter
+	 * 
+	 * @param columns
+	 *            column names
+	 * @return update SQL
+	 * @since 4.0.1
+	 */
+	public String buildUpdateSQL(String[] columns) {
+		StringBuilder sql = new StringBuilder("UPDATE ");
+		sql.append(CoreSQLUtils.quoteWrap(getTableName()));
+		sql.append(" SET ");
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(CoreSQLUtils.quoteWrap(columns[i]));
+			sql.append(" = ?");
+		}
+		sql.append(" WHERE ");
+		sql.append(CoreSQLUtils.quoteWrap(table.getPkColumnName()));
+		sql.append(" = ?");
+		return sql.toString();
+	}
+
+	/**
+	 * Sum the batch write results
+	 * 
+	 * @param results
+	 *            write results
+	 * @return sum
+	 */
+	private static int sum(long[] results) {
+		int sum = 0;
+		for (long result : results) {
+			sum += result;
+		}
+		return sum;
+	}
+
+	/**
+	 * Get the primary key where clause
+	 * 
+	 * @param id
+	 *            id
+	 * @return primary key where clause
+	 */
+	protected String getPkWhere(long id) {
+		return buildWhere(table.getPkColumn().getName(), id);
+	}
+
+	/**
+	 * Get the primary key where args
+	 * 
+	 * @param id
+	 *            id
+	 * @return primary key where args
+	 */
+	protected String[] getPkWhereArgs(long id) {
+		return buildWhereArgs(id);
+	}
+
+	/**
+	 * Build where (or selection) statement from the fields
+	 * 
+	 * @param fields
+	 *            fields
+	 * @return where clause
+	 */
+	public String buildWhere(Set<Map.Entry<String, Object>> fields) {
+		StringBuilder selection = new StringBuilder();
+		for (Map.Entry<String, Object> field : fields) {
+			if (selection.length() > 0) {
+				selection.append(" AND ");
+			}
+			selection.append(buildWhere(field.getKey(), field.getValue()));
+		}
+		return selection.toString();
+	}
+
+	/**
+	 * Build where (or selection) statement from the fields
+	 * 
+	 * @param fields
+	 *            fields
+	 * @return where clause
+	 */
+	public String buildValueWhere(Set<Map.Entry<String, ColumnValue>> fields) {
+		StringBuilder selection = new StringBuilder();
+		for (Map.Entry<String, ColumnValue> field : fields) {
+			if (selection.length() > 0) {
+				selection.append(" AND ");
+			}
 			selection.append(buildWhere(field.getKey(), field.getValue()));
 		}
 		return selection.toString();
@@ -4050,12 +6110,38 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	}
 
 	/**
-	 * Get the total count
+	 * Get the total count, the trigger maintained count when
+	 * {@link #setMaintainedCount(boolean)} is enabled and the table has the
+	 * {@link RowCountExtension}
 	 * 
 	 * @return count
 	 */
 	public int count() {
-		return count(null, null, null);
+		Long count = maintainedCount ? countMaintained() : null;
+		return count != null ? count.intValue() : count(null, null, null);
+	}
+
+	/**
+	 * Get the row count maintained by the {@link RowCountExtension} insert
+	 * and delete triggers with a single primary key lookup. The count is
+	 * transactional and includes writes from all connections.
+	 * 
+	 * @return row count, null when the table does not have the extension
+	 * @since 4.0.1
+	 */
+	public Long countMaintained() {
+		return RowCountExtension.getCount(db, getTableName());
+	}
+
+	/**
+	 * Get an approximate row count for uses only needing the magnitude, see
+	 * {@link GeoPackageCoreConnection#countApproximate(String)}
+	 * 
+	 * @return approximate row count
+	 * @since 4.0.1
+	 */
+	public long countApproximate() {
+		return db.countApproximate(getTableName());
 	}
 
 	/**
@@ -4171,7 +6257,222 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 */
 	public int count(boolean distinct, String column, String where,
 			String[] args) {
-		return db.count(getTableName(), distinct, column, where, args);
+		int count = 0;
+		Number value = db.cachedAggregateFunction("COUNT", getTableName(),
+				distinct, column, where, args);
+		if (value != null) {
+			count = value.intValue();
+		}
+		return count;
+	}
+
+	/**
+	 * Create an aggregate query computing multiple aggregate functions, such
+	 * as counts, mins, maxes, sums, and averages of several columns, in a
+	 * single scan of the table
+	 * 
+	 * @return aggregate query
+	 * @since 4.0.1
+	 */
+	public AggregateQuery aggregate() {
+		return db.aggregate(getTableName());
+	}
+
+	/**
+	 * Get the reader DAO supplier of asynchronous queries
+	 * 
+	 * @return reader DAO supplier, null when not set
+	 * @since 4.0.1
+	 */
+	public Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> getReaderDaos() {
+		return readerDaos;
+	}
+
+	/**
+	 * Set the reader DAO supplier of asynchronous queries, required by the
+	 * asynchronous reads. The supplier is called by each read on the reader
+	 * thread and must return a DAO of the table on a connection that is not
+	 * used concurrently by other threads, such as a connection confined to
+	 * the reader thread. This DAO is never read from the reader threads.
+	 * Supplied DAOs are not closed by the reads.
+	 * 
+	 * @param readerDaos
+	 *            reader DAO supplier, or null to disable asynchronous reads
+	 * @since 4.0.1
+	 */
+	public void setReaderDaos(
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> readerDaos) {
+		this.readerDaos = readerDaos;
+	}
+
+	/**
+	 * Run the read of a reader DAO on the connection reader executor, see
+	 * {@link #setReaderDaos(Supplier)} and
+	 * {@link GeoPackageCoreConnection#setReaderExecutor(java.util.concurrent.Executor)}
+	 * 
+	 * @param <T>
+	 *            result type
+	 * @param read
+	 *            read operation of a reader DAO
+	 * @return future result
+	 * @since 4.0.1
+	 */
+	public <T> CompletableFuture<T> supplyAsync(
+			Function<? super UserCoreDao<TColumn, TTable, TRow, TResult>, T> read) {
+		Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos = readerDaos;
+		if (daos == null) {
+			throw new GeoPackageException(
+					"Asynchronous reads require reader DAOs, see setReaderDaos. Table: "
+							+ getTableName());
+		}
+		return CompletableFuture.supplyAsync(() -> read.apply(daos.get()),
+				db.getReaderExecutor());
+	}
+
+	/**
+	 * Get the total count on the reader executor
+	 * 
+	 * @return future count
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<Integer> countAsync() {
+		return countAsync(null, null);
+	}
+
+	/**
+	 * Get the count on the reader executor
+	 * 
+	 * @param where
+	 *            where clause
+	 * @param args
+	 *            where arguments
+	 * @return future count
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<Integer> countAsync(String where,
+			String[] args) {
+		return supplyAsync((reader) -> reader.count(where, args));
+	}
+
+	/**
+	 * Query for the row with the provided id on the reader executor
+	 * 
+	 * @param id
+	 *            id
+	 * @return future row, null if not found
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<TRow> queryForIdRowAsync(long id) {
+		return supplyAsync((reader) -> reader.queryForIdRow(id));
+	}
+
+	/**
+	 * Query for all rows on the reader executor
+	 * 
+	 * @return future rows
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<List<TRow>> queryForAllRowsAsync() {
+		return queryForRowsAsync(null, null);
+	}
+
+	/**
+	 * Query for rows on the reader executor, reading all rows before
+	 * completing
+	 * 
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return future rows
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<List<TRow>> queryForRowsAsync(String where,
+			String[] whereArgs) {
+		return queryForRowsAsync(false, table.getColumnNames(), where,
+				whereArgs, null, null, null, null);
+	}
+
+	/**
+	 * Query for rows on the reader executor, reading all rows before
+	 * completing
+	 * 
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param groupBy
+	 *            group by
+	 * @param having
+	 *            having
+	 * @param orderBy
+	 *            order by
+	 * @param limit
+	 *            limit
+	 * @return future rows
+	 * @since 4.0.1
+	 */
+	public CompletableFuture<List<TRow>> queryForRowsAsync(boolean distinct,
+			String[] columns, String where, String[] whereArgs,
+			String groupBy, String having, String orderBy, String limit) {
+		return supplyAsync((reader) -> reader.readRows(distinct, columns,
+				where, whereArgs, groupBy, having, orderBy, limit));
+	}
+
+	/**
+	 * Query for and read all rows
+	 * 
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param groupBy
+	 *            group by
+	 * @param having
+	 *            having
+	 * @param orderBy
+	 *            order by
+	 * @param limit
+	 *            limit
+	 * @return rows
+	 */
+	private List<TRow> readRows(boolean distinct, String[] columns,
+			String where, String[] whereArgs, String groupBy, String having,
+			String orderBy, String limit) {
+		List<TRow> rows = new ArrayList<>();
+		long blobBytes = 0;
+		long start = db.metricsStart();
+		TResult result = queryResult(distinct, columns, where, whereArgs,
+				groupBy, having, orderBy, limit);
+		try {
+			boolean metrics = db.isMetricsEnabled();
+			UserRowDecoder<TColumn> decoder = new UserRowDecoder<>(
+					result.getColumns());
+			while (result.moveToNext()) {
+				TRow row = result.getRow(decoder);
+				rows.add(row);
+				if (metrics) {
+					blobBytes += blobBytes(row);
+				}
+			}
+			recordQuery(start, distinct, columns, where, groupBy, having,
+					orderBy);
+			if (metrics) {
+				recordRows(distinct, columns, where, groupBy, having,
+						orderBy, rows.size(), blobBytes);
+			}
+		} finally {
+			result.close();
+		}
+		return rows;
 	}
 
 	/**
@@ -4203,7 +6504,8 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 * @since 4.0.0
 	 */
 	public <T> T min(String column, String where, String[] args) {
-		return db.min(getTableName(), column, where, args);
+		return db.cachedAggregateFunction("MIN", getTableName(), false, column,
+				where, args);
 	}
 
 	/**
@@ -4235,7 +6537,8 @@ public abstract class UserCoreDao<TColumn extends UserColumn, TTable extends Use
 	 * @since 4.0.0
 	 */
 	public <T> T max(String column, String where, String[] args) {
-		return db.max(getTableName(), column, where, args);
+		return db.cachedAggregateFunction("MAX", getTableName(), false, column,
+				where, args);
 	}
 
 	/**
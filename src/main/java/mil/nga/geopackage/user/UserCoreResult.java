@@ -95,6 +95,23 @@ public interface UserCoreResult<TColumn extends UserColumn, TTable extends UserT
 	 */
 	public TRow getRow();
 
+	/**
+	 * Get the row at the current cursor position, reading the values with the
+	 * compiled column decoders of the row decoder
+	 * 
+	 * @param decoder
+	 *            row decoder for the result columns
+	 * @return row
+	 * @since 4.0.1
+	 */
+	public default TRow getRow(UserRowDecoder<TColumn> decoder) {
+		int columnCount = decoder.getColumns().columnCount();
+		int[] columnTypes = new int[columnCount];
+		Object[] values = new Object[columnCount];
+		decoder.decode(this, columnTypes, values);
+		return getRow(columnTypes, values);
+	}
+
 	/**
 	 * Get the count of results
 	 * 
@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Set;
 
 import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.DateConverter;
 import mil.nga.geopackage.db.GeoPackageDataType;
 
 /**
@@ -42,6 +43,11 @@ public abstract class UserCoreRow<TColumn extends UserColumn, TTable extends Use
 	 */
 	protected final Object[] values;
 
+	/**
+	 * Modified column value flags, null until a value is set
+	 */
+	private boolean[] modified;
+
 	/**
 	 * Constructor
 	 * 
@@ -96,6 +102,10 @@ public abstract class UserCoreRow<TColumn extends UserColumn, TTable extends Use
 				this.values[i] = copyValue(column, value);
 			}
 		}
+		if (userCoreRow.modified != null) {
+			this.modified = Arrays.copyOf(userCoreRow.modified,
+					userCoreRow.modified.length);
+		}
 	}
 
 	/**
@@ -252,6 +262,45 @@ public abstract class UserCoreRow<TColumn extends UserColumn, TTable extends Use
 		return getValueString(columns.getColumnIndex(columnName));
 	}
 
+	/**
+	 * Get the date value at the index as epoch milliseconds, from a date,
+	 * epoch milliseconds number, or formatted string date of the column data
+	 * type
+	 * 
+	 * @param index
+	 *            index
+	 * @return epoch milliseconds or null
+	 * @since 4.0.1
+	 */
+	public Long getEpochMillis(int index) {
+		Long epochMillis = null;
+		Object value = getValue(index);
+		if (value instanceof Date) {
+			epochMillis = ((Date) value).getTime();
+		} else if (value instanceof Number) {
+			epochMillis = ((Number) value).longValue();
+		} else if (value != null) {
+			epochMillis = DateConverter
+					.converter(getColumn(index).getDataType())
+					.epochMillis(value.toString());
+		}
+		return epochMillis;
+	}
+
+	/**
+	 * Get the date value of the column name as epoch milliseconds, from a
+	 * date, epoch milliseconds number, or formatted string date of the column
+	 * data type
+	 * 
+	 * @param columnName
+	 *            column name
+	 * @return epoch milliseconds or null
+	 * @since 4.0.1
+	 */
+	public Long getEpochMillis(String columnName) {
+		return getEpochMillis(columns.getColumnIndex(columnName));
+	}
+
 	/**
 	 * Get the row values
 	 * 
@@ -441,6 +490,92 @@ public abstract class UserCoreRow<TColumn extends UserColumn, TTable extends Use
 							+ ", Name: " + table.getPkColumnName());
 		}
 		values[index] = value;
+		if (modified == null) {
+			modified = new boolean[values.length];
+		}
+		modified[index] = true;
+	}
+
+	/**
+	 * Determine if any column value has been set since the row was created,
+	 * read, or last reset
+	 * 
+	 * @return true if modified
+	 * @since 4.0.1
+	 */
+	public boolean isModified() {
+		boolean isModified = false;
+		if (modified != null) {
+			for (boolean columnModified : modified) {
+				if (columnModified) {
+					isModified = true;
+					break;
+				}
+			}
+		}
+		return isModified;
+	}
+
+	/**
+	 * Determine if the column value at the index has been set since the row
+	 * was created, read, or last reset
+	 * 
+	 * @param index
+	 *            index
+	 * @return true if modified
+	 * @since 4.0.1
+	 */
+	public boolean isModified(int index) {
+		return modified != null && modified[index];
+	}
+
+	/**
+	 * Determine if the column value of the column name has been set since the
+	 * row was created, read, or last reset
+	 * 
+	 * @param columnName
+	 *            column name
+	 * @return true if modified
+	 * @since 4.0.1
+	 */
+	public boolean isModified(String columnName) {
+		return isModified(getColumnIndex(columnName));
+	}
+
+	/**
+	 * Get the indices of modified column values
+	 * 
+	 * @return modified column indices
+	 * @since 4.0.1
+	 */
+	public int[] getModifiedIndices() {
+		int count = 0;
+		if (modified != null) {
+			for (boolean columnModified : modified) {
+				if (columnModified) {
+					count++;
+				}
+			}
+		}
+		int[] indices = new int[count];
+		if (count > 0) {
+			int index = 0;
+			for (int i = 0; i < modified.length; i++) {
+				if (modified[i]) {
+					indices[index++] = i;
+				}
+			}
+		}
+		return indices;
+	}
+
+	/**
+	 * Reset the modified column value flags, such as after the row is written
+	 * 
+	 * @since 4.0.1
+	 */
+	public void resetModified() {
+		modified = null;
 	}
 
 	/**
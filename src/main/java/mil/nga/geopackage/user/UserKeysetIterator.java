@@ -0,0 +1,499 @@
+package mil.nga.geopackage.user;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.DateConverter;
+import mil.nga.geopackage.db.GeoPackageCoreConnection;
+import mil.nga.geopackage.db.GeoPackageDataType;
+
+/**
+ * User row iterator paging through a table with keyset (seek) pagination.
+ * Rows are ordered by a key column, the primary key by default, and each page
+ * is queried with a where clause continuing after the last returned key
+ * instead of an offset, so every page costs the same regardless of depth.
+ * Only a single page result is open at a time.
+ *
+ * When ordering on a non primary key column, the primary key breaks ties
+ * between equal key values and rows with a null key value are not returned.
+ * Tables without a primary key require a key column with a single column
+ * unique index, as equal key values could not be continued across pages.
+ * The last key and id can be saved and later passed to
+ * {@link #seek(Object, Long)} to resume iteration. Keys are the stored
+ * column values, date and date time keys are the stored text values. Blob
+ * key columns are not supported.
+ *
+ * @param <TColumn>
+ *            column type
+ * @param <TTable>
+ *            table type
+ * @param <TRow>
+ *            row type
+ * @param <TResult>
+ *            result type
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class UserKeysetIterator<TColumn extends UserColumn, TTable extends UserTable<TColumn>, TRow extends UserCoreRow<TColumn, TTable>, TResult extends UserCoreResult<TColumn, TTable, TRow>>
+		implements Iterator<TRow>, Iterable<TRow>, Closeable {
+
+	/**
+	 * User DAO
+	 */
+	private final UserCoreDao<TColumn, TTable, TRow, TResult> dao;
+
+	/**
+	 * Distinct rows
+	 */
+	private final boolean distinct;
+
+	/**
+	 * Query columns
+	 */
+	private final String[] columns;
+
+	/**
+	 * Where clause
+	 */
+	private final String where;
+
+	/**
+	 * Where arguments
+	 */
+	private final String[] whereArgs;
+
+	/**
+	 * Key column name
+	 */
+	private final String keyColumn;
+
+	/**
+	 * Key column data type
+	 */
+	private final GeoPackageDataType keyDataType;
+
+	/**
+	 * True when the key is read as the stored date or date time text instead
+	 * of the converted date
+	 */
+	private final boolean textKey;
+
+	/**
+	 * Primary key column name when breaking key ties, null when ordering by
+	 * the primary key
+	 */
+	private final String tieColumn;
+
+	/**
+	 * Page size limit
+	 */
+	private final int limit;
+
+	/**
+	 * Last returned key value
+	 */
+	private Object lastKey;
+
+	/**
+	 * Last returned row id
+	 */
+	private Long lastId;
+
+	/**
+	 * Current page result
+	 */
+	private TResult result;
+
+	/**
+	 * Row decoder of the page results
+	 */
+	private UserRowDecoder<TColumn> decoder;
+
+	/**
+	 * Rows read from the current page
+	 */
+	private int pageRows;
+
+	/**
+	 * Blob bytes read from the current page, when metrics are enabled
+	 */
+	private long pageBlobBytes;
+
+	/**
+	 * Current page query start nanoseconds, 0 once recorded or when not
+	 * measured
+	 */
+	private long pageStart;
+
+	/**
+	 * Where clause of the current page
+	 */
+	private String pageWhere;
+
+	/**
+	 * Order by of the current page
+	 */
+	private String pageOrderBy;
+
+	/**
+	 * Key column index of the current page result, when reading text keys
+	 */
+	private int keyIndex;
+
+	/**
+	 * Next row to return
+	 */
+	private TRow nextRow;
+
+	/**
+	 * Stored key value of the next row
+	 */
+	private Object nextKey;
+
+	/**
+	 * All pages have been read
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dao
+	 *            user DAO
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param keyColumn
+	 *            indexed key column to order and page by, null for the
+	 *            primary key
+	 * @param limit
+	 *            page size limit
+	 */
+	public UserKeysetIterator(UserCoreDao<TColumn, TTable, TRow, TResult> dao,
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, String keyColumn, int limit) {
+
+		if (limit < 1) {
+			throw new GeoPackageException(
+					"Keyset page limit must be positive. Limit: " + limit);
+		}
+
+		TTable table = dao.getTable();
+		String pkColumn = table.hasPkColumn() ? table.getPkColumnName()
+				: null;
+		if (keyColumn == null) {
+			if (pkColumn == null) {
+				throw new GeoPackageException(
+						"Keyset iteration requires a key column for a table without a primary key. Table: "
+								+ dao.getTableName());
+			}
+			keyColumn = pkColumn;
+		}
+
+		this.dao = dao;
+		this.distinct = distinct;
+		this.where = where;
+		this.whereArgs = whereArgs;
+		this.keyColumn = keyColumn;
+		this.keyDataType = table.getColumn(keyColumn).getDataType();
+		if (keyDataType == GeoPackageDataType.BLOB) {
+			throw new GeoPackageException(
+					"Keyset iteration does not support blob key columns. Table: "
+							+ dao.getTableName() + ", Key Column: "
+							+ keyColumn);
+		}
+		this.textKey = keyDataType == GeoPackageDataType.DATE
+				|| keyDataType == GeoPackageDataType.DATETIME;
+		this.tieColumn = pkColumn != null && !pkColumn.equals(keyColumn)
+				? pkColumn
+				: null;
+		this.limit = limit;
+
+		if (pkColumn == null && !isUnique(dao, keyColumn)) {
+			throw new GeoPackageException(
+					"Keyset iteration of a table without a primary key requires a unique key column. Table: "
+							+ dao.getTableName() + ", Key Column: "
+							+ keyColumn);
+		}
+
+		if (columns == null) {
+			columns = table.getColumnNames();
+		}
+		List<String> queryColumns = new ArrayList<>(Arrays.asList(columns));
+		if (!queryColumns.contains(this.keyColumn)) {
+			queryColumns.add(this.keyColumn);
+		}
+		if (tieColumn != null && !queryColumns.contains(tieColumn)) {
+			queryColumns.add(tieColumn);
+		}
+		this.columns = queryColumns.toArray(new String[queryColumns.size()]);
+	}
+
+	/**
+	 * Determine if the column has a single column unique index, including
+	 * the automatic index of a unique constraint
+	 *
+	 * @param dao
+	 *            user DAO
+	 * @param column
+	 *            column name
+	 * @return true if unique
+	 */
+	private static boolean isUnique(UserCoreDao<?, ?, ?, ?> dao,
+			String column) {
+		boolean unique = false;
+		GeoPackageCoreConnection db = dao.getDb();
+		List<List<Object>> indexes = db.queryResults("PRAGMA index_list("
+				+ CoreSQLUtils.quoteWrap(dao.getTableName()) + ")", null);
+		for (List<Object> index : indexes) {
+			boolean partial = index.size() > 4 && index.get(4) != null
+					&& ((Number) index.get(4)).intValue() != 0;
+			if (((Number) index.get(2)).intValue() != 0 && !partial) {
+				List<List<Object>> indexColumns = db.queryResults(
+						"PRAGMA index_info("
+								+ CoreSQLUtils.quoteWrap((String) index.get(1))
+								+ ")",
+						null);
+				if (indexColumns.size() == 1
+						&& column.equalsIgnoreCase(
+								(String) indexColumns.get(0).get(2))) {
+					unique = true;
+					break;
+				}
+			}
+		}
+		return unique;
+	}
+
+	/**
+	 * Get the key column name
+	 *
+	 * @return key column name
+	 */
+	public String getKeyColumn() {
+		return keyColumn;
+	}
+
+	/**
+	 * Get the page size limit
+	 *
+	 * @return limit
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Get the stored key value of the last returned row, the stored text of
+	 * date and date time keys
+	 *
+	 * @return last key, null before the first row
+	 */
+	public Object getLastKey() {
+		return lastKey;
+	}
+
+	/**
+	 * Get the id of the last returned row
+	 *
+	 * @return last id, null before the first row
+	 */
+	public Long getLastId() {
+		return lastId;
+	}
+
+	/**
+	 * Seek to continue iteration after the key, such as a saved
+	 * {@link #getLastKey()}. Any open page is closed.
+	 *
+	 * @param key
+	 *            key value to continue after, null to start from the
+	 *            beginning
+	 * @param id
+	 *            id to continue after within equal key values when ordering on
+	 *            a non primary key column, null to continue after all rows
+	 *            with the key value
+	 */
+	public void seek(Object key, Long id) {
+		close();
+		nextRow = null;
+		nextKey = null;
+		lastKey = key;
+		lastId = id;
+		finished = false;
+	}
+
+	/**
+	 * Seek to continue iteration after the primary key id, such as a saved
+	 * {@link #getLastId()}
+	 *
+	 * @param id
+	 *            id to continue after
+	 */
+	public void seek(long id) {
+		if (tieColumn != null) {
+			throw new GeoPackageException(
+					"Seek by id requires keyset iteration by the primary key. Key Column: "
+							+ keyColumn);
+		}
+		seek(id, id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<TRow> iterator() {
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNext() {
+		while (nextRow == null && !finished) {
+			if (result == null) {
+				pageStart = dao.metricsStart();
+				result = queryPage();
+				if (decoder == null) {
+					decoder = new UserRowDecoder<>(result.getColumns());
+				}
+				if (textKey) {
+					keyIndex = result.getColumnIndex(keyColumn);
+				}
+				pageRows = 0;
+				pageBlobBytes = 0;
+			}
+			boolean moved = result.moveToNext();
+			if (pageStart != 0) {
+				dao.recordQuery(pageStart, distinct, columns, pageWhere, null,
+						null, pageOrderBy);
+				pageStart = 0;
+			}
+			if (moved) {
+				nextRow = result.getRow(decoder);
+				nextKey = textKey ? result.getString(keyIndex)
+						: nextRow.getValue(keyColumn);
+				pageRows++;
+				if (dao.isMetricsEnabled()) {
+					pageBlobBytes += UserCoreDao.blobBytes(nextRow);
+				}
+			} else {
+				close();
+				finished = pageRows < limit;
+			}
+		}
+		return nextRow != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TRow next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		TRow row = nextRow;
+		nextRow = null;
+		lastKey = nextKey;
+		nextKey = null;
+		if (tieColumn != null) {
+			lastId = row.getId();
+		} else if (lastKey instanceof Number) {
+			lastId = ((Number) lastKey).longValue();
+		}
+		return row;
+	}
+
+	/**
+	 * Close the current page result
+	 */
+	@Override
+	public void close() {
+		if (result != null) {
+			result.close();
+			result = null;
+			dao.recordRows(distinct, columns, pageWhere, null, null,
+					pageOrderBy, pageRows, pageBlobBytes);
+		}
+	}
+
+	/**
+	 * Query the next page continuing after the last key
+	 *
+	 * @return page result
+	 */
+	private TResult queryPage() {
+
+		String quotedKey = CoreSQLUtils.quoteWrap(keyColumn);
+
+		String keyWhere = null;
+		String[] keyArgs = null;
+		if (lastKey != null) {
+			String key = keyArg(lastKey);
+			if (tieColumn != null && lastId != null) {
+				keyWhere = quotedKey + " > ? OR (" + quotedKey + " = ? AND "
+						+ CoreSQLUtils.quoteWrap(tieColumn) + " > ?)";
+				keyArgs = new String[] { key, key, lastId.toString() };
+			} else {
+				keyWhere = quotedKey + " > ?";
+				keyArgs = new String[] { key };
+			}
+		} else if (!keyColumn.equals(dao.getTable().getPkColumnName())) {
+			keyWhere = quotedKey + " IS NOT NULL";
+		}
+
+		pageWhere = where;
+		if (keyWhere != null) {
+			pageWhere = where != null ? "(" + where + ") AND (" + keyWhere + ")"
+					: keyWhere;
+		}
+		String[] pageArgs = dao.buildWhereInArgs(keyArgs, whereArgs);
+
+		pageOrderBy = quotedKey;
+		if (tieColumn != null) {
+			pageOrderBy += ", " + CoreSQLUtils.quoteWrap(tieColumn);
+		}
+
+		return dao.queryResult(distinct, columns, pageWhere, pageArgs, null,
+				null, pageOrderBy, String.valueOf(limit));
+	}
+
+	/**
+	 * Get the where argument for a key value
+	 *
+	 * @param key
+	 *            key value
+	 * @return where argument
+	 */
+	private String keyArg(Object key) {
+		String arg;
+		if (key instanceof byte[]) {
+			throw new GeoPackageException(
+					"Keyset iteration does not support blob keys. Table: "
+							+ dao.getTableName() + ", Key Column: "
+							+ keyColumn);
+		} else if (key instanceof Date) {
+			arg = DateConverter.converter(keyDataType).stringValue((Date) key);
+		} else {
+			arg = key.toString();
+		}
+		return arg;
+	}
+
+}
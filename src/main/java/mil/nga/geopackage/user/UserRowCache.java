@@ -0,0 +1,418 @@
+package mil.nga.geopackage.user;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * User row cache of rows by id, bounded to a max size with least recently
+ * used eviction in lock striped segments. Loading a missing row is performed
+ * once per id with concurrent requests for the same id waiting on the single
+ * load. Cached rows are shared between callers and should be treated as read
+ * only.
+ *
+ * @param <TColumn>
+ *            column type
+ * @param <TTable>
+ *            table type
+ * @param <TRow>
+ *            row type
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class UserRowCache<TColumn extends UserColumn, TTable extends UserTable<TColumn>, TRow extends UserCoreRow<TColumn, TTable>> {
+
+	/**
+	 * Default max number of cached rows
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	/**
+	 * Default number of lock stripes
+	 */
+	public static final int DEFAULT_STRIPES = 16;
+
+	/**
+	 * Least recently used segments
+	 */
+	private final List<Segment<TRow>> segments;
+
+	/**
+	 * In progress row loads
+	 */
+	private final ConcurrentMap<Long, CompletableFuture<TRow>> loading = new ConcurrentHashMap<>();
+
+	/**
+	 * Max number of cached rows
+	 */
+	private final int maxSize;
+
+	/**
+	 * Cache hits
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Cache misses
+	 */
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Row loads
+	 */
+	private final LongAdder loads = new LongAdder();
+
+	/**
+	 * Cache evictions
+	 */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Least recently used segment of cached rows
+	 *
+	 * @param <T>
+	 *            row type
+	 */
+	private static class Segment<T> extends LinkedHashMap<Long, T> {
+
+		/**
+		 * Serial version id
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Max number of cached rows in the segment
+		 */
+		private final int maxSegmentSize;
+
+		/**
+		 * Cache evictions
+		 */
+		private final LongAdder evictions;
+
+		/**
+		 * Constructor
+		 *
+		 * @param maxSegmentSize
+		 *            max number of cached rows in the segment
+		 * @param evictions
+		 *            cache evictions
+		 */
+		Segment(int maxSegmentSize, LongAdder evictions) {
+			super(16, 0.75f, true);
+			this.maxSegmentSize = maxSegmentSize;
+			this.evictions = evictions;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+			boolean remove = size() > maxSegmentSize;
+			if (remove) {
+				evictions.increment();
+			}
+			return remove;
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 */
+	public UserRowCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            max number of cached rows
+	 */
+	public UserRowCache(int maxSize) {
+		this(maxSize, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            max number of cached rows
+	 * @param stripes
+	 *            number of lock stripes, each caching up to an equal share of
+	 *            the max size
+	 */
+	public UserRowCache(int maxSize, int stripes) {
+		if (maxSize < 1) {
+			throw new GeoPackageException(
+					"Row cache max size must be positive. Max Size: "
+							+ maxSize);
+		}
+		this.maxSize = maxSize;
+		int count = Math.max(1, Math.min(stripes, maxSize));
+		segments = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int segmentSize = maxSize / count + (i < maxSize % count ? 1 : 0);
+			segments.add(new Segment<TRow>(segmentSize, evictions));
+		}
+	}
+
+	/**
+	 * Get the max number of cached rows
+	 *
+	 * @return max size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Get the cached row
+	 *
+	 * @param id
+	 *            row id
+	 * @return cached row or null
+	 */
+	public TRow get(long id) {
+		TRow row = getCached(id);
+		if (row != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return row;
+	}
+
+	/**
+	 * Get the cached row or load and cache it. Concurrent requests for the
+	 * same missing id wait on a single load. Null rows are not cached.
+	 *
+	 * @param id
+	 *            row id
+	 * @param loader
+	 *            row loader
+	 * @return row or null
+	 */
+	public TRow get(long id, LongFunction<TRow> loader) {
+
+		TRow row = getCached(id);
+		if (row != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+
+			CompletableFuture<TRow> future = new CompletableFuture<>();
+			CompletableFuture<TRow> existing = loading.putIfAbsent(id,
+					future);
+			if (existing != null) {
+				row = await(id, existing);
+			} else {
+				try {
+					row = getCached(id);
+					if (row == null) {
+						loads.increment();
+						row = loader.apply(id);
+					}
+					future.complete(row);
+				} catch (RuntimeException e) {
+					future.completeExceptionally(e);
+					loading.remove(id, future);
+					throw e;
+				}
+				Segment<TRow> segment = segment(id);
+				synchronized (segment) {
+					// Only cache when not invalidated during the load
+					if (loading.remove(id, future) && row != null) {
+						segment.put(id, row);
+					}
+				}
+			}
+		}
+
+		return row;
+	}
+
+	/**
+	 * Cache the row
+	 *
+	 * @param id
+	 *            row id
+	 * @param row
+	 *            row
+	 */
+	public void put(long id, TRow row) {
+		Segment<TRow> segment = segment(id);
+		synchronized (segment) {
+			segment.put(id, row);
+		}
+	}
+
+	/**
+	 * Invalidate the cached row and any in progress load of it
+	 *
+	 * @param id
+	 *            row id
+	 * @return true if a cached row was removed
+	 */
+	public boolean invalidate(long id) {
+		Segment<TRow> segment = segment(id);
+		synchronized (segment) {
+			loading.remove(id);
+			return segment.remove(id) != null;
+		}
+	}
+
+	/**
+	 * Invalidate all cached rows and in progress loads
+	 */
+	public void clear() {
+		for (Segment<TRow> segment : segments) {
+			synchronized (segment) {
+				Iterator<Long> ids = loading.keySet().iterator();
+				while (ids.hasNext()) {
+					if (segment(ids.next()) == segment) {
+						ids.remove();
+					}
+				}
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of cached rows
+	 *
+	 * @return size
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<TRow> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Get the number of cache hits
+	 *
+	 * @return hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of cache misses
+	 *
+	 * @return misses
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Get the number of row loads
+	 *
+	 * @return loads
+	 */
+	public long getLoads() {
+		return loads.sum();
+	}
+
+	/**
+	 * Get the number of cache evictions
+	 *
+	 * @return evictions
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Get the cache hit rate
+	 *
+	 * @return hit rate between 0.0 and 1.0
+	 */
+	public double getHitRate() {
+		long hitCount = getHits();
+		long requests = hitCount + getMisses();
+		return requests > 0 ? (double) hitCount / requests : 0.0;
+	}
+
+	/**
+	 * Reset the hit, miss, load, and eviction statistics
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		loads.reset();
+		evictions.reset();
+	}
+
+	/**
+	 * Get the cached row without recording statistics
+	 *
+	 * @param id
+	 *            row id
+	 * @return cached row or null
+	 */
+	private TRow getCached(long id) {
+		Segment<TRow> segment = segment(id);
+		synchronized (segment) {
+			return segment.get(id);
+		}
+	}
+
+	/**
+	 * Get the segment of the row id
+	 *
+	 * @param id
+	 *            row id
+	 * @return segment
+	 */
+	private Segment<TRow> segment(long id) {
+		int hash = Long.hashCode(id);
+		hash ^= hash >>> 16;
+		return segments.get((hash & Integer.MAX_VALUE) % segments.size());
+	}
+
+	/**
+	 * Wait for the row load of another request
+	 *
+	 * @param id
+	 *            row id
+	 * @param future
+	 *            row load
+	 * @return row or null
+	 */
+	private TRow await(long id, CompletableFuture<TRow> future) {
+		TRow row = null;
+		try {
+			row = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GeoPackageException(
+					"Interruption waiting for row load. id: " + id, e);
+		} catch (ExecutionException e) {
+			throw new GeoPackageException("Failed to load row. id: " + id,
+					e.getCause());
+		}
+		return row;
+	}
+
+}
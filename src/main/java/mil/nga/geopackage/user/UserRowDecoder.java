@@ -0,0 +1,249 @@
+package mil.nga.geopackage.user;
+
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.Result;
+import mil.nga.geopackage.db.ResultUtils;
+import mil.nga.geopackage.db.ResultValueDecoder;
+
+/**
+ * User row decoder reading user row values from a result with a decoder per
+ * column, compiled from the user column data types and the field types of the
+ * first decoded row. Columns whose first row field type is the storage class
+ * of the column data type are statically typed and read without checking the
+ * field type of each cell, as GeoPackage column values conform to the
+ * declared data type. Other cells of a different field type than the first
+ * row fall back to dynamic decoding.
+ *
+ * @param <TColumn>
+ *            column type
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class UserRowDecoder<TColumn extends UserColumn> {
+
+	/**
+	 * User columns
+	 */
+	private final UserColumns<TColumn> columns;
+
+	/**
+	 * Column data types
+	 */
+	private final GeoPackageDataType[] dataTypes;
+
+	/**
+	 * Column decoders, compiled on the first decoded row
+	 */
+	private ResultValueDecoder[] decoders;
+
+	/**
+	 * Static column field types, compiled on the first decoded row, with
+	 * {@link #DYNAMIC_TYPE} for dynamically typed columns
+	 */
+	private int[] staticTypes;
+
+	/**
+	 * Static field type value of dynamically typed columns
+	 */
+	private static final int DYNAMIC_TYPE = -1;
+
+	/**
+	 * Check the field type of every cell, for tables storing values of other
+	 * storage classes than the declared column data types
+	 */
+	private boolean dynamicTypes = false;
+
+	/**
+	 * Read DATE and DATETIME column values as epoch milliseconds
+	 */
+	private boolean epochMillisDates = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param columns
+	 *            user columns, in result column order
+	 */
+	public UserRowDecoder(UserColumns<TColumn> columns) {
+		this.columns = columns;
+		dataTypes = new GeoPackageDataType[columns.columnCount()];
+		for (int i = 0; i < dataTypes.length; i++) {
+			dataTypes[i] = columns.getColumn(i).getDataType();
+		}
+	}
+
+	/**
+	 * Get the user columns
+	 *
+	 * @return user columns
+	 */
+	public UserColumns<TColumn> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Get the column decoders
+	 *
+	 * @return decoders, null until a row is decoded
+	 */
+	public ResultValueDecoder[] getDecoders() {
+		return decoders;
+	}
+
+	/**
+	 * Is reading DATE and DATETIME column values as {@link Long} epoch
+	 * milliseconds instead of dates enabled
+	 *
+	 * @return true if reading epoch milliseconds
+	 */
+	public boolean isEpochMillisDates() {
+		return epochMillisDates;
+	}
+
+	/**
+	 * Set reading DATE and DATETIME column values as {@link Long} epoch
+	 * milliseconds instead of dates, avoiding a date object per value
+	 *
+	 * @param epochMillisDates
+	 *            true to read epoch milliseconds
+	 */
+	public void setEpochMillisDates(boolean epochMillisDates) {
+		this.epochMillisDates = epochMillisDates;
+		reset();
+	}
+
+	/**
+	 * Is checking the field type of every cell enabled
+	 *
+	 * @return true if all columns are dynamically typed
+	 */
+	public boolean isDynamicTypes() {
+		return dynamicTypes;
+	}
+
+	/**
+	 * Set checking the field type of every cell, for tables storing values of
+	 * other storage classes than the declared column data types
+	 *
+	 * @param dynamicTypes
+	 *            true to dynamically type all columns
+	 */
+	public void setDynamicTypes(boolean dynamicTypes) {
+		this.dynamicTypes = dynamicTypes;
+		reset();
+	}
+
+	/**
+	 * Reset the column decoders to be compiled again from the next decoded
+	 * row
+	 */
+	public void reset() {
+		decoders = null;
+		staticTypes = null;
+	}
+
+	/**
+	 * Decode the current result row into the column types and values
+	 *
+	 * @param result
+	 *            result positioned at a row
+	 * @param columnTypes
+	 *            column field types to populate
+	 * @param values
+	 *            values to populate
+	 */
+	public void decode(Result result, int[] columnTypes, Object[] values) {
+		if (decoders == null) {
+			compile(result, columnTypes);
+			for (int i = 0; i < decoders.length; i++) {
+				values[i] = decoders[i].decode(result, i, columnTypes[i]);
+			}
+		} else {
+			for (int i = 0; i < decoders.length; i++) {
+				int type = staticTypes[i];
+				Object value;
+				if (type != DYNAMIC_TYPE) {
+					value = decoders[i].decode(result, i, type);
+					if (value == null) {
+						type = ResultUtils.FIELD_TYPE_NULL;
+					}
+				} else {
+					type = result.getType(i);
+					value = decoders[i].decode(result, i, type);
+				}
+				columnTypes[i] = type;
+				values[i] = value;
+			}
+		}
+	}
+
+	/**
+	 * Compile the column decoders and static field types from the field types
+	 * of the current result row
+	 *
+	 * @param result
+	 *            result positioned at a row
+	 * @param columnTypes
+	 *            column field types to populate
+	 */
+	private void compile(Result result, int[] columnTypes) {
+		int columnCount = result.getColumnCount();
+		decoders = new ResultValueDecoder[columnCount];
+		staticTypes = new int[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			int type = result.getType(i);
+			columnTypes[i] = type;
+			GeoPackageDataType dataType = i < dataTypes.length ? dataTypes[i]
+					: null;
+			if (epochMillisDates && (dataType == GeoPackageDataType.DATE
+					|| dataType == GeoPackageDataType.DATETIME)) {
+				decoders[i] = ResultUtils.getEpochMillisDecoder(dataType);
+			} else {
+				decoders[i] = ResultUtils.getDecoder(type, dataType);
+			}
+			staticTypes[i] = !dynamicTypes && type == getFieldType(dataType)
+					? type
+					: DYNAMIC_TYPE;
+		}
+	}
+
+	/**
+	 * Get the field type of the storage class of the data type
+	 *
+	 * @param dataType
+	 *            data type
+	 * @return field type, {@link #DYNAMIC_TYPE} when unknown
+	 */
+	private static int getFieldType(GeoPackageDataType dataType) {
+		int type = DYNAMIC_TYPE;
+		if (dataType != null) {
+			switch (dataType) {
+			case BOOLEAN:
+			case TINYINT:
+			case SMALLINT:
+			case MEDIUMINT:
+			case INT:
+			case INTEGER:
+				type = ResultUtils.FIELD_TYPE_INTEGER;
+				break;
+			case FLOAT:
+			case DOUBLE:
+			case REAL:
+				type = ResultUtils.FIELD_TYPE_FLOAT;
+				break;
+			case TEXT:
+			case DATE:
+			case DATETIME:
+				type = ResultUtils.FIELD_TYPE_STRING;
+				break;
+			case BLOB:
+				type = ResultUtils.FIELD_TYPE_BLOB;
+				break;
+			default:
+			}
+		}
+		return type;
+	}
+
+}
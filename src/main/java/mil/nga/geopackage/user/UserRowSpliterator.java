@@ -0,0 +1,390 @@
+package mil.nga.geopackage.user;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import mil.nga.geopackage.db.CoreSQLUtils;
+
+/**
+ * User row spliterator lazily advancing through query results. A ranged
+ * spliterator covers an inclusive primary key id range and splits in half
+ * for parallel streams, each split reading its own result through a DAO
+ * from the split DAO supplier, so splits on separate connections read in
+ * parallel. Closing the root spliterator closes all open results of it and
+ * its splits.
+ *
+ * @param <TColumn>
+ *            column type
+ * @param <TTable>
+ *            table type
+ * @param <TRow>
+ *            row type
+ * @param <TResult>
+ *            result type
+ *
+ * @author osbornb
+ * @since 4.0.1
+ */
+public class UserRowSpliterator<TColumn extends UserColumn, TTable extends UserTable<TColumn>, TRow extends UserCoreRow<TColumn, TTable>, TResult extends UserCoreResult<TColumn, TTable, TRow>>
+		implements Spliterator<TRow>, AutoCloseable {
+
+	/**
+	 * Default minimum number of ids in a split range
+	 */
+	public static final long DEFAULT_MIN_SPLIT_SIZE = 1024;
+
+	/**
+	 * User DAO, from the split DAO supplier once a ranged split queries
+	 */
+	private UserCoreDao<TColumn, TTable, TRow, TResult> dao;
+
+	/**
+	 * Split DAO supplier, null when not ranged
+	 */
+	private final Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos;
+
+	/**
+	 * Distinct rows
+	 */
+	private final boolean distinct;
+
+	/**
+	 * Query columns
+	 */
+	private final String[] columns;
+
+	/**
+	 * Where clause
+	 */
+	private final String where;
+
+	/**
+	 * Where arguments
+	 */
+	private final String[] whereArgs;
+
+	/**
+	 * Open results shared with splits
+	 */
+	private final List<TResult> openResults;
+
+	/**
+	 * True when iterating a primary key range
+	 */
+	private final boolean ranged;
+
+	/**
+	 * Minimum number of ids in a split range
+	 */
+	private final long minSplitSize;
+
+	/**
+	 * Inclusive range min id
+	 */
+	private long minId;
+
+	/**
+	 * Inclusive range max id
+	 */
+	private final long maxId;
+
+	/**
+	 * Current result
+	 */
+	private TResult result;
+
+	/**
+	 * Row decoder of the split results
+	 */
+	private UserRowDecoder<TColumn> decoder;
+
+	/**
+	 * Result has been read to completion
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Where clause of the current result
+	 */
+	private String resultWhere;
+
+	/**
+	 * Order by of the current result
+	 */
+	private String resultOrderBy;
+
+	/**
+	 * Rows read from the current result
+	 */
+	private long rowsRead;
+
+	/**
+	 * Blob bytes read from the current result, when metrics are enabled
+	 */
+	private long blobBytesRead;
+
+	/**
+	 * Current result query start nanoseconds, 0 once recorded or when not
+	 * measured
+	 */
+	private long resultStart;
+
+	/**
+	 * Constructor for a spliterator over all matching rows, which does not
+	 * split
+	 *
+	 * @param dao
+	 *            user DAO
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 */
+	public UserRowSpliterator(UserCoreDao<TColumn, TTable, TRow, TResult> dao,
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs) {
+		this(dao, null, distinct, columns, where, whereArgs,
+				new ArrayList<TResult>(), false, 0, 0, DEFAULT_MIN_SPLIT_SIZE);
+	}
+
+	/**
+	 * Constructor for a spliterator over matching rows within the inclusive
+	 * primary key id range, splitting into ranges of at least the minimum
+	 * split size. The split DAO supplier is called once by each split that
+	 * reads, from the stream threads, and should return DAOs of the table on
+	 * separate connections for parallel reads. Supplied DAOs are not closed
+	 * by the spliterator.
+	 *
+	 * @param daos
+	 *            split DAO supplier
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param minId
+	 *            inclusive min id
+	 * @param maxId
+	 *            inclusive max id
+	 * @param minSplitSize
+	 *            minimum number of ids in a split range
+	 */
+	public UserRowSpliterator(
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos,
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, long minId, long maxId, long minSplitSize) {
+		this(null, daos, distinct, columns, where, whereArgs,
+				new ArrayList<TResult>(), true, minId, maxId,
+				Math.max(1, minSplitSize));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param dao
+	 *            user DAO, null when ranged
+	 * @param daos
+	 *            split DAO supplier, null when not ranged
+	 * @param distinct
+	 *            distinct rows
+	 * @param columns
+	 *            columns
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param openResults
+	 *            open results shared with splits
+	 * @param ranged
+	 *            true when iterating a primary key range
+	 * @param minId
+	 *            inclusive min id
+	 * @param maxId
+	 *            inclusive max id
+	 * @param minSplitSize
+	 *            minimum number of ids in a split range
+	 */
+	private UserRowSpliterator(UserCoreDao<TColumn, TTable, TRow, TResult> dao,
+			Supplier<? extends UserCoreDao<TColumn, TTable, TRow, TResult>> daos,
+			boolean distinct, String[] columns, String where,
+			String[] whereArgs, List<TResult> openResults, boolean ranged,
+			long minId, long maxId, long minSplitSize) {
+		this.dao = dao;
+		this.daos = daos;
+		this.distinct = distinct;
+		this.columns = columns;
+		this.where = where;
+		this.whereArgs = whereArgs;
+		this.openResults = openResults;
+		this.ranged = ranged;
+		this.minId = minId;
+		this.maxId = maxId;
+		this.minSplitSize = minSplitSize;
+		this.finished = ranged && minId > maxId;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super TRow> action) {
+		boolean advanced = false;
+		if (!finished) {
+			if (result == null) {
+				result = query();
+				if (decoder == null) {
+					decoder = new UserRowDecoder<>(result.getColumns());
+				}
+			}
+			boolean moved = result.moveToNext();
+			if (resultStart != 0) {
+				dao.recordQuery(resultStart, distinct, columns, resultWhere,
+						null, null, resultOrderBy);
+				resultStart = 0;
+			}
+			if (moved) {
+				TRow row = result.getRow(decoder);
+				rowsRead++;
+				if (dao.isMetricsEnabled()) {
+					blobBytesRead += UserCoreDao.blobBytes(row);
+				}
+				action.accept(row);
+				advanced = true;
+			} else {
+				finished = true;
+				closeResult();
+			}
+		}
+		return advanced;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Spliterator<TRow> trySplit() {
+		UserRowSpliterator<TColumn, TTable, TRow, TResult> split = null;
+		if (ranged && result == null && !finished
+				&& maxId - minId >= 2 * minSplitSize - 1) {
+			long middle = minId + (maxId - minId) / 2;
+			split = new UserRowSpliterator<>(null, daos, distinct, columns,
+					where, whereArgs, openResults, true, minId, middle,
+					minSplitSize);
+			minId = middle + 1;
+		}
+		return split;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long estimateSize() {
+		long size;
+		if (finished) {
+			size = 0;
+		} else if (ranged) {
+			size = maxId - minId + 1;
+		} else {
+			size = Long.MAX_VALUE;
+		}
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * Close all open results of this spliterator and its splits
+	 */
+	@Override
+	public void close() {
+		List<TResult> closing;
+		synchronized (openResults) {
+			closing = new ArrayList<>(openResults);
+			openResults.clear();
+		}
+		for (TResult openResult : closing) {
+			openResult.close();
+		}
+		if (result != null) {
+			recordRows();
+			result = null;
+		}
+		finished = true;
+	}
+
+	/**
+	 * Query the result, ordered and restricted by the id range when ranged
+	 *
+	 * @return result
+	 */
+	private TResult query() {
+
+		String queryWhere = where;
+		String[] queryArgs = whereArgs;
+		String orderBy = null;
+		if (ranged) {
+			dao = daos.get();
+			String pkColumn = CoreSQLUtils
+					.quoteWrap(dao.getTable().getPkColumnName());
+			String rangeWhere = pkColumn + " >= ? AND " + pkColumn + " <= ?";
+			queryWhere = where != null
+					? "(" + where + ") AND (" + rangeWhere + ")"
+					: rangeWhere;
+			queryArgs = dao.buildWhereInArgs(new String[] {
+					String.valueOf(minId), String.valueOf(maxId) }, whereArgs);
+			orderBy = pkColumn;
+		}
+
+		resultStart = dao.metricsStart();
+		TResult queryResult = dao.queryResult(distinct, columns, queryWhere,
+				queryArgs, null, null, orderBy, null);
+		resultWhere = queryWhere;
+		resultOrderBy = orderBy;
+		rowsRead = 0;
+		blobBytesRead = 0;
+		synchronized (openResults) {
+			openResults.add(queryResult);
+		}
+		return queryResult;
+	}
+
+	/**
+	 * Close the current result
+	 */
+	private void closeResult() {
+		if (result != null) {
+			synchronized (openResults) {
+				openResults.remove(result);
+			}
+			result.close();
+			result = null;
+			recordRows();
+		}
+	}
+
+	/**
+	 * Record the rows read from the current result
+	 */
+	private void recordRows() {
+		dao.recordRows(distinct, columns, resultWhere, null, null,
+				resultOrderBy, rowsRead, blobBytesRead);
+	}
+
+}
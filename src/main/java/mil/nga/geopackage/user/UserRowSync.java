@@ -1,8 +1,8 @@
 package mil.nga.geopackage.user;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.Condition;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -10,7 +10,9 @@ import mil.nga.geopackage.GeoPackageException;
 
 /**
  * User Row Sync to support sharing a single user row read copy when multiple
- * near simultaneous asynchronous requests are made
+ * near simultaneous asynchronous requests are made. Requests for different
+ * row ids do not block each other. For caching rows after they are read, see
+ * {@link UserRowCache}.
  * 
  * @param <TColumn>
  *            column type
@@ -26,28 +28,32 @@ public class UserRowSync<TColumn extends UserColumn, TTable extends UserTable<TC
 
 	/**
 	 * Synchronous lock
+	 * 
+	 * @deprecated no longer used, row requests are synchronized per id by
+	 *             the concurrent rows mapping
 	 */
+	@Deprecated
 	protected Lock lock = new ReentrantLock();
 
 	/**
 	 * Mapping between row ids and row conditions
 	 */
-	protected Map<Long, RowCondition> rows = new HashMap<>();
+	protected Map<Long, RowCondition> rows = new ConcurrentHashMap<>();
 
 	/**
-	 * Condition and row wrapper
+	 * Row latch and row wrapper
 	 */
 	protected class RowCondition {
 
 		/**
-		 * Wait and signal condition
+		 * Row latch, released when the row is set
 		 */
-		private Condition condition;
+		private final CountDownLatch latch = new CountDownLatch(1);
 
 		/**
 		 * Row
 		 */
-		private TRow row;
+		private volatile TRow row;
 
 	}
 
@@ -73,32 +79,25 @@ public class UserRowSync<TColumn extends UserColumn, TTable extends UserTable<TC
 
 		TRow row = null;
 
-		lock.lock();
-		try {
-			RowCondition rowCondition = rows.get(id);
-			if (rowCondition != null) {
-				row = rowCondition.row;
-				if (row == null) {
-					// Another thread is currently retrieving the row, wait
-					rowCondition.condition.await();
-
-					// Row has now been retrieved
-					row = rowCondition.row;
-				}
-			} else {
-				// Set the row condition and the calling thread is now
-				// responsible for retrieving the row
-				rowCondition = new RowCondition();
-				rowCondition.condition = lock.newCondition();
-				rows.put(id, rowCondition);
+		RowCondition newCondition = new RowCondition();
+		RowCondition rowCondition = rows.putIfAbsent(id, newCondition);
+		if (rowCondition != null) {
+			try {
+				// Another thread is currently retrieving the row, wait
+				rowCondition.latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new GeoPackageException(
+						"Interruption obtaining cached row or row lock. id: "
+								+ id,
+						e);
 			}
-		} catch (InterruptedException e) {
-			throw new GeoPackageException(
-					"Interruption obtaining cached row or row lock. id: " + id,
-					e);
-		} finally {
-			lock.unlock();
+
+			// Row has now been retrieved
+			row = rowCondition.row;
 		}
+		// Otherwise the calling thread is now responsible for retrieving the
+		// row
 
 		return row;
 	}
@@ -113,15 +112,10 @@ public class UserRowSync<TColumn extends UserColumn, TTable extends UserTable<TC
 	 */
 	public void setRow(long id, TRow row) {
 
-		lock.lock();
-		try {
-			RowCondition rowCondition = rows.remove(id);
-			if (rowCondition != null) {
-				rowCondition.row = row;
-				rowCondition.condition.signalAll();
-			}
-		} finally {
-			lock.unlock();
+		RowCondition rowCondition = rows.remove(id);
+		if (rowCondition != null) {
+			rowCondition.row = row;
+			rowCondition.latch.countDown();
 		}
 	}
 
@@ -0,0 +1,64 @@
+package mil.nga.geopackage.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Aggregate query test
+ *
+ * @author osbornb
+ */
+public class AggregateQueryTest {
+
+	/**
+	 * Test the single scan aggregate SQL
+	 */
+	@Test
+	public void testSql() {
+
+		AggregateQuery query = new AggregateQuery(null, "table 1").count()
+				.min("height").max("height").sum("area").avg("area")
+				.countDistinct("type").where("height > ?", new String[] { "1" })
+				.groupBy("region");
+
+		TestCase.assertEquals(
+				"SELECT \"region\", COUNT(*), MIN(\"height\"), MAX(\"height\"), SUM(\"area\"), AVG(\"area\"), COUNT(DISTINCT \"type\") FROM \"table 1\" WHERE height > ? GROUP BY \"region\" ORDER BY \"region\"",
+				query.buildSql());
+		TestCase.assertEquals(Arrays.asList("count", "min_height",
+				"max_height", "sum_area", "avg_area", "count_distinct_type"),
+				query.getLabels());
+	}
+
+	/**
+	 * Test primitive results by group
+	 */
+	@Test
+	public void testResults() {
+
+		List<List<Object>> rows = new ArrayList<>();
+		rows.add(Arrays.asList("a", 3L, 1.5, "x", null));
+		rows.add(Arrays.asList("b", 7L, 2.0, "y", 4L));
+
+		AggregateResults results = new AggregateResults(
+				Arrays.asList("region"),
+				Arrays.asList("count", "avg_area", "min_name", "sum_size"),
+				rows);
+
+		TestCase.assertEquals(2, results.getGroupCount());
+		TestCase.assertEquals("b", results.getGroupValue(1, "region"));
+		TestCase.assertEquals(7, results.getLong(1, "count"));
+		TestCase.assertEquals(1.5, results.getDouble(0, "avg_area"));
+		TestCase.assertEquals(3.0, results.getDouble(0, 0));
+		TestCase.assertEquals("x", results.getValue(0, "min_name"));
+		TestCase.assertTrue(results.isNull(0, 3));
+		TestCase.assertNull(results.getValue(0, "sum_size"));
+		TestCase.assertEquals(4L, results.getValue(1, "sum_size"));
+		TestCase.assertEquals(2.0, results.getValue(1, "avg_area"));
+	}
+
+}
@@ -0,0 +1,122 @@
+package mil.nga.geopackage.db;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Date converter test
+ *
+ * @author osbornb
+ */
+public class DateConverterTest {
+
+	/**
+	 * Test the standard format fast paths against simple date formats
+	 *
+	 * @throws ParseException
+	 *             upon error
+	 */
+	@Test
+	public void testStandardFormats() throws ParseException {
+
+		DateConverter date = DateConverter.dateConverter();
+		DateConverter dateTime = DateConverter.dateTimeConverter();
+		TestCase.assertSame(date,
+				DateConverter.converter(GeoPackageDataType.DATE));
+		TestCase.assertSame(dateTime,
+				DateConverter.converter(GeoPackageDataType.DATETIME));
+
+		SimpleDateFormat dateFormat = format(DateConverter.DATE_FORMAT);
+		SimpleDateFormat dateTimeFormat = format(
+				DateConverter.DATETIME_FORMAT);
+
+		Random random = new Random(17);
+		long min = dateTimeFormat.parse("1600-01-01T00:00:00.000Z")
+				.getTime();
+		long max = dateTimeFormat.parse("9999-12-31T23:59:59.999Z")
+				.getTime();
+		for (int i = 0; i < 10000; i++) {
+			long millis = min + (long) (random.nextDouble() * (max - min));
+
+			String dateTimeString = dateTimeFormat.format(new Date(millis));
+			TestCase.assertEquals(dateTimeString,
+					dateTime.stringValue(millis));
+			TestCase.assertEquals(millis,
+					dateTime.epochMillis(dateTimeString));
+
+			String dateString = dateFormat.format(new Date(millis));
+			TestCase.assertEquals(dateString, date.stringValue(millis));
+			TestCase.assertEquals(dateFormat.parse(dateString).getTime(),
+					date.epochMillis(dateString));
+		}
+
+		TestCase.assertEquals(
+				dateTimeFormat.parse("2020-02-29T01:02:03.000Z").getTime(),
+				dateTime.epochMillis("2020-02-29T01:02:03Z"));
+		TestCase.assertEquals(dateFormat.parse("2020-03-04").getTime(),
+				date.epochMillis("2020/03/04"));
+	}
+
+	/**
+	 * Test non standard values fall back to lenient simple date format
+	 * parsing
+	 *
+	 * @throws ParseException
+	 *             upon error
+	 */
+	@Test
+	public void testFallback() throws ParseException {
+
+		DateConverter date = DateConverter.dateConverter();
+		DateConverter dateTime = DateConverter.dateTimeConverter();
+		SimpleDateFormat dateFormat = format(DateConverter.DATE_FORMAT);
+		SimpleDateFormat dateTimeFormat = format(
+				DateConverter.DATETIME_FORMAT);
+
+		TestCase.assertEquals(dateFormat.parse("2021-02-30").getTime(),
+				date.epochMillis("2021-02-30"));
+		TestCase.assertEquals(dateFormat.parse("2021-1-2").getTime(),
+				date.epochMillis("2021-1-2"));
+		TestCase.assertEquals(dateFormat.parse("1500-06-01").getTime(),
+				date.epochMillis("1500-06-01"));
+		TestCase.assertEquals(
+				dateTimeFormat.parse("2021-01-02T03:04:05.6Z").getTime(),
+				dateTime.epochMillis("2021-01-02T03:04:05.6Z"));
+		TestCase.assertEquals(format("yyyy-MM-dd'T'HH:mm:ss'Z'")
+				.format(dateTimeFormat.parse("1500-06-01T00:00:00.000Z")),
+				DateConverter.dateConverter("yyyy-MM-dd'T'HH:mm:ss'Z'")
+						.stringValue(dateTime
+								.dateValue("1500-06-01T00:00:00.000Z")));
+
+		TestCase.assertNull(date.dateValue(null));
+		TestCase.assertNull(date.stringValue((Date) null));
+		try {
+			dateTime.epochMillis("invalid");
+			TestCase.fail("Invalid date parsed");
+		} catch (GeoPackageException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Create a UTC simple date format
+	 *
+	 * @param pattern
+	 *            pattern
+	 * @return simple date format
+	 */
+	private static SimpleDateFormat format(String pattern) {
+		SimpleDateFormat format = new SimpleDateFormat(pattern);
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format;
+	}
+
+}
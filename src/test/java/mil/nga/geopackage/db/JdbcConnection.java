@@ -0,0 +1,375 @@
+package mil.nga.geopackage.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.j256.ormlite.support.ConnectionSource;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * SQLite JDBC connection for tests, executing SQL with bound arguments
+ * through the default literal connection statements, or through compiled
+ * {@link JdbcStatement} prepared statements when enabled. Query results are
+ * read into memory.
+ *
+ * @author osbornb
+ */
+public class JdbcConnection extends GeoPackageCoreConnection {
+
+	/**
+	 * JDBC connection
+	 */
+	private final Connection connection;
+
+	/**
+	 * Supports json_each flag, false to test connections without it
+	 */
+	private boolean jsonEach = true;
+
+	/**
+	 * Compiled statements flag, false to test the default literal statements
+	 */
+	private boolean compiledStatements = false;
+
+	/**
+	 * Number of executed SQL statements
+	 */
+	private int executions = 0;
+
+	/**
+	 * Last executed SQL statement
+	 */
+	private String lastSql;
+
+	/**
+	 * Constructor of an in memory database connection
+	 */
+	public JdbcConnection() {
+		this("jdbc:sqlite::memory:");
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param url
+	 *            JDBC url
+	 */
+	public JdbcConnection(String url) {
+		super((ConnectionSource) null);
+		try {
+			connection = DriverManager.getConnection(url);
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to open: " + url, e);
+		}
+	}
+
+	/**
+	 * Set the json_each support, false to use the temporary key table
+	 * fallback
+	 *
+	 * @param jsonEach
+	 *            json_each support
+	 */
+	public void setJsonEach(boolean jsonEach) {
+		this.jsonEach = jsonEach;
+	}
+
+	/**
+	 * Set the compiled statements support, true to prepare
+	 * {@link JdbcStatement} statements leased from the statement cache
+	 *
+	 * @param compiledStatements
+	 *            compiled statements support
+	 */
+	public void setCompiledStatements(boolean compiledStatements) {
+		this.compiledStatements = compiledStatements;
+	}
+
+	/**
+	 * Get the number of executed SQL statements
+	 *
+	 * @return executions
+	 */
+	public int getExecutions() {
+		return executions;
+	}
+
+	/**
+	 * Get the last executed SQL statement
+	 *
+	 * @return SQL
+	 */
+	public String getLastSql() {
+		return lastSql;
+	}
+
+	/**
+	 * Count an executed SQL statement
+	 *
+	 * @param sql
+	 *            SQL
+	 */
+	void executed(String sql) {
+		executions++;
+		lastSql = sql;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasCompiledStatements() {
+		return compiledStatements;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public GeoPackageStatement prepareStatement(String sql) {
+		GeoPackageStatement statement;
+		if (compiledStatements) {
+			try {
+				statement = new JdbcStatement(this, sql,
+						connection.prepareStatement(sql));
+			} catch (SQLException e) {
+				throw new GeoPackageException("Failed to prepare: " + sql, e);
+			}
+		} else {
+			statement = super.prepareStatement(sql);
+		}
+		return statement;
+	}
+
+	/**
+	 * Get the last inserted row id of the connection
+	 *
+	 * @return row id
+	 */
+	long lastInsertRowId() {
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement
+						.executeQuery("SELECT last_insert_rowid()")) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to read last insert row id",
+					e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean supportsJsonEach() {
+		return jsonEach && super.supportsJsonEach();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void execSQL(String sql) {
+		executed(sql);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to execute SQL: " + sql, e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beginTransaction() {
+		try {
+			connection.setAutoCommit(false);
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to begin transaction", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void endTransaction(boolean successful) {
+		try {
+			if (successful) {
+				connection.commit();
+			} else {
+				connection.rollback();
+			}
+			connection.setAutoCommit(true);
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to end transaction", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void commit() {
+		try {
+			if (!connection.getAutoCommit()) {
+				connection.commit();
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to commit", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean inTransaction() {
+		try {
+			return !connection.getAutoCommit();
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to check transaction", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int delete(String table, String whereClause, String[] whereArgs) {
+		String sql = "DELETE FROM " + CoreSQLUtils.quoteWrap(table);
+		if (whereClause != null) {
+			sql += " WHERE " + whereClause;
+		}
+		executed(sql);
+		try (PreparedStatement statement = prepare(sql, whereArgs)) {
+			return statement.executeUpdate();
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to delete: " + sql, e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object querySingleResult(String sql, String[] args, int column,
+			GeoPackageDataType dataType) {
+		return ResultUtils.buildSingleResult(query(sql, args), column,
+				dataType);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Object> querySingleColumnResults(String sql, String[] args,
+			int column, GeoPackageDataType dataType, Integer limit) {
+		return ResultUtils.buildSingleColumnResults(query(sql, args), column,
+				dataType, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<List<Object>> queryResults(String sql, String[] args,
+			GeoPackageDataType[] dataTypes, Integer limit) {
+		return ResultUtils.buildResults(query(sql, args), dataTypes, limit);
+	}
+
+	/**
+	 * Query the SQL, reading the rows into memory
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param args
+	 *            arguments
+	 * @return result
+	 */
+	public MemoryResult query(String sql, String[] args) {
+		executed(sql);
+		try (PreparedStatement statement = prepare(sql, args);
+				ResultSet resultSet = statement.executeQuery()) {
+			return read(resultSet);
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to query: " + sql, e);
+		}
+	}
+
+	/**
+	 * Read the result set rows into memory
+	 *
+	 * @param resultSet
+	 *            result set
+	 * @return result
+	 * @throws SQLException
+	 *             upon failure
+	 */
+	static MemoryResult read(ResultSet resultSet) throws SQLException {
+		int columns = resultSet.getMetaData().getColumnCount();
+		String[] columnNames = new String[columns];
+		for (int i = 0; i < columns; i++) {
+			columnNames[i] = resultSet.getMetaData().getColumnName(i + 1);
+		}
+		List<Object[]> rows = new ArrayList<>();
+		while (resultSet.next()) {
+			Object[] row = new Object[columns];
+			for (int i = 0; i < columns; i++) {
+				Object value = resultSet.getObject(i + 1);
+				if (value instanceof Integer) {
+					value = ((Integer) value).longValue();
+				}
+				row[i] = value;
+			}
+			rows.add(row);
+		}
+		return new MemoryResult(columnNames,
+				rows.toArray(new Object[rows.size()][]));
+	}
+
+	/**
+	 * Prepare the statement with the string arguments
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param args
+	 *            arguments
+	 * @return prepared statement
+	 * @throws SQLException
+	 *             upon failure
+	 */
+	private PreparedStatement prepare(String sql, String[] args)
+			throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(sql);
+		if (args != null) {
+			for (int i = 0; i < args.length; i++) {
+				statement.setString(i + 1, args[i]);
+			}
+		}
+		return statement;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+		getStatementCache().close();
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to close", e);
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package mil.nga.geopackage.db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Compiled JDBC prepared statement of a {@link JdbcConnection} for tests,
+ * binding the arguments on execution
+ *
+ * @author osbornb
+ */
+public class JdbcStatement extends GeoPackageStatement {
+
+	/**
+	 * Connection
+	 */
+	private final JdbcConnection connection;
+
+	/**
+	 * Prepared statement
+	 */
+	private final PreparedStatement statement;
+
+	/**
+	 * Number of bind parameters
+	 */
+	private final int parameters;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            SQL statement
+	 * @param statement
+	 *            prepared statement
+	 */
+	JdbcStatement(JdbcConnection connection, String sql,
+			PreparedStatement statement) {
+		super(sql);
+		this.connection = connection;
+		this.statement = statement;
+		try {
+			this.parameters = statement.getParameterMetaData()
+					.getParameterCount();
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to read statement parameters: " + sql, e);
+		}
+	}
+
+	/**
+	 * Get the prepared statement
+	 *
+	 * @return prepared statement
+	 */
+	public PreparedStatement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int execute() {
+		connection.executed(getSql());
+		try {
+			bindArgs();
+			return statement.executeUpdate();
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to execute: " + getSql(),
+					e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long executeInsert() {
+		execute();
+		return connection.lastInsertRowId();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object querySingleResult() {
+		MemoryResult result = query();
+		return result.moveToNext() ? result.getValue(0) : null;
+	}
+
+	/**
+	 * Query the statement with the bound arguments, reading the rows into
+	 * memory
+	 *
+	 * @return result
+	 */
+	public MemoryResult query() {
+		connection.executed(getSql());
+		try {
+			bindArgs();
+			try (ResultSet resultSet = statement.executeQuery()) {
+				return JdbcConnection.read(resultSet);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException("Failed to query: " + getSql(), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void closeStatement() {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to close statement: " + getSql(), e);
+		}
+	}
+
+	/**
+	 * Bind the arguments to the prepared statement parameters
+	 *
+	 * @throws SQLException
+	 *             upon failure
+	 */
+	private void bindArgs() throws SQLException {
+		for (int i = 1; i <= parameters; i++) {
+			Object arg = getArg(i);
+			if (arg instanceof Boolean) {
+				arg = ((Boolean) arg) ? 1 : 0;
+			}
+			statement.setObject(i, arg);
+		}
+	}
+
+}
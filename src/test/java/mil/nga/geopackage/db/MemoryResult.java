@@ -0,0 +1,308 @@
+package mil.nga.geopackage.db;
+
+/**
+ * In memory result of row values for tests
+ *
+ * @author osbornb
+ */
+public class MemoryResult implements Result {
+
+	/**
+	 * Column names, null when not named
+	 */
+	private final String[] columnNames;
+
+	/**
+	 * Row values
+	 */
+	private final Object[][] values;
+
+	/**
+	 * Field types reported for null cells, null to report
+	 * {@link ResultUtils#FIELD_TYPE_NULL}
+	 */
+	private final int[] nullTypes;
+
+	/**
+	 * Current position
+	 */
+	private int position = -1;
+
+	/**
+	 * Last read value was null
+	 */
+	private boolean wasNull = false;
+
+	/**
+	 * Field type checks
+	 */
+	private int typeChecks = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param values
+	 *            row values
+	 */
+	public MemoryResult(Object[][] values) {
+		this(values, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param values
+	 *            row values
+	 * @param nullTypes
+	 *            field types reported for null cells, such as the declared
+	 *            column types
+	 */
+	public MemoryResult(Object[][] values, int[] nullTypes) {
+		this(null, values, nullTypes);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param columnNames
+	 *            column names
+	 * @param values
+	 *            row values
+	 */
+	public MemoryResult(String[] columnNames, Object[][] values) {
+		this(columnNames, values, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param columnNames
+	 *            column names, null when not named
+	 * @param values
+	 *            row values
+	 * @param nullTypes
+	 *            field types reported for null cells
+	 */
+	private MemoryResult(String[] columnNames, Object[][] values,
+			int[] nullTypes) {
+		this.columnNames = columnNames;
+		this.values = values;
+		this.nullTypes = nullTypes;
+	}
+
+	/**
+	 * Get the column names
+	 *
+	 * @return column names, null when not named
+	 */
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * Get the number of rows
+	 *
+	 * @return row count
+	 */
+	public int getCount() {
+		return values.length;
+	}
+
+	/**
+	 * Get the number of field type checks
+	 *
+	 * @return field type checks
+	 */
+	public int getTypeChecks() {
+		return typeChecks;
+	}
+
+	/**
+	 * Get the current row value, tracking nulls
+	 *
+	 * @param columnIndex
+	 *            column index
+	 * @return value
+	 */
+	private Object value(int columnIndex) {
+		Object value = values[position][columnIndex];
+		wasNull = value == null;
+		return value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getValue(int index) {
+		return ResultUtils.getValue(this, index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getValue(int index, GeoPackageDataType dataType) {
+		return ResultUtils.getValue(this, index, dataType);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean moveToNext() {
+		return ++position < values.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean moveToFirst() {
+		return moveToPosition(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean moveToPosition(int position) {
+		this.position = position;
+		return position >= 0 && position < values.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getColumnCount() {
+		return columnNames != null ? columnNames.length : values[0].length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getType(int columnIndex) {
+		typeChecks++;
+		Object value = values[position][columnIndex];
+		int type;
+		if (value == null) {
+			type = nullTypes != null ? nullTypes[columnIndex]
+					: ResultUtils.FIELD_TYPE_NULL;
+		} else if (value instanceof Long || value instanceof Integer) {
+			type = ResultUtils.FIELD_TYPE_INTEGER;
+		} else if (value instanceof Double || value instanceof Float) {
+			type = ResultUtils.FIELD_TYPE_FLOAT;
+		} else if (value instanceof byte[]) {
+			type = ResultUtils.FIELD_TYPE_BLOB;
+		} else {
+			type = ResultUtils.FIELD_TYPE_STRING;
+		}
+		return type;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getColumnIndex(String columnName) {
+		if (columnNames == null) {
+			throw new UnsupportedOperationException();
+		}
+		int index = -1;
+		for (int i = 0; i < columnNames.length; i++) {
+			if (columnNames[i].equalsIgnoreCase(columnName)) {
+				index = i;
+				break;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getString(int columnIndex) {
+		Object value = value(columnIndex);
+		return value != null ? value.toString() : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLong(int columnIndex) {
+		Object value = value(columnIndex);
+		return value != null ? ((Number) value).longValue() : 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getInt(int columnIndex) {
+		Object value = value(columnIndex);
+		return value != null ? ((Number) value).intValue() : 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public short getShort(int columnIndex) {
+		Object value = value(columnIndex);
+		return value != null ? ((Number) value).shortValue() : 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getDouble(int columnIndex) {
+		Object value = value(columnIndex);
+		return value != null ? ((Number) value).doubleValue() : 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public float getFloat(int columnIndex) {
+		Object value = value(columnIndex);
+		return value != null ? ((Number) value).floatValue() : 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] getBlob(int columnIndex) {
+		return (byte[]) value(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean wasNull() {
+		return wasNull;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+	}
+
+}
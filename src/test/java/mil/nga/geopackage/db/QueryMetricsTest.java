@@ -0,0 +1,69 @@
+package mil.nga.geopackage.db;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Query metrics test
+ *
+ * @author osbornb
+ */
+public class QueryMetricsTest {
+
+	/**
+	 * Test query shapes replace literals and parameter lists
+	 */
+	@Test
+	public void testShape() {
+
+		TestCase.assertEquals(
+				"SELECT * FROM \"table 1\" WHERE \"name\" = ? AND id2 > ? AND \"x\" IN (?...)",
+				QueryMetrics.shape(" SELECT *  FROM \"table 1\"\n WHERE \"name\" = 'it''s' AND id2 > 12.5e3 AND \"x\" IN (?, ?,?)"));
+		TestCase.assertEquals(
+				QueryMetrics.shape("DELETE FROM t WHERE id = 1"),
+				QueryMetrics.shape("DELETE FROM t WHERE id = 2"));
+	}
+
+	/**
+	 * Test recorded statistics
+	 */
+	@Test
+	public void testStatistics() {
+
+		QueryMetrics metrics = new QueryMetrics();
+		metrics.onQuery("t", "SELECT ?", 500);
+		metrics.onQuery("t", "SELECT ?", 3000);
+		metrics.onQuery("t", "SELECT ?", 100000);
+		metrics.onRows("t", "SELECT ?", 10, 256);
+		metrics.onWrite("u", "batch insert", 2000, 5);
+		metrics.onTransaction(1000, true);
+		metrics.onTransaction(1000, false);
+
+		QueryMetrics.Statistics query = metrics.getQueryStatistics("t",
+				"SELECT ?");
+		TestCase.assertEquals(3, query.getCount());
+		TestCase.assertEquals(103500, query.getTotalNanos());
+		TestCase.assertEquals(500, query.getMinNanos());
+		TestCase.assertEquals(100000, query.getMaxNanos());
+		TestCase.assertEquals(10, query.getRows());
+		TestCase.assertEquals(256, query.getBlobBytes());
+		long[] histogram = query.getHistogram();
+		TestCase.assertEquals(1, histogram[0]);
+		TestCase.assertEquals(1, histogram[2]);
+		TestCase.assertEquals(1, histogram[7]);
+		TestCase.assertEquals(4000, query.getPercentileNanos(0.5));
+		TestCase.assertEquals(100000, query.getPercentileNanos(1.0));
+
+		TestCase.assertEquals(5, metrics.getWriteStatistics("u")
+				.get("batch insert").getRows());
+		TestCase.assertEquals(1, metrics.getCommitStatistics().getCount());
+		TestCase.assertEquals(1, metrics.getRollbackStatistics().getCount());
+		TestCase.assertEquals(2, metrics.getTables().size());
+		TestCase.assertTrue(metrics.getSummary().contains("SELECT ?"));
+
+		metrics.reset();
+		TestCase.assertTrue(metrics.getTables().isEmpty());
+	}
+
+}
@@ -0,0 +1,106 @@
+package mil.nga.geopackage.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Query result cache test
+ *
+ * @author osbornb
+ */
+public class QueryResultCacheTest {
+
+	/**
+	 * Test cached results and table invalidation
+	 */
+	@Test
+	public void testInvalidate() {
+
+		QueryResultCache cache = new QueryResultCache(2);
+		AtomicInteger queries = new AtomicInteger();
+
+		cache.validate(1, 1, 0);
+		TestCase.assertEquals(1, (int) cache.get("a", "SELECT COUNT(*) FROM a",
+				null, () -> queries.incrementAndGet()));
+		TestCase.assertEquals(1, (int) cache.get("a", "SELECT COUNT(*) FROM a",
+				null, () -> queries.incrementAndGet()));
+		TestCase.assertEquals(2, (int) cache.get("b", "SELECT ?",
+				new String[] { "1" }, () -> queries.incrementAndGet()));
+		TestCase.assertEquals(3, (int) cache.get("b", "SELECT ?",
+				new String[] { "2" }, () -> queries.incrementAndGet()));
+		TestCase.assertEquals(2, cache.size());
+		TestCase.assertEquals(1, cache.getHits());
+
+		// Tracked write to table b keeps the table a result
+		cache.get("a", "SELECT COUNT(*) FROM a", null,
+				() -> queries.incrementAndGet());
+		cache.invalidate("b", 3);
+		cache.validate(1, 1, 3);
+		TestCase.assertEquals(1, cache.size());
+		TestCase.assertEquals(4, (int) cache.get("a", "SELECT COUNT(*) FROM a",
+				null, () -> queries.incrementAndGet()));
+
+		// Untracked changes clear all results
+		cache.validate(1, 1, 5);
+		TestCase.assertEquals(0, cache.size());
+		cache.get("a", "SELECT COUNT(*) FROM a", null,
+				() -> queries.incrementAndGet());
+		cache.validate(2, 1, 5);
+		TestCase.assertEquals(0, cache.size());
+
+		// Schema changes clear all results
+		cache.get("a", "SELECT COUNT(*) FROM a", null,
+				() -> queries.incrementAndGet());
+		cache.validate(2, 2, 5);
+		TestCase.assertEquals(0, cache.size());
+
+		// Tracked writes to tables with triggers clear all results
+		cache.get("a", "SELECT COUNT(*) FROM a", null,
+				() -> queries.incrementAndGet());
+		cache.invalidateAll(1);
+		cache.validate(2, 2, 6);
+		TestCase.assertEquals(0, cache.size());
+		cache.get("a", "SELECT COUNT(*) FROM a", null,
+				() -> queries.incrementAndGet());
+		cache.validate(2, 2, 6);
+		TestCase.assertEquals(1, cache.size());
+	}
+
+	/**
+	 * Test trigger lookups are cached until the schema version changes and
+	 * validation is due on the interval
+	 */
+	@Test
+	public void testTriggersAndInterval() {
+
+		QueryResultCache cache = new QueryResultCache();
+		AtomicInteger lookups = new AtomicInteger();
+
+		TestCase.assertTrue(cache.isValidationDue());
+		cache.validate(1, 1, 0);
+		cache.setValidationInterval(TimeUnit.HOURS.toMillis(1));
+		TestCase.assertFalse(cache.isValidationDue());
+		cache.setValidationInterval(0);
+		TestCase.assertTrue(cache.isValidationDue());
+
+		TestCase.assertTrue(cache.hasTriggers("a", (table) -> {
+			lookups.incrementAndGet();
+			return true;
+		}));
+		TestCase.assertTrue(cache.hasTriggers("a", (table) -> {
+			lookups.incrementAndGet();
+			return false;
+		}));
+		TestCase.assertEquals(1, lookups.get());
+
+		cache.validate(1, 1, 0);
+		TestCase.assertTrue(cache.hasTriggers("a", (table) -> false));
+		cache.validate(1, 2, 0);
+		TestCase.assertFalse(cache.hasTriggers("a", (table) -> false));
+	}
+
+}
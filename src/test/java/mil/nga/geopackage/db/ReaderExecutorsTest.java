@@ -0,0 +1,157 @@
+package mil.nga.geopackage.db;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Reader executors test
+ *
+ * @author osbornb
+ */
+public class ReaderExecutorsTest {
+
+	/**
+	 * Test bounded reader executors run on daemon reader threads
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testBounded() throws Exception {
+
+		ExecutorService executor = ReaderExecutors.createBounded(2);
+		try {
+			Thread thread = CompletableFuture
+					.supplyAsync(Thread::currentThread, executor).get();
+			TestCase.assertTrue(thread.isDaemon());
+			TestCase.assertTrue(thread.getName().startsWith("geopackage-reader-"));
+		} finally {
+			executor.shutdown();
+		}
+
+		try {
+			ReaderExecutors.createBounded(0);
+			TestCase.fail("Expected exception");
+		} catch (GeoPackageException e) {
+			// expected
+		}
+
+		TestCase.assertSame(ReaderExecutors.getDefault(),
+				ReaderExecutors.getDefault());
+	}
+
+	/**
+	 * Test bounded reader executors run reads on the calling thread when the
+	 * queue is full
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testBoundedQueue() throws Exception {
+
+		ExecutorService executor = ReaderExecutors.createBounded(1, 1);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			CompletableFuture<Void> running = CompletableFuture
+					.runAsync(() -> {
+						try {
+							latch.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}, executor);
+			CompletableFuture<Thread> queued = CompletableFuture
+					.supplyAsync(Thread::currentThread, executor);
+			Thread thread = CompletableFuture
+					.supplyAsync(Thread::currentThread, executor).get();
+			TestCase.assertSame(Thread.currentThread(), thread);
+			latch.countDown();
+			running.get();
+			TestCase.assertNotSame(Thread.currentThread(), queued.get());
+		} finally {
+			latch.countDown();
+			executor.shutdown();
+		}
+
+		try {
+			ReaderExecutors.createBounded(1, 0);
+			TestCase.fail("Expected exception");
+		} catch (GeoPackageException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test asynchronous reads require and run on reader connections confined
+	 * to the reader threads, never on the calling connection
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testReaderConnections() throws Exception {
+
+		File file = File.createTempFile("reader", ".gpkg");
+		String url = "jdbc:sqlite:" + file.getAbsolutePath();
+		ExecutorService executor = ReaderExecutors.createBounded(2);
+		List<JdbcConnection> readers = Collections
+				.synchronizedList(new ArrayList<>());
+		try (JdbcConnection connection = new JdbcConnection(url)) {
+
+			connection.execSQL("CREATE TABLE t (id INTEGER PRIMARY KEY)");
+			connection.execSQL("INSERT INTO t VALUES (1), (2), (3)");
+			connection.setReaderExecutor(executor);
+
+			try {
+				connection.countAsync("t", null, null);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+
+			Thread caller = Thread.currentThread();
+			ThreadLocal<JdbcConnection> reader = ThreadLocal.withInitial(() -> {
+				TestCase.assertNotSame(caller, Thread.currentThread());
+				JdbcConnection readerConnection = new JdbcConnection(url);
+				readers.add(readerConnection);
+				return readerConnection;
+			});
+			connection.setReaderConnections(reader::get);
+
+			int executions = connection.getExecutions();
+			List<CompletableFuture<Integer>> counts = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				counts.add(connection.countAsync("t", "id > ?",
+						new String[] { String.valueOf(i % 3) }));
+			}
+			for (int i = 0; i < counts.size(); i++) {
+				TestCase.assertEquals(3 - i % 3, counts.get(i).get().intValue());
+			}
+			TestCase.assertEquals(3L, ((Number) connection
+					.querySingleResultAsync("SELECT MAX(id) FROM t", null)
+					.get()).longValue());
+			TestCase.assertEquals(executions, connection.getExecutions());
+			TestCase.assertTrue(readers.size() >= 1);
+			TestCase.assertTrue(readers.size() <= 2);
+
+		} finally {
+			executor.shutdown();
+			for (JdbcConnection readerConnection : readers) {
+				readerConnection.close();
+			}
+			file.delete();
+		}
+	}
+
+}
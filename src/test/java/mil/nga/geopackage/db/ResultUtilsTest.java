@@ -0,0 +1,108 @@
+package mil.nga.geopackage.db;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Result utilities test
+ *
+ * @author osbornb
+ */
+public class ResultUtilsTest {
+
+	/**
+	 * Test decoders compiled from the first row match the dynamic values,
+	 * including cells of a different field type than the first row
+	 */
+	@Test
+	public void testDecoders() {
+
+		GeoPackageDataType[] dataTypes = new GeoPackageDataType[] {
+				GeoPackageDataType.INTEGER, GeoPackageDataType.BOOLEAN,
+				GeoPackageDataType.FLOAT, GeoPackageDataType.DATETIME,
+				GeoPackageDataType.BLOB, GeoPackageDataType.TEXT, null };
+
+		Object[][] values = new Object[][] {
+				{ 1L, 1L, 1.5f, "2020-01-02T03:04:05.678Z",
+						new byte[] { 1 }, "a", 2.5 },
+				{ null, 0L, null, "invalid", null, "d", "b" },
+				{ "text", null, 2.0, null, "c", null, null } };
+
+		MemoryResult result = new MemoryResult(values);
+		ResultValueDecoder[] decoders = null;
+		while (result.moveToNext()) {
+			if (decoders == null) {
+				decoders = ResultUtils.getDecoders(result, dataTypes);
+			}
+			for (int i = 0; i < decoders.length; i++) {
+				Object decoded = decoders[i].decode(result, i,
+						result.getType(i));
+				Object value = ResultUtils.getValue(result, i, dataTypes[i]);
+				if (value instanceof byte[]) {
+					TestCase.assertTrue(Arrays
+							.equals((byte[]) value, (byte[]) decoded));
+				} else {
+					TestCase.assertEquals(value, decoded);
+				}
+			}
+		}
+
+		result.moveToFirst();
+		TestCase.assertEquals(Boolean.TRUE,
+				decoders[1].decode(result, 1, result.getType(1)));
+		TestCase.assertTrue(decoders[3].decode(result, 3,
+				result.getType(3)) instanceof Date);
+
+		result.moveToPosition(-1);
+		List<List<Object>> results = ResultUtils.buildResults(result,
+				dataTypes, null);
+		TestCase.assertEquals(values.length, results.size());
+		TestCase.assertEquals(1L, results.get(0).get(0));
+		TestCase.assertEquals("invalid", results.get(1).get(3));
+		TestCase.assertEquals("text", results.get(2).get(0));
+		TestCase.assertEquals(2.0f, results.get(2).get(2));
+	}
+
+	/**
+	 * Test decoders read null cells reported as the declared column field
+	 * type as null
+	 */
+	@Test
+	public void testDeclaredTypeNulls() {
+
+		GeoPackageDataType[] dataTypes = new GeoPackageDataType[] {
+				GeoPackageDataType.INTEGER, GeoPackageDataType.SMALLINT,
+				GeoPackageDataType.BOOLEAN, GeoPackageDataType.FLOAT,
+				GeoPackageDataType.DOUBLE };
+
+		Object[][] values = new Object[][] { { 1L, 2L, 1L, 1.5f, 2.5 },
+				{ null, null, null, null, null } };
+		int[] declaredTypes = new int[] { ResultUtils.FIELD_TYPE_INTEGER,
+				ResultUtils.FIELD_TYPE_INTEGER, ResultUtils.FIELD_TYPE_INTEGER,
+				ResultUtils.FIELD_TYPE_FLOAT, ResultUtils.FIELD_TYPE_FLOAT };
+
+		MemoryResult result = new MemoryResult(values, declaredTypes);
+		result.moveToFirst();
+		ResultValueDecoder[] decoders = ResultUtils.getDecoders(result,
+				dataTypes);
+		result.moveToNext();
+		for (int i = 0; i < decoders.length; i++) {
+			TestCase.assertEquals(declaredTypes[i], result.getType(i));
+			TestCase.assertNull(
+					decoders[i].decode(result, i, result.getType(i)));
+		}
+
+		result.moveToPosition(-1);
+		List<List<Object>> results = ResultUtils.buildResults(result,
+				dataTypes, null);
+		for (Object value : results.get(1)) {
+			TestCase.assertNull(value);
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package mil.nga.geopackage.db;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Slow query log test
+ *
+ * @author osbornb
+ */
+public class SlowQueryLogTest {
+
+	/**
+	 * Test explainable statements replace parameters outside of quotes
+	 */
+	@Test
+	public void testExplainable() {
+
+		TestCase.assertEquals(
+				"SELECT * FROM \"t?\" WHERE a = NULL AND b IN (NULL) AND c = '?'",
+				SlowQueryLog.explainable(
+						"SELECT * FROM \"t?\" WHERE a = ? AND b IN (?...) AND c = '?'"));
+	}
+
+	/**
+	 * Test suggested indexes order equality columns before a range column
+	 */
+	@Test
+	public void testSuggestIndex() {
+
+		TestCase.assertEquals(
+				"CREATE INDEX IF NOT EXISTS \"idx_t_name_type_value\" ON \"t\" (\"name\", \"type\", \"value\")",
+				SlowQueryLog.suggestIndex("t",
+						"SELECT * FROM \"t\" WHERE value > ? AND \"name\" = ? AND type IN (?...) AND other < ? ORDER BY id"));
+		TestCase.assertEquals(
+				"CREATE INDEX IF NOT EXISTS \"idx_t_x\" ON \"t\" (\"x\")",
+				SlowQueryLog.suggestIndex("t",
+						"DELETE FROM \"t\" WHERE x IS NOT NULL"));
+		TestCase.assertNull(
+				SlowQueryLog.suggestIndex("t", "SELECT * FROM \"t\""));
+	}
+
+}
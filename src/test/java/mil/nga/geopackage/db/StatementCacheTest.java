@@ -0,0 +1,189 @@
+package mil.nga.geopackage.db;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Statement cache and default connection statement test
+ *
+ * @author osbornb
+ */
+public class StatementCacheTest {
+
+	/**
+	 * Test statement recording when it is closed
+	 */
+	private static class TestStatement extends GeoPackageStatement {
+
+		/**
+		 * Closed flag
+		 */
+		private boolean closed = false;
+
+		/**
+		 * Constructor
+		 *
+		 * @param sql
+		 *            SQL
+		 */
+		TestStatement(String sql) {
+			super(sql);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int execute() {
+			return 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long executeInsert() {
+			return 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Object querySingleResult() {
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void closeStatement() {
+			closed = true;
+		}
+
+	}
+
+	/**
+	 * Test leases are exclusive, returned statements are reused, and evicted
+	 * or duplicate statements are closed
+	 */
+	@Test
+	public void testLeases() {
+
+		StatementCache cache = new StatementCache(2);
+
+		GeoPackageStatement first = cache.lease("a", TestStatement::new);
+		GeoPackageStatement second = cache.lease("a", TestStatement::new);
+		TestCase.assertNotSame(first, second);
+		TestCase.assertEquals(2, cache.getMisses());
+		TestCase.assertEquals(0, cache.size());
+
+		first.close();
+		second.close();
+		TestCase.assertEquals(1, cache.size());
+		TestCase.assertFalse(((TestStatement) first).closed);
+		TestCase.assertTrue(((TestStatement) second).closed);
+
+		GeoPackageStatement reused = cache.lease("a", TestStatement::new);
+		TestCase.assertSame(first, reused);
+		TestCase.assertEquals(1, cache.getHits());
+		TestCase.assertEquals(0, cache.size());
+		reused.close();
+
+		cache.lease("b", TestStatement::new).close();
+		cache.lease("c", TestStatement::new).close();
+		TestCase.assertEquals(2, cache.size());
+		TestCase.assertEquals(1, cache.getEvictions());
+		TestCase.assertTrue(((TestStatement) first).closed);
+		TestCase.assertEquals(0.2, cache.getHitRate(), 0.0);
+
+		GeoPackageStatement open = cache.lease("b", TestStatement::new);
+		cache.close();
+		TestCase.assertEquals(0, cache.size());
+		open.close();
+		TestCase.assertEquals(0, cache.size());
+		TestCase.assertTrue(((TestStatement) open).closed);
+
+		cache.resetStatistics();
+		TestCase.assertEquals(0, cache.getHits());
+		TestCase.assertEquals(0, cache.getMisses());
+		TestCase.assertEquals(0, cache.getEvictions());
+	}
+
+	/**
+	 * Test the default connection statement binds literal arguments, counts
+	 * changed rows, and returns inserted row ids without statement cache
+	 * leases
+	 */
+	@Test
+	public void testLiteralStatement() {
+		try (JdbcConnection connection = new JdbcConnection()) {
+			testStatements(connection);
+			TestCase.assertEquals(0, connection.getStatementCache().size());
+		}
+	}
+
+	/**
+	 * Test compiled connection statements bind arguments, count changed rows,
+	 * and return inserted row ids through statement cache leases
+	 */
+	@Test
+	public void testCompiledStatement() {
+		try (JdbcConnection connection = new JdbcConnection()) {
+			connection.setCompiledStatements(true);
+			testStatements(connection);
+			TestCase.assertTrue(connection.getStatementCache().getHits() > 1);
+			TestCase.assertTrue(connection.getStatementCache().size() > 0);
+		}
+	}
+
+	/**
+	 * Test the connection statements
+	 *
+	 * @param connection
+	 *            connection
+	 */
+	private static void testStatements(JdbcConnection connection) {
+
+		connection.execSQL(
+				"CREATE TABLE t (id INTEGER PRIMARY KEY, name TEXT, amount REAL, data BLOB)");
+
+		String insert = "INSERT INTO t (name, amount, data) VALUES (?, ?, ?)";
+		byte[] data = new byte[] { 0, 1, (byte) 0xFF };
+		TestCase.assertEquals(1, connection.executeInsert(insert,
+				new Object[] { "it's ?", 1.5, data }));
+		TestCase.assertEquals(2, connection.executeInsert(insert,
+				new Object[] { null, Double.NaN, null }));
+		TestCase.assertEquals(connection.hasCompiledStatements() ? 1 : 0,
+				connection.getStatementCache().getHits());
+
+		TestCase.assertEquals("it's ?",
+				connection.queryStatementResult(
+						"SELECT name FROM t WHERE id = ?",
+						new Object[] { 1 }));
+		TestCase.assertTrue(Arrays.equals(data,
+				(byte[]) connection.queryStatementResult(
+						"SELECT data FROM t WHERE name = ?",
+						new Object[] { "it's ?" })));
+		TestCase.assertNull(connection.queryStatementResult(
+				"SELECT amount FROM t WHERE id = ?", new Object[] { 2 }));
+
+		TestCase.assertEquals(1, connection.executeUpdate(
+				"UPDATE t SET amount = ?2 WHERE name <> '?' -- ?\n AND id = ?1 /* ? */",
+				new Object[] { 1, Double.POSITIVE_INFINITY }));
+		TestCase.assertEquals(Double.POSITIVE_INFINITY,
+				connection.queryStatementResult(
+						"SELECT amount FROM t WHERE id = ?",
+						new Object[] { 1 }));
+		TestCase.assertEquals(2, connection.executeUpdate(
+				"UPDATE t SET amount = ? WHERE id > ?",
+				new Object[] { true, 0L }));
+		TestCase.assertEquals(0, connection.executeUpdate(
+				"DELETE FROM t WHERE id = ?", new Object[] { 3 }));
+	}
+
+}
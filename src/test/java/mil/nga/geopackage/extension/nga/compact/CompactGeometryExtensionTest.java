@@ -0,0 +1,138 @@
+package mil.nga.geopackage.extension.nga.compact;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.geom.CompactGeometry;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.user.JdbcUserDao;
+import mil.nga.geopackage.user.JdbcUserRow;
+import mil.nga.sf.LineString;
+import mil.nga.sf.Point;
+
+/**
+ * Compact Geometry Extension test
+ *
+ * @author osbornb
+ */
+public class CompactGeometryExtensionTest {
+
+	/**
+	 * Test compact geometries are rewritten as standard geometries of the
+	 * rounded coordinates, leaving other values unchanged
+	 */
+	@Test
+	public void testToStandard() throws IOException {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			connection.execSQL(
+					"CREATE TABLE features (id INTEGER PRIMARY KEY, geom BLOB)");
+
+			LineString lineString = new LineString();
+			for (int i = 0; i < 10; i++) {
+				lineString.addPoint(new Point(-77.0 + i * 0.000000012,
+						38.0 + i * 0.001));
+			}
+			byte[] standard = GeoPackageGeometryData
+					.bytesAndBuildEnvelope(4326, lineString);
+			byte[] compact = CompactGeometry.toCompact(standard);
+			byte[] rounded = CompactGeometry.toStandard(compact);
+			TestCase.assertFalse(Arrays.equals(standard, rounded));
+
+			String insert = "INSERT INTO features (geom) VALUES (?)";
+			connection.executeUpdate(insert, new Object[] { compact });
+			connection.executeUpdate(insert, new Object[] { standard });
+			connection.executeUpdate(insert, new Object[] { null });
+			connection.executeUpdate(insert,
+					new Object[] { CompactGeometry.EXTENSION_CODE.getBytes() });
+			connection.executeUpdate(insert, new Object[] { compact });
+
+			TestCase.assertEquals(2, CompactGeometryExtension
+					.toStandard(connection, "features", "geom"));
+			TestCase.assertFalse(connection.inTransaction());
+
+			List<Object> values = connection.querySingleColumnResults(
+					"SELECT geom FROM features ORDER BY id", null, 0,
+					GeoPackageDataType.BLOB, null);
+			TestCase.assertTrue(Arrays.equals(rounded, (byte[]) values.get(0)));
+			TestCase.assertTrue(Arrays.equals(standard, (byte[]) values.get(1)));
+			TestCase.assertNull(values.get(2));
+			TestCase.assertTrue(Arrays.equals(
+					CompactGeometry.EXTENSION_CODE.getBytes(),
+					(byte[]) values.get(3)));
+			TestCase.assertTrue(Arrays.equals(rounded, (byte[]) values.get(4)));
+			LineString read = (LineString) GeoPackageGeometryData
+					.create((byte[]) values.get(4)).getGeometry();
+			TestCase.assertEquals(lineString.numPoints(), read.numPoints());
+			TestCase.assertEquals(-77.0 + 0.0000001,
+					read.getPoint(8).getX(), 0.0);
+
+			TestCase.assertEquals(0, CompactGeometryExtension
+					.toStandard(connection, "features", "geom"));
+			TestCase.assertEquals(0, CompactGeometryExtension
+					.toStandard(connection, "missing", "geom"));
+		}
+	}
+
+	/**
+	 * Test compact geometries read, modified, and updated through a DAO are
+	 * stored as compact geometries of the read precisions
+	 */
+	@Test
+	public void testReadUpdateRead() throws IOException {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "features");
+
+			LineString lineString = new LineString();
+			for (int i = 0; i < 10; i++) {
+				lineString.addPoint(new Point(-77.0 + i * 0.01, 38.0));
+			}
+			byte[] compact = CompactGeometry.toCompact(
+					GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+							lineString),
+					3, 0, 0);
+			JdbcUserRow row = dao.newRow("line", 1);
+			row.setValue("data", compact);
+			long id = dao.insert(row);
+
+			row = dao.queryForIdRow(id);
+			GeoPackageGeometryData geometryData = GeoPackageGeometryData
+					.create((byte[]) row.getValue("data"));
+			TestCase.assertTrue(geometryData.isCompact());
+			LineString read = (LineString) geometryData.getGeometry();
+			read.addPoint(new Point(-76.123456, 38.5));
+			row.setValue("data", geometryData);
+			TestCase.assertEquals(1, dao.update(row));
+
+			byte[] stored = (byte[]) connection.querySingleResult(
+					"SELECT data FROM features WHERE id = ?",
+					new String[] { String.valueOf(id) });
+			TestCase.assertTrue(CompactGeometry.isCompact(stored));
+			TestCase.assertTrue(Arrays.equals(stored, geometryData.toBytes()));
+			read = (LineString) GeoPackageGeometryData.create(stored)
+					.getGeometry();
+			TestCase.assertEquals(11, read.numPoints());
+			TestCase.assertEquals(-76.123, read.getPoint(10).getX(), 0.0);
+
+			// Unmodified compact geometries write the same compact bytes
+			row = dao.queryForIdRow(id);
+			row.setValue("data",
+					GeoPackageGeometryData.create((byte[]) row.getValue("data")));
+			TestCase.assertEquals(1, dao.update(row));
+			TestCase.assertTrue(Arrays.equals(stored,
+					(byte[]) connection.querySingleResult(
+							"SELECT data FROM features WHERE id = ?",
+							new String[] { String.valueOf(id) })));
+		}
+	}
+
+}
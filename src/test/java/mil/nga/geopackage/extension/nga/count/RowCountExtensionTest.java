@@ -0,0 +1,80 @@
+package mil.nga.geopackage.extension.nga.count;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.user.JdbcUserDao;
+
+/**
+ * Row Count Extension test
+ *
+ * @author osbornb
+ */
+public class RowCountExtensionTest {
+
+	/**
+	 * Test the trigger maintained count follows inserts and deletes from DAOs
+	 * and SQL, is transactional, and is returned by DAO counts when enabled
+	 */
+	@Test
+	public void testMaintainedCount() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			for (int i = 0; i < 5; i++) {
+				dao.insert(dao.newRow("row" + i, i));
+			}
+			TestCase.assertNull(RowCountExtension.getCount(connection, "test"));
+			TestCase.assertNull(dao.countMaintained());
+
+			RowCountExtension.createCount(connection, "test");
+			TestCase.assertEquals(5L,
+					(long) RowCountExtension.getCount(connection, "test"));
+
+			for (int i = 5; i < 8; i++) {
+				dao.insert(dao.newRow("row" + i, i));
+			}
+			connection.executeUpdate("INSERT INTO test (name) VALUES (?)",
+					new Object[] { "sql" });
+			TestCase.assertEquals(9L, (long) dao.countMaintained());
+
+			TestCase.assertEquals(3,
+					dao.delete("value < ?", new String[] { "3" }));
+			connection.execSQL("DELETE FROM test WHERE name = 'sql'");
+			TestCase.assertEquals(5L, (long) dao.countMaintained());
+
+			connection.beginTransaction();
+			dao.insert(dao.newRow("rollback", 0));
+			dao.deleteById(4);
+			dao.deleteById(5);
+			TestCase.assertEquals(4L, (long) dao.countMaintained());
+			connection.endTransaction(false);
+			TestCase.assertEquals(5L, (long) dao.countMaintained());
+			TestCase.assertEquals(5, dao.count());
+
+			// DAO counts read the maintained count only when enabled
+			connection.execSQL("UPDATE " + RowCountExtension.TABLE_NAME
+					+ " SET " + RowCountExtension.COLUMN_ROW_COUNT
+					+ " = 1000");
+			TestCase.assertEquals(5, dao.count());
+			dao.setMaintainedCount(true);
+			TestCase.assertEquals(1000, dao.count());
+
+			// Creating the count again recounts the rows
+			RowCountExtension.createCount(connection, "test");
+			TestCase.assertEquals(5, dao.count());
+			dao.insert(dao.newRow("row", 0));
+			TestCase.assertEquals(6, dao.count());
+
+			// Tables without a maintained count are counted
+			JdbcUserDao other = JdbcUserDao.create(connection, "other");
+			other.insert(other.newRow("row", 0));
+			other.setMaintainedCount(true);
+			TestCase.assertNull(other.countMaintained());
+			TestCase.assertEquals(1, other.count());
+		}
+	}
+
+}
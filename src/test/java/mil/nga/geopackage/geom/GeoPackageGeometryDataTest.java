@@ -0,0 +1,584 @@
+package mil.nga.geopackage.geom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.LineString;
+import mil.nga.sf.MultiLineString;
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.proj.ProjectionConstants;
+import mil.nga.sf.proj.ProjectionFactory;
+import mil.nga.sf.proj.ProjectionTransform;
+import mil.nga.sf.util.filter.GeometryFilter;
+import mil.nga.sf.wkb.GeometryReader;
+
+/**
+ * GeoPackage Geometry Data Test
+ *
+ * @author osbornb
+ */
+public class GeoPackageGeometryDataTest {
+
+	/**
+	 * Test lazily reading the geometry
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testLazy() throws IOException {
+
+		Polygon polygon = createPolygon();
+		byte[] bytes = GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+				polygon);
+
+		GeoPackageGeometryData lazy = GeoPackageGeometryData
+				.createLazy(bytes);
+		TestCase.assertFalse(lazy.isGeometryRead());
+		TestCase.assertEquals(4326, lazy.getSrsId());
+		TestCase.assertFalse(lazy.isEmpty());
+		TestCase.assertEquals(0.0, lazy.getEnvelope().getMinX());
+		TestCase.assertEquals(10.0, lazy.getEnvelope().getMaxY());
+
+		GeoPackageGeometryData copy = new GeoPackageGeometryData(lazy);
+		TestCase.assertFalse(copy.isGeometryRead());
+
+		Geometry geometry = lazy.getGeometry();
+		TestCase.assertTrue(lazy.isGeometryRead());
+		TestCase.assertEquals(polygon, geometry);
+		TestCase.assertEquals(polygon, copy.getGeometry());
+
+		GeoPackageGeometryData lazyWrite = GeoPackageGeometryData
+				.createLazy(bytes);
+		TestCase.assertTrue(Arrays.equals(bytes, lazyWrite.toBytes()));
+
+		GeoPackageGeometryData empty = GeoPackageGeometryData.createLazy(
+				GeoPackageGeometryData.create(4326).toBytes());
+		TestCase.assertTrue(empty.isGeometryRead());
+		TestCase.assertNull(empty.getGeometry());
+	}
+
+	/**
+	 * Test reading envelopes from the geometry bytes
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testEnvelopeReader() throws IOException {
+
+		Polygon polygon = createPolygon();
+		double[] envelope = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+
+		// Header envelope
+		byte[] bytes = GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+				polygon);
+		TestCase.assertTrue(
+				GeometryEnvelopeReader.readEnvelope(bytes, envelope));
+		TestCase.assertEquals(
+				GeoPackageGeometryData.create(bytes).getEnvelope(),
+				GeometryEnvelopeReader.toGeometryEnvelope(envelope));
+		TestCase.assertEquals(10.0, GeometryEnvelopeReader
+				.readEnvelopeValue(bytes, GeometryEnvelopeReader.MAX_X));
+		TestCase.assertEquals(4326, GeometryEnvelopeReader.readSrsId(bytes));
+
+		// Scanned envelope, little endian with z values
+		MultiLineString multiLineString = new MultiLineString(true, false);
+		LineString lineString = new LineString(true, false);
+		lineString.addPoint(new Point(-5, 2, 7.0));
+		lineString.addPoint(new Point(3, -8, -1.0));
+		multiLineString.addLineString(lineString);
+		multiLineString.addLineString(createPolygon().getRing(0));
+		GeoPackageGeometryData geometryData = GeoPackageGeometryData
+				.create(4326, multiLineString);
+		geometryData.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+		bytes = geometryData.toBytes();
+
+		DoubleBuffer buffer = DoubleBuffer
+				.allocate(GeometryEnvelopeReader.ENVELOPE_LENGTH);
+		TestCase.assertTrue(GeometryEnvelopeReader
+				.readEnvelope(ByteBuffer.wrap(bytes), buffer));
+		envelope = buffer.array();
+		TestCase.assertEquals(-5.0, envelope[GeometryEnvelopeReader.MIN_X]);
+		TestCase.assertEquals(10.0, envelope[GeometryEnvelopeReader.MAX_X]);
+		TestCase.assertEquals(-8.0, envelope[GeometryEnvelopeReader.MIN_Y]);
+		TestCase.assertEquals(10.0, envelope[GeometryEnvelopeReader.MAX_Y]);
+		TestCase.assertEquals(-1.0, envelope[GeometryEnvelopeReader.MIN_Z]);
+		TestCase.assertEquals(7.0, envelope[GeometryEnvelopeReader.MAX_Z]);
+		TestCase.assertTrue(
+				Double.isNaN(envelope[GeometryEnvelopeReader.MIN_M]));
+		TestCase.assertEquals(-8.0, GeometryEnvelopeReader
+				.readEnvelopeValue(bytes, GeometryEnvelopeReader.MIN_Y));
+		double[] scanned = new double[GeometryEnvelopeReader.ENVELOPE_LENGTH];
+		TestCase.assertEquals(7.0, GeometryEnvelopeReader.readEnvelopeValue(
+				bytes, GeometryEnvelopeReader.MAX_Z, scanned));
+		TestCase.assertEquals(-5.0, scanned[GeometryEnvelopeReader.MIN_X]);
+
+		// Lazy geometry data envelope built without reading the geometry
+		GeoPackageGeometryData lazy = GeoPackageGeometryData
+				.createLazy(bytes);
+		TestCase.assertEquals(-5.0, lazy.getOrBuildEnvelope().getMinX());
+		TestCase.assertFalse(lazy.isGeometryRead());
+
+		// Empty
+		bytes = GeoPackageGeometryData.create(4326).toBytes();
+		TestCase.assertTrue(GeometryEnvelopeReader.isEmpty(bytes));
+		TestCase.assertFalse(
+				GeometryEnvelopeReader.readEnvelope(bytes, envelope));
+	}
+
+	/**
+	 * Test scanned envelopes apply the geometry filter and accumulate into
+	 * the double buffer at its position
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testEnvelopeReaderFilter() throws IOException {
+
+		byte[] bytes = createNonFiniteBytes();
+		GeometryEnvelope expected = GeoPackageGeometryData.create(bytes)
+				.buildEnvelope();
+		TestCase.assertEquals(-4.0, expected.getMinY());
+
+		DoubleBuffer buffer = DoubleBuffer
+				.allocate(GeometryEnvelopeReader.ENVELOPE_LENGTH * 2);
+		buffer.position(GeometryEnvelopeReader.ENVELOPE_LENGTH);
+		TestCase.assertTrue(GeometryEnvelopeReader.readEnvelope(bytes, buffer));
+		TestCase.assertEquals(GeometryEnvelopeReader.ENVELOPE_LENGTH * 2,
+				buffer.position());
+		double[] envelope = Arrays.copyOfRange(buffer.array(),
+				GeometryEnvelopeReader.ENVELOPE_LENGTH,
+				GeometryEnvelopeReader.ENVELOPE_LENGTH * 2);
+		TestCase.assertEquals(expected,
+				GeometryEnvelopeReader.toGeometryEnvelope(envelope));
+
+		// Filters that can not be scanned read the filtered geometry
+		GeometryFilter filter = GeoPackageGeometryData.getGeometryFilter();
+		try {
+			GeoPackageGeometryData.setGeometryFilter(
+					(containingType, geometry) -> !(geometry instanceof Point)
+							|| ((Point) geometry).getX() < 3);
+			TestCase.assertTrue(
+					GeometryEnvelopeReader.readEnvelope(bytes, envelope));
+			TestCase.assertEquals(2.0,
+					envelope[GeometryEnvelopeReader.MAX_X]);
+			TestCase.assertEquals(GeoPackageGeometryData.create(bytes)
+					.buildEnvelope(),
+					GeometryEnvelopeReader.toGeometryEnvelope(envelope));
+		} finally {
+			GeoPackageGeometryData.setGeometryFilter(filter);
+		}
+
+		// Filtered point
+		bytes = GeoPackageGeometryData
+				.create(4326, new Point(Double.NaN, 1.0)).toBytes();
+		buffer.clear();
+		TestCase.assertFalse(GeometryEnvelopeReader.readEnvelope(bytes, buffer));
+		TestCase.assertEquals(0, buffer.position());
+	}
+
+	/**
+	 * Test lazy geometry data envelopes and transforms match eager geometry
+	 * data when points are filtered
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testLazyFilter() throws IOException {
+
+		byte[] bytes = createNonFiniteBytes();
+		GeoPackageGeometryData eager = GeoPackageGeometryData.create(bytes);
+		GeoPackageGeometryData lazy = GeoPackageGeometryData.createLazy(bytes);
+
+		TestCase.assertEquals(eager.buildEnvelope(), lazy.buildEnvelope());
+		TestCase.assertFalse(lazy.isGeometryRead());
+
+		ProjectionTransform transform = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertEquals(eager.transform(transform).getGeometry(),
+				GeoPackageGeometryData.createLazy(bytes).transform(transform)
+						.getGeometry());
+
+		GeometryFilter filter = GeoPackageGeometryData.getGeometryFilter();
+		try {
+			GeoPackageGeometryData.setGeometryFilter(
+					(containingType, geometry) -> !(geometry instanceof Point)
+							|| ((Point) geometry).getY() > 0);
+			TestCase.assertEquals(
+					GeoPackageGeometryData.create(bytes).buildEnvelope(),
+					GeoPackageGeometryData.createLazy(bytes).buildEnvelope());
+		} finally {
+			GeoPackageGeometryData.setGeometryFilter(filter);
+		}
+	}
+
+	/**
+	 * Test reusing a geometry view over heap and direct byte buffers
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testView() throws IOException {
+
+		Polygon polygon = createPolygon();
+		byte[] polygonBytes = GeoPackageGeometryData.bytes(4326, polygon);
+		Point point = new Point(1.5, -2.5);
+		byte[] pointBytes = GeoPackageGeometryData.bytesAndBuildEnvelope(3857,
+				point);
+
+		GeoPackageGeometryView view = new GeoPackageGeometryView(polygonBytes);
+		TestCase.assertEquals(4326, view.getSrsId());
+		TestCase.assertFalse(view.hasHeaderEnvelope());
+		TestCase.assertEquals(10.0,
+				view.getEnvelopeValue(GeometryEnvelopeReader.MAX_X));
+		TestCase.assertEquals(polygon, view.getGeometry());
+		TestCase.assertTrue(Arrays.equals(
+				GeoPackageGeometryData.create(polygonBytes).getWkb(),
+				view.getWkb()));
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(pointBytes.length + 3);
+		direct.position(3);
+		direct.put(pointBytes);
+		direct.position(3);
+		view.wrap(direct);
+		TestCase.assertEquals(3, direct.position());
+		TestCase.assertEquals(3857, view.getSrsId());
+		TestCase.assertTrue(view.hasHeaderEnvelope());
+		TestCase.assertEquals(-2.5, view.getEnvelope().getMinY());
+		TestCase.assertEquals(point, view.getGeometry());
+		TestCase.assertEquals(view.getWkb().length,
+				view.getWkbBuffer().remaining());
+		TestCase.assertEquals(point, view.toGeometryData().getGeometry());
+	}
+
+	/**
+	 * Test the encoder matches the Well-Known Binary writer bytes
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testEncoder() throws IOException {
+
+		MultiPolygon multiPolygon = new MultiPolygon(false, true);
+		Polygon polygon = new Polygon(false, true);
+		LineString ring = new LineString(false, true);
+		ring.addPoint(new Point(false, true, 0.0, 0.0));
+		ring.getPoints().get(0).setM(1.0);
+		ring.addPoint(new Point(false, true, 5.0, 0.0));
+		ring.getPoints().get(1).setM(2.0);
+		ring.addPoint(new Point(false, true, 0.0, 5.0));
+		ring.getPoints().get(2).setM(3.0);
+		ring.addPoint(ring.getPoints().get(0));
+		polygon.addRing(ring);
+		multiPolygon.addPolygon(polygon);
+		multiPolygon.addPolygon(createPolygon());
+
+		for (ByteOrder byteOrder : new ByteOrder[] { ByteOrder.BIG_ENDIAN,
+				ByteOrder.LITTLE_ENDIAN }) {
+
+			GeoPackageGeometryData geometryData = GeoPackageGeometryData
+					.createAndBuildEnvelope(4326, multiPolygon);
+			geometryData.setByteOrder(byteOrder);
+			byte[] bytes = geometryData.toBytes();
+
+			byte[] wkb = mil.nga.sf.wkb.GeometryWriter
+					.writeGeometry(multiPolygon, byteOrder);
+			TestCase.assertEquals(bytes.length,
+					GeoPackageGeometryEncoder.size(geometryData));
+			TestCase.assertTrue(Arrays.equals(wkb, geometryData.getWkb()));
+			TestCase.assertEquals(multiPolygon,
+					GeoPackageGeometryData.create(bytes).getGeometry());
+
+			GeoPackageGeometryEncoder encoder = new GeoPackageGeometryEncoder(
+					8);
+			ByteBuffer encoded = encoder.encode(geometryData);
+			TestCase.assertEquals(0, encoded.position());
+			TestCase.assertEquals(bytes.length, encoded.limit());
+			byte[] encodedBytes = new byte[encoded.remaining()];
+			encoded.get(encodedBytes);
+			TestCase.assertTrue(Arrays.equals(bytes, encodedBytes));
+		}
+	}
+
+	/**
+	 * Test batch encoding and decoding preserves order
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testBatch() throws IOException {
+
+		List<Geometry> geometries = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			geometries.add(i % 100 == 0 ? null : new Point(i, -i));
+		}
+
+		List<byte[]> bytes = GeoPackageGeometryBatch.encode(4326, geometries,
+				true, ForkJoinPool.commonPool(), 10);
+		TestCase.assertEquals(geometries.size(), bytes.size());
+
+		List<GeoPackageGeometryData> decoded = GeoPackageGeometryBatch
+				.decode(bytes);
+		for (int i = 0; i < geometries.size(); i++) {
+			GeoPackageGeometryData geometryData = decoded.get(i);
+			TestCase.assertEquals(4326, geometryData.getSrsId());
+			TestCase.assertEquals(geometries.get(i),
+					geometryData.getGeometry());
+			TestCase.assertTrue(Arrays.equals(bytes.get(i),
+					GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+							geometries.get(i))));
+		}
+	}
+
+	/**
+	 * Test packed coordinate geometries
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testPacked() throws IOException {
+
+		MultiPolygon multiPolygon = new MultiPolygon();
+		multiPolygon.addPolygon(createPolygon());
+		Polygon polygon = createPolygon();
+		LineString hole = new LineString();
+		hole.addPoint(new Point(2, 2));
+		hole.addPoint(new Point(4, 2));
+		hole.addPoint(new Point(4, 4));
+		hole.addPoint(new Point(2, 2));
+		polygon.addRing(hole);
+		multiPolygon.addPolygon(polygon);
+
+		byte[] bytes = GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+				multiPolygon);
+
+		PackedGeometry packed = GeoPackageGeometryData.createLazy(bytes)
+				.getPackedGeometry();
+		TestCase.assertEquals(2, packed.numParts());
+		TestCase.assertEquals(3, packed.numRings());
+		TestCase.assertEquals(14, packed.numPoints());
+		TestCase.assertEquals(multiPolygon, packed.toGeometry());
+		TestCase.assertEquals(multiPolygon.getEnvelope(),
+				packed.buildEnvelope());
+
+		PackedGeometry created = PackedGeometry.create(multiPolygon);
+		TestCase.assertTrue(Arrays.equals(packed.getCoordinates(),
+				created.getCoordinates()));
+		TestCase.assertTrue(Arrays.equals(packed.getRingOffsets(),
+				created.getRingOffsets()));
+		TestCase.assertTrue(Arrays.equals(packed.getPartOffsets(),
+				created.getPartOffsets()));
+
+		TestCase.assertTrue(Arrays.equals(bytes,
+				GeoPackageGeometryEncoder.toBytes(4326, packed,
+						GeoPackageGeometryData.getDefaultByteOrder(), true)));
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes);
+		direct.rewind();
+		PackedGeometry viewed = new GeoPackageGeometryView(direct)
+				.getPackedGeometry();
+		TestCase.assertEquals(multiPolygon, viewed.toGeometry());
+
+		LineString lineString = new LineString(true, true);
+		lineString.addPoint(new Point(true, true, 1, 2));
+		lineString.getPoints().get(0).setZ(3.0);
+		lineString.getPoints().get(0).setM(4.0);
+		lineString.addPoint(new Point(true, true, 5, 6));
+		lineString.getPoints().get(1).setZ(7.0);
+		lineString.getPoints().get(1).setM(8.0);
+		PackedGeometry packedLine = PackedGeometry
+				.readWkb(PackedGeometry.create(lineString)
+						.toWkb(ByteOrder.LITTLE_ENDIAN), 0);
+		TestCase.assertEquals(4, packedLine.getDimension());
+		TestCase.assertEquals(7.0, packedLine.getZ(1));
+		TestCase.assertEquals(8.0, packedLine.getM(1));
+		TestCase.assertEquals(lineString, packedLine.toGeometry());
+	}
+
+	/**
+	 * Test transforming geometry bytes
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testTransform() throws IOException {
+
+		Polygon polygon = createPolygon();
+		byte[] bytes = GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+				polygon);
+
+		ProjectionTransform transform = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM)
+				.getTransformation(ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		byte[] transformed = GeoPackageGeometryTransformer.transform(bytes,
+				transform, 3857);
+		GeoPackageGeometryData geometryData = GeoPackageGeometryData
+				.create(transformed);
+		TestCase.assertEquals(3857, geometryData.getSrsId());
+
+		Geometry expected = transform.transform(polygon);
+		TestCase.assertEquals(expected, geometryData.getGeometry());
+		TestCase.assertEquals(expected.getEnvelope(),
+				geometryData.getEnvelope());
+
+		TestCase.assertEquals(expected, GeoPackageGeometryData
+				.createLazy(bytes).transform(transform).getGeometry());
+	}
+
+	/**
+	 * Test compact geometries
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testCompact() throws IOException {
+
+		MultiLineString multiLineString = new MultiLineString();
+		for (int i = 0; i < 3; i++) {
+			LineString lineString = new LineString();
+			for (int j = 0; j < 100; j++) {
+				lineString.addPoint(
+						new Point(-77.0 + j * 0.00001, 38.0 + i * 0.001));
+			}
+			multiLineString.addLineString(lineString);
+		}
+
+		byte[] bytes = GeoPackageGeometryData.bytesAndBuildEnvelope(4326,
+				multiLineString);
+		byte[] compact = CompactGeometry.toCompact(bytes);
+		TestCase.assertTrue(CompactGeometry.isCompact(compact));
+		TestCase.assertFalse(CompactGeometry.isCompact(bytes));
+		TestCase.assertTrue(compact.length * 3 < bytes.length);
+
+		// The extension code is only compact in an extended geometry
+		byte[] standardFlags = Arrays.copyOf(compact, compact.length);
+		standardFlags[3] &= ~(1 << 5);
+		TestCase.assertFalse(CompactGeometry.isCompact(standardFlags));
+		TestCase.assertSame(standardFlags,
+				CompactGeometry.toStandard(standardFlags));
+
+		GeoPackageGeometryData geometryData = GeoPackageGeometryData
+				.create(compact);
+		TestCase.assertEquals(4326, geometryData.getSrsId());
+		TestCase.assertEquals(multiLineString, geometryData.getGeometry());
+		TestCase.assertEquals(multiLineString.getEnvelope(),
+				geometryData.getEnvelope());
+		TestCase.assertEquals(multiLineString,
+				GeoPackageGeometryData.createLazy(compact).getGeometry());
+		TestCase.assertEquals(multiLineString,
+				new GeoPackageGeometryView(compact).getGeometry());
+		TestCase.assertTrue(geometryData.isCompact());
+		TestCase.assertSame(compact, geometryData.getBytes());
+		TestCase.assertTrue(Arrays.equals(compact, geometryData.toBytes()));
+		TestCase.assertTrue(Arrays.equals(compact, geometryData.encode()));
+		TestCase.assertTrue(Arrays.equals(compact,
+				new GeoPackageGeometryData(geometryData).getBytes()));
+		TestCase.assertFalse(GeoPackageGeometryData.create(bytes).isCompact());
+
+		// Well-Known Binary accessors decode compact geometries
+		GeoPackageGeometryData lazyData = GeoPackageGeometryData
+				.createLazy(compact);
+		TestCase.assertFalse(lazyData.isExtended());
+		TestCase.assertTrue(lazyData.isCompact());
+		TestCase.assertSame(compact, lazyData.getBytes());
+		TestCase.assertEquals(multiLineString,
+				GeometryReader.readGeometry(lazyData.getWkb()));
+		TestCase.assertEquals(multiLineString, GeometryReader.readGeometry(
+				GeoPackageGeometryData.wkb(compact)));
+		TestCase.assertEquals(multiLineString, GeometryReader
+				.readGeometry(new GeoPackageGeometryView(compact).getWkb()));
+
+		TestCase.assertTrue(
+				Arrays.equals(bytes, CompactGeometry.toStandard(compact)));
+		TestCase.assertSame(bytes, CompactGeometry.toStandard(bytes));
+
+		Point point = new Point(true, false, 1.23456789, 2.5);
+		point.setZ(3.14159);
+		PackedGeometry packed = CompactGeometry
+				.readPacked(CompactGeometry.toBytes(4326,
+						PackedGeometry.create(point), ByteOrder.BIG_ENDIAN, 2,
+						1, 0));
+		TestCase.assertEquals(1.23, packed.getX(0));
+		TestCase.assertEquals(2.5, packed.getY(0));
+		TestCase.assertEquals(3.1, packed.getZ(0));
+
+		CompactGeometry.validatePrecision(-7, CompactGeometry.MIN_PRECISION);
+		for (int precision : new int[] { -8, 8 }) {
+			try {
+				CompactGeometry.validatePrecision(precision,
+						CompactGeometry.MIN_PRECISION);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * Create GeoPackage geometry bytes without a header envelope containing
+	 * NaN and infinite points
+	 *
+	 * @return bytes
+	 * @throws IOException
+	 *             upon error
+	 */
+	private static byte[] createNonFiniteBytes() throws IOException {
+		MultiLineString multiLineString = new MultiLineString(true, false);
+		LineString lineString = new LineString(true, false);
+		lineString.addPoint(new Point(1, 2, 3.0));
+		lineString.addPoint(new Point(Double.NaN, 50, 100.0));
+		lineString.addPoint(new Point(5, Double.POSITIVE_INFINITY, -100.0));
+		lineString.addPoint(new Point(2, -4, 1.0));
+		multiLineString.addLineString(lineString);
+		LineString lineString2 = new LineString(true, false);
+		lineString2.addPoint(new Point(Double.NEGATIVE_INFINITY, 0, 0.0));
+		lineString2.addPoint(new Point(4, 6, 2.0));
+		multiLineString.addLineString(lineString2);
+		return GeoPackageGeometryData.create(4326, multiLineString).toBytes();
+	}
+
+	/**
+	 * Create a test polygon
+	 *
+	 * @return polygon
+	 */
+	private static Polygon createPolygon() {
+		Polygon polygon = new Polygon();
+		LineString ring = new LineString();
+		ring.addPoint(new Point(0, 0));
+		ring.addPoint(new Point(10, 0));
+		ring.addPoint(new Point(10, 10));
+		ring.addPoint(new Point(0, 10));
+		ring.addPoint(new Point(0, 0));
+		polygon.addRing(ring);
+		return polygon;
+	}
+
+}
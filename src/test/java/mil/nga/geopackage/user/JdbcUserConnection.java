@@ -0,0 +1,245 @@
+package mil.nga.geopackage.user;
+
+import mil.nga.geopackage.db.GeoPackageStatement;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.db.JdbcStatement;
+import mil.nga.geopackage.db.SQLiteQueryBuilder;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User connection over a {@link JdbcConnection} for tests
+ *
+ * @author osbornb
+ */
+public class JdbcUserConnection extends
+		UserCoreConnection<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> {
+
+	/**
+	 * Connection
+	 */
+	private final JdbcConnection connection;
+
+	/**
+	 * Table
+	 */
+	private final UserCustomTable table;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table
+	 */
+	public JdbcUserConnection(JdbcConnection connection,
+			UserCustomTable table) {
+		this.connection = connection;
+		this.table = table;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult rawQuery(String sql, String[] selectionArgs) {
+		return new JdbcUserResult(table, connection.query(sql, selectionArgs));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(GeoPackageStatement statement,
+			String[] selectionArgs) {
+		JdbcUserResult result;
+		if (statement instanceof JdbcStatement) {
+			try {
+				statement.bind(selectionArgs);
+				result = new JdbcUserResult(table,
+						((JdbcStatement) statement).query());
+			} finally {
+				statement.close();
+			}
+		} else {
+			result = super.query(statement, selectionArgs);
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(String table, String[] columns,
+			String selection, String[] selectionArgs, String groupBy,
+			String having, String orderBy) {
+		return query(false, table, columns, selection, selectionArgs, groupBy,
+				having, orderBy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(boolean distinct, String table,
+			String[] columns, String selection, String[] selectionArgs,
+			String groupBy, String having, String orderBy) {
+		return query(distinct, table, columns, (String[]) null, selection, selectionArgs,
+				groupBy, having, orderBy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(String table, String[] columns,
+			String[] columnsAs, String selection, String[] selectionArgs,
+			String groupBy, String having, String orderBy) {
+		return query(false, table, columns, columnsAs, selection,
+				selectionArgs, groupBy, having, orderBy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(boolean distinct, String table,
+			String[] columns, String[] columnsAs, String selection,
+			String[] selectionArgs, String groupBy, String having,
+			String orderBy) {
+		return query(distinct, table, columns, columnsAs, selection,
+				selectionArgs, groupBy, having, orderBy, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(String table, String[] columns,
+			String selection, String[] selectionArgs, String groupBy,
+			String having, String orderBy, String limit) {
+		return query(false, table, columns, selection, selectionArgs, groupBy,
+				having, orderBy, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(boolean distinct, String table,
+			String[] columns, String selection, String[] selectionArgs,
+			String groupBy, String having, String orderBy, String limit) {
+		return query(distinct, table, columns, (String[]) null, selection, selectionArgs,
+				groupBy, having, orderBy, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(String table, String[] columns,
+			String[] columnsAs, String selection, String[] selectionArgs,
+			String groupBy, String having, String orderBy, String limit) {
+		return query(false, table, columns, columnsAs, selection,
+				selectionArgs, groupBy, having, orderBy, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserResult query(boolean distinct, String table,
+			String[] columns, String[] columnsAs, String selection,
+			String[] selectionArgs, String groupBy, String having,
+			String orderBy, String limit) {
+		return rawQuery(querySQL(distinct, table, columns, columnsAs,
+				selection, groupBy, having, orderBy, limit), selectionArgs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(String table, String[] columns, String selection,
+			String groupBy, String having, String orderBy) {
+		return querySQL(false, table, columns, selection, groupBy, having,
+				orderBy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(boolean distinct, String table, String[] columns,
+			String selection, String groupBy, String having, String orderBy) {
+		return querySQL(distinct, table, columns, (String[]) null, selection, groupBy,
+				having, orderBy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(String table, String[] columns, String[] columnsAs,
+			String selection, String groupBy, String having, String orderBy) {
+		return querySQL(false, table, columns, columnsAs, selection, groupBy,
+				having, orderBy);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(boolean distinct, String table, String[] columns,
+			String[] columnsAs, String selection, String groupBy,
+			String having, String orderBy) {
+		return querySQL(distinct, table, columns, columnsAs, selection,
+				groupBy, having, orderBy, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(String table, String[] columns, String selection,
+			String groupBy, String having, String orderBy, String limit) {
+		return querySQL(false, table, columns, selection, groupBy, having,
+				orderBy, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(boolean distinct, String table, String[] columns,
+			String selection, String groupBy, String having, String orderBy,
+			String limit) {
+		return querySQL(distinct, table, columns, (String[]) null, selection, groupBy,
+				having, orderBy, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(String table, String[] columns, String[] columnsAs,
+			String selection, String groupBy, String having, String orderBy,
+			String limit) {
+		return querySQL(false, table, columns, columnsAs, selection, groupBy,
+				having, orderBy, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String querySQL(boolean distinct, String table, String[] columns,
+			String[] columnsAs, String selection, String groupBy,
+			String having, String orderBy, String limit) {
+		return SQLiteQueryBuilder.buildQueryString(distinct, table, columns,
+				columnsAs, selection, groupBy, having, orderBy, limit);
+	}
+
+}
@@ -0,0 +1,224 @@
+package mil.nga.geopackage.user;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+import mil.nga.sf.proj.Projection;
+
+/**
+ * User DAO over a {@link JdbcConnection} for tests
+ *
+ * @author osbornb
+ */
+public class JdbcUserDao extends
+		UserCoreDao<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> {
+
+	/**
+	 * Connection
+	 */
+	private final JdbcConnection connection;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table
+	 */
+	public JdbcUserDao(JdbcConnection connection, UserCustomTable table) {
+		super("test", connection, new JdbcUserConnection(connection, table),
+				table);
+		this.connection = connection;
+	}
+
+	/**
+	 * Create the table and a DAO of it
+	 *
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            table
+	 * @return DAO
+	 */
+	public static JdbcUserDao create(JdbcConnection connection,
+			UserCustomTable table) {
+		connection.execSQL(CoreSQLUtils.createTableSQL(table));
+		return new JdbcUserDao(connection, table);
+	}
+
+	/**
+	 * Create a test table with an id primary key, a text name, an integer
+	 * value, a double amount, and a blob data column
+	 *
+	 * @param connection
+	 *            connection
+	 * @param tableName
+	 *            table name
+	 * @return DAO
+	 */
+	public static JdbcUserDao create(JdbcConnection connection,
+			String tableName) {
+		List<UserCustomColumn> columns = new ArrayList<>();
+		columns.add(UserCustomColumn.createPrimaryKeyColumn("id"));
+		columns.add(UserCustomColumn.createColumn("name",
+				GeoPackageDataType.TEXT));
+		columns.add(UserCustomColumn.createColumn("value",
+				GeoPackageDataType.INTEGER));
+		columns.add(UserCustomColumn.createColumn("amount",
+				GeoPackageDataType.DOUBLE));
+		columns.add(UserCustomColumn.createColumn("data",
+				GeoPackageDataType.BLOB));
+		return create(connection, new UserCustomTable(tableName, columns));
+	}
+
+	/**
+	 * Create a new row with the values
+	 *
+	 * @param name
+	 *            name
+	 * @param value
+	 *            value
+	 * @return row
+	 */
+	public JdbcUserRow newRow(String name, Integer value) {
+		JdbcUserRow row = newRow();
+		row.setValue("name", name);
+		row.setValue("value", value);
+		return row;
+	}
+
+	/**
+	 * Get the connection
+	 *
+	 * @return connection
+	 */
+	public JdbcConnection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserRow newRow() {
+		return new JdbcUserRow(getTable());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BoundingBox getBoundingBox(Projection projection) {
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected JdbcUserResult prepareResult(JdbcUserResult result) {
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beginTransaction() {
+		connection.beginTransaction();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void endTransaction(boolean successful) {
+		connection.endTransaction(successful);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void commit() {
+		connection.commit();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean inTransaction() {
+		return connection.inTransaction();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(JdbcUserRow row) {
+		List<String> columns = new ArrayList<>();
+		List<Object> args = new ArrayList<>();
+		for (int i = 0; i < row.columnCount(); i++) {
+			if (i != row.getPkColumnIndex()) {
+				UserCustomColumn column = row.getColumn(i);
+				columns.add(column.getName());
+				args.add(getBatchValue(column, row.getValue(i)));
+			}
+		}
+		args.add(row.getId());
+		int updated = connection.executeUpdate(
+				buildUpdateSQL(columns.toArray(new String[columns.size()])),
+				args.toArray());
+		rowUpdated(row, updated);
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(JdbcUserRow row) {
+		List<String> columns = new ArrayList<>();
+		List<Object> args = new ArrayList<>();
+		for (int i = 0; i < row.columnCount(); i++) {
+			Object value = row.getValue(i);
+			if (i != row.getPkColumnIndex() || value != null) {
+				UserCustomColumn column = row.getColumn(i);
+				columns.add(column.getName());
+				args.add(getBatchValue(column, value));
+			}
+		}
+		StringBuilder sql = new StringBuilder("INSERT INTO ");
+		sql.append(CoreSQLUtils.quoteWrap(getTableName())).append(" (");
+		for (int i = 0; i < columns.size(); i++) {
+			sql.append(i > 0 ? ", " : "")
+					.append(CoreSQLUtils.quoteWrap(columns.get(i)));
+		}
+		sql.append(") VALUES (");
+		for (int i = 0; i < columns.size(); i++) {
+			sql.append(i > 0 ? ", ?" : "?");
+		}
+		sql.append(")");
+		long id = connection.executeInsert(sql.toString(), args.toArray());
+		row.setId(id, true);
+		rowInserted(id);
+		return id;
+	}
+
+}
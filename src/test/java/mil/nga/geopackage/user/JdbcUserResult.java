@@ -0,0 +1,284 @@
+package mil.nga.geopackage.user;
+
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.MemoryResult;
+import mil.nga.geopackage.db.ResultUtils;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User result of a {@link JdbcUserConnection} query for tests
+ *
+ * @author osbornb
+ */
+public class JdbcUserResult
+		implements UserCoreResult<UserCustomColumn, UserCustomTable, JdbcUserRow> {
+
+	/**
+	 * Table
+	 */
+	private final UserCustomTable table;
+
+	/**
+	 * Result columns
+	 */
+	private final UserColumns<UserCustomColumn> columns;
+
+	/**
+	 * Result
+	 */
+	private final MemoryResult result;
+
+	/**
+	 * Closed flag
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param table
+	 *            table
+	 * @param result
+	 *            result
+	 */
+	JdbcUserResult(UserCustomTable table, MemoryResult result) {
+		this.table = table;
+		this.result = result;
+		String[] columnNames = result.getColumnNames();
+		boolean tableColumns = true;
+		for (String columnName : columnNames) {
+			tableColumns = tableColumns && table.hasColumn(columnName);
+		}
+		this.columns = tableColumns ? table.createUserColumns(columnNames)
+				: table.getUserColumns();
+	}
+
+	/**
+	 * Determine if the result is closed
+	 *
+	 * @return true if closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserRow getRow(int[] columnTypes, Object[] values) {
+		return new JdbcUserRow(table, columns, columnTypes, values);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getValue(UserCustomColumn column) {
+		return getValue(column.getName());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getValue(int index) {
+		return ResultUtils.getValue(this, index,
+				columns.getColumn(index).getDataType());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getValue(String columnName) {
+		return getValue(columns.getColumnIndex(columnName));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getId() {
+		return ((Number) getValue(columns.getPkColumnIndex())).longValue();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UserCustomTable getTable() {
+		return table;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getTableName() {
+		return table.getTableName();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UserColumns<UserCustomColumn> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JdbcUserRow getRow() {
+		return getRow(new UserRowDecoder<>(columns));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getCount() {
+		return result.getCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getValue(int index, GeoPackageDataType dataType) {
+		return result.getValue(index, dataType);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean moveToNext() {
+		return result.moveToNext();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getPosition() {
+		return result.getPosition();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean moveToFirst() {
+		return result.moveToFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean moveToPosition(int position) {
+		return result.moveToPosition(position);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getColumnCount() {
+		return result.getColumnCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getType(int columnIndex) {
+		return result.getType(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getColumnIndex(String columnName) {
+		return result.getColumnIndex(columnName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getString(int columnIndex) {
+		return result.getString(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLong(int columnIndex) {
+		return result.getLong(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getInt(int columnIndex) {
+		return result.getInt(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public short getShort(int columnIndex) {
+		return result.getShort(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getDouble(int columnIndex) {
+		return result.getDouble(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public float getFloat(int columnIndex) {
+		return result.getFloat(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] getBlob(int columnIndex) {
+		return result.getBlob(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean wasNull() {
+		return result.wasNull();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		result.close();
+	}
+
+}
@@ -0,0 +1,40 @@
+package mil.nga.geopackage.user;
+
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User row of a {@link JdbcUserDao} for tests
+ *
+ * @author osbornb
+ */
+public class JdbcUserRow extends UserCoreRow<UserCustomColumn, UserCustomTable> {
+
+	/**
+	 * Constructor
+	 *
+	 * @param table
+	 *            table
+	 * @param columns
+	 *            columns
+	 * @param columnTypes
+	 *            column types
+	 * @param values
+	 *            values
+	 */
+	JdbcUserRow(UserCustomTable table, UserColumns<UserCustomColumn> columns,
+			int[] columnTypes, Object[] values) {
+		super(table, columns, columnTypes, values);
+	}
+
+	/**
+	 * Constructor to create an empty row
+	 *
+	 * @param table
+	 *            table
+	 */
+	JdbcUserRow(UserCustomTable table) {
+		super(table);
+	}
+
+}
@@ -0,0 +1,146 @@
+package mil.nga.geopackage.user;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User columnar iterator test
+ *
+ * @author osbornb
+ */
+public class UserColumnarIteratorTest {
+
+	/**
+	 * Test batches read values into typed vectors with null bitmaps spanning
+	 * multiple words, cleared between batches
+	 */
+	@Test
+	public void testNulls() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			List<JdbcUserRow> rows = UserCoreDaoTest.createRows(dao, 130);
+			for (int i = 0; i < rows.size(); i++) {
+				JdbcUserRow row = rows.get(i);
+				if (i % 3 == 0) {
+					row.setValue("value", null);
+				}
+				if (i % 5 == 0) {
+					row.setValue("amount", null);
+				}
+				if (i % 7 == 0) {
+					row.setValue("name", null);
+				}
+				if (i < 100 && i % 2 == 0) {
+					row.setValue("data", null);
+				}
+			}
+			dao.insert(rows, 200, null);
+
+			String[] columns = new String[] { "value", "amount", "name",
+					"data" };
+			int batches = 0;
+			int offset = 0;
+			try (UserColumnarIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryColumnar(columns, 100)) {
+
+				UserColumnVector value = iterator.getVector("value");
+				UserColumnVector amount = iterator.getVector("amount");
+				UserColumnVector name = iterator.getVector("name");
+				UserColumnVector data = iterator.getVector("data");
+				TestCase.assertEquals(UserColumnVector.Type.LONG,
+						value.getType());
+				TestCase.assertEquals(UserColumnVector.Type.DOUBLE,
+						amount.getType());
+				TestCase.assertEquals(UserColumnVector.Type.STRING,
+						name.getType());
+				TestCase.assertEquals(UserColumnVector.Type.BLOB,
+						data.getType());
+				TestCase.assertEquals(2, value.getNulls().length);
+
+				for (UserColumnVector[] vectors : iterator) {
+					TestCase.assertSame(iterator.getVectors(), vectors);
+					int size = value.size();
+					TestCase.assertEquals(batches == 0 ? 100 : 30, size);
+					int valueNulls = 0;
+					int dataNulls = 0;
+					for (int i = 0; i < size; i++) {
+						int row = offset + i;
+
+						TestCase.assertEquals(row % 3 == 0, value.isNull(i));
+						TestCase.assertEquals(row % 3 == 0 ? 0 : row,
+								value.getLong(i));
+						TestCase.assertEquals(row % 3 == 0,
+								(value.getNulls()[i >>> 6] & (1L << i)) != 0);
+
+						TestCase.assertEquals(row % 5 == 0, amount.isNull(i));
+						TestCase.assertEquals(row % 5 == 0 ? 0.0 : row / 2.0,
+								amount.getDouble(i));
+
+						TestCase.assertEquals(row % 7 == 0, name.isNull(i));
+						TestCase.assertEquals(row % 7 == 0 ? null : "row" + row,
+								name.getString(i));
+
+						boolean dataNull = row < 100 && row % 2 == 0;
+						TestCase.assertEquals(dataNull, data.isNull(i));
+						if (dataNull) {
+							TestCase.assertNull(data.getBlob(i));
+						} else {
+							TestCase.assertEquals((byte) row,
+									data.getBlob(i)[0]);
+						}
+
+						if (value.isNull(i)) {
+							valueNulls++;
+						}
+						if (dataNull) {
+							dataNulls++;
+						}
+					}
+					TestCase.assertEquals(valueNulls, value.getNullCount());
+					TestCase.assertEquals(dataNulls, data.getNullCount());
+					for (int i = size; i < 128; i++) {
+						TestCase.assertFalse(data.isNull(i));
+					}
+					offset += size;
+					batches++;
+				}
+			}
+			TestCase.assertEquals(2, batches);
+			TestCase.assertEquals(130, offset);
+		}
+	}
+
+	/**
+	 * Test an unknown query column closes the result before failing
+	 */
+	@Test
+	public void testUnknownColumn() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(UserCoreDaoTest.createRows(dao, 3), 100, null);
+
+			JdbcUserResult result = dao.queryForAll();
+			try {
+				new UserColumnarIterator<>(dao, false,
+						new String[] { "name", "missing" }, null, result, 0,
+						10);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+			TestCase.assertTrue(result.isClosed());
+		}
+	}
+
+}
@@ -0,0 +1,811 @@
+package mil.nga.geopackage.user;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.GeoPackageCoreConnection;
+import mil.nga.geopackage.db.GeoPackageStatement;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.db.JdbcStatement;
+import mil.nga.geopackage.db.QueryResultCache;
+import mil.nga.geopackage.db.StatementCache;
+import mil.nga.geopackage.io.GeoPackageProgress;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User core DAO test against connections with and without compiled
+ * statements
+ *
+ * @author osbornb
+ */
+public class UserCoreDaoTest {
+
+	/**
+	 * Test generated DAO queries lease compiled statements from the
+	 * connection statement cache, reusing them by SQL
+	 */
+	@Test
+	public void testStatementLeases() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			connection.setCompiledStatements(true);
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			long id = dao.insert(dao.newRow("a", 1));
+			dao.insert(dao.newRow("b", 2));
+
+			StatementCache cache = connection.getStatementCache();
+			cache.resetStatistics();
+
+			TestCase.assertEquals("a", dao.queryForIdRow(id).getValue("name"));
+			TestCase.assertEquals("b",
+					dao.queryForIdRow(id + 1).getValue("name"));
+			TestCase.assertEquals(1, cache.getMisses());
+			TestCase.assertEquals(1, cache.getHits());
+
+			TestCase.assertEquals(2, dao.count());
+			TestCase.assertEquals(2, dao.count());
+			TestCase.assertEquals(1, dao.count("value > ?",
+					new String[] { "1" }));
+			TestCase.assertEquals(3, cache.getMisses());
+			TestCase.assertEquals(2, cache.getHits());
+
+			JdbcUserResult result = dao.queryForEq("name", "b");
+			try {
+				TestCase.assertTrue(result.moveToNext());
+				TestCase.assertEquals(id + 1, result.getId());
+				TestCase.assertFalse(result.moveToNext());
+			} finally {
+				result.close();
+			}
+			TestCase.assertEquals(4, cache.getMisses());
+			TestCase.assertEquals(0, cache.getEvictions());
+
+			String sql = "SELECT name FROM test WHERE id = ?";
+			GeoPackageStatement statement = connection.leaseStatement(sql);
+			TestCase.assertTrue(statement instanceof JdbcStatement);
+			PreparedStatement prepared = ((JdbcStatement) statement)
+					.getStatement();
+			statement.close();
+			statement = connection.leaseStatement(sql);
+			TestCase.assertSame(prepared,
+					((JdbcStatement) statement).getStatement());
+			statement.close();
+		}
+	}
+
+	/**
+	 * Test connections without compiled statements query with the bound
+	 * argument query methods and do not lease from the statement cache
+	 */
+	@Test
+	public void testUncompiledStatements() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			long id = dao.insert(dao.newRow("a", 1));
+			dao.insert(dao.newRow("b", 2));
+
+			StatementCache cache = connection.getStatementCache();
+			cache.resetStatistics();
+
+			TestCase.assertEquals("b",
+					dao.queryForIdRow(id + 1).getValue("name"));
+			TestCase.assertTrue(connection.getLastSql().contains("?"));
+			TestCase.assertEquals(1, dao.count("value > ?",
+					new String[] { "1" }));
+			TestCase.assertTrue(connection.getLastSql().endsWith("?"));
+			TestCase.assertEquals(2L,
+					(long) dao.max("value", "name > ?", new String[] { "a" }));
+			TestCase.assertTrue(connection.getLastSql().endsWith("?"));
+
+			TestCase.assertEquals(0, cache.getMisses());
+			TestCase.assertEquals(0, cache.getHits());
+			TestCase.assertEquals(0, cache.size());
+		}
+	}
+
+	/**
+	 * Test bulk upserts insert new rows, update conflicting rows, and return
+	 * the changed row counts
+	 */
+	@Test
+	public void testUpsert() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			long id = dao.insert(dao.newRow("a", 1));
+
+			JdbcUserRow existing = dao.newRow("a2", 10);
+			existing.setId(id, true);
+			List<JdbcUserRow> rows = new ArrayList<>();
+			rows.add(existing);
+			rows.add(dao.newRow("b", 2));
+			rows.add(dao.newRow("c", 3));
+
+			TestCase.assertEquals(3, dao.upsert(rows));
+			TestCase.assertEquals(3, dao.count());
+			JdbcUserRow updated = dao.queryForIdRow(id);
+			TestCase.assertEquals("a2", updated.getValue("name"));
+			TestCase.assertEquals(10L, updated.getValue("value"));
+
+			connection.execSQL(
+					"CREATE UNIQUE INDEX test_name ON test (name)");
+			rows.clear();
+			rows.add(dao.newRow("b", 20));
+			rows.add(dao.newRow("d", 4));
+			TestCase.assertEquals(2, dao.upsert(rows, 1, null, "name"));
+			TestCase.assertEquals(4, dao.count());
+			TestCase.assertEquals(1,
+					dao.count("name = ? AND value = ?",
+							new String[] { "b", "20" }));
+		}
+	}
+
+	/**
+	 * Test batch updates write only the modified columns and return the
+	 * changed row counts
+	 */
+	@Test
+	public void testBatchUpdate() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(dao.newRow("a", 1));
+			dao.insert(dao.newRow("b", 2));
+
+			List<JdbcUserRow> rows = new ArrayList<>();
+			JdbcUserResult result = dao.queryForAll();
+			try {
+				while (result.moveToNext()) {
+					rows.add(result.getRow());
+				}
+			} finally {
+				result.close();
+			}
+
+			rows.get(0).setValue("value", 100);
+			connection.execSQL("UPDATE test SET name = 'z' WHERE id = "
+					+ rows.get(0).getId());
+
+			JdbcUserRow missing = dao.newRow("m", 0);
+			missing.setId(99, true);
+			rows.add(missing);
+
+			TestCase.assertEquals(1, dao.update(rows));
+			JdbcUserRow updated = dao.queryForIdRow(rows.get(0).getId());
+			TestCase.assertEquals(100L, updated.getValue("value"));
+			TestCase.assertEquals("z", updated.getValue("name"));
+			TestCase.assertEquals(0, rows.get(0).getModifiedIndices().length);
+
+			rows.get(1).setValue("amount", 2.5);
+			TestCase.assertEquals(1, dao.update(rows));
+			TestCase.assertEquals(2.5,
+					dao.queryForIdRow(rows.get(1).getId()).getValue("amount"));
+		}
+	}
+
+	/**
+	 * Test batch inserts bind rows to a reused insert statement in
+	 * transaction chunks and return the inserted ids
+	 */
+	@Test
+	public void testBatchInsert() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			connection.setCompiledStatements(true);
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			List<JdbcUserRow> rows = createRows(dao, 5);
+
+			StatementCache cache = connection.getStatementCache();
+			cache.resetStatistics();
+			long[] ids = dao.insert(rows, 2, null);
+
+			TestCase.assertEquals(5, ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				TestCase.assertEquals(i + 1, ids[i]);
+				TestCase.assertEquals(ids[i], rows.get(i).getId());
+			}
+			TestCase.assertEquals(1, cache.getMisses());
+			TestCase.assertEquals(4, cache.getHits());
+			TestCase.assertEquals(5, dao.count());
+			TestCase.assertFalse(connection.inTransaction());
+
+			JdbcUserRow duplicate = dao.newRow("duplicate", 0);
+			duplicate.setId(3, true);
+			rows = createRows(dao, 4);
+			rows.add(3, duplicate);
+			try {
+				dao.insert(rows, 2, null);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+			TestCase.assertFalse(connection.inTransaction());
+			TestCase.assertEquals(7, dao.count());
+			TestCase.assertTrue(rows.get(1).hasId());
+			TestCase.assertFalse(rows.get(2).hasId());
+			TestCase.assertEquals(3, duplicate.getId());
+		}
+	}
+
+	/**
+	 * Test batch inserts without compiled statements insert each row with the
+	 * DAO insert and reset the ids of rolled back rows
+	 */
+	@Test
+	public void testBatchInsertUncompiled() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			UserCustomTable table = JdbcUserDao.create(connection, "test")
+					.getTable();
+			final int[] inserts = new int[1];
+			JdbcUserDao dao = new JdbcUserDao(connection, table) {
+				@Override
+				public long insert(JdbcUserRow row) {
+					inserts[0]++;
+					return super.insert(row);
+				}
+			};
+
+			List<JdbcUserRow> rows = createRows(dao, 5);
+			long[] ids = dao.insert(rows, 2, null);
+			TestCase.assertEquals(5, inserts[0]);
+			TestCase.assertEquals(5, ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				TestCase.assertEquals(i + 1, ids[i]);
+				TestCase.assertEquals(ids[i], rows.get(i).getId());
+			}
+			TestCase.assertEquals(0, connection.getStatementCache().size());
+
+			JdbcUserRow duplicate = dao.newRow("duplicate", 0);
+			duplicate.setId(3, true);
+			rows = createRows(dao, 4);
+			rows.add(3, duplicate);
+			try {
+				dao.insert(rows, 2, null);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+			TestCase.assertEquals(7, dao.count());
+			TestCase.assertEquals(6, rows.get(0).getId());
+			TestCase.assertEquals(7, rows.get(1).getId());
+			TestCase.assertFalse(rows.get(2).hasId());
+			TestCase.assertEquals(3, duplicate.getId());
+
+			rows = createRows(dao, 10);
+			ids = dao.insert(rows, 2, new CancelProgress(3, true));
+			TestCase.assertEquals(2, ids.length);
+			TestCase.assertEquals(9, dao.count());
+			TestCase.assertTrue(rows.get(1).hasId());
+			TestCase.assertFalse(rows.get(2).hasId());
+			TestCase.assertFalse(rows.get(3).hasId());
+		}
+	}
+
+	/**
+	 * Test cancelled batch inserts keep committed chunks and roll back the
+	 * uncommitted chunk when the progress requests cleanup
+	 */
+	@Test
+	public void testBatchInsertCancel() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+
+			long[] ids = dao.insert(createRows(dao, 10), 2,
+					new CancelProgress(3, true));
+			TestCase.assertEquals(2, ids.length);
+			TestCase.assertEquals(2, dao.count());
+			TestCase.assertFalse(connection.inTransaction());
+
+			ids = dao.insert(createRows(dao, 10).iterator(), 2,
+					new CancelProgress(3, false));
+			TestCase.assertEquals(3, ids.length);
+			TestCase.assertEquals(5, dao.count());
+			TestCase.assertEquals(dao.queryForIdRow(ids[2]).getId(), ids[2]);
+
+			dao.beginTransaction();
+			ids = dao.insert(createRows(dao, 3), 1, null);
+			TestCase.assertTrue(connection.inTransaction());
+			dao.failTransaction();
+			TestCase.assertEquals(3, ids.length);
+			TestCase.assertEquals(5, dao.count());
+		}
+	}
+
+	/**
+	 * Test key queries bind the keys as a single json_each argument
+	 */
+	@Test
+	public void testQueryInJsonEach() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(createRows(dao, 5), 100, null);
+
+			TestCase.assertTrue(connection.supportsJsonEach());
+			int executions = connection.getExecutions();
+			TestCase.assertEquals(Arrays.asList(2L, 4L),
+					queryIds(dao.queryForIds(new long[] { 4, 2, 9 })));
+			TestCase.assertEquals(1, connection.getExecutions() - executions);
+			TestCase.assertEquals(Arrays.asList(1L, 3L, 4L),
+					queryIds(dao.queryIn(
+							Arrays.asList("row3", "row0", "it's", "row2"),
+							"name")));
+			TestCase.assertEquals(Arrays.asList(2L), queryIds(
+					dao.queryIn(Arrays.asList(1, "x"), "value")));
+			TestCase.assertEquals(0, keyTables(connection));
+		}
+	}
+
+	/**
+	 * Test key queries load a temporary key table without json_each and for
+	 * blob keys
+	 */
+	@Test
+	public void testQueryInKeyTable() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(createRows(dao, 5), 100, null);
+
+			TestCase.assertEquals(Arrays.asList(2L, 5L),
+					queryIds(dao.queryIn(Arrays.asList(new byte[] { 4 },
+							new byte[] { 1 }, new byte[] { 9 }), "data")));
+			TestCase.assertEquals(1, keyTables(connection));
+
+			connection.setJsonEach(false);
+			TestCase.assertEquals(Arrays.asList(1L, 3L), queryIds(
+					dao.queryForIds(new long[] { 3, 1, 3, 7 })));
+			TestCase.assertEquals(Arrays.asList(2L, 5L),
+					queryIds(dao.queryIn(Arrays.asList("row4", "it's", "row1"),
+							"name")));
+			TestCase.assertFalse(connection.inTransaction());
+
+			List<Long> keys = new ArrayList<>();
+			for (long id = 1; id <= 1000; id++) {
+				keys.add(id);
+			}
+			TestCase.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L),
+					queryIds(dao.queryIn(keys, "id")));
+		}
+	}
+
+	/**
+	 * Test key queries of no keys return no rows without a key table
+	 */
+	@Test
+	public void testQueryInEmpty() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(createRows(dao, 3), 100, null);
+
+			TestCase.assertTrue(queryIds(dao.queryForIds(new long[0]))
+					.isEmpty());
+			connection.setJsonEach(false);
+			TestCase.assertTrue(
+					queryIds(dao.queryIn(new ArrayList<>(), "name")).isEmpty());
+			TestCase.assertEquals(0, keyTables(connection));
+		}
+	}
+
+	/**
+	 * Test key tables of closed results are dropped by the next key query and
+	 * by dropping the key tables
+	 */
+	@Test
+	public void testKeyTableCleanup() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			connection.setJsonEach(false);
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(createRows(dao, 3), 100, null);
+
+			queryIds(dao.queryForIds(new long[] { 1 }));
+			TestCase.assertEquals(1, keyTables(connection));
+			queryIds(dao.queryForIds(new long[] { 2 }));
+			TestCase.assertEquals(1, keyTables(connection));
+
+			dao.dropKeyTables();
+			TestCase.assertEquals(0, keyTables(connection));
+			TestCase.assertEquals(3, dao.count());
+		}
+	}
+
+	/**
+	 * Read and close the result ids
+	 *
+	 * @param result
+	 *            result
+	 * @return ids
+	 */
+	private static List<Long> queryIds(JdbcUserResult result) {
+		List<Long> ids = new ArrayList<>();
+		try {
+			while (result.moveToNext()) {
+				ids.add(result.getId());
+			}
+		} finally {
+			result.close();
+		}
+		return ids;
+	}
+
+	/**
+	 * Count the temporary key tables
+	 *
+	 * @param connection
+	 *            connection
+	 * @return key tables
+	 */
+	private static int keyTables(JdbcConnection connection) {
+		return ((Number) connection.querySingleResult(
+				"SELECT COUNT(*) FROM sqlite_temp_master WHERE type = 'table' AND name LIKE 'gpkg_query_keys_%'",
+				null)).intValue();
+	}
+
+	/**
+	 * Test DAO updates and inserts invalidate the cached rows read on the
+	 * same connection
+	 */
+	@Test
+	public void testRowCacheWrites() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.enableRowCache(10);
+			dao.setRowCacheValidationInterval(TimeUnit.HOURS.toMillis(1));
+			long id = dao.insert(dao.newRow("a", 1));
+
+			JdbcUserRow cached = dao.queryForIdRowCached(id);
+			TestCase.assertEquals(1L, cached.getValue("value"));
+			TestCase.assertSame(cached, dao.queryForIdRowCached(id));
+
+			JdbcUserRow row = dao.queryForIdRow(id);
+			row.setValue("value", 2);
+			TestCase.assertEquals(1, dao.update(row));
+			cached = dao.queryForIdRowCached(id);
+			TestCase.assertEquals(2L, cached.getValue("value"));
+
+			TestCase.assertEquals(1, dao.deleteById(id));
+			TestCase.assertNull(dao.queryForIdRowCached(id));
+			JdbcUserRow reinserted = dao.newRow("b", 3);
+			reinserted.setId(id, true);
+			TestCase.assertEquals(id, dao.insert(reinserted));
+			TestCase.assertEquals("b",
+					dao.queryForIdRowCached(id).getValue("name"));
+		}
+	}
+
+	/**
+	 * Test DAO writes invalidate with exact change counts, tables with
+	 * triggers invalidate all results, and untracked writes are detected on
+	 * the validation interval
+	 */
+	@Test
+	public void testResultCache() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao a = JdbcUserDao.create(connection, "a");
+			JdbcUserDao b = JdbcUserDao.create(connection, "b");
+			long id = a.insert(a.newRow("a", 1));
+			b.insert(b.newRow("b", 1));
+
+			QueryResultCache cache = connection.enableResultCache(10);
+			cache.setValidationInterval(0);
+			TestCase.assertEquals(1, a.count());
+			TestCase.assertEquals(1, b.count());
+			TestCase.assertEquals(2, cache.size());
+
+			// Batch updates of missing rows change no rows
+			JdbcUserRow row = a.queryForIdRow(id);
+			row.setValue("value", 2);
+			JdbcUserRow missing = a.newRow("m", 0);
+			missing.setId(99, true);
+			missing.setValue("value", 3);
+			TestCase.assertEquals(1, a.update(Arrays.asList(row, missing)));
+			TestCase.assertEquals(1, cache.size());
+			cache.resetStatistics();
+			TestCase.assertEquals(1, b.count());
+			TestCase.assertEquals(1, cache.getHits());
+
+			// Writes to tables with triggers invalidate all results
+			connection.execSQL("CREATE TRIGGER a_insert AFTER INSERT ON a "
+					+ "BEGIN INSERT INTO b (name) VALUES (NEW.name); END");
+			TestCase.assertEquals(1, b.count());
+			a.insert(a.newRow("c", 1));
+			TestCase.assertEquals(0, cache.size());
+			TestCase.assertEquals(2, b.count());
+			a.insert(a.newRow("d", 1));
+			TestCase.assertEquals(3, b.count());
+			TestCase.assertEquals(3, a.count());
+			cache.resetStatistics();
+			TestCase.assertEquals(3, b.count());
+			TestCase.assertEquals(1, cache.getHits());
+
+			// Untracked writes are detected when validation is due
+			cache.setValidationInterval(TimeUnit.HOURS.toMillis(1));
+			connection.execSQL("DELETE FROM b");
+			TestCase.assertEquals(3, b.count());
+			cache.setValidationInterval(0);
+			TestCase.assertEquals(0, b.count());
+		}
+	}
+
+	/**
+	 * Test approximate counts use the sqlite_stat1 row estimate of analyzed
+	 * tables, sample rowid ranges of large unanalyzed tables, and count small
+	 * tables exactly
+	 */
+	@Test
+	public void testCountApproximate() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao analyzed = JdbcUserDao.create(connection, "analyzed");
+			analyzed.insert(createRows(analyzed, 20), 100, null);
+			connection.execSQL("CREATE INDEX analyzed_value ON analyzed (value)");
+			connection.execSQL("ANALYZE analyzed");
+			TestCase.assertEquals(20, analyzed.countApproximate());
+			connection.execSQL(
+					"UPDATE sqlite_stat1 SET stat = '12345 3' WHERE tbl = 'analyzed'");
+			TestCase.assertEquals(12345, analyzed.countApproximate());
+			TestCase.assertEquals(20, analyzed.count());
+
+			// Every fourth rowid across a span larger than the samples
+			JdbcUserDao sparse = JdbcUserDao.create(connection, "sparse");
+			connection.execSQL("INSERT INTO sparse (id, name) "
+					+ "WITH RECURSIVE n(i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM n WHERE i < 24999) "
+					+ "SELECT i * 4 + 1, 'row' FROM n");
+			TestCase.assertEquals(25000, sparse.count());
+			int executions = connection.getExecutions();
+			long approximate = sparse.countApproximate();
+			TestCase.assertTrue(approximate != 25000);
+			TestCase.assertTrue(Math.abs(approximate - 25000) < 250);
+			TestCase.assertTrue(connection.getExecutions()
+					- executions > GeoPackageCoreConnection.APPROXIMATE_SAMPLES);
+
+			JdbcUserDao small = JdbcUserDao.create(connection, "small");
+			small.insert(createRows(small, 7), 100, null);
+			small.deleteById(3);
+			TestCase.assertEquals(6, small.countApproximate());
+
+			JdbcUserDao empty = JdbcUserDao.create(connection, "empty");
+			TestCase.assertEquals(0, empty.countApproximate());
+		}
+	}
+
+	/**
+	 * Test parallel streams split the id range across supplied DAOs on
+	 * separate connections and keep the id encounter order
+	 *
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testParallelStream() throws IOException {
+
+		File file = File.createTempFile("parallel", ".gpkg");
+		String url = "jdbc:sqlite:" + file.getAbsolutePath();
+		List<JdbcConnection> connections = Collections
+				.synchronizedList(new ArrayList<>());
+		try (JdbcConnection connection = new JdbcConnection(url)) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(createRows(dao, 100), 100, null);
+
+			Supplier<JdbcUserDao> daos = () -> {
+				JdbcConnection reader = new JdbcConnection(url);
+				connections.add(reader);
+				return new JdbcUserDao(reader, dao.getTable());
+			};
+
+			List<Long> ids;
+			try (Stream<JdbcUserRow> stream = dao.parallelStream(daos, false,
+					dao.getColumnNames(), null, null, 10)) {
+				ids = stream.map(JdbcUserRow::getId)
+						.collect(Collectors.toList());
+			}
+			TestCase.assertEquals(100, ids.size());
+			for (int i = 0; i < ids.size(); i++) {
+				TestCase.assertEquals(i + 1, ids.get(i).longValue());
+			}
+			TestCase.assertTrue(connections.size() > 1);
+			TestCase.assertTrue(connections.size() <= 10);
+			for (JdbcConnection reader : connections) {
+				TestCase.assertEquals(1, reader.getExecutions());
+			}
+
+			int splits = connections.size();
+			try (Stream<JdbcUserRow> stream = dao.parallelStream(daos,
+					"value >= ?", new String[] { "50" })) {
+				ids = stream.map(JdbcUserRow::getId)
+						.collect(Collectors.toList());
+			}
+			TestCase.assertEquals(50, ids.size());
+			TestCase.assertEquals(51L, ids.get(0).longValue());
+			TestCase.assertEquals(100L, ids.get(49).longValue());
+			TestCase.assertEquals(splits + 1, connections.size());
+
+			try (Stream<JdbcUserRow> stream = dao.parallelStream(daos,
+					"value < ?", new String[] { "0" })) {
+				TestCase.assertEquals(0, stream.count());
+			}
+			TestCase.assertEquals(splits + 1, connections.size());
+
+		} finally {
+			for (JdbcConnection reader : connections) {
+				reader.close();
+			}
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test asynchronous DAO reads require and run on supplied reader DAOs
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testAsync() throws Exception {
+
+		File file = File.createTempFile("async", ".gpkg");
+		String url = "jdbc:sqlite:" + file.getAbsolutePath();
+		List<JdbcConnection> connections = Collections
+				.synchronizedList(new ArrayList<>());
+		try (JdbcConnection connection = new JdbcConnection(url)) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(createRows(dao, 5), 100, null);
+
+			try {
+				dao.countAsync();
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+
+			ThreadLocal<JdbcUserDao> reader = ThreadLocal.withInitial(() -> {
+				JdbcConnection readerConnection = new JdbcConnection(url);
+				connections.add(readerConnection);
+				return new JdbcUserDao(readerConnection, dao.getTable());
+			});
+			dao.setReaderDaos(reader::get);
+
+			int executions = connection.getExecutions();
+			CompletableFuture<Integer> count = dao.countAsync("value > ?",
+					new String[] { "1" });
+			CompletableFuture<JdbcUserRow> row = dao.queryForIdRowAsync(2);
+			CompletableFuture<List<JdbcUserRow>> rows = dao
+					.queryForAllRowsAsync();
+			TestCase.assertEquals(3, count.get().intValue());
+			TestCase.assertEquals("row1", row.get().getValue("name"));
+			TestCase.assertEquals(5, rows.get().size());
+			TestCase.assertEquals(executions, connection.getExecutions());
+			TestCase.assertFalse(connections.isEmpty());
+
+		} finally {
+			for (JdbcConnection readerConnection : connections) {
+				readerConnection.close();
+			}
+			file.delete();
+		}
+	}
+
+	/**
+	 * Progress cancelled after a number of rows
+	 */
+	private static class CancelProgress implements GeoPackageProgress {
+
+		/**
+		 * Rows before cancelling
+		 */
+		private final int rows;
+
+		/**
+		 * Cleanup on cancel flag
+		 */
+		private final boolean cleanup;
+
+		/**
+		 * Progress
+		 */
+		private int progress = 0;
+
+		/**
+		 * Constructor
+		 *
+		 * @param rows
+		 *            rows before cancelling
+		 * @param cleanup
+		 *            cleanup on cancel
+		 */
+		CancelProgress(int rows, boolean cleanup) {
+			this.rows = rows;
+			this.cleanup = cleanup;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setMax(int max) {
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void addProgress(int progress) {
+			this.progress += progress;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isActive() {
+			return progress < rows;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean cleanupOnCancel() {
+			return cleanup;
+		}
+
+	}
+
+	/**
+	 * Create new rows
+	 *
+	 * @param dao
+	 *            DAO
+	 * @param count
+	 *            number of rows
+	 * @return rows
+	 */
+	static List<JdbcUserRow> createRows(JdbcUserDao dao, int count) {
+		List<JdbcUserRow> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			JdbcUserRow row = dao.newRow("row" + i, i);
+			row.setValue("amount", i / 2.0);
+			row.setValue("data", new byte[] { (byte) i });
+			rows.add(row);
+		}
+		return rows;
+	}
+
+}
@@ -0,0 +1,244 @@
+package mil.nga.geopackage.user;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.JdbcConnection;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User keyset iterator test
+ *
+ * @author osbornb
+ */
+public class UserKeysetIteratorTest {
+
+	/**
+	 * Test primary key iteration resumes after a saved id
+	 */
+	@Test
+	public void testResumeId() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			dao.insert(UserCoreDaoTest.createRows(dao, 25), 100, null);
+
+			List<Long> ids = new ArrayList<>();
+			long lastId;
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks(10)) {
+				for (int i = 0; i < 12; i++) {
+					ids.add(iterator.next().getId());
+				}
+				lastId = iterator.getLastId();
+			}
+			TestCase.assertEquals(12, lastId);
+
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks(10)) {
+				iterator.seek(lastId);
+				for (JdbcUserRow row : iterator) {
+					ids.add(row.getId());
+				}
+			}
+
+			TestCase.assertEquals(25, ids.size());
+			for (int i = 0; i < ids.size(); i++) {
+				TestCase.assertEquals(i + 1, (long) ids.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Test key column iteration resumes after a saved key and id, continuing
+	 * within equal key values across pages and skipping null keys
+	 */
+	@Test
+	public void testResumeKey() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			JdbcUserDao dao = JdbcUserDao.create(connection, "test");
+			List<JdbcUserRow> rows = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				rows.add(dao.newRow("row" + i, (19 - i) / 3));
+			}
+			rows.add(dao.newRow("null", null));
+			dao.insert(rows, 100, null);
+
+			List<Long> expected = new ArrayList<>();
+			for (Object id : connection.querySingleColumnResults(
+					"SELECT id FROM test WHERE value IS NOT NULL ORDER BY value, id",
+					null)) {
+				expected.add(((Number) id).longValue());
+			}
+			TestCase.assertEquals(20, expected.size());
+
+			List<Long> ids = new ArrayList<>();
+			Object lastKey;
+			Long lastId;
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks("value", 4)) {
+				for (int i = 0; i < 5; i++) {
+					ids.add(iterator.next().getId());
+				}
+				lastKey = iterator.getLastKey();
+				lastId = iterator.getLastId();
+			}
+			TestCase.assertEquals(1L, ((Number) lastKey).longValue());
+			TestCase.assertEquals(expected.get(4), lastId);
+
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks("value", 4)) {
+				iterator.seek(lastKey, lastId);
+				for (JdbcUserRow row : iterator) {
+					ids.add(row.getId());
+				}
+			}
+
+			TestCase.assertEquals(expected, ids);
+		}
+	}
+
+	/**
+	 * Test key column iteration of a table without a primary key requires a
+	 * unique, non partial key column index
+	 */
+	@Test
+	public void testUniqueKey() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			List<UserCustomColumn> columns = new ArrayList<>();
+			columns.add(UserCustomColumn.createColumn("code",
+					GeoPackageDataType.INTEGER));
+			columns.add(UserCustomColumn.createColumn("name",
+					GeoPackageDataType.TEXT));
+			JdbcUserDao dao = JdbcUserDao.create(connection,
+					new UserCustomTable("codes", columns));
+			for (int i = 0; i < 10; i++) {
+				connection.executeUpdate(
+						"INSERT INTO codes (code, name) VALUES (?, ?)",
+						new Object[] { i % 2 == 0 ? i : 100 - i, "code" + i });
+			}
+
+			try {
+				dao.queryForKeysetChunks(3);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+
+			connection.execSQL("CREATE INDEX codes_code ON codes (code)");
+			try {
+				dao.queryForKeysetChunks("code", 3);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+
+			connection.execSQL(
+					"CREATE UNIQUE INDEX codes_code_partial ON codes (code) WHERE code < 50");
+			try {
+				dao.queryForKeysetChunks("code", 3);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+
+			connection.execSQL(
+					"CREATE UNIQUE INDEX codes_code_name ON codes (code, name)");
+			try {
+				dao.queryForKeysetChunks("code", 3);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+
+			connection.execSQL(
+					"CREATE UNIQUE INDEX codes_code_unique ON codes (code)");
+			List<Long> codes = new ArrayList<>();
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks("code", 3)) {
+				for (JdbcUserRow row : iterator) {
+					codes.add(((Number) row.getValue("code")).longValue());
+				}
+			}
+			TestCase.assertEquals(10, codes.size());
+			for (int i = 1; i < codes.size(); i++) {
+				TestCase.assertTrue(codes.get(i - 1) < codes.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Test date time key iteration binds the stored key text, continuing
+	 * after date times stored without milliseconds, and blob key columns are
+	 * rejected
+	 */
+	@Test
+	public void testDateTimeKey() {
+
+		try (JdbcConnection connection = new JdbcConnection()) {
+
+			List<UserCustomColumn> columns = new ArrayList<>();
+			columns.add(UserCustomColumn.createPrimaryKeyColumn("id"));
+			columns.add(UserCustomColumn.createColumn("time",
+					GeoPackageDataType.DATETIME));
+			columns.add(UserCustomColumn.createColumn("data",
+					GeoPackageDataType.BLOB));
+			JdbcUserDao dao = JdbcUserDao.create(connection,
+					new UserCustomTable("times", columns));
+			for (int i = 0; i < 10; i++) {
+				connection.executeUpdate(
+						"INSERT INTO times (time) VALUES (?)",
+						new Object[] { "2020-01-01T00:00:0" + (9 - i) / 2
+								+ "Z" });
+			}
+
+			List<Long> expected = new ArrayList<>();
+			for (Object id : connection.querySingleColumnResults(
+					"SELECT id FROM times ORDER BY time, id", null)) {
+				expected.add(((Number) id).longValue());
+			}
+
+			List<Long> ids = new ArrayList<>();
+			Object lastKey;
+			Long lastId;
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks("time", 3)) {
+				for (int i = 0; i < 4; i++) {
+					ids.add(iterator.next().getId());
+				}
+				lastKey = iterator.getLastKey();
+				lastId = iterator.getLastId();
+			}
+			TestCase.assertEquals("2020-01-01T00:00:01Z", lastKey);
+
+			try (UserKeysetIterator<UserCustomColumn, UserCustomTable, JdbcUserRow, JdbcUserResult> iterator = dao
+					.queryForKeysetChunks("time", 3)) {
+				iterator.seek(lastKey, lastId);
+				for (JdbcUserRow row : iterator) {
+					ids.add(row.getId());
+					TestCase.assertTrue(ids.size() <= expected.size());
+				}
+			}
+			TestCase.assertEquals(expected, ids);
+
+			try {
+				dao.queryForKeysetChunks("data", 3);
+				TestCase.fail("Expected exception");
+			} catch (GeoPackageException e) {
+				// expected
+			}
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package mil.nga.geopackage.user;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+
+/**
+ * User row cache test
+ *
+ * @author osbornb
+ */
+public class UserRowCacheTest {
+
+	/**
+	 * Test row
+	 */
+	private static class TestRow
+			extends UserCoreRow<UserCustomColumn, UserCustomTable> {
+
+		/**
+		 * Constructor
+		 */
+		TestRow() {
+			super(TABLE);
+		}
+
+	}
+
+	/**
+	 * Test table
+	 */
+	private static final UserCustomTable TABLE = new UserCustomTable("test",
+			Collections.singletonList(UserCustomColumn.createColumn("id",
+					GeoPackageDataType.INTEGER)));
+
+	/**
+	 * Test loading, least recently used eviction, invalidation, and
+	 * statistics
+	 */
+	@Test
+	public void testCache() {
+
+		UserRowCache<UserCustomColumn, UserCustomTable, TestRow> cache = new UserRowCache<>(
+				2, 1);
+		AtomicInteger loads = new AtomicInteger();
+
+		TestRow row1 = cache.get(1, (id) -> {
+			loads.incrementAndGet();
+			return new TestRow();
+		});
+		TestCase.assertSame(row1, cache.get(1, (id) -> null));
+		TestCase.assertNull(cache.get(3, (id) -> null));
+		TestCase.assertNull(cache.get(3));
+
+		cache.put(2, new TestRow());
+		TestCase.assertSame(row1, cache.get(1));
+		cache.put(4, new TestRow());
+		TestCase.assertNull(cache.get(2));
+		TestCase.assertSame(row1, cache.get(1));
+		TestCase.assertEquals(2, cache.size());
+		TestCase.assertEquals(1, cache.getEvictions());
+
+		TestCase.assertTrue(cache.invalidate(1));
+		TestCase.assertFalse(cache.invalidate(1));
+		TestCase.assertNotSame(row1, cache.get(1, (id) -> {
+			loads.incrementAndGet();
+			return new TestRow();
+		}));
+		cache.clear();
+		TestCase.assertEquals(0, cache.size());
+
+		TestCase.assertEquals(2, loads.get());
+		TestCase.assertEquals(3, cache.getLoads());
+		TestCase.assertEquals(3, cache.getHits());
+		TestCase.assertEquals(5, cache.getMisses());
+	}
+
+	/**
+	 * Test concurrent requests for the same id share a single load
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testConcurrentLoad() throws Exception {
+
+		UserRowCache<UserCustomColumn, UserCustomTable, TestRow> cache = new UserRowCache<>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<TestRow>> futures = new ArrayList<>();
+			futures.add(executor.submit(() -> cache.get(7, (id) -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return new TestRow();
+			})));
+			TestCase.assertTrue(loading.await(10, TimeUnit.SECONDS));
+			for (int i = 1; i < threads; i++) {
+				futures.add(executor.submit(() -> cache.get(7, (id) -> {
+					loads.incrementAndGet();
+					return new TestRow();
+				})));
+			}
+			release.countDown();
+
+			TestRow row = futures.get(0).get(10, TimeUnit.SECONDS);
+			for (Future<TestRow> future : futures) {
+				TestCase.assertSame(row, future.get(10, TimeUnit.SECONDS));
+			}
+			TestCase.assertEquals(1, loads.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+package mil.nga.geopackage.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.MemoryResult;
+import mil.nga.geopackage.db.ResultUtils;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomColumns;
+
+/**
+ * User row decoder test
+ *
+ * @author osbornb
+ */
+public class UserRowDecoderTest {
+
+	/**
+	 * Column data types
+	 */
+	private static final GeoPackageDataType[] DATA_TYPES = new GeoPackageDataType[] {
+			GeoPackageDataType.INTEGER, GeoPackageDataType.BOOLEAN,
+			GeoPackageDataType.DOUBLE, GeoPackageDataType.DATETIME,
+			GeoPackageDataType.BLOB, GeoPackageDataType.TEXT };
+
+	/**
+	 * Row values
+	 */
+	private static final Object[][] VALUES = new Object[][] {
+			{ 1L, 1L, 1.5, "2020-01-02T03:04:05.678Z", new byte[] { 1 },
+					"a" },
+			{ 2L, 0L, null, "invalid", null, "b" },
+			{ null, null, 2.5, null, new byte[] { 2 }, null } };
+
+	/**
+	 * Test statically typed columns are decoded without per cell field type
+	 * checks and match the dynamic values
+	 */
+	@Test
+	public void testStaticTypes() {
+
+		MemoryResult result = new MemoryResult(VALUES);
+		UserRowDecoder<UserCustomColumn> decoder = new UserRowDecoder<>(
+				columns());
+		List<Object[]> rows = decode(result, decoder);
+
+		TestCase.assertEquals(DATA_TYPES.length, result.getTypeChecks());
+		assertValues(rows);
+
+		Object[] nulls = rows.get(2);
+		TestCase.assertNull(nulls[0]);
+		TestCase.assertNull(nulls[1]);
+		TestCase.assertNull(nulls[3]);
+		TestCase.assertEquals(2.5, nulls[2]);
+	}
+
+	/**
+	 * Test dynamically typed columns check the field type of every cell
+	 */
+	@Test
+	public void testDynamicTypes() {
+
+		MemoryResult result = new MemoryResult(VALUES);
+		UserRowDecoder<UserCustomColumn> decoder = new UserRowDecoder<>(
+				columns());
+		decoder.setDynamicTypes(true);
+		TestCase.assertTrue(decoder.isDynamicTypes());
+		List<Object[]> rows = decode(result, decoder);
+
+		TestCase.assertEquals(DATA_TYPES.length * VALUES.length,
+				result.getTypeChecks());
+		assertValues(rows);
+	}
+
+	/**
+	 * Test a column whose first row field type differs from the data type
+	 * storage class is dynamically typed
+	 */
+	@Test
+	public void testMixedColumn() {
+
+		Object[][] values = new Object[][] { { "text" }, { 3L }, { null } };
+		List<UserCustomColumn> columns = new ArrayList<>();
+		columns.add(UserCustomColumn.createColumn(0, "value",
+				GeoPackageDataType.INTEGER));
+		MemoryResult result = new MemoryResult(values);
+		UserRowDecoder<UserCustomColumn> decoder = new UserRowDecoder<>(
+				new UserCustomColumns("test", columns));
+
+		int[] columnTypes = new int[1];
+		Object[] row = new Object[1];
+		result.moveToNext();
+		decoder.decode(result, columnTypes, row);
+		TestCase.assertEquals("text", row[0]);
+		result.moveToNext();
+		decoder.decode(result, columnTypes, row);
+		TestCase.assertEquals(ResultUtils.FIELD_TYPE_INTEGER, columnTypes[0]);
+		TestCase.assertEquals(3L, row[0]);
+		result.moveToNext();
+		decoder.decode(result, columnTypes, row);
+		TestCase.assertEquals(ResultUtils.FIELD_TYPE_NULL, columnTypes[0]);
+		TestCase.assertNull(row[0]);
+		TestCase.assertEquals(values.length, result.getTypeChecks());
+	}
+
+	/**
+	 * Test epoch millisecond dates, including null dates of a statically
+	 * typed column
+	 */
+	@Test
+	public void testEpochMillisDates() {
+
+		MemoryResult result = new MemoryResult(VALUES);
+		UserRowDecoder<UserCustomColumn> decoder = new UserRowDecoder<>(
+				columns());
+		decoder.setEpochMillisDates(true);
+		List<Object[]> rows = decode(result, decoder);
+
+		TestCase.assertEquals(1577934245678L, rows.get(0)[3]);
+		TestCase.assertEquals("invalid", rows.get(1)[3]);
+		TestCase.assertNull(rows.get(2)[3]);
+	}
+
+	/**
+	 * Create the test columns
+	 *
+	 * @return columns
+	 */
+	private static UserCustomColumns columns() {
+		List<UserCustomColumn> columns = new ArrayList<>();
+		for (int i = 0; i < DATA_TYPES.length; i++) {
+			columns.add(UserCustomColumn.createColumn(i, "column" + i,
+					DATA_TYPES[i]));
+		}
+		return new UserCustomColumns("test", columns);
+	}
+
+	/**
+	 * Decode the result rows, verifying the column types
+	 *
+	 * @param result
+	 *            result
+	 * @param decoder
+	 *            row decoder
+	 * @return row values
+	 */
+	private static List<Object[]> decode(MemoryResult result,
+			UserRowDecoder<UserCustomColumn> decoder) {
+		List<Object[]> rows = new ArrayList<>();
+		while (result.moveToNext()) {
+			int[] columnTypes = new int[DATA_TYPES.length];
+			Object[] values = new Object[DATA_TYPES.length];
+			decoder.decode(result, columnTypes, values);
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] == null) {
+					TestCase.assertEquals(ResultUtils.FIELD_TYPE_NULL,
+							columnTypes[i]);
+				} else {
+					TestCase.assertTrue(
+							columnTypes[i] != ResultUtils.FIELD_TYPE_NULL);
+				}
+			}
+			rows.add(values);
+		}
+		return rows;
+	}
+
+	/**
+	 * Assert the decoded rows match the dynamically read values
+	 *
+	 * @param rows
+	 *            decoded rows
+	 */
+	private static void assertValues(List<Object[]> rows) {
+		MemoryResult result = new MemoryResult(VALUES);
+		for (Object[] row : rows) {
+			TestCase.assertTrue(result.moveToNext());
+			for (int i = 0; i < row.length; i++) {
+				Object value = ResultUtils.getValue(result, i, DATA_TYPES[i]);
+				if (value instanceof byte[]) {
+					TestCase.assertTrue(
+							Arrays.equals((byte[]) value, (byte[]) row[i]));
+				} else {
+					TestCase.assertEquals(value, row[i]);
+				}
+			}
+		}
+	}
+
+}